@@ -0,0 +1,93 @@
+package org.fadesp.pagamentos_api.benchmark;
+
+import org.fadesp.pagamentos_api.PagamentosApiApplication;
+import org.fadesp.pagamentos_api.dto.ItemResultadoLote;
+import org.fadesp.pagamentos_api.dto.ResultadoAtualizacaoStatusLote;
+import org.fadesp.pagamentos_api.enums.StatusPagamento;
+import org.fadesp.pagamentos_api.model.Pagamento;
+import org.fadesp.pagamentos_api.service.PagamentoLoteService;
+import org.fadesp.pagamentos_api.service.PagamentoService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.fadesp.pagamentos_api.PagamentosDeTeste.novoPagamento;
+
+/**
+ * Tempo para levar {@value #QUANTIDADE} pagamentos pendentes a PROCESSADO_FALHA com um PATCH por ID e com a
+ * atualização em lote (um SELECT com lock e um UPDATE por chunk). Cada medição parte de pagamentos recém-criados.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class AtualizacaoStatusLoteBenchmark {
+
+    private static final int QUANTIDADE = 10_000;
+
+    private ConfigurableApplicationContext contexto;
+    private PagamentoService pagamentoService;
+    private PagamentoLoteService loteService;
+    private List<Long> pendentes;
+
+    @Setup(Level.Trial)
+    public void subirAplicacao() {
+        contexto = new SpringApplicationBuilder(PagamentosApiApplication.class)
+                .web(WebApplicationType.NONE)
+                .properties("spring.jpa.show-sql=false", "pagamentos.arquivamento.habilitado=false")
+                .run();
+        pagamentoService = contexto.getBean(PagamentoService.class);
+        loteService = contexto.getBean(PagamentoLoteService.class);
+    }
+
+    @Setup(Level.Iteration)
+    public void criarPendentes() {
+        List<Pagamento> lote = new ArrayList<>(QUANTIDADE);
+        for (int i = 0; i < QUANTIDADE; i++) {
+            lote.add(novoPagamento());
+        }
+        pendentes = loteService.criarPagamentosEmLote(lote).itens().stream().map(ItemResultadoLote::id).toList();
+    }
+
+    @TearDown(Level.Trial)
+    public void encerrarAplicacao() {
+        contexto.close();
+    }
+
+    @Benchmark
+    public Pagamento patchPorId() {
+        Pagamento atualizado = null;
+        for (Long id : pendentes) {
+            atualizado = pagamentoService.atualizarStatusPagamento(id, StatusPagamento.PROCESSADO_FALHA);
+        }
+        return atualizado;
+    }
+
+    @Benchmark
+    public ResultadoAtualizacaoStatusLote atualizacaoEmLote() {
+        ResultadoAtualizacaoStatusLote resultado = loteService.atualizarStatusEmLote(pendentes,
+                StatusPagamento.PROCESSADO_FALHA);
+        if (resultado.atualizados() != QUANTIDADE) {
+            throw new IllegalStateException("Atualização em lote deixou pagamentos pendentes");
+        }
+        return resultado;
+    }
+}
@@ -0,0 +1,94 @@
+package org.fadesp.pagamentos_api.benchmark;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.fadesp.pagamentos_api.PagamentosApiApplication;
+import org.fadesp.pagamentos_api.dto.PagamentoDTO;
+import org.fadesp.pagamentos_api.dto.Pagina;
+import org.fadesp.pagamentos_api.enums.StatusPagamento;
+import org.fadesp.pagamentos_api.service.CoalescenciaFiltros;
+import org.fadesp.pagamentos_api.service.PagamentoService;
+import org.fadesp.pagamentos_api.util.CpfCnpj;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Rajada de um job em lote: {@value #CLIENTES} clientes repetindo o mesmo filtro por status e código de débito
+ * sobre {@value #QUANTIDADE} pagamentos, sem coalescência, só juntando consultas em andamento e com micro-TTL de
+ * {@value #MICRO_TTL_MS} ms. O número de pedidos atendidos por consulta ao banco é impresso ao fim de cada modo.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Threads(CoalescenciaFiltrosBenchmark.CLIENTES)
+@Fork(1)
+public class CoalescenciaFiltrosBenchmark {
+
+    static final int CLIENTES = 64;
+    private static final long ID_INICIAL = 10_000_000L;
+    private static final int QUANTIDADE = 100_000;
+    private static final long MICRO_TTL_MS = 5;
+
+    @Param({"sem-coalescencia", "em-andamento", "micro-ttl"})
+    private String modo;
+
+    private ConfigurableApplicationContext contexto;
+    private SimpleMeterRegistry meterRegistry;
+    private CoalescenciaFiltros filtros;
+
+    @Setup(Level.Trial)
+    public void carregarMassaSintetica() {
+        contexto = new SpringApplicationBuilder(PagamentosApiApplication.class)
+                .web(WebApplicationType.NONE)
+                .properties("spring.jpa.show-sql=false", "pagamentos.arquivamento.habilitado=false")
+                .run();
+        List<Object[]> linhas = new ArrayList<>(QUANTIDADE);
+        for (int i = 0; i < QUANTIDADE; i++) {
+            linhas.add(new Object[]{ID_INICIAL + i, i % 50, CpfCnpj.paraChave(String.format("%011d", i % 10_000))});
+        }
+        contexto.getBean(JdbcTemplate.class).batchUpdate("INSERT INTO pagamento (id, codigo_debito, cpf_cnpj_chave, "
+                + "metodo_pagamento, cartao_final, valor, status, ativo, versao) VALUES (?, ?, ?, 'PIX', NULL, 10.00, "
+                + "'PENDENTE', TRUE, 0)", linhas);
+
+        meterRegistry = new SimpleMeterRegistry();
+        filtros = new CoalescenciaFiltros(contexto.getBean(PagamentoService.class), meterRegistry,
+                !modo.equals("sem-coalescencia"), modo.equals("micro-ttl") ? MICRO_TTL_MS : 0, 1_000);
+    }
+
+    @TearDown(Level.Trial)
+    public void encerrarAplicacao() {
+        double pedidos = meterRegistry.find("pagamentos.filtro.consultas").counters().stream()
+                .mapToDouble(Counter::count).sum();
+        double banco = meterRegistry.get("pagamentos.filtro.consultas").tag("origem", "banco").counter().count();
+        System.out.printf("%n%s: %,.0f consultas ao banco (%.1f pedidos por consulta)%n", modo, banco,
+                pedidos / banco);
+        contexto.close();
+    }
+
+    @Benchmark
+    public Pagina<PagamentoDTO> filtrar() {
+        return filtros.filtrarPagamentos(null, 7, null, StatusPagamento.PENDENTE, null, null, null, false, null, 500);
+    }
+}
@@ -0,0 +1,106 @@
+package org.fadesp.pagamentos_api.benchmark;
+
+import org.fadesp.pagamentos_api.PagamentosApiApplication;
+import org.fadesp.pagamentos_api.dto.PagamentoDTO;
+import org.fadesp.pagamentos_api.dto.Pagina;
+import org.fadesp.pagamentos_api.enums.StatusPagamento;
+import org.fadesp.pagamentos_api.model.Pagamento;
+import org.fadesp.pagamentos_api.service.PagamentoService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.StringJoiner;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.fadesp.pagamentos_api.PagamentosDeTeste.cpf;
+import static org.fadesp.pagamentos_api.PagamentosDeTeste.novoPagamento;
+
+/**
+ * Com o H2 em arquivo, a criação de pagamentos por {@value #CLIENTES} clientes concorrentes em um único banco e
+ * em 4 fragmentos (um arquivo cada), e o custo de um filtro sem CPF/CNPJ, que no caso
+ * fragmentado consulta todos os bancos e intercala os resultados.
+ */
+@State(Scope.Benchmark)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class FragmentacaoBenchmark {
+
+    static final int CLIENTES = 32;
+    private static final int PAGAMENTOS_INICIAIS = 2_000;
+
+    @Param({"1", "4"})
+    private int bancos;
+
+    private ConfigurableApplicationContext contexto;
+    private PagamentoService service;
+    private final AtomicInteger sequencia = new AtomicInteger();
+
+    @Setup(Level.Trial)
+    public void subirAplicacao() throws IOException {
+        Path diretorio = Files.createDirectories(Path.of("target", "medicao-fragmentacao"))
+                .resolve("execucao-" + System.currentTimeMillis()).toAbsolutePath();
+        String banco;
+        if (bancos == 1) {
+            banco = "spring.datasource.url=jdbc:h2:file:" + diretorio.resolve("unico");
+        } else {
+            StringJoiner urls = new StringJoiner(",", "pagamentos.fragmentacao.urls=", "");
+            for (int fragmento = 0; fragmento < bancos; fragmento++) {
+                urls.add("jdbc:h2:file:" + diretorio.resolve("fragmento-" + fragmento));
+            }
+            banco = urls.toString();
+        }
+        contexto = new SpringApplicationBuilder(PagamentosApiApplication.class)
+                .web(WebApplicationType.NONE)
+                .properties("spring.jpa.show-sql=false", "pagamentos.arquivamento.habilitado=false", banco)
+                .run();
+        service = contexto.getBean(PagamentoService.class);
+        for (int i = 0; i < PAGAMENTOS_INICIAIS; i++) {
+            criarPagamento();
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void encerrarAplicacao() {
+        contexto.close();
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.Throughput)
+    @OutputTimeUnit(TimeUnit.SECONDS)
+    @Threads(CLIENTES)
+    public Pagamento criarPagamento() {
+        return service.criarPagamento(novoPagamento(1, cpf(100_000_000 + sequencia.getAndIncrement())));
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.AverageTime)
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public Pagina<PagamentoDTO> filtrarPorStatus() {
+        Pagina<PagamentoDTO> pagina = service.filtrarPagamentos(null, null, null, StatusPagamento.PENDENTE, null,
+                false, null, 50);
+        if (pagina.itens().size() != 50) {
+            throw new IllegalStateException("Filtro retornou quantidade inesperada de pagamentos");
+        }
+        return pagina;
+    }
+}
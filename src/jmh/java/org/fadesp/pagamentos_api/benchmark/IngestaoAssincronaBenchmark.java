@@ -0,0 +1,137 @@
+package org.fadesp.pagamentos_api.benchmark;
+
+import org.fadesp.pagamentos_api.PagamentosApiApplication;
+import org.fadesp.pagamentos_api.excecao.FilaIngestaoCheiaException;
+import org.fadesp.pagamentos_api.model.Pagamento;
+import org.fadesp.pagamentos_api.service.IngestaoAssincronaPagamentos;
+import org.fadesp.pagamentos_api.service.PagamentoService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+import static org.fadesp.pagamentos_api.PagamentosDeTeste.novoPagamento;
+
+/**
+ * Tempo para {@value #CLIENTES} clientes concorrentes criarem {@value #QUANTIDADE} pagamentos com o H2 em
+ * arquivo, como no docker-compose: pela criação síncrona (um INSERT e um commit por requisição) e pela ingestão
+ * assíncrona (fila limitada e uma gravadora que faz um commit por grupo). A medição só termina quando o último
+ * pagamento está gravado, e não no último 202; recusas por fila cheia são repetidas após 1 ms e impressas ao fim.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(1)
+public class IngestaoAssincronaBenchmark {
+
+    private static final int QUANTIDADE = 20_000;
+    private static final int CLIENTES = 32;
+
+    @Param({"sincrona", "assincrona"})
+    private String caminho;
+
+    private ConfigurableApplicationContext contexto;
+    private JdbcTemplate jdbcTemplate;
+    private ExecutorService clientes;
+    private Consumer<Pagamento> criar;
+    private final AtomicInteger codigoDebito = new AtomicInteger();
+    private final AtomicLong recusas = new AtomicLong();
+
+    @Setup(Level.Trial)
+    public void subirAplicacao() throws IOException {
+        Path banco = Files.createDirectories(Path.of("target", "medicao-ingestao"))
+                .resolve("banco-" + System.currentTimeMillis()).toAbsolutePath();
+        contexto = new SpringApplicationBuilder(PagamentosApiApplication.class)
+                .web(WebApplicationType.NONE)
+                .properties("spring.jpa.show-sql=false", "pagamentos.arquivamento.habilitado=false",
+                        "pagamentos.ingestao-assincrona.habilitada=true", "spring.datasource.url=jdbc:h2:file:" + banco)
+                .run();
+        jdbcTemplate = contexto.getBean(JdbcTemplate.class);
+        clientes = Executors.newFixedThreadPool(CLIENTES);
+
+        if (caminho.equals("sincrona")) {
+            criar = contexto.getBean(PagamentoService.class)::criarPagamento;
+        } else {
+            IngestaoAssincronaPagamentos ingestao = contexto.getBean(IngestaoAssincronaPagamentos.class);
+            criar = pagamento -> enfileirarRepetindo(ingestao, pagamento);
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void encerrarAplicacao() {
+        if (recusas.get() > 0) {
+            System.out.printf("%n%,d recusas por fila cheia%n", recusas.get());
+        }
+        clientes.shutdown();
+        contexto.close();
+    }
+
+    @Benchmark
+    public int criarPagamentos() throws Exception {
+        int codigo = codigoDebito.incrementAndGet();
+        List<Future<?>> tarefas = new ArrayList<>(CLIENTES);
+        for (int c = 0; c < CLIENTES; c++) {
+            int porCliente = QUANTIDADE / CLIENTES + (c < QUANTIDADE % CLIENTES ? 1 : 0);
+            tarefas.add(clientes.submit(() -> {
+                for (int i = 0; i < porCliente; i++) {
+                    criar.accept(novoPagamento(codigo));
+                }
+            }));
+        }
+        for (Future<?> tarefa : tarefas) {
+            tarefa.get();
+        }
+
+        int gravados;
+        while ((gravados = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM pagamento WHERE codigo_debito = ?",
+                Integer.class, codigo)) < QUANTIDADE) {
+            Thread.sleep(1);
+        }
+        return gravados;
+    }
+
+    private void enfileirarRepetindo(IngestaoAssincronaPagamentos ingestao, Pagamento pagamento) {
+        while (true) {
+            try {
+                ingestao.enfileirar(pagamento);
+                return;
+            } catch (FilaIngestaoCheiaException e) {
+                recusas.incrementAndGet();
+                try {
+                    Thread.sleep(1);
+                } catch (InterruptedException interrompido) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+        }
+    }
+}
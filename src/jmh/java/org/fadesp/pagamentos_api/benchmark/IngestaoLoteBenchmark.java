@@ -0,0 +1,83 @@
+package org.fadesp.pagamentos_api.benchmark;
+
+import org.fadesp.pagamentos_api.PagamentosApiApplication;
+import org.fadesp.pagamentos_api.dto.ResultadoLote;
+import org.fadesp.pagamentos_api.model.Pagamento;
+import org.fadesp.pagamentos_api.service.PagamentoLoteService;
+import org.fadesp.pagamentos_api.service.PagamentoService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.fadesp.pagamentos_api.PagamentosDeTeste.novoPagamento;
+
+/**
+ * Linhas/segundo da criação unitária (um INSERT e um commit por pagamento) e da criação em lote (INSERTs
+ * agrupados, uma transação por chamada), com o contexto Spring e o H2 em memória.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class IngestaoLoteBenchmark {
+
+    private static final int ITENS_POR_LOTE = 1_000;
+
+    private ConfigurableApplicationContext contexto;
+    private PagamentoService pagamentoService;
+    private PagamentoLoteService loteService;
+
+    @Setup(Level.Trial)
+    public void subirAplicacao() {
+        contexto = new SpringApplicationBuilder(PagamentosApiApplication.class)
+                .web(WebApplicationType.NONE)
+                .properties("spring.jpa.show-sql=false", "pagamentos.arquivamento.habilitado=false")
+                .run();
+        pagamentoService = contexto.getBean(PagamentoService.class);
+        loteService = contexto.getBean(PagamentoLoteService.class);
+    }
+
+    @TearDown(Level.Trial)
+    public void encerrarAplicacao() {
+        contexto.close();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ITENS_POR_LOTE)
+    public Pagamento criarUmPorVez() {
+        Pagamento criado = null;
+        for (int i = 0; i < ITENS_POR_LOTE; i++) {
+            criado = pagamentoService.criarPagamento(novoPagamento(i));
+        }
+        return criado;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ITENS_POR_LOTE)
+    public ResultadoLote criarEmLote() {
+        List<Pagamento> lote = new ArrayList<>(ITENS_POR_LOTE);
+        for (int i = 0; i < ITENS_POR_LOTE; i++) {
+            lote.add(novoPagamento(i));
+        }
+        return loteService.criarPagamentosEmLote(lote);
+    }
+}
@@ -0,0 +1,125 @@
+package org.fadesp.pagamentos_api.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Tempo até a primeira requisição bem-sucedida (GET /pagamentos respondendo 200), contado a partir do início do
+ * processo, para a aplicação empacotada em cada modo de execução: o jar único, o perfil prod (sem springdoc), o
+ * jar extraído com AOT e o jar extraído com AOT e o arquivo CDS da execução de treino.
+ * <p>
+ * Depende dos artefatos do perfil inicializacao-rapida. Executar com:
+ * mvn -Pinicializacao-rapida -DskipTests package && mvn -Pjmh -DskipTests verify -Djmh.args=Inicializacao
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 1)
+@Measurement(iterations = 5)
+@Fork(1)
+public class InicializacaoBenchmark {
+
+    private static final Path JAR = Path.of("target", "pagamentos-api-0.0.1-SNAPSHOT.jar").toAbsolutePath();
+    private static final Path APLICACAO = Path.of("target", "aplicacao").toAbsolutePath();
+    private static final Duration ESPERA_MAXIMA = Duration.ofMinutes(2);
+
+    @Param({"jar-unico", "jar-unico-prod", "extraido-prod-aot", "extraido-prod-aot-cds"})
+    private String modo;
+
+    private final HttpClient http = HttpClient.newBuilder().connectTimeout(Duration.ofMillis(200)).build();
+    private List<String> argumentos;
+    private Process processo;
+
+    @Setup(Level.Trial)
+    public void conferirArtefatos() {
+        if (!Files.exists(APLICACAO.resolve("aplicacao.jsa"))) {
+            throw new IllegalStateException("Gere os artefatos antes: mvn -Pinicializacao-rapida -DskipTests package");
+        }
+        argumentos = switch (modo) {
+            case "jar-unico" -> List.of("-jar", JAR.toString());
+            case "jar-unico-prod" -> List.of("-Dspring.profiles.active=prod", "-jar", JAR.toString());
+            case "extraido-prod-aot" -> List.of("-Dspring.profiles.active=prod", "-Dspring.aot.enabled=true",
+                    "-jar", "aplicacao.jar");
+            default -> List.of("-XX:SharedArchiveFile=aplicacao.jsa", "-Dspring.profiles.active=prod",
+                    "-Dspring.aot.enabled=true", "-jar", "aplicacao.jar");
+        };
+    }
+
+    /** Encerra a aplicação fora da medição. */
+    @TearDown(Level.Iteration)
+    public void encerrarAplicacao() throws InterruptedException {
+        if (processo != null) {
+            processo.destroy();
+            if (!processo.waitFor(30, TimeUnit.SECONDS)) {
+                processo.destroyForcibly().waitFor();
+            }
+            processo = null;
+        }
+    }
+
+    @Benchmark
+    public int primeiraRequisicao() throws Exception {
+        int porta = portaLivre();
+        List<String> comando = new ArrayList<>();
+        comando.add(Path.of(System.getProperty("java.home"), "bin", "java").toString());
+        comando.add("-Dserver.port=" + porta);
+        comando.add("-Dpagamentos.cartao.chave-token=chave-de-medicao");
+        comando.addAll(argumentos);
+        URI primeiraPagina = URI.create("http://localhost:" + porta + "/pagamentos?tamanho=1");
+        HttpRequest requisicao = HttpRequest.newBuilder(primeiraPagina)
+                .timeout(Duration.ofSeconds(5))
+                .build();
+
+        long inicio = System.nanoTime();
+        processo = new ProcessBuilder(comando)
+                .directory(APLICACAO.toFile())
+                .redirectErrorStream(true)
+                .redirectOutput(ProcessBuilder.Redirect.DISCARD)
+                .start();
+        while (System.nanoTime() - inicio < ESPERA_MAXIMA.toNanos()) {
+            if (!processo.isAlive()) {
+                throw new IllegalStateException("A aplicação terminou antes de responder: " + comando);
+            }
+            try {
+                int status = http.send(requisicao, HttpResponse.BodyHandlers.discarding()).statusCode();
+                if (status == 200) {
+                    return status;
+                }
+            } catch (IOException ainda) {
+                // Porta ainda fechada: a aplicação não terminou de subir.
+            }
+            Thread.sleep(10);
+        }
+        throw new IllegalStateException("Sem resposta após " + ESPERA_MAXIMA + ": " + comando);
+    }
+
+    private static int portaLivre() throws IOException {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        }
+    }
+}
@@ -0,0 +1,103 @@
+package org.fadesp.pagamentos_api.benchmark;
+
+import org.fadesp.pagamentos_api.PagamentosApiApplication;
+import org.fadesp.pagamentos_api.dto.PagamentoDTO;
+import org.fadesp.pagamentos_api.enums.StatusPagamento;
+import org.fadesp.pagamentos_api.model.Pagamento;
+import org.fadesp.pagamentos_api.repository.PagamentoRepository;
+import org.fadesp.pagamentos_api.util.CpfCnpj;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Leitura de {@value #LIMITE} pagamentos pendentes em entidades gerenciadas (transação comum) e direto na projeção
+ * {@link PagamentoDTO} (transação somente leitura), sobre {@value #QUANTIDADE} linhas sintéticas. Os bytes
+ * alocados por consulta saem do profiler de GC ({@code gc.alloc.rate.norm}).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ProjecaoLeituraBenchmark {
+
+    private static final long ID_INICIAL = 10_000_000L;
+    private static final int QUANTIDADE = 100_000;
+    private static final int LIMITE = 10_000;
+
+    private static final Specification<Pagamento> SOMENTE_PENDENTES = (root, query, cb) -> cb.and(
+            cb.equal(root.get("status"), StatusPagamento.PENDENTE),
+            cb.greaterThanOrEqualTo(root.get("id"), ID_INICIAL));
+
+    private ConfigurableApplicationContext contexto;
+    private PagamentoRepository repository;
+    private TransactionTemplate leituraEscrita;
+    private TransactionTemplate somenteLeitura;
+
+    @Setup(Level.Trial)
+    public void carregarMassaSintetica() {
+        contexto = new SpringApplicationBuilder(PagamentosApiApplication.class)
+                .web(WebApplicationType.NONE)
+                .properties("spring.jpa.show-sql=false", "pagamentos.arquivamento.habilitado=false")
+                .run();
+        repository = contexto.getBean(PagamentoRepository.class);
+        PlatformTransactionManager transactionManager = contexto.getBean(PlatformTransactionManager.class);
+        leituraEscrita = new TransactionTemplate(transactionManager);
+        somenteLeitura = new TransactionTemplate(transactionManager);
+        somenteLeitura.setReadOnly(true);
+
+        List<Object[]> linhas = new ArrayList<>(QUANTIDADE);
+        for (int i = 0; i < QUANTIDADE; i++) {
+            linhas.add(new Object[]{ID_INICIAL + i, i % 5_000, CpfCnpj.paraChave(String.format("%011d", i % 10_000))});
+        }
+        contexto.getBean(JdbcTemplate.class).batchUpdate("INSERT INTO pagamento (id, codigo_debito, cpf_cnpj_chave, "
+                + "metodo_pagamento, cartao_final, valor, status, ativo, versao) VALUES (?, ?, ?, 'CARTAO_CREDITO', "
+                + "1111, 150.75, 'PENDENTE', TRUE, 0)", linhas);
+    }
+
+    @TearDown(Level.Trial)
+    public void encerrarAplicacao() {
+        contexto.close();
+    }
+
+    @Benchmark
+    public List<Pagamento> entidades() {
+        return conferir(leituraEscrita.execute(status -> repository.findBy(SOMENTE_PENDENTES,
+                consulta -> consulta.sortBy(Sort.by("id")).limit(LIMITE).all())));
+    }
+
+    @Benchmark
+    public List<PagamentoDTO> projecao() {
+        return conferir(somenteLeitura.execute(status -> repository.filtrarProjetado(SOMENTE_PENDENTES, LIMITE)));
+    }
+
+    private static <T> List<T> conferir(List<T> resultado) {
+        if (resultado.size() != LIMITE) {
+            throw new IllegalStateException("Consulta retornou quantidade inesperada de linhas");
+        }
+        return resultado;
+    }
+}
@@ -0,0 +1,110 @@
+package org.fadesp.pagamentos_api.benchmark;
+
+import com.sun.management.OperatingSystemMXBean;
+import org.fadesp.pagamentos_api.PagamentosApiApplication;
+import org.fadesp.pagamentos_api.enums.StatusPagamento;
+import org.fadesp.pagamentos_api.service.PagamentoService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.lang.management.ManagementFactory;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+import static org.fadesp.pagamentos_api.PagamentosDeTeste.novoPagamento;
+
+/**
+ * Caminho de rejeição sob uma rajada de retentativas: {@value #CLIENTES} clientes repetem, por HTTP, requisições
+ * que a API sempre recusa (status igual ao atual, pagamento inexistente e status inválido). Ao fim de cada
+ * iteração são impressos o tempo de CPU do processo por rejeição, que inclui a montagem da resposta de erro e o
+ * log, e os códigos HTTP recebidos.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Threads(RejeicaoBenchmark.CLIENTES)
+@Fork(1)
+public class RejeicaoBenchmark {
+
+    static final int CLIENTES = 16;
+
+    private final HttpClient http = HttpClient.newHttpClient();
+    private final Map<Integer, LongAdder> codigos = new ConcurrentHashMap<>();
+    private final OperatingSystemMXBean so = (OperatingSystemMXBean) ManagementFactory.getOperatingSystemMXBean();
+
+    private ConfigurableApplicationContext contexto;
+    private List<HttpRequest> recusadas;
+    private long cpuInicio;
+
+    @Setup(Level.Trial)
+    public void subirAplicacao() {
+        contexto = new SpringApplicationBuilder(PagamentosApiApplication.class)
+                .properties("server.port=0", "spring.jpa.show-sql=false", "pagamentos.arquivamento.habilitado=false")
+                .run();
+        PagamentoService service = contexto.getBean(PagamentoService.class);
+        Long id = service.criarPagamento(novoPagamento(1)).getId();
+        service.atualizarStatusPagamento(id, StatusPagamento.PROCESSADO_SUCESSO);
+
+        String base = "http://localhost:" + contexto.getEnvironment().getProperty("local.server.port");
+        recusadas = List.of(
+                patch(base + "/pagamentos/" + id + "/status?novoStatus=PROCESSADO_SUCESSO"),
+                patch(base + "/pagamentos/999999999/status?novoStatus=PROCESSADO_SUCESSO"),
+                patch(base + "/pagamentos/" + id + "/status?novoStatus=CANCELADO"));
+    }
+
+    private static HttpRequest patch(String uri) {
+        return HttpRequest.newBuilder(URI.create(uri)).method("PATCH", HttpRequest.BodyPublishers.noBody()).build();
+    }
+
+    @TearDown(Level.Trial)
+    public void encerrarAplicacao() {
+        contexto.close();
+    }
+
+    @Setup(Level.Iteration)
+    public void iniciarContagem() {
+        codigos.clear();
+        cpuInicio = so.getProcessCpuTime();
+    }
+
+    @TearDown(Level.Iteration)
+    public void imprimirCustoDeCpu() {
+        double cpuMicros = (so.getProcessCpuTime() - cpuInicio) / 1e3;
+        Map<Integer, Long> porCodigo = new TreeMap<>();
+        codigos.forEach((codigo, quantidade) -> porCodigo.put(codigo, quantidade.sum()));
+        long total = porCodigo.values().stream().mapToLong(Long::longValue).sum();
+        System.out.printf("%n%.0f µs de CPU por rejeição, códigos %s%n", cpuMicros / total, porCodigo);
+    }
+
+    @Benchmark
+    public int rejeitar() throws Exception {
+        HttpRequest requisicao = recusadas.get(ThreadLocalRandom.current().nextInt(recusadas.size()));
+        int codigo = http.send(requisicao, HttpResponse.BodyHandlers.discarding()).statusCode();
+        codigos.computeIfAbsent(codigo, chave -> new LongAdder()).increment();
+        return codigo;
+    }
+}
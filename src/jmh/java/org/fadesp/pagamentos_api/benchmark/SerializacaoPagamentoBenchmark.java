@@ -0,0 +1,95 @@
+package org.fadesp.pagamentos_api.benchmark;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import org.fadesp.pagamentos_api.dto.Pagina;
+import org.fadesp.pagamentos_api.dto.PagamentoDTO;
+import org.fadesp.pagamentos_api.enums.MetodoPagamento;
+import org.fadesp.pagamentos_api.enums.StatusPagamento;
+import org.fadesp.pagamentos_api.model.Pagamento;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Serialização e leitura das respostas de listagem ({@link Pagina} de {@link Pagamento}) em vários tamanhos, nos
+ * formatos negociáveis pela API (JSON, CBOR e Smile), com ObjectMappers configurados como os do Spring Boot.
+ * O tamanho da resposta em cada formato é impresso no início de cada combinação de parâmetros.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SerializacaoPagamentoBenchmark {
+
+    @Param({"10", "500", "10000"})
+    private int tamanho;
+
+    @Param({"json", "cbor", "smile"})
+    private String formato;
+
+    private ObjectMapper objectMapper;
+    private ObjectReader leitor;
+    private Pagina<PagamentoDTO> pagina;
+    private byte[] serializada;
+
+    @Setup
+    public void preparar() throws IOException {
+        objectMapper = switch (formato) {
+            case "cbor" -> Jackson2ObjectMapperBuilder.json().factory(new CBORFactory()).build();
+            case "smile" -> Jackson2ObjectMapperBuilder.json().factory(new SmileFactory()).build();
+            default -> Jackson2ObjectMapperBuilder.json().build();
+        };
+        leitor = objectMapper.readerFor(new TypeReference<Pagina<PagamentoDTO>>() { });
+        List<PagamentoDTO> itens = new ArrayList<>(tamanho);
+        for (int i = 0; i < tamanho; i++) {
+            itens.add(PagamentoDTO.de(pagamentoExemplo(i)));
+        }
+        pagina = new Pagina<>(itens, "MTIz");
+        serializada = objectMapper.writeValueAsBytes(pagina);
+        System.out.printf("%n%s, %d itens: %,d bytes%n", formato, tamanho, serializada.length);
+    }
+
+    static Pagamento pagamentoExemplo(int i) {
+        Pagamento pagamento = new Pagamento();
+        pagamento.setId((long) i + 1);
+        pagamento.setCodigoDebito(10_000 + i);
+        pagamento.setCpfCnpj("52998224725");
+        pagamento.setMetodoPagamento(MetodoPagamento.values()[i % MetodoPagamento.values().length]);
+        pagamento.setNumeroCartao("4111111111111111");
+        pagamento.setValor(new BigDecimal("150.75"));
+        pagamento.setStatus(StatusPagamento.values()[i % StatusPagamento.values().length]);
+        pagamento.setVersao(0L);
+        return pagamento;
+    }
+
+    @Benchmark
+    public byte[] serializarPagina() throws IOException {
+        return objectMapper.writeValueAsBytes(pagina);
+    }
+
+    @Benchmark
+    public Pagina<PagamentoDTO> lerPagina() throws IOException {
+        return leitor.readValue(serializada);
+    }
+}
@@ -0,0 +1,112 @@
+package org.fadesp.pagamentos_api.benchmark;
+
+import org.fadesp.pagamentos_api.PagamentosApiApplication;
+import org.fadesp.pagamentos_api.enums.StatusPagamento;
+import org.fadesp.pagamentos_api.model.Pagamento;
+import org.fadesp.pagamentos_api.repository.PagamentoRepository;
+import org.fadesp.pagamentos_api.service.PagamentoService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import static org.fadesp.pagamentos_api.PagamentosDeTeste.novoPagamento;
+
+/**
+ * Transições/segundo sob disputa de {@value #THREADS} threads em {@value #PAGAMENTOS} pagamentos: o UPDATE
+ * condicional contra o antigo ciclo findById + verificação em Java + save (protegido pelo @Version, com nova
+ * tentativa em conflito). Os alvos alternam PENDENTE e PROCESSADO_FALHA, um ciclo permitido pelas regras; a
+ * transição recusada pela regra de negócio conta como operação realizada.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Threads(TransicaoStatusBenchmark.THREADS)
+@Fork(1)
+public class TransicaoStatusBenchmark {
+
+    static final int THREADS = 8;
+    private static final int PAGAMENTOS = 16;
+    private static final StatusPagamento[] ALVOS = {StatusPagamento.PROCESSADO_FALHA, StatusPagamento.PENDENTE};
+
+    private ConfigurableApplicationContext contexto;
+    private PagamentoService service;
+    private PagamentoRepository repository;
+    private TransactionTemplate transactionTemplate;
+    private List<Long> ids;
+
+    @Setup(Level.Trial)
+    public void subirAplicacao() {
+        contexto = new SpringApplicationBuilder(PagamentosApiApplication.class)
+                .web(WebApplicationType.NONE)
+                .properties("spring.jpa.show-sql=false", "pagamentos.arquivamento.habilitado=false")
+                .run();
+        service = contexto.getBean(PagamentoService.class);
+        repository = contexto.getBean(PagamentoRepository.class);
+        transactionTemplate = contexto.getBean(TransactionTemplate.class);
+        ids = new ArrayList<>(PAGAMENTOS);
+        for (int i = 0; i < PAGAMENTOS; i++) {
+            ids.add(service.criarPagamento(novoPagamento()).getId());
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void encerrarAplicacao() {
+        contexto.close();
+    }
+
+    @Benchmark
+    public void updateCondicional() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        try {
+            service.atualizarStatusPagamento(ids.get(random.nextInt(PAGAMENTOS)), ALVOS[random.nextInt(ALVOS.length)]);
+        } catch (RuntimeException recusada) {
+            // Regra de negócio rejeitou a transição
+        }
+    }
+
+    @Benchmark
+    public void leituraModificacaoEscrita() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        Long id = ids.get(random.nextInt(PAGAMENTOS));
+        StatusPagamento novoStatus = ALVOS[random.nextInt(ALVOS.length)];
+        while (true) {
+            try {
+                transactionTemplate.executeWithoutResult(tx -> {
+                    Pagamento pagamento = repository.findById(id).orElseThrow();
+                    if (!novoStatus.origensPermitidas().contains(pagamento.getStatus())) {
+                        throw new IllegalStateException("Transição não permitida");
+                    }
+                    pagamento.setStatus(novoStatus);
+                    repository.save(pagamento);
+                });
+                return;
+            } catch (ObjectOptimisticLockingFailureException e) {
+                // Outra thread alterou o registro entre a leitura e a escrita; tenta novamente
+            } catch (IllegalStateException recusada) {
+                return;
+            }
+        }
+    }
+}
@@ -0,0 +1,36 @@
+package org.fadesp.pagamentos_api.controller;
+
+import org.fadesp.pagamentos_api.enums.StatusPagamento;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Conversão do parâmetro {@code novoStatus} do PATCH /pagamentos/{id}/status
+ * ({@code replace} + {@code toUpperCase} + {@code valueOf}).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PagamentoControllerBenchmark {
+
+    @Param({"PROCESSADO_SUCESSO", "processado-falha"})
+    private String novoStatus;
+
+    @Benchmark
+    public StatusPagamento converterStatus() {
+        return PagamentoController.converterStatus(novoStatus);
+    }
+}
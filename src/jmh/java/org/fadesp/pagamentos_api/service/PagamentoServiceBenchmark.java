@@ -0,0 +1,42 @@
+package org.fadesp.pagamentos_api.service;
+
+import org.fadesp.pagamentos_api.enums.StatusPagamento;
+import org.fadesp.pagamentos_api.model.Pagamento;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Custos por requisição do {@link PagamentoService} que não dependem do banco:
+ * montagem da {@link Specification} do filtro. A validação de CPF/CNPJ é medida em
+ * {@code CpfCnpjBenchmark}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PagamentoServiceBenchmark {
+
+    private final String cpfSomenteDigitos = "52998224725";
+
+    @Benchmark
+    public Specification<Pagamento> montarEspecificacaoCompleta() {
+        return PagamentoService.montarEspecificacao(12345, cpfSomenteDigitos, StatusPagamento.PENDENTE, true, 1000L);
+    }
+
+    @Benchmark
+    public Specification<Pagamento> montarEspecificacaoSomenteStatus() {
+        return PagamentoService.montarEspecificacao(null, null, StatusPagamento.PENDENTE, true, null);
+    }
+}
@@ -0,0 +1,52 @@
+package org.fadesp.pagamentos_api.util;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Validação de CPF/CNPJ: {@link CpfCnpj} contra a implementação anterior com {@code replaceAll},
+ * que só conferia o tamanho. Rodar com {@code -prof gc} para comparar a alocação por chamada.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CpfCnpjBenchmark {
+
+    @Param({"52998224725", "529.982.247-25", "11222333000181", "11.222.333/0001-81"})
+    private String documento;
+
+    @Benchmark
+    public String regex() {
+        if (documento == null || documento.isBlank()) {
+            throw new RuntimeException("CPF ou CNPJ não pode ser vazio.");
+        }
+        String somenteDigitos = documento.replaceAll("[^0-9]", "");
+        if (somenteDigitos.length() != 11 && somenteDigitos.length() != 14) {
+            throw new RuntimeException("CPF/CNPJ inválido. Deve conter 11 (CPF) ou 14 (CNPJ) dígitos numéricos.");
+        }
+        return somenteDigitos;
+    }
+
+    @Benchmark
+    public int verificar() {
+        return CpfCnpj.verificar(documento);
+    }
+
+    @Benchmark
+    public String normalizar() {
+        return CpfCnpj.normalizar(documento);
+    }
+}
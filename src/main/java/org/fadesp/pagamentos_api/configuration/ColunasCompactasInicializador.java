@@ -0,0 +1,105 @@
+package org.fadesp.pagamentos_api.configuration;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.persistence.EntityManagerFactory;
+import org.fadesp.pagamentos_api.fragmentacao.Fragmentacao;
+import org.fadesp.pagamentos_api.model.NumeroCartaoConverter;
+import org.fadesp.pagamentos_api.service.TokenizadorCartao;
+import org.fadesp.pagamentos_api.util.CpfCnpj;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Bancos criados antes das colunas compactas guardam o CPF/CNPJ e o número do cartão como texto, exatamente como
+ * recebidos ({@code cpf_cnpj} e {@code numero_cartao}). O {@code ddl-auto=update} cria as novas colunas
+ * ({@code cpf_cnpj_chave}, {@code cartao_final} e {@code cartao_token}) vazias; antes de aceitar requisições, este
+ * componente as preenche a partir das antigas, em lotes por ID, e em seguida remove as colunas e o índice antigos.
+ * <p>
+ * Se algum documento antigo não puder ser convertido (quantidade de dígitos diferente de 11 e 14), as colunas
+ * antigas são mantidas e a quantidade é registrada no log; a migração é retomada a cada inicialização. Com
+ * fragmentação, cada fragmento é migrado por sua vez.
+ */
+@Component
+public class ColunasCompactasInicializador {
+
+    private static final Logger log = LoggerFactory.getLogger(ColunasCompactasInicializador.class);
+
+    private static final int TAMANHO_LOTE = 1_000;
+    private static final NumeroCartaoConverter CARTAO = new NumeroCartaoConverter();
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TokenizadorCartao tokenizador;
+    private final Fragmentacao fragmentacao;
+
+    // A dependência da EntityManagerFactory garante que o schema (com as colunas novas) já foi atualizado.
+    public ColunasCompactasInicializador(JdbcTemplate jdbcTemplate, TokenizadorCartao tokenizador,
+                                         Fragmentacao fragmentacao, EntityManagerFactory entityManagerFactory) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.tokenizador = tokenizador;
+        this.fragmentacao = fragmentacao;
+    }
+
+    @PostConstruct
+    void migrar() {
+        fragmentacao.paraCada(fragmento -> {
+            migrar("PAGAMENTO", "IDX_PAGAMENTO_CPF_CNPJ_STATUS");
+            migrar("PAGAMENTO_ARQUIVADO", "IDX_PAGAMENTO_ARQUIVADO_CPF_CNPJ_STATUS");
+        });
+    }
+
+    private void migrar(String tabela, String indiceAntigo) {
+        Integer colunasAntigas = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM INFORMATION_SCHEMA.COLUMNS "
+                + "WHERE TABLE_NAME = ? AND COLUMN_NAME IN ('CPF_CNPJ', 'NUMERO_CARTAO')", Integer.class, tabela);
+        if (colunasAntigas == null || colunasAntigas < 2) {
+            return;
+        }
+
+        long aposId = 0;
+        long convertidos = 0;
+        long invalidos = 0;
+        while (true) {
+            List<Object[]> linhas = jdbcTemplate.query("SELECT id, cpf_cnpj, numero_cartao FROM " + tabela
+                            + " WHERE id > ? AND ((cpf_cnpj IS NOT NULL AND cpf_cnpj_chave IS NULL) "
+                            + "OR (numero_cartao IS NOT NULL AND cartao_final IS NULL)) ORDER BY id FETCH FIRST ? ROWS ONLY",
+                    (rs, i) -> new Object[]{rs.getLong(1), rs.getString(2), rs.getString(3)}, aposId, TAMANHO_LOTE);
+            if (linhas.isEmpty()) {
+                break;
+            }
+
+            List<Object[]> atualizacoes = new ArrayList<>(linhas.size());
+            for (Object[] linha : linhas) {
+                Long chave = null;
+                if (linha[1] != null) {
+                    try {
+                        chave = CpfCnpj.paraChave((String) linha[1]);
+                    } catch (RuntimeException e) {
+                        invalidos++;
+                    }
+                }
+                String numeroCartao = (String) linha[2];
+                atualizacoes.add(new Object[]{chave, CARTAO.convertToDatabaseColumn(numeroCartao),
+                        tokenizador.tokenizar(numeroCartao), linha[0]});
+            }
+            // COALESCE preserva o que já foi gravado pela aplicação nas colunas novas.
+            jdbcTemplate.batchUpdate("UPDATE " + tabela + " SET cpf_cnpj_chave = COALESCE(cpf_cnpj_chave, ?), "
+                    + "cartao_final = COALESCE(cartao_final, ?), cartao_token = COALESCE(cartao_token, ?) WHERE id = ?",
+                    atualizacoes);
+            convertidos += linhas.size();
+            aposId = (Long) linhas.get(linhas.size() - 1)[0];
+        }
+
+        if (invalidos > 0) {
+            log.warn("{} registros de {} com CPF/CNPJ fora do formato; colunas antigas mantidas.", invalidos, tabela);
+            return;
+        }
+        jdbcTemplate.execute("DROP INDEX IF EXISTS " + indiceAntigo);
+        jdbcTemplate.execute("ALTER TABLE " + tabela + " DROP COLUMN cpf_cnpj");
+        jdbcTemplate.execute("ALTER TABLE " + tabela + " DROP COLUMN numero_cartao");
+        log.info("{} registros de {} migrados para as colunas compactas.", convertidos, tabela);
+    }
+}
@@ -0,0 +1,33 @@
+package org.fadesp.pagamentos_api.configuration;
+
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.http.converter.smile.MappingJackson2SmileHttpMessageConverter;
+
+/**
+ * Além de JSON, os endpoints respondem e aceitam CBOR ({@code application/cbor}) e Smile
+ * ({@code application/x-jackson-smile}), escolhidos pelo {@code Accept} e pelo {@code Content-Type}. Nas listagens,
+ * o Smile referencia os nomes de campo já escritos em vez de repeti-los a cada item, e os dois gravam números
+ * (inclusive BigDecimal) em binário.
+ * <p>
+ * Os conversores usam o mesmo {@link Jackson2ObjectMapperBuilder} do Spring Boot que o JSON, com os mesmos módulos e
+ * propriedades {@code spring.jackson.*}. O conversor JSON vem antes deles na lista, então continua sendo o padrão
+ * quando o cliente não pede um formato ({@code Accept} ausente ou {@code *}{@code /*}).
+ */
+@Configuration
+public class FormatosBinariosConfig {
+
+    @Bean
+    public MappingJackson2CborHttpMessageConverter conversorCbor(Jackson2ObjectMapperBuilder builder) {
+        return new MappingJackson2CborHttpMessageConverter(builder.factory(new CBORFactory()).build());
+    }
+
+    @Bean
+    public MappingJackson2SmileHttpMessageConverter conversorSmile(Jackson2ObjectMapperBuilder builder) {
+        return new MappingJackson2SmileHttpMessageConverter(builder.factory(new SmileFactory()).build());
+    }
+}
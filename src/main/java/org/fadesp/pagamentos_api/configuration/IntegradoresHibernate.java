@@ -0,0 +1,31 @@
+package org.fadesp.pagamentos_api.configuration;
+
+import org.hibernate.integrator.spi.Integrator;
+import org.hibernate.jpa.boot.spi.IntegratorProvider;
+import org.hibernate.jpa.boot.spi.JpaSettings;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * O Hibernate aceita um único {@link IntegratorProvider}: cada {@code HibernatePropertiesCustomizer} que registra um
+ * {@link Integrator} o acrescenta aos já registrados, em qualquer ordem de execução.
+ */
+public final class IntegradoresHibernate {
+
+    private IntegradoresHibernate() {
+    }
+
+    public static void adicionar(Map<String, Object> propriedades, Integrator integrador) {
+        IntegratorProvider anterior = (IntegratorProvider) propriedades.get(JpaSettings.INTEGRATOR_PROVIDER);
+        propriedades.put(JpaSettings.INTEGRATOR_PROVIDER, (IntegratorProvider) () -> {
+            List<Integrator> integradores = new ArrayList<>();
+            if (anterior != null) {
+                integradores.addAll(anterior.getIntegrators());
+            }
+            integradores.add(integrador);
+            return integradores;
+        });
+    }
+}
@@ -0,0 +1,53 @@
+package org.fadesp.pagamentos_api.configuration;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.persistence.EntityManagerFactory;
+import org.fadesp.pagamentos_api.fragmentacao.Fragmentacao;
+import org.fadesp.pagamentos_api.model.Pagamento;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+/**
+ * Bancos criados quando o ID ainda era IDENTITY já possuem linhas, mas a sequência {@code pagamento_seq}
+ * nasce em 1. Antes de aceitar requisições, reposiciona a sequência acima do maior ID existente. Com fragmentação,
+ * cada fragmento tem a sua sequência, comparada ao maior valor local ({@code id / quantidade}) do fragmento.
+ */
+@Component
+public class SequenciaPagamentoInicializador {
+
+    private static final Logger log = LoggerFactory.getLogger(SequenciaPagamentoInicializador.class);
+
+    private final JdbcTemplate jdbcTemplate;
+    private final Fragmentacao fragmentacao;
+
+    // A dependência da EntityManagerFactory garante que o schema (tabela e sequência) já foi atualizado.
+    public SequenciaPagamentoInicializador(JdbcTemplate jdbcTemplate, Fragmentacao fragmentacao,
+                                           EntityManagerFactory entityManagerFactory) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.fragmentacao = fragmentacao;
+    }
+
+    @PostConstruct
+    void ajustarSequencia() {
+        fragmentacao.paraCada(this::ajustarSequencia);
+    }
+
+    private void ajustarSequencia(int fragmento) {
+        Long maiorId = jdbcTemplate.queryForObject("SELECT COALESCE(MAX(id), 0) FROM pagamento", Long.class);
+        if (maiorId != null) {
+            maiorId = Math.floorDiv(maiorId, (long) fragmentacao.quantidade());
+        }
+        Long proximoValor = jdbcTemplate.queryForObject(
+                "SELECT BASE_VALUE FROM INFORMATION_SCHEMA.SEQUENCES WHERE SEQUENCE_NAME = 'PAGAMENTO_SEQ'", Long.class);
+
+        if (maiorId != null && proximoValor != null && maiorId >= proximoValor) {
+            // Com o otimizador "pooled", o valor lido da sequência é o topo do bloco alocado.
+            long reinicio = maiorId + Pagamento.TAMANHO_ALOCACAO_ID;
+            jdbcTemplate.execute("ALTER SEQUENCE pagamento_seq RESTART WITH " + reinicio);
+            log.info("Sequência pagamento_seq do fragmento {} reposicionada para {} (maior valor existente: {}).",
+                    fragmento, reinicio, maiorId);
+        }
+    }
+}
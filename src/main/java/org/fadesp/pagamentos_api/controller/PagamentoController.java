@@ -1,7 +1,24 @@
 package org.fadesp.pagamentos_api.controller;
 
+import com.fasterxml.jackson.databind.JsonNode;
+import org.fadesp.pagamentos_api.dto.AtualizacaoStatusLote;
+import org.fadesp.pagamentos_api.dto.ErroResposta;
+import org.fadesp.pagamentos_api.dto.LoteEventos;
+import org.fadesp.pagamentos_api.dto.PagamentoDTO;
+import org.fadesp.pagamentos_api.dto.Pagina;
+import org.fadesp.pagamentos_api.dto.ResultadoAtualizacaoStatusLote;
+import org.fadesp.pagamentos_api.dto.ResultadoLote;
+import org.fadesp.pagamentos_api.dto.ResumoPagamentos;
+import org.fadesp.pagamentos_api.dto.SituacaoIngestao;
 import org.fadesp.pagamentos_api.enums.StatusPagamento;
+import org.fadesp.pagamentos_api.evento.DespachanteEventosPagamento;
+import org.fadesp.pagamentos_api.excecao.DadosInvalidosException;
 import org.fadesp.pagamentos_api.model.Pagamento;
+import org.fadesp.pagamentos_api.service.AgregadosPagamento;
+import org.fadesp.pagamentos_api.service.CoalescenciaFiltros;
+import org.fadesp.pagamentos_api.service.IdempotenciaService;
+import org.fadesp.pagamentos_api.service.IngestaoAssincronaPagamentos;
+import org.fadesp.pagamentos_api.service.PagamentoLoteService;
 import org.fadesp.pagamentos_api.service.PagamentoService;
 
 import io.swagger.v3.oas.annotations.Operation;
@@ -13,19 +30,51 @@ import io.swagger.v3.oas.annotations.media.ExampleObject;
 import io.swagger.v3.oas.annotations.media.Schema;
 import io.swagger.v3.oas.annotations.tags.Tag;
 
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.InvalidMediaTypeException;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.context.request.async.DeferredResult;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.List;
+import java.util.Locale;
 
 @RestController
 @RequestMapping("/pagamentos")
 @Tag(name = "Pagamentos", description = "Gerenciamento de pagamentos da API")
 public class PagamentoController {
 
+    private static final int ESPERA_MAXIMA_EVENTOS_SEGUNDOS = 60;
+    private static final String PREFERENCIA_ASSINCRONA = "respond-async";
+    private static final MediaType SMILE = MediaType.parseMediaType("application/x-jackson-smile");
+
     private final PagamentoService service;
+    private final PagamentoLoteService loteService;
+    private final IdempotenciaService idempotencia;
+    private final AgregadosPagamento agregados;
+    private final DespachanteEventosPagamento despachanteEventos;
+    private final IngestaoAssincronaPagamentos ingestao;
+    private final CoalescenciaFiltros filtros;
 
-    public PagamentoController(PagamentoService service) {
+    public PagamentoController(PagamentoService service, PagamentoLoteService loteService,
+                               IdempotenciaService idempotencia, AgregadosPagamento agregados,
+                               DespachanteEventosPagamento despachanteEventos, IngestaoAssincronaPagamentos ingestao,
+                               CoalescenciaFiltros filtros) {
         this.service = service;
+        this.loteService = loteService;
+        this.idempotencia = idempotencia;
+        this.agregados = agregados;
+        this.despachanteEventos = despachanteEventos;
+        this.ingestao = ingestao;
+        this.filtros = filtros;
     }
 
     // --- Endpoint: POST /pagamentos (Criar) ---
@@ -36,6 +85,12 @@ public class PagamentoController {
                     content = @Content(mediaType = "application/json",
                             schema = @Schema(implementation = Pagamento.class))),
 
+            @ApiResponse(responseCode = "202", description = "Pagamento aceito pela ingestão assíncrona (Prefer: respond-async), com o ID reservado e o endereço da situação",
+                    content = @Content(mediaType = "application/json",
+                            schema = @Schema(implementation = SituacaoIngestao.class))),
+
+            @ApiResponse(responseCode = "503", description = "Fila da ingestão assíncrona cheia; repetir após o Retry-After"),
+
             @ApiResponse(responseCode = "400", description = "Dados do pagamento inválidos ou JSON malformado",
                     content = @Content(mediaType = "application/json",
                             schema = @Schema(implementation = Object.class),
@@ -52,8 +107,9 @@ public class PagamentoController {
                     ))
     })
     @PostMapping
-    @ResponseStatus(HttpStatus.CREATED)
-    public Pagamento criarPagamento(
+    public ResponseEntity<Object> criarPagamento(
+            @Parameter(description = "Chave opcional para tornar a criação idempotente: repetições com a mesma chave e o mesmo corpo devolvem a resposta original; com outro corpo, 409")
+            @RequestHeader(name = IdempotenciaService.CABECALHO, required = false) String idempotencyKey,
             @io.swagger.v3.oas.annotations.parameters.RequestBody(
                     description = "Dados do pagamento",
                     required = true,
@@ -63,7 +119,7 @@ public class PagamentoController {
                                     name = "ExemploPagamento",
                                     value = "{\n" +
                                             "  \"codigoDebito\": 12345,\n" +
-                                            "  \"cpfCnpj\": \"12345678901\",\n" +
+                                            "  \"cpfCnpj\": \"52998224725\",\n" +
                                             "  \"metodoPagamento\": \"CARTAO_CREDITO\",\n" +
                                             "  \"numeroCartao\": \"4111111111111111\",\n" +
                                             "  \"valor\": 150.75\n" +
@@ -71,17 +127,132 @@ public class PagamentoController {
                             )
                     )
             )
-            @org.springframework.web.bind.annotation.RequestBody Pagamento pagamento
+            @org.springframework.web.bind.annotation.RequestBody Pagamento pagamento,
+            @Parameter(description = "Com 'respond-async' e a ingestão assíncrona habilitada, o pagamento é aceito com 202 e gravado em grupo logo depois")
+            @RequestHeader(name = "Prefer", required = false) String prefer
     ) {
-        return service.criarPagamento(pagamento);
+        if (ingestao.habilitada() && prefer != null && prefer.toLowerCase(Locale.ROOT).contains(PREFERENCIA_ASSINCRONA)) {
+            // Com a fila cheia, a FilaIngestaoCheiaException vira 503 com Retry-After no TratadorExcecoes.
+            ResponseEntity<Object> aceito = idempotencia.executar(idempotencyKey, "POST /pagamentos", pagamento,
+                    HttpStatus.ACCEPTED, () -> ingestao.enfileirar(pagamento));
+            return ResponseEntity.status(aceito.getStatusCode()).headers(aceito.getHeaders())
+                    .header("Preference-Applied", PREFERENCIA_ASSINCRONA).body(situacaoAtual(aceito));
+        }
+        return idempotencia.executar(idempotencyKey, "POST /pagamentos", pagamento, HttpStatus.CREATED,
+                () -> service.criarPagamento(pagamento));
+    }
+
+    /**
+     * O 202 guardado com a Idempotency-Key é gravado antes do pagamento e diria {@code NA_FILA} para sempre; na
+     * repetição, ele serve só de ponteiro para a URL de situação, e a resposta traz a situação atual do pagamento.
+     */
+    private Object situacaoAtual(ResponseEntity<Object> aceito) {
+        boolean repeticao = "true".equals(aceito.getHeaders().getFirst(IdempotenciaService.CABECALHO_REPETICAO));
+        if (repeticao && aceito.getStatusCode().value() == HttpStatus.ACCEPTED.value()
+                && aceito.getBody() instanceof JsonNode corpo) {
+            return ingestao.consultar(corpo.path("id").asLong());
+        }
+        return aceito.getBody();
+    }
+
+    // --- Endpoint: GET /pagamentos/ingestao/{id} (Situação da ingestão assíncrona) ---
+    @Operation(summary = "Situação de um pagamento aceito de forma assíncrona",
+            description = "Para o ID devolvido com 202 por POST /pagamentos com Prefer: respond-async, informa se o pagamento ainda está na fila, já foi gravado (e pode ser lido em GET /pagamentos/{id}) ou falhou.")
+    @GetMapping("/ingestao/{id}")
+    public SituacaoIngestao consultarIngestao(@PathVariable Long id) {
+        return ingestao.consultar(id);
     }
 
-    // --- Endpoint: GET /pagamentos (Listar todos) ---
+    // --- Endpoint: POST /pagamentos/lote (Criar em lote) ---
+    @Operation(summary = "Criar pagamentos em lote",
+            description = "Recebe uma lista de pagamentos, valida todos os itens e grava os válidos em uma única transação, com INSERTs agrupados em lote. Retorna o resultado de cada item na ordem de envio.")
+    @ApiResponse(responseCode = "200", description = "Resultado de cada item do lote",
+            content = @Content(mediaType = "application/json",
+                    schema = @Schema(implementation = ResultadoLote.class)))
+    @PostMapping("/lote")
+    public ResponseEntity<Object> criarPagamentosEmLote(
+            @Parameter(description = "Chave opcional para tornar a criação do lote idempotente")
+            @RequestHeader(name = IdempotenciaService.CABECALHO, required = false) String idempotencyKey,
+            @io.swagger.v3.oas.annotations.parameters.RequestBody(
+                    description = "Lista de pagamentos",
+                    required = true
+            )
+            @org.springframework.web.bind.annotation.RequestBody List<Pagamento> pagamentos
+    ) {
+        return idempotencia.executar(idempotencyKey, "POST /pagamentos/lote", pagamentos, HttpStatus.OK,
+                () -> loteService.criarPagamentosEmLote(pagamentos));
+    }
+
+    // --- Endpoint: GET /pagamentos (Listar todos, paginado por cursor) ---
     @Operation(summary = "Listar todos os pagamentos",
-            description = "Retorna a lista completa de pagamentos cadastrados no sistema.")
+            description = "Retorna os pagamentos ativos em páginas ordenadas por ID. Use o 'proximoCursor' da resposta no parâmetro 'after' para buscar a página seguinte. A resposta traz um ETag fraco; com If-None-Match igual, a página não mudou e a resposta é 304 sem corpo.")
     @GetMapping
-    public List<Pagamento> listarPagamentos() {
-        return service.listarPagamentos();
+    public ResponseEntity<Pagina<PagamentoDTO>> listarPagamentos(
+            @Parameter(description = "Cursor opaco retornado na página anterior (opcional)")
+            @RequestParam(required = false) String after,
+            @Parameter(description = "Quantidade máxima de itens por página (1 a 500)", example = "50")
+            @RequestParam(defaultValue = "50") int tamanho,
+            @Parameter(description = "Consulta o arquivo (pagamentos inativos ou finalizados há mais tempo) em vez dos pagamentos ativos")
+            @RequestParam(defaultValue = "false") boolean arquivados) {
+        return comEtagFraco(service.listarPagamentos(after, tamanho, arquivados));
+    }
+
+    // --- Endpoint: GET /pagamentos/resumo (Totais) ---
+    @Operation(summary = "Resumo dos pagamentos",
+            description = "Retorna a quantidade e a soma dos valores por status, método de pagamento e ativo. Os totais são mantidos em memória e reconciliados periodicamente com o banco.")
+    @GetMapping("/resumo")
+    public ResumoPagamentos resumirPagamentos() {
+        return agregados.resumo();
+    }
+
+    // --- Endpoint: GET /pagamentos/eventos (Feed de alterações via SSE) ---
+    @Operation(summary = "Acompanhar alterações de pagamentos (SSE)",
+            description = "Stream Server-Sent Events com cada criação, mudança de status e inativação, na ordem em que foram confirmadas. O 'id' de cada evento é o cursor logo após ele (a última sequência de cada fragmento, separadas por '.'; com um único fragmento, a própria sequência): para retomar após uma queda, informe-o em 'desde' ou no cabeçalho Last-Event-ID. Sem nenhum dos dois, o stream começa pelos eventos que ainda vão ocorrer.")
+    @GetMapping(value = "/eventos", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter acompanharEventos(
+            @Parameter(description = "Cursor do último evento já recebido (opcional)", example = "42")
+            @RequestParam(required = false) String desde,
+            @Parameter(description = "Enviado automaticamente pelo EventSource ao reconectar")
+            @RequestHeader(name = "Last-Event-ID", required = false) String ultimoEvento) {
+        return despachanteEventos.assinar(desde != null ? desde : ultimoEvento);
+    }
+
+    // --- Endpoint: GET /pagamentos/eventos (Feed de alterações via long-poll) ---
+    @Operation(summary = "Ler alterações de pagamentos (long-poll)",
+            description = "Retorna os eventos posteriores a 'desde' assim que houver algum, ou uma lista vazia ao fim da espera. Use 'cursor' da resposta como 'desde' da próxima leitura.")
+    @GetMapping(value = "/eventos", produces = MediaType.APPLICATION_JSON_VALUE)
+    public DeferredResult<LoteEventos> lerEventos(
+            @Parameter(description = "Cursor do último evento já recebido (opcional)", example = "42")
+            @RequestParam(required = false) String desde,
+            @Parameter(description = "Quantidade máxima de eventos por resposta (1 a 500)", example = "100")
+            @RequestParam(defaultValue = "100") int tamanho,
+            @Parameter(description = "Tempo máximo de espera por um evento, em segundos (1 a 60)", example = "25")
+            @RequestParam(defaultValue = "25") int espera) {
+        if (tamanho < 1 || tamanho > PagamentoService.TAMANHO_PAGINA_MAXIMO) {
+            throw new DadosInvalidosException("Tamanho inválido. Deve estar entre 1 e " + PagamentoService.TAMANHO_PAGINA_MAXIMO + ".");
+        }
+        if (espera < 1 || espera > ESPERA_MAXIMA_EVENTOS_SEGUNDOS) {
+            throw new DadosInvalidosException("Espera inválida. Deve estar entre 1 e " + ESPERA_MAXIMA_EVENTOS_SEGUNDOS + " segundos.");
+        }
+        return despachanteEventos.aguardar(desde, tamanho, Duration.ofSeconds(espera));
+    }
+
+    // --- Endpoint: GET /pagamentos/{id} (Buscar por ID) ---
+    @Operation(summary = "Buscar pagamento por ID",
+            description = "Retorna um pagamento pelo seu ID. A consulta é servida por um cache em memória, invalidado a cada alteração do pagamento. O ETag é a versão do pagamento, com o sufixo do formato em CBOR e Smile (\"3-cbor\"); com If-None-Match igual ao ETag atual, a resposta é 304 sem corpo.")
+    @ApiResponse(responseCode = "304", description = "O pagamento não mudou desde o ETag informado em If-None-Match")
+    @GetMapping("/{id}")
+    public ResponseEntity<PagamentoDTO> buscarPagamento(@PathVariable Long id, WebRequest requisicao) {
+        // Com If-None-Match, compara só a versão: o 304 não carrega nem serializa o pagamento.
+        if (requisicao.getHeader(HttpHeaders.IF_NONE_MATCH) != null) {
+            String etag = etagForte(service.buscarVersao(id), requisicao.getHeader(HttpHeaders.ACCEPT));
+            if (requisicao.checkNotModified(etag)) {
+                return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).varyBy(HttpHeaders.ACCEPT).build();
+            }
+        }
+        PagamentoDTO pagamento = service.buscarPagamento(id);
+        return ResponseEntity.ok().eTag(etagForte(pagamento.versao(), requisicao.getHeader(HttpHeaders.ACCEPT)))
+                .varyBy(HttpHeaders.ACCEPT).body(pagamento);
     }
 
     // --- Endpoint: PATCH /pagamentos/{id}/status (Atualizar Status via URL Parameter) ---
@@ -91,16 +262,20 @@ public class PagamentoController {
             @ApiResponse(responseCode = "200", description = "Status atualizado com sucesso",
                     content = @Content(schema = @Schema(implementation = Pagamento.class))),
 
-            @ApiResponse(responseCode = "500", description = "Erro interno do servidor ou regra de negócio violada",
+            @ApiResponse(responseCode = "400", description = "Status inválido"),
+
+            @ApiResponse(responseCode = "404", description = "Pagamento não encontrado"),
+
+            @ApiResponse(responseCode = "409", description = "Regra de negócio violada pela transição",
                     content = @Content(mediaType = "application/json",
-                            schema = @Schema(implementation = Object.class),
+                            schema = @Schema(implementation = ErroResposta.class),
                             examples = @ExampleObject(
-                                    name = "Erro Padrão 500",
-
+                                    name = "Erro Padrão 409",
                                     value = "{\n" +
-                                            "  \"timestamp\": \"2025-11-09T19:31:30.247+00:00 (Data e Hora Atual)\",\n" +
-                                            "  \"status\": 500,\n" +
-                                            "  \"error\": \"Internal Server Error\",\n" +
+                                            "  \"timestamp\": \"2025-11-09T19:31:30.247Z (Data e Hora Atual)\",\n" +
+                                            "  \"status\": 409,\n" +
+                                            "  \"error\": \"Conflict\",\n" +
+                                            "  \"message\": \"Pagamento processado com sucesso. Não pode ser alterado.\",\n" +
                                             "  \"path\": \"/pagamentos/{id}/status\"\n" +
                                             "}"
                             )
@@ -112,36 +287,124 @@ public class PagamentoController {
             @Parameter(description = "Novo status do pagamento.", required = true, schema = @Schema(implementation = StatusPagamento.class))
             @RequestParam("novoStatus") String novoStatusStr) {
 
+        return service.atualizarStatusPagamento(id, converterStatus(novoStatusStr));
+    }
+
+    // --- Endpoint: PATCH /pagamentos/status (Atualizar status em lote) ---
+    @Operation(summary = "Atualizar o status de vários pagamentos",
+            description = "Leva todos os IDs informados para o mesmo status, com as mesmas regras de transição do PATCH individual. Retorna o resultado de cada ID: ATUALIZADO, NAO_ENCONTRADO ou REGRA_VIOLADA.")
+    @PatchMapping("/status")
+    public ResultadoAtualizacaoStatusLote atualizarStatusEmLote(
+            @org.springframework.web.bind.annotation.RequestBody AtualizacaoStatusLote atualizacao) {
+        if (atualizacao.novoStatus() == null) {
+            throw new DadosInvalidosException("Status inválido: null");
+        }
+        return loteService.atualizarStatusEmLote(atualizacao.ids(), converterStatus(atualizacao.novoStatus()));
+    }
+
+    /**
+     * Um ETag forte promete bytes idênticos, e JSON, CBOR e Smile do mesmo pagamento não são: os formatos binários
+     * levam o sufixo do formato ({@code "3-cbor"}), e o JSON continua só com a versão ({@code "3"}).
+     */
+    static String etagForte(long versao, String accept) {
+        String formato = formatoBinarioNegociado(accept);
+        return "\"" + versao + (formato == null ? "" : "-" + formato) + "\"";
+    }
+
+    // Mesma escolha dos conversores: pela ordem de qualidade do Accept, o primeiro tipo atendido; curingas e JSON
+    // ficam com o JSON, que vem antes dos binários na lista de conversores.
+    private static String formatoBinarioNegociado(String accept) {
+        if (accept == null || accept.isBlank()) {
+            return null;
+        }
+        List<MediaType> aceitos;
+        try {
+            aceitos = new ArrayList<>(MediaType.parseMediaTypes(accept));
+        } catch (InvalidMediaTypeException e) {
+            return null;
+        }
+        aceitos.sort(Comparator.comparingDouble(MediaType::getQualityValue).reversed());
+        for (MediaType aceito : aceitos) {
+            if (aceito.getQualityValue() == 0) {
+                break;
+            }
+            if (aceito.isWildcardSubtype() || MediaType.APPLICATION_JSON.isCompatibleWith(aceito)) {
+                return null;
+            }
+            if (MediaType.APPLICATION_CBOR.isCompatibleWith(aceito)) {
+                return "cbor";
+            }
+            if (SMILE.isCompatibleWith(aceito)) {
+                return "smile";
+            }
+        }
+        return null;
+    }
+
+    /**
+     * ETag fraco de uma página: a maior versão entre os itens e um hash dos pares (ID, versão) e do cursor. Só a
+     * maior versão não bastaria, porque a versão é contada por pagamento: uma alteração em um item que não tem a
+     * maior versão, ou a saída de um item da página, não a mudaria.
+     */
+    static String etagFraco(Pagina<PagamentoDTO> pagina) {
+        long maiorVersao = 0;
+        long hash = 0xcbf29ce484222325L;
+        for (PagamentoDTO item : pagina.itens()) {
+            long versao = item.versao() == null ? 0 : item.versao();
+            maiorVersao = Math.max(maiorVersao, versao);
+            hash = (hash ^ item.id()) * 0x100000001b3L;
+            hash = (hash ^ versao) * 0x100000001b3L;
+        }
+        hash = (hash ^ (pagina.proximoCursor() == null ? 0 : pagina.proximoCursor().hashCode())) * 0x100000001b3L;
+        return "W/\"" + maiorVersao + "-" + Long.toHexString(hash) + "\"";
+    }
+
+    // Com o ETag na ResponseEntity, o próprio Spring MVC responde 304 a um If-None-Match igual, sem serializar a página.
+    private static ResponseEntity<Pagina<PagamentoDTO>> comEtagFraco(Pagina<PagamentoDTO> pagina) {
+        return ResponseEntity.ok().eTag(etagFraco(pagina)).varyBy(HttpHeaders.ACCEPT).body(pagina);
+    }
+
+    static StatusPagamento converterStatus(String novoStatusStr) {
         String enumFormat = novoStatusStr.replace("-", "_").toUpperCase();
-        StatusPagamento novoStatus;
 
         try {
-            novoStatus = StatusPagamento.valueOf(enumFormat);
+            return StatusPagamento.valueOf(enumFormat);
         } catch (IllegalArgumentException e) {
-            throw new RuntimeException("Status inválido: " + novoStatusStr);
+            throw new DadosInvalidosException("Status inválido: " + novoStatusStr);
         }
-
-        return service.atualizarStatusPagamento(id, novoStatus);
     }
 
     // --- Endpoint: GET /pagamentos/filtro (Filtrar) ---
     @Operation(summary = "Filtrar pagamentos",
-            description = "Filtra os pagamentos de acordo com os parâmetros opcionais: ID, código do débito, CPF/CNPJ e status.")
+            description = "Filtra os pagamentos de acordo com os parâmetros opcionais: ID, código do débito, CPF/CNPJ, status, ativo e intervalo de atualização. Pagamentos inativos ficam de fora, a menos que 'ativo=false' seja informado; os já arquivados só aparecem com 'arquivados=true'. Com 'desde' e/ou 'ate', só entram os pagamentos alterados no intervalo, ordenados por data de atualização e ID. O resultado é paginado por cursor e traz um ETag fraco, como em GET /pagamentos.")
     @GetMapping("/filtro")
-    public List<Pagamento> filtrarPagamentos(
+    public ResponseEntity<Pagina<PagamentoDTO>> filtrarPagamentos(
             // 🆕 NOVO FILTRO: ID
             @Parameter(description = "ID do pagamento (opcional)", example = "10")
             @RequestParam(required = false) Long id,
 
             @Parameter(description = "Código do débito (opcional)", example = "12345")
             @RequestParam(required = false) Integer codigoDebito,
-            @Parameter(description = "CPF ou CNPJ do pagador (opcional)", example = "12345678901")
+            @Parameter(description = "CPF ou CNPJ do pagador (opcional)", example = "52998224725")
             @RequestParam(required = false) String cpfCnpj,
             @Parameter(description = "Status do pagamento (opcional)", example = "PENDENTE")
-            @RequestParam(required = false) StatusPagamento status) {
+            @RequestParam(required = false) StatusPagamento status,
+            @Parameter(description = "Registro ativo (opcional). Sem ele, só os ativos são retornados; no arquivo, ambos", example = "true")
+            @RequestParam(required = false) Boolean ativo,
+            @Parameter(description = "Início do intervalo de atualização, inclusivo (opcional, ISO-8601)", example = "2026-10-18T00:00:00Z")
+            @RequestParam(required = false) Instant desde,
+            @Parameter(description = "Fim do intervalo de atualização, exclusivo (opcional, ISO-8601)", example = "2026-10-19T00:00:00Z")
+            @RequestParam(required = false) Instant ate,
+            @Parameter(description = "Consulta o arquivo (pagamentos inativos ou finalizados há mais tempo) em vez dos pagamentos ativos")
+            @RequestParam(defaultValue = "false") boolean arquivados,
+            @Parameter(description = "Cursor opaco retornado na página anterior (opcional)")
+            @RequestParam(required = false) String after,
+            @Parameter(description = "Quantidade máxima de itens por página (1 a 500)", example = "50")
+            @RequestParam(defaultValue = "50") int tamanho) {
 
         // 🎯 O MÉTODO DO SERVICE PRECISA SER ATUALIZADO PARA ACEITAR O PARÂMETRO 'id'
-        return service.filtrarPagamentos(id, codigoDebito, cpfCnpj, status);
+        return comEtagFraco(filtros.filtrarPagamentos(id, codigoDebito, cpfCnpj, status, ativo, desde, ate, arquivados,
+                after, tamanho));
     }
 
     // --- Endpoint: DELETE /pagamentos/{id} (Excluir/Inativar) ---
@@ -157,7 +420,7 @@ public class PagamentoController {
                                     value = "{\n" +
                                             "  \"id\": 230,\n" +
                                             "  \"codigoDebito\": 12345,\n" +
-                                            "  \"cpfCnpj\": \"12345678901\",\n" +
+                                            "  \"cpfCnpj\": \"52998224725\",\n" +
                                             "  \"metodoPagamento\": \"CARTAO_CREDITO\",\n" +
                                             "  \"numeroCartao\": \"4111111111111111\",\n" +
                                             "  \"valor\": 150.75,\n" +
@@ -167,15 +430,18 @@ public class PagamentoController {
                             )
                     )),
 
-            @ApiResponse(responseCode = "500", description = "Erro interno do servidor ou regra de negócio violada",
+            @ApiResponse(responseCode = "404", description = "Pagamento não encontrado"),
+
+            @ApiResponse(responseCode = "409", description = "Regra de negócio violada pela transição",
                     content = @Content(mediaType = "application/json",
-                            schema = @Schema(implementation = Object.class),
+                            schema = @Schema(implementation = ErroResposta.class),
                             examples = @ExampleObject(
-                                    name = "Erro Padrão 500",
+                                    name = "Erro Padrão 409",
                                     value = "{\n" +
-                                            "  \"timestamp\": \"2025-11-09T19:31:30.247+00:00 (Data e Hora Atual)\",\n" +
-                                            "  \"status\": 500,\n" +
-                                            "  \"error\": \"Internal Server Error\",\n" +
+                                            "  \"timestamp\": \"2025-11-09T19:31:30.247Z (Data e Hora Atual)\",\n" +
+                                            "  \"status\": 409,\n" +
+                                            "  \"error\": \"Conflict\",\n" +
+                                            "  \"message\": \"Pagamento processado com sucesso. Não pode ser alterado.\",\n" +
                                             "  \"path\": \"/pagamentos/{id}\"\n" +
                                             "}"
                             )
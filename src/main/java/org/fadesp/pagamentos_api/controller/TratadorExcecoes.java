@@ -0,0 +1,30 @@
+package org.fadesp.pagamentos_api.controller;
+
+import jakarta.servlet.http.HttpServletRequest;
+import org.fadesp.pagamentos_api.dto.ErroResposta;
+import org.fadesp.pagamentos_api.excecao.FilaIngestaoCheiaException;
+import org.fadesp.pagamentos_api.excecao.RejeicaoException;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.RestControllerAdvice;
+
+import java.time.Instant;
+
+/**
+ * Responde as recusas esperadas ({@link RejeicaoException}) com o status da exceção e a mensagem no corpo, sem
+ * passar pelo encaminhamento para /error nem registrar o erro no log. Demais exceções seguem o tratamento padrão.
+ */
+@RestControllerAdvice
+public class TratadorExcecoes {
+
+    @ExceptionHandler(RejeicaoException.class)
+    public ResponseEntity<ErroResposta> tratarRejeicao(RejeicaoException e, HttpServletRequest requisicao) {
+        ResponseEntity.BodyBuilder resposta = ResponseEntity.status(e.status());
+        if (e instanceof FilaIngestaoCheiaException) {
+            resposta.header(HttpHeaders.RETRY_AFTER, String.valueOf(FilaIngestaoCheiaException.SEGUNDOS_PARA_NOVA_TENTATIVA));
+        }
+        return resposta.body(new ErroResposta(Instant.now(), e.status().value(), e.status().getReasonPhrase(),
+                e.getMessage(), requisicao.getRequestURI()));
+    }
+}
@@ -0,0 +1,17 @@
+package org.fadesp.pagamentos_api.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import org.fadesp.pagamentos_api.enums.StatusPagamento;
+
+import java.util.List;
+
+@Schema(description = "Lista de pagamentos que devem passar para o mesmo status.")
+public record AtualizacaoStatusLote(
+
+        @Schema(description = "IDs dos pagamentos", example = "[1, 2, 3]")
+        List<Long> ids,
+
+        @Schema(description = "Novo status dos pagamentos", example = "PROCESSADO_SUCESSO",
+                implementation = StatusPagamento.class)
+        String novoStatus) {
+}
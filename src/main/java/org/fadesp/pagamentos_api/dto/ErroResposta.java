@@ -0,0 +1,25 @@
+package org.fadesp.pagamentos_api.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+import java.time.Instant;
+
+/** Mesmos campos do corpo de erro padrão do Spring Boot, com a mensagem da recusa. */
+@Schema(description = "Corpo das respostas de erro.")
+public record ErroResposta(
+
+        @Schema(description = "Momento da recusa")
+        Instant timestamp,
+
+        @Schema(description = "Status HTTP", example = "409")
+        int status,
+
+        @Schema(description = "Descrição do status HTTP", example = "Conflict")
+        String error,
+
+        @Schema(description = "Motivo da recusa", example = "Pagamento processado com sucesso. Não pode ser alterado.")
+        String message,
+
+        @Schema(description = "Caminho da requisição", example = "/pagamentos/1/status")
+        String path) {
+}
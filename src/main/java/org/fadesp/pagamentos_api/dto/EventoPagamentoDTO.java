@@ -0,0 +1,29 @@
+package org.fadesp.pagamentos_api.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import org.fadesp.pagamentos_api.enums.StatusPagamento;
+import org.fadesp.pagamentos_api.enums.TipoAlteracaoPagamento;
+
+import java.time.Instant;
+
+/**
+ * Alteração de um pagamento, como entregue pelo feed de eventos.
+ */
+public record EventoPagamentoDTO(
+        @Schema(description = "Posição do evento no feed; use-a para retomar a leitura", example = "42")
+        long sequencia,
+        @Schema(description = "Identificador do pagamento", example = "1")
+        Long pagamentoId,
+        @Schema(description = "O que mudou", example = "STATUS_ALTERADO")
+        TipoAlteracaoPagamento tipo,
+        @Schema(description = "Status antes da alteração; nulo na criação", example = "PENDENTE")
+        StatusPagamento statusAnterior,
+        @Schema(description = "Status após a alteração", example = "PROCESSADO_SUCESSO")
+        StatusPagamento status,
+        @Schema(description = "Registro ativo após a alteração", example = "true")
+        Boolean ativo,
+        @Schema(description = "Versão do pagamento após a alteração", example = "1")
+        Long versao,
+        @Schema(description = "Momento da alteração")
+        Instant ocorridoEm) {
+}
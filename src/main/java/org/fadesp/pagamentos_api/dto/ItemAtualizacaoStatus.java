@@ -0,0 +1,29 @@
+package org.fadesp.pagamentos_api.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import org.fadesp.pagamentos_api.enums.ResultadoAtualizacaoStatus;
+
+@Schema(description = "Resultado da atualização de status de um pagamento do lote.")
+public record ItemAtualizacaoStatus(
+
+        @Schema(description = "ID do pagamento", example = "1")
+        Long id,
+
+        @Schema(description = "Resultado da atualização", example = "ATUALIZADO")
+        ResultadoAtualizacaoStatus resultado,
+
+        @Schema(description = "Motivo, quando o pagamento não foi atualizado")
+        String erro) {
+
+    public static ItemAtualizacaoStatus atualizado(Long id) {
+        return new ItemAtualizacaoStatus(id, ResultadoAtualizacaoStatus.ATUALIZADO, null);
+    }
+
+    public static ItemAtualizacaoStatus naoEncontrado(Long id) {
+        return new ItemAtualizacaoStatus(id, ResultadoAtualizacaoStatus.NAO_ENCONTRADO, "Pagamento não encontrado");
+    }
+
+    public static ItemAtualizacaoStatus regraViolada(Long id, String erro) {
+        return new ItemAtualizacaoStatus(id, ResultadoAtualizacaoStatus.REGRA_VIOLADA, erro);
+    }
+}
@@ -0,0 +1,27 @@
+package org.fadesp.pagamentos_api.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+@Schema(description = "Resultado individual de um item do lote.")
+public record ItemResultadoLote(
+
+        @Schema(description = "Posição do item na lista enviada (começando em 0)", example = "0")
+        int indice,
+
+        @Schema(description = "ID gerado para o pagamento, quando criado", example = "1")
+        Long id,
+
+        @Schema(description = "Indica se o item foi criado", example = "true")
+        boolean sucesso,
+
+        @Schema(description = "Motivo da rejeição, quando o item não foi criado")
+        String erro) {
+
+    public static ItemResultadoLote criado(int indice, Long id) {
+        return new ItemResultadoLote(indice, id, true, null);
+    }
+
+    public static ItemResultadoLote rejeitado(int indice, String erro) {
+        return new ItemResultadoLote(indice, null, false, erro);
+    }
+}
@@ -0,0 +1,26 @@
+package org.fadesp.pagamentos_api.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import org.fadesp.pagamentos_api.enums.MetodoPagamento;
+import org.fadesp.pagamentos_api.enums.StatusPagamento;
+
+import java.math.BigDecimal;
+
+@Schema(description = "Totais de uma combinação de status, método de pagamento e ativo.")
+public record ItemResumo(
+
+        @Schema(description = "Status do pagamento", example = "PENDENTE")
+        StatusPagamento status,
+
+        @Schema(description = "Método de pagamento", example = "PIX")
+        MetodoPagamento metodoPagamento,
+
+        @Schema(description = "Registro ativo", example = "true")
+        Boolean ativo,
+
+        @Schema(description = "Quantidade de pagamentos", example = "42")
+        long quantidade,
+
+        @Schema(description = "Soma dos valores", example = "6331.50")
+        BigDecimal valorTotal) {
+}
@@ -0,0 +1,14 @@
+package org.fadesp.pagamentos_api.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+import java.util.List;
+
+/**
+ * Resposta da leitura por long-poll do feed de eventos.
+ */
+public record LoteEventos(
+        List<EventoPagamentoDTO> eventos,
+        @Schema(description = "Cursor a informar em 'desde' na próxima leitura: a última sequência de cada fragmento, separadas por '.'", example = "42")
+        String cursor) {
+}
@@ -0,0 +1,57 @@
+package org.fadesp.pagamentos_api.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import org.fadesp.pagamentos_api.enums.MetodoPagamento;
+import org.fadesp.pagamentos_api.enums.StatusPagamento;
+import org.fadesp.pagamentos_api.model.Pagamento;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+
+/**
+ * Projeção imutável de {@link Pagamento} usada nas listagens: a consulta preenche o record direto,
+ * sem entidades gerenciadas. O JSON é o mesmo da entidade.
+ */
+@Schema(description = "Pagamento retornado nas listagens e filtros.")
+public record PagamentoDTO(
+
+        @Schema(description = "Identificador do pagamento", example = "1")
+        Long id,
+
+        @Schema(description = "Código do débito", example = "12345")
+        Integer codigoDebito,
+
+        @Schema(description = "CPF ou CNPJ do pagador", example = "52998224725")
+        String cpfCnpj,
+
+        @Schema(description = "Método de pagamento", example = "CARTAO_CREDITO")
+        MetodoPagamento metodoPagamento,
+
+        @Schema(description = "Número do cartão", example = "4111111111111111")
+        String numeroCartao,
+
+        @Schema(description = "Valor do pagamento", example = "150.75")
+        BigDecimal valor,
+
+        @Schema(description = "Status do pagamento", example = "PENDENTE")
+        StatusPagamento status,
+
+        @Schema(description = "Registro ativo", example = "true")
+        Boolean ativo,
+
+        @Schema(description = "Versão do registro, incrementada a cada alteração", example = "0")
+        Long versao,
+
+        @Schema(description = "Momento da criação", example = "2026-10-18T12:00:00Z")
+        Instant criadoEm,
+
+        @Schema(description = "Momento da última alteração", example = "2026-10-18T12:00:00Z")
+        Instant atualizadoEm) {
+
+    public static PagamentoDTO de(Pagamento pagamento) {
+        return new PagamentoDTO(pagamento.getId(), pagamento.getCodigoDebito(), pagamento.getCpfCnpj(),
+                pagamento.getMetodoPagamento(), pagamento.getNumeroCartao(), pagamento.getValor(),
+                pagamento.getStatus(), pagamento.getAtivo(), pagamento.getVersao(),
+                pagamento.getCriadoEm(), pagamento.getAtualizadoEm());
+    }
+}
@@ -0,0 +1,15 @@
+package org.fadesp.pagamentos_api.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+import java.util.List;
+
+@Schema(description = "Página de resultados paginada por cursor (keyset sobre o ID).")
+public record Pagina<T>(
+
+        @Schema(description = "Itens da página, ordenados por ID crescente.")
+        List<T> itens,
+
+        @Schema(description = "Cursor opaco para a próxima página. Nulo quando não há mais resultados.", example = "MTIz")
+        String proximoCursor) {
+}
@@ -0,0 +1,24 @@
+package org.fadesp.pagamentos_api.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+import java.util.List;
+
+@Schema(description = "Resultado da atualização de status em lote.")
+public record ResultadoAtualizacaoStatusLote(
+
+        @Schema(description = "Quantidade de IDs distintos recebidos", example = "3")
+        int total,
+
+        @Schema(description = "Quantidade de pagamentos atualizados", example = "1")
+        int atualizados,
+
+        @Schema(description = "Quantidade de IDs sem pagamento correspondente", example = "1")
+        int naoEncontrados,
+
+        @Schema(description = "Quantidade de pagamentos cujo status atual não permite a transição", example = "1")
+        int rejeitados,
+
+        @Schema(description = "Resultado de cada ID, na mesma ordem do envio")
+        List<ItemAtualizacaoStatus> itens) {
+}
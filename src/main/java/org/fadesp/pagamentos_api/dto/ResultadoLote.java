@@ -0,0 +1,21 @@
+package org.fadesp.pagamentos_api.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+import java.util.List;
+
+@Schema(description = "Resultado da criação de pagamentos em lote.")
+public record ResultadoLote(
+
+        @Schema(description = "Quantidade de itens recebidos", example = "3")
+        int total,
+
+        @Schema(description = "Quantidade de pagamentos criados", example = "2")
+        int criados,
+
+        @Schema(description = "Quantidade de itens rejeitados na validação", example = "1")
+        int rejeitados,
+
+        @Schema(description = "Resultado de cada item, na mesma ordem do envio")
+        List<ItemResultadoLote> itens) {
+}
@@ -0,0 +1,16 @@
+package org.fadesp.pagamentos_api.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+import java.time.Instant;
+import java.util.List;
+
+@Schema(description = "Totais de pagamentos por status, método de pagamento e ativo.")
+public record ResumoPagamentos(
+
+        @Schema(description = "Combinações com ao menos um pagamento")
+        List<ItemResumo> itens,
+
+        @Schema(description = "Momento da última reconciliação dos totais com o banco", example = "2025-11-09T19:31:30Z")
+        Instant reconciliadoEm) {
+}
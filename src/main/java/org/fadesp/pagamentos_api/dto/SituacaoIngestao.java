@@ -0,0 +1,36 @@
+package org.fadesp.pagamentos_api.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import org.fadesp.pagamentos_api.enums.EstadoIngestao;
+
+@Schema(description = "Situação de um pagamento aceito pela ingestão assíncrona.")
+public record SituacaoIngestao(
+
+        @Schema(description = "ID reservado para o pagamento", example = "1")
+        Long id,
+
+        @Schema(description = "Situação da gravação", example = "NA_FILA")
+        EstadoIngestao estado,
+
+        @Schema(description = "Motivo, quando a gravação falhou")
+        String erro,
+
+        @Schema(description = "Endereço para consultar esta situação", example = "/pagamentos/ingestao/1")
+        String urlSituacao) {
+
+    public static SituacaoIngestao naFila(Long id) {
+        return new SituacaoIngestao(id, EstadoIngestao.NA_FILA, null, url(id));
+    }
+
+    public static SituacaoIngestao gravado(Long id) {
+        return new SituacaoIngestao(id, EstadoIngestao.GRAVADO, null, url(id));
+    }
+
+    public static SituacaoIngestao falhou(Long id, String erro) {
+        return new SituacaoIngestao(id, EstadoIngestao.FALHOU, erro, url(id));
+    }
+
+    private static String url(Long id) {
+        return "/pagamentos/ingestao/" + id;
+    }
+}
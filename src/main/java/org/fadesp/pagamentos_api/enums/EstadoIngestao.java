@@ -0,0 +1,7 @@
+package org.fadesp.pagamentos_api.enums;
+
+public enum EstadoIngestao {
+    NA_FILA,
+    GRAVADO,
+    FALHOU
+}
@@ -0,0 +1,7 @@
+package org.fadesp.pagamentos_api.enums;
+
+public enum ResultadoAtualizacaoStatus {
+    ATUALIZADO,
+    NAO_ENCONTRADO,
+    REGRA_VIOLADA
+}
@@ -1,7 +1,18 @@
 package org.fadesp.pagamentos_api.enums;
 
+import java.util.EnumSet;
+import java.util.Set;
+
 public enum StatusPagamento {
     PENDENTE,
     PROCESSADO_SUCESSO,
-    PROCESSADO_FALHA
-}
\ No newline at end of file
+    PROCESSADO_FALHA;
+
+    /**
+     * Status a partir dos quais um pagamento pode ser levado para este status:
+     * PENDENTE só é alcançado a partir de PROCESSADO_FALHA, e os status PROCESSADO_* só a partir de PENDENTE.
+     */
+    public Set<StatusPagamento> origensPermitidas() {
+        return this == PENDENTE ? EnumSet.of(PROCESSADO_FALHA) : EnumSet.of(PENDENTE);
+    }
+}
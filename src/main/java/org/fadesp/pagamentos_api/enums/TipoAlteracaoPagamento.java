@@ -0,0 +1,7 @@
+package org.fadesp.pagamentos_api.enums;
+
+public enum TipoAlteracaoPagamento {
+    CRIADO,
+    STATUS_ALTERADO,
+    INATIVADO
+}
@@ -0,0 +1,613 @@
+package org.fadesp.pagamentos_api.evento;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.fadesp.pagamentos_api.dto.EventoPagamentoDTO;
+import org.fadesp.pagamentos_api.dto.LoteEventos;
+import org.fadesp.pagamentos_api.excecao.DadosInvalidosException;
+import org.fadesp.pagamentos_api.fragmentacao.Fragmentacao;
+import org.fadesp.pagamentos_api.repository.EventoPagamentoRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.async.DeferredResult;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Queue;
+import java.util.TreeMap;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Entrega o feed de eventos de pagamento (tabela {@code evento_pagamento}) a todos os assinantes, por SSE ou
+ * long-poll, a partir de uma única thread.
+ * <p>
+ * A cada rodada a thread lê do banco apenas os eventos novos, uma vez para todos, e os guarda em uma janela
+ * em memória com os últimos {@code pagamentos.eventos.janela} eventos. Cada assinante tem o seu cursor e
+ * recebe da janela o que ainda não viu; só quem retoma de uma sequência anterior à janela é atendido pelo banco,
+ * uma página por rodada, até alcançá-la. A thread é acordada logo após o commit de cada alteração e, fora isso,
+ * a cada {@code pagamentos.eventos.intervalo-ms}, para ver eventos gravados por outras instâncias.
+ * <p>
+ * Transações concorrentes podem confirmar sequências fora de ordem. Ao encontrar uma lacuna, o despachante
+ * para antes dela e espera até {@code pagamentos.eventos.espera-lacuna-ms} que ela seja preenchida; passado esse
+ * tempo, segue adiante, mas continua procurando as sequências puladas (até {@value #MAXIMO_LACUNAS} por
+ * fragmento) por mais {@code pagamentos.eventos.reverificacao-lacuna-ms}. Uma transação lenta que confirme nesse
+ * prazo tem o seu evento entregue fora de ordem aos assinantes conectados; depois dele, a sequência é dada como
+ * desfeita. Quem retoma de um cursor só recebe do banco o que é posterior a ele.
+ * <p>
+ * Com fragmentação, cada fragmento tem a sua tabela de saída e a sua sequência. O despachante acompanha cada
+ * fragmento em separado (janela, lacuna e última sequência próprias) e intercala os eventos dos fragmentos por
+ * {@code ocorridoEm}, preservando a ordem de cada um. O cursor de um assinante é a última sequência vista em cada
+ * fragmento, escrita como {@code "s0.s1.s2"}; com um único fragmento é a própria sequência.
+ * <p>
+ * A thread despachante não escreve nas conexões: cada assinante SSE tem uma fila limitada
+ * ({@code pagamentos.eventos.fila-assinante}) esvaziada por uma thread de envio. Um assinante lento cuja fila
+ * enche, ou cuja conexão falha, é descartado e retoma depois com {@code Last-Event-ID}.
+ */
+@Component
+public class DespachanteEventosPagamento {
+
+    private static final Logger log = LoggerFactory.getLogger(DespachanteEventosPagamento.class);
+
+    static final int MAXIMO_LACUNAS = 1000;
+
+    private final EventoPagamentoRepository repository;
+    private final Fragmentacao fragmentacao;
+    private final int tamanhoJanela;
+    private final int tamanhoPagina;
+    private final long intervaloMs;
+    private final long esperaLacunaNanos;
+    private final long reverificacaoLacunaNanos;
+    private final long sseTimeoutMs;
+    private final int tamanhoFilaAssinante;
+    private final ExecutorService envios;
+
+    // Estado da thread despachante; só ela lê e escreve.
+    private final FeedFragmento[] feeds;
+
+    // Percorrida pela thread despachante e, no encerramento, pela thread que desliga a aplicação.
+    private final Queue<Assinatura> assinaturas = new ConcurrentLinkedQueue<>();
+
+    private final Queue<Assinatura> novasAssinaturas = new ConcurrentLinkedQueue<>();
+    private final Semaphore sinal = new Semaphore(0);
+    private final AtomicInteger quantidadeAssinaturas = new AtomicInteger();
+    // Última sequência entregue de cada fragmento, lida pelas threads das requisições.
+    private final AtomicLongArray ultimasSequencias;
+    private volatile boolean ativo = true;
+    private Thread thread;
+
+    public DespachanteEventosPagamento(EventoPagamentoRepository repository,
+                                       Fragmentacao fragmentacao,
+                                       MeterRegistry meterRegistry,
+                                       @Value("${pagamentos.eventos.janela:10000}") int tamanhoJanela,
+                                       @Value("${pagamentos.eventos.tamanho-pagina:500}") int tamanhoPagina,
+                                       @Value("${pagamentos.eventos.intervalo-ms:1000}") long intervaloMs,
+                                       @Value("${pagamentos.eventos.espera-lacuna-ms:10000}") long esperaLacunaMs,
+                                       @Value("${pagamentos.eventos.reverificacao-lacuna-ms:60000}") long reverificacaoLacunaMs,
+                                       @Value("${pagamentos.eventos.sse-timeout-ms:1800000}") long sseTimeoutMs,
+                                       @Value("${pagamentos.eventos.fila-assinante:1000}") int tamanhoFilaAssinante) {
+        this.repository = repository;
+        this.fragmentacao = fragmentacao;
+        this.tamanhoJanela = tamanhoJanela;
+        this.tamanhoPagina = tamanhoPagina;
+        this.intervaloMs = intervaloMs;
+        this.esperaLacunaNanos = TimeUnit.MILLISECONDS.toNanos(esperaLacunaMs);
+        this.reverificacaoLacunaNanos = TimeUnit.MILLISECONDS.toNanos(reverificacaoLacunaMs);
+        this.sseTimeoutMs = sseTimeoutMs;
+        this.tamanhoFilaAssinante = tamanhoFilaAssinante;
+        AtomicInteger sequenciaThreads = new AtomicInteger();
+        this.envios = Executors.newCachedThreadPool(tarefa -> {
+            Thread thread = new Thread(tarefa, "envio-eventos-pagamento-" + sequenciaThreads.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.feeds = new FeedFragmento[fragmentacao.quantidade()];
+        this.ultimasSequencias = new AtomicLongArray(fragmentacao.quantidade());
+
+        Gauge.builder("pagamentos.eventos.assinantes", quantidadeAssinaturas, AtomicInteger::get)
+                .description("Assinantes conectados ao feed de eventos de pagamento")
+                .register(meterRegistry);
+    }
+
+    // Assinantes novos só recebem o que for gravado depois da inicialização, a menos que informem 'desde'.
+    @PostConstruct
+    void iniciar() {
+        for (int fragmento = 0; fragmento < feeds.length; fragmento++) {
+            long ultima = fragmentacao.noFragmento(fragmento, repository::findUltimaSequencia);
+            feeds[fragmento] = new FeedFragmento(fragmento, ultima);
+            ultimasSequencias.set(fragmento, ultima);
+        }
+        thread = new Thread(this::executar, "despachante-eventos-pagamento");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    @PreDestroy
+    void encerrar() throws InterruptedException {
+        ativo = false;
+        sinal.release();
+        thread.join(TimeUnit.SECONDS.toMillis(5));
+        assinaturas.forEach(Assinatura::finalizar);
+        novasAssinaturas.forEach(Assinatura::finalizar);
+        envios.shutdown();
+    }
+
+    /** Acorda a thread despachante; chamado após o commit de cada transação que gravou eventos. */
+    public void notificar() {
+        if (sinal.availablePermits() == 0) {
+            sinal.release();
+        }
+    }
+
+    /** Cursor dos últimos eventos já entregues aos assinantes, no formato aceito em {@code desde}. */
+    public String cursorAtual() {
+        return formatarCursor(posicoesAtuais());
+    }
+
+    /**
+     * Abre um stream SSE com os eventos posteriores ao cursor {@code desde} (ou, se nulo, os que ainda vão ocorrer).
+     *
+     * @throws DadosInvalidosException se o cursor não tiver uma sequência por fragmento
+     */
+    public SseEmitter assinar(String desde) {
+        SseEmitter emitter = new SseEmitter(sseTimeoutMs);
+        AssinaturaSse assinatura = new AssinaturaSse(cursorInicial(desde), emitter);
+        emitter.onCompletion(assinatura::encerrar);
+        emitter.onTimeout(assinatura::encerrar);
+        emitter.onError(erro -> assinatura.encerrar());
+        registrar(assinatura);
+        return emitter;
+    }
+
+    /**
+     * Long-poll: responde com até {@code limite} eventos posteriores a {@code desde} assim que houver algum,
+     * ou com uma lista vazia ao fim da {@code espera}.
+     */
+    public DeferredResult<LoteEventos> aguardar(String desde, int limite, Duration espera) {
+        long[] cursor = cursorInicial(desde);
+        DeferredResult<LoteEventos> resultado = new DeferredResult<>(espera.toMillis(),
+                new LoteEventos(List.of(), formatarCursor(cursor)));
+        AssinaturaLongPoll assinatura = new AssinaturaLongPoll(cursor, limite, resultado);
+        resultado.onCompletion(assinatura::encerrar);
+        registrar(assinatura);
+        return resultado;
+    }
+
+    private long[] cursorInicial(String desde) {
+        if (desde == null || desde.isBlank()) {
+            return posicoesAtuais();
+        }
+        String[] partes = desde.trim().split("\\.", -1);
+        if (partes.length != feeds.length) {
+            throw new DadosInvalidosException("Cursor de eventos inválido: informe a última sequência de cada um dos "
+                    + feeds.length + " fragmentos, separadas por '.'.");
+        }
+        long[] cursor = new long[partes.length];
+        try {
+            for (int i = 0; i < partes.length; i++) {
+                cursor[i] = Long.parseLong(partes[i]);
+                if (cursor[i] < 0) {
+                    throw new NumberFormatException();
+                }
+            }
+        } catch (NumberFormatException e) {
+            throw new DadosInvalidosException("Cursor de eventos inválido: as sequências devem ser números não negativos.");
+        }
+        return cursor;
+    }
+
+    private long[] posicoesAtuais() {
+        long[] posicoes = new long[ultimasSequencias.length()];
+        for (int i = 0; i < posicoes.length; i++) {
+            posicoes[i] = ultimasSequencias.get(i);
+        }
+        return posicoes;
+    }
+
+    static String formatarCursor(long[] cursor) {
+        StringBuilder texto = new StringBuilder().append(cursor[0]);
+        for (int i = 1; i < cursor.length; i++) {
+            texto.append('.').append(cursor[i]);
+        }
+        return texto.toString();
+    }
+
+    private void registrar(Assinatura assinatura) {
+        novasAssinaturas.add(assinatura);
+        notificar();
+    }
+
+    private void executar() {
+        while (ativo) {
+            try {
+                sinal.tryAcquire(intervaloMs, TimeUnit.MILLISECONDS);
+                sinal.drainPermits();
+                if (ativo) {
+                    rodada();
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (RuntimeException e) {
+                log.warn("Falha ao despachar eventos de pagamento; nova tentativa na próxima rodada", e);
+            }
+        }
+    }
+
+    private void rodada() {
+        for (Assinatura nova; (nova = novasAssinaturas.poll()) != null; ) {
+            assinaturas.add(nova);
+        }
+        List<EventoNoFragmento> recuperados = new ArrayList<>();
+        for (FeedFragmento feed : feeds) {
+            fragmentacao.noFragmento(feed.fragmento, () -> {
+                lerEventosNovos(feed);
+                reverificarLacunas(feed).forEach(evento -> recuperados.add(new EventoNoFragmento(feed.fragmento, evento)));
+                return null;
+            });
+        }
+
+        boolean atrasadas = false;
+        for (Iterator<Assinatura> it = assinaturas.iterator(); it.hasNext(); ) {
+            Assinatura assinatura = it.next();
+            if (!assinatura.ativa()) {
+                it.remove();
+                continue;
+            }
+            List<EventoNoFragmento> eventos = new ArrayList<>(assinatura.jaPassados(recuperados));
+            eventos.addAll(eventosPara(assinatura));
+            if (eventos.size() > assinatura.limite()) {
+                eventos = eventos.subList(0, assinatura.limite());
+            }
+            if (!eventos.isEmpty() && !assinatura.entregar(eventos)) {
+                it.remove();
+                continue;
+            }
+            atrasadas |= assinatura.atrasada();
+        }
+        quantidadeAssinaturas.set(assinaturas.size());
+
+        // Quem ainda está recuperando eventos antigos recebe a próxima página sem esperar o intervalo.
+        if (atrasadas) {
+            notificar();
+        }
+    }
+
+    private void lerEventosNovos(FeedFragmento feed) {
+        List<EventoPagamentoDTO> lidos;
+        do {
+            lidos = repository.findBySequenciaGreaterThanOrderBySequenciaAsc(feed.ultimaSequencia, Limit.of(tamanhoPagina));
+            for (EventoPagamentoDTO evento : lidos) {
+                if (evento.sequencia() != feed.ultimaSequencia + 1) {
+                    if (!lacunaExpirada(feed, feed.ultimaSequencia + 1)) {
+                        return;
+                    }
+                    registrarLacunas(feed, feed.ultimaSequencia + 1, evento.sequencia());
+                }
+                guardarNaJanela(feed, evento);
+                feed.ultimaSequencia = evento.sequencia();
+                ultimasSequencias.set(feed.fragmento, evento.sequencia());
+            }
+        } while (lidos.size() == tamanhoPagina);
+    }
+
+    private void guardarNaJanela(FeedFragmento feed, EventoPagamentoDTO evento) {
+        feed.janela.put(evento.sequencia(), evento);
+        if (feed.janela.size() > tamanhoJanela) {
+            feed.inicioJanela = feed.janela.pollFirstEntry().getKey();
+        }
+    }
+
+    /** Guarda as sequências de {@code [de, ate)} para novas buscas até o fim de {@code reverificacao-lacuna-ms}. */
+    private void registrarLacunas(FeedFragmento feed, long de, long ate) {
+        if (reverificacaoLacunaNanos == 0) {
+            return;
+        }
+        long prazo = System.nanoTime() + reverificacaoLacunaNanos;
+        for (long sequencia = Math.max(de, ate - MAXIMO_LACUNAS); sequencia < ate; sequencia++) {
+            feed.lacunas.put(sequencia, prazo);
+        }
+        while (feed.lacunas.size() > MAXIMO_LACUNAS) {
+            feed.lacunas.pollFirstEntry();
+        }
+    }
+
+    /**
+     * Procura no banco, no máximo uma vez por {@code intervalo-ms}, as sequências puladas ainda dentro do prazo e
+     * devolve as que apareceram, já guardadas na janela.
+     */
+    private List<EventoPagamentoDTO> reverificarLacunas(FeedFragmento feed) {
+        if (feed.lacunas.isEmpty()) {
+            return List.of();
+        }
+        long agora = System.nanoTime();
+        if (agora - feed.proximaReverificacao < 0) {
+            return List.of();
+        }
+        feed.proximaReverificacao = agora + TimeUnit.MILLISECONDS.toNanos(intervaloMs);
+        feed.lacunas.values().removeIf(prazo -> agora - prazo > 0);
+        if (feed.lacunas.isEmpty()) {
+            return List.of();
+        }
+        List<EventoPagamentoDTO> encontrados = repository.findBySequenciaInOrderBySequenciaAsc(
+                List.copyOf(feed.lacunas.keySet()));
+        for (EventoPagamentoDTO evento : encontrados) {
+            feed.lacunas.remove(evento.sequencia());
+            if (evento.sequencia() > feed.inicioJanela) {
+                feed.janela.put(evento.sequencia(), evento);
+            }
+            log.debug("Sequência {} do feed de eventos do fragmento {} apareceu depois da espera; entregue fora de ordem",
+                    evento.sequencia(), feed.fragmento);
+        }
+        return encontrados;
+    }
+
+    private boolean lacunaExpirada(FeedFragmento feed, long sequencia) {
+        long agora = System.nanoTime();
+        if (feed.lacunaSequencia != sequencia) {
+            feed.lacunaSequencia = sequencia;
+            feed.lacunaDesde = agora;
+            // Uma nova lacuna sem espera configurada pode ser atravessada de imediato.
+            return esperaLacunaNanos == 0;
+        }
+        if (agora - feed.lacunaDesde < esperaLacunaNanos) {
+            return false;
+        }
+        log.debug("Sequência {} do feed de eventos do fragmento {} não apareceu a tempo; seguindo adiante",
+                sequencia, feed.fragmento);
+        return true;
+    }
+
+    /**
+     * Até {@link Assinatura#limite()} eventos posteriores ao cursor, intercalados entre os fragmentos pelo
+     * {@code ocorridoEm} de cada um, sem trocar a ordem dos eventos de um mesmo fragmento.
+     */
+    private List<EventoNoFragmento> eventosPara(Assinatura assinatura) {
+        int limite = assinatura.limite();
+        if (feeds.length == 1) {
+            return eventosDoFragmento(feeds[0], assinatura, limite).stream()
+                    .map(evento -> new EventoNoFragmento(0, evento))
+                    .toList();
+        }
+        List<List<EventoPagamentoDTO>> porFragmento = new ArrayList<>(feeds.length);
+        for (FeedFragmento feed : feeds) {
+            porFragmento.add(eventosDoFragmento(feed, assinatura, limite));
+        }
+        int[] proximo = new int[feeds.length];
+        List<EventoNoFragmento> eventos = new ArrayList<>();
+        while (eventos.size() < limite) {
+            int escolhido = -1;
+            for (int fragmento = 0; fragmento < feeds.length; fragmento++) {
+                List<EventoPagamentoDTO> lista = porFragmento.get(fragmento);
+                if (proximo[fragmento] < lista.size() && (escolhido < 0 || lista.get(proximo[fragmento]).ocorridoEm()
+                        .isBefore(porFragmento.get(escolhido).get(proximo[escolhido]).ocorridoEm()))) {
+                    escolhido = fragmento;
+                }
+            }
+            if (escolhido < 0) {
+                break;
+            }
+            eventos.add(new EventoNoFragmento(escolhido, porFragmento.get(escolhido).get(proximo[escolhido]++)));
+        }
+        return eventos;
+    }
+
+    private List<EventoPagamentoDTO> eventosDoFragmento(FeedFragmento feed, Assinatura assinatura, int limite) {
+        int fragmento = feed.fragmento;
+        if (assinatura.cursor[fragmento] < feed.inicioJanela) {
+            long desde = assinatura.cursor[fragmento];
+            List<EventoPagamentoDTO> antigos = fragmentacao.noFragmento(fragmento, () ->
+                    repository.findBySequenciaGreaterThanAndSequenciaLessThanEqualOrderBySequenciaAsc(
+                            desde, feed.inicioJanela, Limit.of(limite)));
+            if (!antigos.isEmpty()) {
+                return antigos;
+            }
+            // Nada gravado entre o cursor e a janela (por exemplo, eventos já removidos pela retenção).
+            assinatura.cursor[fragmento] = feed.inicioJanela;
+        }
+        long cursor = assinatura.cursor[fragmento];
+        if (cursor >= feed.ultimaSequencia) {
+            return List.of();
+        }
+        return feed.janela.tailMap(cursor, false).values().stream()
+                .limit(limite)
+                .toList();
+    }
+
+    /** Janela, lacunas e posição de leitura de um fragmento. */
+    private static final class FeedFragmento {
+
+        private final int fragmento;
+        // Ordenada por sequência: um evento reencontrado em uma lacuna entra na sua posição.
+        private final TreeMap<Long, EventoPagamentoDTO> janela = new TreeMap<>();
+        private long inicioJanela;
+        private long ultimaSequencia;
+        private long lacunaSequencia = -1;
+        private long lacunaDesde;
+        // Sequências puladas ainda procuradas no banco, com o prazo (System.nanoTime) de cada uma.
+        private final TreeMap<Long, Long> lacunas = new TreeMap<>();
+        private long proximaReverificacao;
+
+        private FeedFragmento(int fragmento, long ultimaSequencia) {
+            this.fragmento = fragmento;
+            this.inicioJanela = ultimaSequencia;
+            this.ultimaSequencia = ultimaSequencia;
+        }
+    }
+
+    private record EventoNoFragmento(int fragmento, EventoPagamentoDTO evento) {
+    }
+
+    /** Evento na fila de um assinante SSE, com o id (cursor) que o acompanha. */
+    private record Envio(String id, EventoPagamentoDTO evento) {
+    }
+
+    private abstract class Assinatura {
+
+        // Última sequência vista em cada fragmento.
+        final long[] cursor;
+        private volatile boolean encerrada;
+
+        Assinatura(long[] cursor) {
+            this.cursor = cursor;
+        }
+
+        boolean ativa() {
+            return !encerrada;
+        }
+
+        boolean atrasada() {
+            for (FeedFragmento feed : feeds) {
+                if (cursor[feed.fragmento] < feed.ultimaSequencia) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        /** Eventos reencontrados em lacunas que este assinante já deixou para trás. */
+        List<EventoNoFragmento> jaPassados(List<EventoNoFragmento> recuperados) {
+            return recuperados.stream()
+                    .filter(evento -> evento.evento().sequencia() <= cursor[evento.fragmento()])
+                    .toList();
+        }
+
+        /**
+         * Avança o cursor até o evento e devolve o cursor resultante, no formato de {@code desde}. Um evento
+         * entregue fora de ordem não faz o cursor voltar.
+         */
+        String avancar(EventoNoFragmento evento) {
+            cursor[evento.fragmento()] = Math.max(cursor[evento.fragmento()], evento.evento().sequencia());
+            return formatarCursor(cursor);
+        }
+
+        void encerrar() {
+            encerrada = true;
+        }
+
+        /** Fecha a conexão do assinante no desligamento da aplicação. */
+        abstract void finalizar();
+
+        abstract int limite();
+
+        /** Entrega os eventos, em ordem; retorna falso quando a assinatura terminou e deve ser descartada. */
+        abstract boolean entregar(List<EventoNoFragmento> eventos);
+    }
+
+    private final class AssinaturaSse extends Assinatura {
+
+        private final SseEmitter emitter;
+        private final ArrayBlockingQueue<Envio> fila = new ArrayBlockingQueue<>(tamanhoFilaAssinante);
+        private final AtomicBoolean enviando = new AtomicBoolean();
+
+        AssinaturaSse(long[] cursor, SseEmitter emitter) {
+            super(cursor);
+            this.emitter = emitter;
+        }
+
+        @Override
+        int limite() {
+            return tamanhoPagina;
+        }
+
+        @Override
+        boolean entregar(List<EventoNoFragmento> eventos) {
+            for (EventoNoFragmento evento : eventos) {
+                if (!fila.offer(new Envio(avancar(evento), evento.evento()))) {
+                    // Assinante lento: retoma do último id recebido ao reconectar.
+                    encerrar();
+                    fila.clear();
+                    emitter.complete();
+                    return false;
+                }
+            }
+            agendarEnvio();
+            return true;
+        }
+
+        private void agendarEnvio() {
+            if (enviando.compareAndSet(false, true)) {
+                try {
+                    envios.execute(this::enviarFila);
+                } catch (RejectedExecutionException e) {
+                    enviando.set(false);
+                }
+            }
+        }
+
+        private void enviarFila() {
+            try {
+                for (Envio envio; (envio = fila.poll()) != null; ) {
+                    emitter.send(SseEmitter.event()
+                            .id(envio.id())
+                            .data(envio.evento(), MediaType.APPLICATION_JSON));
+                }
+            } catch (IOException | IllegalStateException e) {
+                encerrar();
+                fila.clear();
+                emitter.completeWithError(e);
+                return;
+            }
+            enviando.set(false);
+            // Um evento enfileirado entre o último poll e a liberação acima.
+            if (!fila.isEmpty() && ativa()) {
+                agendarEnvio();
+            }
+        }
+
+        @Override
+        void finalizar() {
+            emitter.complete();
+        }
+    }
+
+    private final class AssinaturaLongPoll extends Assinatura {
+
+        private final int limite;
+        private final DeferredResult<LoteEventos> resultado;
+
+        AssinaturaLongPoll(long[] cursor, int limite, DeferredResult<LoteEventos> resultado) {
+            super(cursor);
+            this.limite = limite;
+            this.resultado = resultado;
+        }
+
+        @Override
+        int limite() {
+            return limite;
+        }
+
+        @Override
+        void finalizar() {
+            resultado.setResult(new LoteEventos(List.of(), formatarCursor(cursor)));
+        }
+
+        @Override
+        boolean entregar(List<EventoNoFragmento> eventos) {
+            String proximo = null;
+            for (EventoNoFragmento evento : eventos) {
+                proximo = avancar(evento);
+            }
+            resultado.setResult(new LoteEventos(eventos.stream().map(EventoNoFragmento::evento).toList(), proximo));
+            return false;
+        }
+    }
+}
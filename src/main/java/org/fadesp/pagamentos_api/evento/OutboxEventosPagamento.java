@@ -0,0 +1,134 @@
+package org.fadesp.pagamentos_api.evento;
+
+import jakarta.persistence.EntityManager;
+import org.fadesp.pagamentos_api.fragmentacao.Fragmentacao;
+import org.fadesp.pagamentos_api.model.EventoPagamento;
+import org.fadesp.pagamentos_api.model.Pagamento;
+import org.fadesp.pagamentos_api.repository.EventoPagamentoRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Grava cada {@link PagamentoAlteradoEvent} na tabela de saída {@code evento_pagamento}, na mesma transação
+ * da alteração: o evento existe se, e somente se, a alteração foi confirmada.
+ * <p>
+ * Os eventos de uma transação são acumulados e inseridos em um único lote logo antes do commit; depois do
+ * commit o {@link DespachanteEventosPagamento} é acordado para entregá-los aos assinantes. Com fragmentação,
+ * cada fragmento tem a sua tabela de saída, gravada na transação do próprio fragmento.
+ */
+@Component
+public class OutboxEventosPagamento {
+
+    private static final Logger log = LoggerFactory.getLogger(OutboxEventosPagamento.class);
+
+    private final EventoPagamentoRepository repository;
+    private final EntityManager entityManager;
+    private final DespachanteEventosPagamento despachante;
+    private final Fragmentacao fragmentacao;
+    private final Duration retencao;
+
+    public OutboxEventosPagamento(EventoPagamentoRepository repository,
+                                  EntityManager entityManager,
+                                  DespachanteEventosPagamento despachante,
+                                  Fragmentacao fragmentacao,
+                                  @Value("${pagamentos.eventos.retencao-horas:72}") long retencaoHoras) {
+        this.repository = repository;
+        this.entityManager = entityManager;
+        this.despachante = despachante;
+        this.fragmentacao = fragmentacao;
+        this.retencao = Duration.ofHours(retencaoHoras);
+    }
+
+    // Ouvinte síncrono, ainda dentro da transação que publicou o evento.
+    @EventListener
+    void aoAlterarPagamento(PagamentoAlteradoEvent evento) {
+        EventoPagamento registro = registroDe(evento);
+
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            repository.inserirEmLote(List.of(registro));
+            despachante.notificar();
+            return;
+        }
+
+        @SuppressWarnings("unchecked")
+        List<EventoPagamento> pendentes = (List<EventoPagamento>) TransactionSynchronizationManager.getResource(this);
+        if (pendentes == null) {
+            pendentes = new ArrayList<>();
+            TransactionSynchronizationManager.bindResource(this, pendentes);
+            TransactionSynchronizationManager.registerSynchronization(new GravacaoNoCommit(pendentes));
+        }
+        pendentes.add(registro);
+    }
+
+    @Scheduled(fixedDelayString = "${pagamentos.eventos.limpeza-intervalo-ms:600000}")
+    void excluirAntigos() {
+        Instant limite = Instant.now().minus(retencao);
+        int[] excluidos = new int[1];
+        fragmentacao.paraCada(fragmento -> excluidos[0] += repository.excluirAnterioresA(limite));
+        if (excluidos[0] > 0) {
+            log.debug("{} eventos de pagamento fora da retenção removidos", excluidos[0]);
+        }
+    }
+
+    private static EventoPagamento registroDe(PagamentoAlteradoEvent evento) {
+        Pagamento pagamento = evento.pagamento();
+        EventoPagamento registro = new EventoPagamento();
+        registro.setPagamentoId(pagamento.getId());
+        registro.setTipo(evento.tipo());
+        registro.setStatusAnterior(evento.statusAnterior());
+        registro.setStatus(pagamento.getStatus());
+        registro.setAtivo(pagamento.getAtivo());
+        registro.setVersao(pagamento.getVersao());
+        registro.setOcorridoEm(Instant.now());
+        return registro;
+    }
+
+    private final class GravacaoNoCommit implements TransactionSynchronization {
+
+        private final List<EventoPagamento> pendentes;
+
+        private GravacaoNoCommit(List<EventoPagamento> pendentes) {
+            this.pendentes = pendentes;
+        }
+
+        // Uma transação interna (REQUIRES_NEW, como as dos fragmentos de um lote) acumula os seus próprios eventos.
+        @Override
+        public void suspend() {
+            TransactionSynchronizationManager.unbindResourceIfPossible(OutboxEventosPagamento.this);
+        }
+
+        @Override
+        public void resume() {
+            TransactionSynchronizationManager.bindResource(OutboxEventosPagamento.this, pendentes);
+        }
+
+        @Override
+        public void beforeCommit(boolean readOnly) {
+            // As alterações das entidades vão ao banco antes: a sequência dos eventos é atribuída o mais perto
+            // possível do commit, o que encurta a janela em que o despachante vê uma lacuna na sequência.
+            entityManager.flush();
+            repository.inserirEmLote(pendentes);
+        }
+
+        @Override
+        public void afterCommit() {
+            despachante.notificar();
+        }
+
+        @Override
+        public void afterCompletion(int status) {
+            TransactionSynchronizationManager.unbindResourceIfPossible(OutboxEventosPagamento.this);
+        }
+    }
+}
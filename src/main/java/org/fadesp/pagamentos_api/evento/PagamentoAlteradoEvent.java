@@ -0,0 +1,28 @@
+package org.fadesp.pagamentos_api.evento;
+
+import org.fadesp.pagamentos_api.enums.StatusPagamento;
+import org.fadesp.pagamentos_api.enums.TipoAlteracaoPagamento;
+import org.fadesp.pagamentos_api.model.Pagamento;
+
+/**
+ * Publicado, dentro da transação, a cada criação, transição de status ou inativação de um pagamento.
+ * Os ouvintes que mantêm estado derivado (cache, agregados) reagem após o commit.
+ *
+ * @param tipo            o que mudou
+ * @param pagamento       estado do pagamento após a alteração
+ * @param statusAnterior  status antes da alteração; nulo na criação
+ */
+public record PagamentoAlteradoEvent(TipoAlteracaoPagamento tipo, Pagamento pagamento, StatusPagamento statusAnterior) {
+
+    public static PagamentoAlteradoEvent criado(Pagamento pagamento) {
+        return new PagamentoAlteradoEvent(TipoAlteracaoPagamento.CRIADO, pagamento, null);
+    }
+
+    public static PagamentoAlteradoEvent statusAlterado(Pagamento pagamento, StatusPagamento statusAnterior) {
+        return new PagamentoAlteradoEvent(TipoAlteracaoPagamento.STATUS_ALTERADO, pagamento, statusAnterior);
+    }
+
+    public static PagamentoAlteradoEvent inativado(Pagamento pagamento) {
+        return new PagamentoAlteradoEvent(TipoAlteracaoPagamento.INATIVADO, pagamento, StatusPagamento.PENDENTE);
+    }
+}
@@ -0,0 +1,16 @@
+package org.fadesp.pagamentos_api.excecao;
+
+import org.springframework.http.HttpStatus;
+
+/** Idempotency-Key já usada em outra operação ou com outro corpo, ou ainda em processamento por outra requisição. */
+public class ConflitoIdempotenciaException extends RejeicaoException {
+
+    public ConflitoIdempotenciaException(String mensagem) {
+        super(mensagem);
+    }
+
+    @Override
+    public HttpStatus status() {
+        return HttpStatus.CONFLICT;
+    }
+}
@@ -0,0 +1,16 @@
+package org.fadesp.pagamentos_api.excecao;
+
+import org.springframework.http.HttpStatus;
+
+/** Parâmetro ou corpo da requisição inválido: CPF/CNPJ, status, cursor, tamanho de página ou de lote. */
+public class DadosInvalidosException extends RejeicaoException {
+
+    public DadosInvalidosException(String mensagem) {
+        super(mensagem);
+    }
+
+    @Override
+    public HttpStatus status() {
+        return HttpStatus.BAD_REQUEST;
+    }
+}
@@ -0,0 +1,25 @@
+package org.fadesp.pagamentos_api.excecao;
+
+import org.springframework.http.HttpStatus;
+
+/**
+ * A ingestão assíncrona não aceita o pagamento agora (fila cheia ou aplicação encerrando); a requisição pode ser
+ * repetida após o Retry-After.
+ */
+public class FilaIngestaoCheiaException extends RejeicaoException {
+
+    public static final int SEGUNDOS_PARA_NOVA_TENTATIVA = 1;
+
+    public FilaIngestaoCheiaException() {
+        this("Fila de ingestão cheia. Tente novamente em instantes.");
+    }
+
+    public FilaIngestaoCheiaException(String mensagem) {
+        super(mensagem);
+    }
+
+    @Override
+    public HttpStatus status() {
+        return HttpStatus.SERVICE_UNAVAILABLE;
+    }
+}
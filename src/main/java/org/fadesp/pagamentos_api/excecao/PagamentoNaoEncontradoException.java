@@ -0,0 +1,15 @@
+package org.fadesp.pagamentos_api.excecao;
+
+import org.springframework.http.HttpStatus;
+
+public class PagamentoNaoEncontradoException extends RejeicaoException {
+
+    public PagamentoNaoEncontradoException() {
+        super("Pagamento não encontrado");
+    }
+
+    @Override
+    public HttpStatus status() {
+        return HttpStatus.NOT_FOUND;
+    }
+}
@@ -0,0 +1,19 @@
+package org.fadesp.pagamentos_api.excecao;
+
+import org.springframework.http.HttpStatus;
+
+/**
+ * Recusa esperada de uma requisição (regra de negócio, dado inválido, recurso inexistente), respondida pelo
+ * {@link org.fadesp.pagamentos_api.controller.TratadorExcecoes} com o status HTTP da subclasse e a mensagem no corpo.
+ * <p>
+ * Não captura stack trace nem aceita exceções suprimidas: a recusa é um resultado normal, muitas vezes repetido
+ * por clientes em retentativa, e o trace nunca é lido. Erros inesperados continuam sendo outras exceções.
+ */
+public abstract class RejeicaoException extends RuntimeException {
+
+    protected RejeicaoException(String mensagem) {
+        super(mensagem, null, false, false);
+    }
+
+    public abstract HttpStatus status();
+}
@@ -0,0 +1,16 @@
+package org.fadesp.pagamentos_api.excecao;
+
+import org.springframework.http.HttpStatus;
+
+/** A operação não é permitida no status atual do pagamento (mudança de status ou inativação). */
+public class TransicaoNaoPermitidaException extends RejeicaoException {
+
+    public TransicaoNaoPermitidaException(String mensagem) {
+        super(mensagem);
+    }
+
+    @Override
+    public HttpStatus status() {
+        return HttpStatus.CONFLICT;
+    }
+}
@@ -0,0 +1,276 @@
+package org.fadesp.pagamentos_api.fragmentacao;
+
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.function.IntConsumer;
+import java.util.function.Supplier;
+import java.util.function.ToIntFunction;
+
+/**
+ * Distribuição dos pagamentos entre os bancos de {@code pagamentos.fragmentacao.urls}. Sem a propriedade há um
+ * único fragmento (o {@code spring.datasource}) e todos os métodos executam a ação diretamente.
+ * <p>
+ * Cada pagamento mora no fragmento dado pelo hash do CPF/CNPJ normalizado, e o ID carrega esse fragmento:
+ * {@code id = local × quantidade + fragmento}, em que {@code local} vem da sequência do próprio fragmento. Com um
+ * fragmento o ID é o próprio valor da sequência. Mudar a quantidade de fragmentos exige redistribuir os dados.
+ * <p>
+ * O {@link RoteadorFragmentos} escolhe o banco no primeiro comando SQL de cada conexão (a conexão é adiada pelo
+ * {@code LazyConnectionDataSourceProxy}). Dentro de uma transação, {@link #noFragmento} fixa o fragmento até o fim
+ * dela, inclusive o flush e o commit; por isso precisa ser chamado antes do primeiro comando da transação, e uma
+ * transação só atende um fragmento.
+ */
+@Component
+public class Fragmentacao {
+
+    private static final ThreadLocal<Integer> ATUAL = new ThreadLocal<>();
+    private static final Object CHAVE_TRANSACAO = Fragmentacao.class;
+
+    private final int quantidade;
+    private final ObjectProvider<PlatformTransactionManager> transacoes;
+    private final ExecutorService consultas;
+    private volatile TransactionTemplate somenteLeitura;
+    private volatile TransactionTemplate transacaoPropria;
+
+    public Fragmentacao(@Value("${pagamentos.fragmentacao.urls:}") List<String> urls,
+                        @Value("${pagamentos.fragmentacao.threads-consulta:16}") int threadsConsulta,
+                        ObjectProvider<PlatformTransactionManager> transacoes) {
+        this.quantidade = Math.max(1, urls.size());
+        this.transacoes = transacoes;
+        if (quantidade == 1) {
+            this.consultas = null;
+        } else {
+            AtomicInteger sequenciaThreads = new AtomicInteger();
+            this.consultas = Executors.newFixedThreadPool(threadsConsulta, tarefa -> {
+                Thread thread = new Thread(tarefa, "consulta-fragmentos-" + sequenciaThreads.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+    }
+
+    /** Um único fragmento, para quem monta os serviços sem o contexto do Spring. */
+    public static Fragmentacao unico() {
+        return new Fragmentacao(List.of(), 1, null);
+    }
+
+    @PreDestroy
+    void encerrar() {
+        if (consultas != null) {
+            consultas.shutdown();
+        }
+    }
+
+    public int quantidade() {
+        return quantidade;
+    }
+
+    /** Fragmento de um CPF/CNPJ já normalizado; documentos ausentes ficam no fragmento 0. */
+    public int doDocumento(String cpfCnpj) {
+        if (quantidade == 1 || cpfCnpj == null) {
+            return 0;
+        }
+        return Math.floorMod(cpfCnpj.hashCode(), quantidade);
+    }
+
+    public int doId(long id) {
+        return (int) Math.floorMod(id, (long) quantidade);
+    }
+
+    public long codificar(long local, int fragmento) {
+        return codificar(local, fragmento, quantidade);
+    }
+
+    static long codificar(long local, int fragmento, int quantidade) {
+        return local * quantidade + fragmento;
+    }
+
+    /** Fragmento para o qual vão os comandos da thread atual: o fixado na transação ou em {@link #noFragmento}. */
+    public static int atual() {
+        Integer naTransacao = (Integer) TransactionSynchronizationManager.getResource(CHAVE_TRANSACAO);
+        if (naTransacao != null) {
+            return naTransacao;
+        }
+        Integer fixado = ATUAL.get();
+        return fixado == null ? 0 : fixado;
+    }
+
+    /**
+     * Executa a ação no fragmento informado. Fora de transação, o fragmento vale só durante a ação; dentro de uma,
+     * fica fixado até o fim dela.
+     *
+     * @throws IllegalStateException se a transação corrente já estiver fixada em outro fragmento
+     */
+    public <T> T noFragmento(int fragmento, Supplier<T> acao) {
+        if (quantidade == 1) {
+            return acao.get();
+        }
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            fixarNaTransacao(fragmento);
+            return acao.get();
+        }
+        Integer anterior = ATUAL.get();
+        ATUAL.set(fragmento);
+        try {
+            return acao.get();
+        } finally {
+            if (anterior == null) {
+                ATUAL.remove();
+            } else {
+                ATUAL.set(anterior);
+            }
+        }
+    }
+
+    /** Executa a ação uma vez em cada fragmento, em sequência. */
+    public void paraCada(IntConsumer acao) {
+        for (int fragmento = 0; fragmento < quantidade; fragmento++) {
+            int corrente = fragmento;
+            noFragmento(fragmento, () -> {
+                acao.accept(corrente);
+                return null;
+            });
+        }
+    }
+
+    /**
+     * Executa a consulta em todos os fragmentos em paralelo, cada um em uma transação somente leitura própria, e
+     * devolve os resultados na ordem dos fragmentos. Com um único fragmento, a consulta roda na thread e na
+     * transação de quem chamou.
+     */
+    public <T> List<T> consultarTodos(Supplier<T> consulta) {
+        if (quantidade == 1) {
+            return List.of(consulta.get());
+        }
+        List<Future<T>> pendentes = new ArrayList<>(quantidade - 1);
+        for (int fragmento = 1; fragmento < quantidade; fragmento++) {
+            int corrente = fragmento;
+            pendentes.add(consultas.submit(() -> noFragmento(corrente, () -> somenteLeitura().execute(status -> consulta.get()))));
+        }
+        // O fragmento 0 é consultado pela própria thread enquanto os demais estão em andamento.
+        List<T> resultados = new ArrayList<>(quantidade);
+        resultados.add(noFragmento(0, () -> somenteLeitura().execute(status -> consulta.get())));
+        for (Future<T> pendente : pendentes) {
+            resultados.add(aguardar(pendente));
+        }
+        return resultados;
+    }
+
+    /**
+     * Separa os itens pelo fragmento de cada um e executa a gravação uma vez por grupo, no fragmento do grupo.
+     * Com um único fragmento, a gravação participa da transação corrente.
+     * <p>
+     * Com vários, cada grupo tem uma transação própria, aberta dentro da do grupo anterior: nenhuma é confirmada
+     * antes de todos os grupos terem gravado, e uma exceção em qualquer grupo desfaz todos. Os commits saem em
+     * seguida, do último grupo para o primeiro, e por fim o da transação de quem chamou; só uma falha no próprio
+     * commit (por exemplo, a queda de um banco nesse instante) deixa confirmados os grupos que já passaram por ele.
+     */
+    public <T> void gravarPorFragmento(List<T> itens, ToIntFunction<T> fragmentoDe, Consumer<List<T>> gravacao) {
+        if (quantidade == 1) {
+            gravacao.accept(itens);
+            return;
+        }
+        Map<Integer, List<T>> grupos = new LinkedHashMap<>();
+        for (T item : itens) {
+            grupos.computeIfAbsent(fragmentoDe.applyAsInt(item), fragmento -> new ArrayList<>()).add(item);
+        }
+        gravarAninhado(new ArrayList<>(grupos.entrySet()), 0, gravacao);
+    }
+
+    private <T> void gravarAninhado(List<Map.Entry<Integer, List<T>>> grupos, int indice, Consumer<List<T>> gravacao) {
+        if (indice == grupos.size()) {
+            return;
+        }
+        Map.Entry<Integer, List<T>> grupo = grupos.get(indice);
+        transacaoPropria().executeWithoutResult(status -> noFragmento(grupo.getKey(), () -> {
+            gravacao.accept(grupo.getValue());
+            gravarAninhado(grupos, indice + 1, gravacao);
+            return null;
+        }));
+    }
+
+    private void fixarNaTransacao(int fragmento) {
+        Integer fixado = (Integer) TransactionSynchronizationManager.getResource(CHAVE_TRANSACAO);
+        if (fixado == null) {
+            TransactionSynchronizationManager.bindResource(CHAVE_TRANSACAO, fragmento);
+            TransactionSynchronizationManager.registerSynchronization(new FixacaoNaTransacao(fragmento));
+        } else if (fixado != fragmento) {
+            throw new IllegalStateException("A transação já está no fragmento " + fixado
+                    + "; o fragmento " + fragmento + " precisa de uma transação própria.");
+        }
+    }
+
+    private static <T> T aguardar(Future<T> pendente) {
+        try {
+            return pendente.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Consulta aos fragmentos interrompida.", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException erro) {
+                throw erro;
+            }
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+
+    private TransactionTemplate somenteLeitura() {
+        if (somenteLeitura == null) {
+            TransactionTemplate template = new TransactionTemplate(transacoes.getObject());
+            template.setReadOnly(true);
+            somenteLeitura = template;
+        }
+        return somenteLeitura;
+    }
+
+    private TransactionTemplate transacaoPropria() {
+        if (transacaoPropria == null) {
+            TransactionTemplate template = new TransactionTemplate(transacoes.getObject());
+            template.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+            transacaoPropria = template;
+        }
+        return transacaoPropria;
+    }
+
+    /** Acompanha a suspensão de transações: uma transação interna (REQUIRES_NEW) escolhe o seu próprio fragmento. */
+    private static final class FixacaoNaTransacao implements TransactionSynchronization {
+
+        private final int fragmento;
+
+        private FixacaoNaTransacao(int fragmento) {
+            this.fragmento = fragmento;
+        }
+
+        @Override
+        public void suspend() {
+            TransactionSynchronizationManager.unbindResourceIfPossible(CHAVE_TRANSACAO);
+        }
+
+        @Override
+        public void resume() {
+            TransactionSynchronizationManager.bindResource(CHAVE_TRANSACAO, fragmento);
+        }
+
+        @Override
+        public void afterCompletion(int status) {
+            TransactionSynchronizationManager.unbindResourceIfPossible(CHAVE_TRANSACAO);
+        }
+    }
+}
@@ -0,0 +1,91 @@
+package org.fadesp.pagamentos_api.fragmentacao;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.fadesp.pagamentos_api.configuration.IntegradoresHibernate;
+import org.hibernate.boot.Metadata;
+import org.hibernate.boot.spi.BootstrapContext;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.integrator.spi.Integrator;
+import org.hibernate.service.spi.SessionFactoryServiceRegistry;
+import org.hibernate.tool.schema.spi.SchemaManagementToolCoordinator;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+
+/**
+ * Com {@code pagamentos.fragmentacao.urls}, substitui o DataSource do Spring Boot por um pool por fragmento,
+ * todos com as credenciais e o driver de {@code spring.datasource}. O Hibernate valida e atualiza o schema só no
+ * banco do fragmento 0; o {@link Integrator} daqui repete a mesma ação nos demais.
+ */
+@Configuration
+public class FragmentacaoConfig {
+
+    @Bean(destroyMethod = "close")
+    @ConditionalOnProperty("pagamentos.fragmentacao.urls")
+    RoteadorFragmentos roteadorFragmentos(DataSourceProperties propriedades,
+                                          @Value("${pagamentos.fragmentacao.urls}") List<String> urls) {
+        List<HikariDataSource> pools = new ArrayList<>(urls.size());
+        for (int fragmento = 0; fragmento < urls.size(); fragmento++) {
+            HikariDataSource pool = propriedades.initializeDataSourceBuilder()
+                    .type(HikariDataSource.class)
+                    .url(urls.get(fragmento).trim())
+                    .build();
+            pool.setPoolName("fragmento-" + fragmento);
+            pools.add(pool);
+        }
+        return new RoteadorFragmentos(pools);
+    }
+
+    /** A conexão só é obtida no primeiro comando, quando o fragmento da transação já foi escolhido. */
+    @Bean
+    @Primary
+    @ConditionalOnProperty("pagamentos.fragmentacao.urls")
+    DataSource dataSourceFragmentado(RoteadorFragmentos roteador) {
+        return new LazyConnectionDataSourceProxy(roteador);
+    }
+
+    @Bean
+    HibernatePropertiesCustomizer fragmentacaoHibernate(Fragmentacao fragmentacao) {
+        return propriedades -> {
+            propriedades.put(GeradorIdFragmentado.QUANTIDADE_FRAGMENTOS, fragmentacao.quantidade());
+            if (fragmentacao.quantidade() > 1) {
+                IntegradoresHibernate.adicionar(propriedades, new EsquemaNosFragmentos(fragmentacao));
+            }
+        };
+    }
+
+    private static final class EsquemaNosFragmentos implements Integrator {
+
+        private final Fragmentacao fragmentacao;
+
+        private EsquemaNosFragmentos(Fragmentacao fragmentacao) {
+            this.fragmentacao = fragmentacao;
+        }
+
+        @Override
+        public void integrate(Metadata metadata, BootstrapContext bootstrapContext,
+                              SessionFactoryImplementor sessionFactory) {
+            for (int fragmento = 1; fragmento < fragmentacao.quantidade(); fragmento++) {
+                fragmentacao.noFragmento(fragmento, () -> {
+                    SchemaManagementToolCoordinator.process(metadata, sessionFactory.getServiceRegistry(),
+                            new HashMap<>(sessionFactory.getProperties()), acaoAdiada -> { });
+                    return null;
+                });
+            }
+        }
+
+        @Override
+        public void disintegrate(SessionFactoryImplementor sessionFactory, SessionFactoryServiceRegistry serviceRegistry) {
+        }
+    }
+}
@@ -0,0 +1,58 @@
+package org.fadesp.pagamentos_api.fragmentacao;
+
+import org.hibernate.engine.config.spi.ConfigurationService;
+import org.hibernate.engine.config.spi.StandardConverters;
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+import org.hibernate.id.enhanced.Optimizer;
+import org.hibernate.id.enhanced.OptimizerFactory;
+import org.hibernate.id.enhanced.SequenceStyleGenerator;
+import org.hibernate.id.enhanced.StandardOptimizerDescriptor;
+import org.hibernate.id.factory.spi.CustomIdGeneratorCreationContext;
+import org.hibernate.service.ServiceRegistry;
+import org.hibernate.type.Type;
+
+import java.lang.reflect.Member;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Com um fragmento, é o gerador de sequência padrão do Hibernate. Com vários, cada fragmento tem a sua sequência
+ * e o seu próprio bloco de IDs em memória (o bloco vem da sequência do fragmento em que a entidade é gravada), e o
+ * valor da sequência é codificado com o fragmento, como em {@link Fragmentacao#codificar}.
+ */
+public class GeradorIdFragmentado extends SequenceStyleGenerator {
+
+    /** Quantidade de fragmentos, informada ao Hibernate pela {@link FragmentacaoConfig}. */
+    public static final String QUANTIDADE_FRAGMENTOS = "pagamentos.fragmentacao.quantidade";
+
+    private final IdFragmentado configuracao;
+    private final Map<Integer, Optimizer> otimizadores = new ConcurrentHashMap<>();
+    private int quantidade = 1;
+
+    public GeradorIdFragmentado(IdFragmentado configuracao, Member membro, CustomIdGeneratorCreationContext contexto) {
+        this.configuracao = configuracao;
+    }
+
+    @Override
+    public void configure(Type type, Properties parametros, ServiceRegistry registro) {
+        parametros.put(SEQUENCE_PARAM, configuracao.sequencia());
+        parametros.put(INCREMENT_PARAM, Integer.toString(configuracao.alocacao()));
+        super.configure(type, parametros, registro);
+        quantidade = registro.requireService(ConfigurationService.class)
+                .getSetting(QUANTIDADE_FRAGMENTOS, StandardConverters.INTEGER, 1);
+    }
+
+    @Override
+    public Object generate(SharedSessionContractImplementor sessao, Object entidade) {
+        if (quantidade == 1) {
+            return super.generate(sessao, entidade);
+        }
+        int fragmento = Fragmentacao.atual();
+        Optimizer otimizador = otimizadores.computeIfAbsent(fragmento, f -> OptimizerFactory.buildOptimizer(
+                StandardOptimizerDescriptor.POOLED, Long.class, configuracao.alocacao(),
+                getDatabaseStructure().getInitialValue()));
+        long local = ((Number) otimizador.generate(getDatabaseStructure().buildCallback(sessao))).longValue();
+        return Fragmentacao.codificar(local, fragmento, quantidade);
+    }
+}
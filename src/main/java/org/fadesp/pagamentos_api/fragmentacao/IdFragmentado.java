@@ -0,0 +1,24 @@
+package org.fadesp.pagamentos_api.fragmentacao;
+
+import org.hibernate.annotations.IdGeneratorType;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * ID gerado por uma sequência com pool, como {@code @SequenceGenerator}, mas codificado com o fragmento em que a
+ * entidade é gravada. Ver {@link GeradorIdFragmentado}.
+ */
+@IdGeneratorType(GeradorIdFragmentado.class)
+@Retention(RetentionPolicy.RUNTIME)
+@Target({ElementType.FIELD, ElementType.METHOD})
+public @interface IdFragmentado {
+
+    /** Nome da sequência, a mesma em todos os fragmentos. */
+    String sequencia();
+
+    /** Quantidade de IDs reservados por ida à sequência (otimizador "pooled"). */
+    int alocacao();
+}
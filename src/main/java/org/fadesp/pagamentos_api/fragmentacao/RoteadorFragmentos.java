@@ -0,0 +1,38 @@
+package org.fadesp.pagamentos_api.fragmentacao;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Um pool por fragmento; cada conexão vem do pool do {@link Fragmentacao#atual() fragmento atual}. Fechado junto
+ * com o contexto, encerra os pools.
+ */
+public class RoteadorFragmentos extends AbstractRoutingDataSource implements AutoCloseable {
+
+    private final List<HikariDataSource> pools;
+
+    public RoteadorFragmentos(List<HikariDataSource> pools) {
+        this.pools = List.copyOf(pools);
+        Map<Object, Object> alvos = new HashMap<>();
+        for (int fragmento = 0; fragmento < pools.size(); fragmento++) {
+            alvos.put(fragmento, pools.get(fragmento));
+        }
+        setTargetDataSources(alvos);
+        setLenientFallback(false);
+        afterPropertiesSet();
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        return Fragmentacao.atual();
+    }
+
+    @Override
+    public void close() {
+        pools.forEach(HikariDataSource::close);
+    }
+}
@@ -0,0 +1,45 @@
+package org.fadesp.pagamentos_api.metricas;
+
+/**
+ * Contadores de SQL executado e entidades carregadas pela requisição HTTP da thread atual.
+ * Fora de uma requisição (por exemplo, no motor de processamento) os registros são ignorados.
+ */
+final class ContagemRequisicao {
+
+    private static final ThreadLocal<ContagemRequisicao> ATUAL = new ThreadLocal<>();
+
+    int consultas;
+    int entidadesCarregadas;
+
+    private ContagemRequisicao() {
+    }
+
+    static void iniciar() {
+        ATUAL.set(new ContagemRequisicao());
+    }
+
+    /** Volta a contar na thread atual com a contagem de um despacho anterior da mesma requisição. */
+    static void retomar(ContagemRequisicao contagem) {
+        ATUAL.set(contagem);
+    }
+
+    static ContagemRequisicao encerrar() {
+        ContagemRequisicao contagem = ATUAL.get();
+        ATUAL.remove();
+        return contagem;
+    }
+
+    static void registrarConsulta() {
+        ContagemRequisicao contagem = ATUAL.get();
+        if (contagem != null) {
+            contagem.consultas++;
+        }
+    }
+
+    static void registrarEntidadeCarregada() {
+        ContagemRequisicao contagem = ATUAL.get();
+        if (contagem != null) {
+            contagem.entidadesCarregadas++;
+        }
+    }
+}
@@ -0,0 +1,53 @@
+package org.fadesp.pagamentos_api.metricas;
+
+import org.fadesp.pagamentos_api.configuration.IntegradoresHibernate;
+import org.hibernate.boot.Metadata;
+import org.hibernate.boot.spi.BootstrapContext;
+import org.hibernate.cfg.AvailableSettings;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.event.service.spi.EventListenerRegistry;
+import org.hibernate.event.spi.EventType;
+import org.hibernate.event.spi.PostLoadEventListener;
+import org.hibernate.integrator.spi.Integrator;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.hibernate.service.spi.SessionFactoryServiceRegistry;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Liga o Hibernate à {@link ContagemRequisicao}: cada SQL preparado conta como consulta e cada
+ * entidade hidratada conta como carga. As estatísticas globais ({@code hibernate.*}) vêm do
+ * {@code hibernate.generate_statistics} e do módulo hibernate-micrometer.
+ */
+@Configuration
+public class MetricasHibernateConfig {
+
+    @Bean
+    HibernatePropertiesCustomizer contagemPorRequisicao() {
+        StatementInspector contadorConsultas = sql -> {
+            ContagemRequisicao.registrarConsulta();
+            return sql;
+        };
+        PostLoadEventListener contadorCargas = evento -> ContagemRequisicao.registrarEntidadeCarregada();
+
+        Integrator integrador = new Integrator() {
+            @Override
+            public void integrate(Metadata metadata, BootstrapContext bootstrapContext,
+                                  SessionFactoryImplementor sessionFactory) {
+                sessionFactory.getServiceRegistry().requireService(EventListenerRegistry.class)
+                        .appendListeners(EventType.POST_LOAD, contadorCargas);
+            }
+
+            @Override
+            public void disintegrate(SessionFactoryImplementor sessionFactory,
+                                     SessionFactoryServiceRegistry serviceRegistry) {
+            }
+        };
+
+        return propriedades -> {
+            propriedades.put(AvailableSettings.STATEMENT_INSPECTOR, contadorConsultas);
+            IntegradoresHibernate.adicionar(propriedades, integrador);
+        };
+    }
+}
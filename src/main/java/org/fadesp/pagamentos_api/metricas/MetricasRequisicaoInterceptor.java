@@ -0,0 +1,81 @@
+package org.fadesp.pagamentos_api.metricas;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.AsyncHandlerInterceptor;
+import org.springframework.web.servlet.HandlerMapping;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+/**
+ * Publica, por endpoint, quantos SQL o Hibernate emitiu em cada requisição ({@code pagamentos.http.consultas})
+ * e quantas entidades carregou ({@code pagamentos.http.entidades.carregadas}). Os UPDATEs condicionais feitos
+ * via JdbcTemplate não passam pelo Hibernate; o tempo deles aparece em {@code spring.data.repository.invocations}.
+ * As tags {@code method} e {@code uri} seguem as de {@code http.server.requests}.
+ * <p>
+ * Nos endpoints assíncronos (SSE e long-poll), a contagem sai da thread quando o processamento assíncrono começa,
+ * fica guardada na requisição e é retomada no despacho final, que registra uma única vez o total dos despachos.
+ * O que roda fora dos despachos, nas threads que completam o resultado, não é contado.
+ */
+@Component
+public class MetricasRequisicaoInterceptor implements AsyncHandlerInterceptor, WebMvcConfigurer {
+
+    private static final String CONTAGEM_PENDENTE = MetricasRequisicaoInterceptor.class.getName() + ".contagem";
+
+    private final MeterRegistry meterRegistry;
+
+    public MetricasRequisicaoInterceptor(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        registry.addInterceptor(this).addPathPatterns("/pagamentos/**", "/pagamentos");
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        if (request.getAttribute(CONTAGEM_PENDENTE) instanceof ContagemRequisicao anterior) {
+            request.removeAttribute(CONTAGEM_PENDENTE);
+            ContagemRequisicao.retomar(anterior);
+        } else {
+            ContagemRequisicao.iniciar();
+        }
+        return true;
+    }
+
+    /** O despacho inicial terminou sem afterCompletion: libera a thread e guarda a contagem para o final. */
+    @Override
+    public void afterConcurrentHandlingStarted(HttpServletRequest request, HttpServletResponse response,
+                                               Object handler) {
+        ContagemRequisicao contagem = ContagemRequisicao.encerrar();
+        if (contagem != null) {
+            request.setAttribute(CONTAGEM_PENDENTE, contagem);
+        }
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler,
+                                Exception ex) {
+        ContagemRequisicao contagem = ContagemRequisicao.encerrar();
+        if (contagem == null) {
+            return;
+        }
+
+        Object padrao = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        String uri = padrao != null ? padrao.toString() : "UNKNOWN";
+
+        resumo("pagamentos.http.consultas", request.getMethod(), uri).record(contagem.consultas);
+        resumo("pagamentos.http.entidades.carregadas", request.getMethod(), uri).record(contagem.entidadesCarregadas);
+    }
+
+    private DistributionSummary resumo(String nome, String metodo, String uri) {
+        return DistributionSummary.builder(nome)
+                .tag("method", metodo)
+                .tag("uri", uri)
+                .register(meterRegistry);
+    }
+}
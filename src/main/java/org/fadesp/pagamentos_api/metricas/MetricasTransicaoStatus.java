@@ -0,0 +1,55 @@
+package org.fadesp.pagamentos_api.metricas;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.fadesp.pagamentos_api.enums.StatusPagamento;
+import org.fadesp.pagamentos_api.enums.TipoAlteracaoPagamento;
+import org.fadesp.pagamentos_api.evento.PagamentoAlteradoEvent;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * Contador {@code pagamentos.status.transicoes}, com tags {@code origem} e {@code destino}, para cada
+ * mudança de status confirmada — pelo PATCH ou pelo motor de processamento.
+ */
+@Component
+public class MetricasTransicaoStatus {
+
+    private final MeterRegistry meterRegistry;
+    private final Map<StatusPagamento, Map<StatusPagamento, Counter>> contadores = new EnumMap<>(StatusPagamento.class);
+
+    public MetricasTransicaoStatus(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+        // Registra de antemão todas as transições permitidas, para que apareçam zeradas antes da primeira ocorrência.
+        for (StatusPagamento destino : StatusPagamento.values()) {
+            Map<StatusPagamento, Counter> porOrigem = new EnumMap<>(StatusPagamento.class);
+            for (StatusPagamento origem : destino.origensPermitidas()) {
+                porOrigem.put(origem, registrar(origem, destino));
+            }
+            contadores.put(destino, porOrigem);
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    void aoAlterarPagamento(PagamentoAlteradoEvent evento) {
+        if (evento.tipo() != TipoAlteracaoPagamento.STATUS_ALTERADO) {
+            return;
+        }
+        StatusPagamento origem = evento.statusAnterior();
+        StatusPagamento destino = evento.pagamento().getStatus();
+        Counter contador = contadores.get(destino).get(origem);
+        // Uma transição fora das permitidas não deveria ocorrer, mas é contada com a origem real em vez de perdida.
+        (contador != null ? contador : registrar(origem, destino)).increment();
+    }
+
+    private Counter registrar(StatusPagamento origem, StatusPagamento destino) {
+        return Counter.builder("pagamentos.status.transicoes")
+                .description("Mudanças de status de pagamento confirmadas")
+                .tag("origem", origem.name())
+                .tag("destino", destino.name())
+                .register(meterRegistry);
+    }
+}
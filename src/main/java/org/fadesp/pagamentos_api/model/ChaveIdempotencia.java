@@ -0,0 +1,42 @@
+package org.fadesp.pagamentos_api.model;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import java.time.Instant;
+
+/**
+ * Resposta já entregue para uma {@code Idempotency-Key}. Enquanto não expira, uma nova requisição
+ * com a mesma chave recebe esta resposta sem executar a operação de novo.
+ */
+@Data
+@Entity
+@Table(indexes = @Index(name = "idx_chave_idempotencia_expira_em", columnList = "expiraEm"))
+public class ChaveIdempotencia {
+
+    public static final int TAMANHO_MAXIMO_CHAVE = 255;
+
+    @Id
+    @Column(length = TAMANHO_MAXIMO_CHAVE)
+    private String chave;
+
+    // Operação que gravou a chave: a mesma chave não pode ser reaproveitada em outro endpoint.
+    @Column(nullable = false, length = 64)
+    private String operacao;
+
+    // Impressão do corpo da requisição: a mesma chave com outro corpo é recusada em vez de repetir esta resposta.
+    @Column(length = 64)
+    private String impressaoRequisicao;
+
+    @Column(nullable = false)
+    private int statusHttp;
+
+    @Lob
+    @Column(nullable = false)
+    private String resposta;
+
+    @Column(nullable = false)
+    private Instant criadaEm;
+
+    @Column(nullable = false)
+    private Instant expiraEm;
+}
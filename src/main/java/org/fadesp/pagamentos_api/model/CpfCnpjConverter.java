@@ -0,0 +1,24 @@
+package org.fadesp.pagamentos_api.model;
+
+import jakarta.persistence.AttributeConverter;
+import jakarta.persistence.Converter;
+import org.fadesp.pagamentos_api.util.CpfCnpj;
+
+/**
+ * Grava o CPF/CNPJ como a chave numérica de {@link CpfCnpj#paraChave(CharSequence)} (BIGINT) e o devolve como os dígitos
+ * normalizados, o mesmo formato que a API sempre expôs. Também converte os parâmetros das consultas que comparam
+ * o atributo, então qualquer formato de entrada encontra o mesmo registro.
+ */
+@Converter
+public class CpfCnpjConverter implements AttributeConverter<String, Long> {
+
+    @Override
+    public Long convertToDatabaseColumn(String cpfCnpj) {
+        return cpfCnpj == null ? null : CpfCnpj.paraChave(cpfCnpj);
+    }
+
+    @Override
+    public String convertToEntityAttribute(Long chave) {
+        return chave == null ? null : CpfCnpj.deChave(chave);
+    }
+}
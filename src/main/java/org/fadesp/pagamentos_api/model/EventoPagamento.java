@@ -0,0 +1,44 @@
+package org.fadesp.pagamentos_api.model;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import org.fadesp.pagamentos_api.enums.StatusPagamento;
+import org.fadesp.pagamentos_api.enums.TipoAlteracaoPagamento;
+import java.time.Instant;
+
+/**
+ * Registro da tabela de saída (outbox) de alterações de pagamento, gravado na mesma transação da alteração.
+ * A sequência é o cursor do feed em GET /pagamentos/eventos.
+ */
+@Data
+@Entity
+@Table(indexes = @Index(name = "idx_evento_pagamento_ocorrido_em", columnList = "ocorridoEm"))
+public class EventoPagamento {
+
+    // IDENTITY: os valores crescem na ordem de inserção, e o INSERT em lote é feito via JDBC.
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long sequencia;
+
+    @Column(nullable = false)
+    private Long pagamentoId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 32)
+    private TipoAlteracaoPagamento tipo;
+
+    @Enumerated(EnumType.STRING)
+    @Column(length = 32)
+    private StatusPagamento statusAnterior;
+
+    @Enumerated(EnumType.STRING)
+    @Column(length = 32)
+    private StatusPagamento status;
+
+    private Boolean ativo;
+
+    private Long versao;
+
+    @Column(nullable = false)
+    private Instant ocorridoEm;
+}
@@ -0,0 +1,54 @@
+package org.fadesp.pagamentos_api.model;
+
+import jakarta.persistence.AttributeConverter;
+import jakarta.persistence.Converter;
+
+/**
+ * O número do cartão nunca é gravado: a coluna guarda apenas os 4 últimos dígitos (SMALLINT), e a API recebe de volta
+ * o número mascarado. Um número completo que chegue até aqui sem passar pelo serviço também é reduzido aos 4 finais.
+ */
+@Converter
+public class NumeroCartaoConverter implements AttributeConverter<String, Short> {
+
+    public static final int DIGITOS_VISIVEIS = 4;
+    private static final String MASCARA = "************";
+
+    @Override
+    public Short convertToDatabaseColumn(String numeroCartao) {
+        return finais(numeroCartao);
+    }
+
+    @Override
+    public String convertToEntityAttribute(Short finais) {
+        return finais == null ? null : mascarar(finais);
+    }
+
+    /** Forma exposta pela API: o número mascarado, com os 4 últimos dígitos visíveis. */
+    public static String mascarar(String numeroCartao) {
+        Short finais = finais(numeroCartao);
+        return finais == null ? null : mascarar(finais);
+    }
+
+    private static Short finais(String numeroCartao) {
+        if (numeroCartao == null) {
+            return null;
+        }
+        int finais = 0;
+        int digitos = 0;
+        int multiplicador = 1;
+        for (int i = numeroCartao.length() - 1; i >= 0 && digitos < DIGITOS_VISIVEIS; i--) {
+            char c = numeroCartao.charAt(i);
+            if (c >= '0' && c <= '9') {
+                finais += (c - '0') * multiplicador;
+                multiplicador *= 10;
+                digitos++;
+            }
+        }
+        return digitos == 0 ? null : (short) finais;
+    }
+
+    private static String mascarar(short finais) {
+        String digitos = Integer.toString(finais);
+        return MASCARA + "0".repeat(DIGITOS_VISIVEIS - digitos.length()) + digitos;
+    }
+}
@@ -1,34 +1,61 @@
 package org.fadesp.pagamentos_api.model;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonProperty;
 import org.fadesp.pagamentos_api.enums.MetodoPagamento;
 import org.fadesp.pagamentos_api.enums.StatusPagamento;
+import org.fadesp.pagamentos_api.fragmentacao.IdFragmentado;
 import jakarta.persistence.*;
 import lombok.Data;
+import org.hibernate.annotations.ColumnDefault;
 import java.math.BigDecimal;
+import java.time.Instant;
 import io.swagger.v3.oas.annotations.media.Schema;
 
 @Data
 @Entity
+@Table(indexes = {
+        // Filtros por pagador, com ou sem status
+        @Index(name = "idx_pagamento_documento_status", columnList = "cpf_cnpj_chave, status"),
+        @Index(name = "idx_pagamento_codigo_debito", columnList = "codigoDebito"),
+        // Filtro por status já ordenado por ID, atendendo à paginação por cursor sem ordenação extra
+        @Index(name = "idx_pagamento_status_id", columnList = "status, id"),
+        // Sincronização incremental por intervalo de atualização, na mesma ordem do cursor (atualizadoEm, id)
+        @Index(name = "idx_pagamento_atualizado_em_id", columnList = "atualizadoEm, id")
+})
 public class Pagamento {
 
+    public static final int TAMANHO_ALOCACAO_ID = 50;
+
+    // Sequência com pool (allocationSize) em vez de IDENTITY: permite ao Hibernate agrupar INSERTs em lote.
+    // Com fragmentação, o ID também carrega o fragmento do pagamento (ver Fragmentacao).
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @IdFragmentado(sequencia = "pagamento_seq", alocacao = Pagamento.TAMANHO_ALOCACAO_ID)
     @Schema(description = "Identificador do pagamento", example = "1")
     private Long id;
 
     @Schema(description = "Código do débito", example = "12345")
     private Integer codigoDebito;
 
-    @Schema(description = "CPF ou CNPJ do pagador", example = "12345678901")
+    // Gravado como chave numérica (BIGINT com o tipo do documento no prefixo); a API continua vendo os dígitos.
+    @Convert(converter = CpfCnpjConverter.class)
+    @Column(name = "cpf_cnpj_chave")
+    @Schema(description = "CPF ou CNPJ do pagador", example = "52998224725")
     private String cpfCnpj;
 
     @Enumerated(EnumType.STRING)
     @Schema(description = "Método de pagamento", example = "CARTAO_CREDITO")
     private MetodoPagamento metodoPagamento;
 
-    @Schema(description = "Número do cartão", example = "4111111111111111")
+    // Só os 4 últimos dígitos são gravados; nas respostas o número vem mascarado.
+    @Convert(converter = NumeroCartaoConverter.class)
+    @Column(name = "cartao_final")
+    @Schema(description = "Número do cartão; nas respostas, mascarado com os 4 últimos dígitos", example = "4111111111111111")
     private String numeroCartao;
 
+    @JsonIgnore
+    private Long cartaoToken;
+
     @Schema(description = "Valor do pagamento", example = "150.75")
     private BigDecimal valor;
 
@@ -38,4 +65,37 @@ public class Pagamento {
 
     @Schema(description = "Registro ativo", example = "true")
     private Boolean ativo = true;
+
+    // Incrementada também pelas atualizações condicionais do repositório, que não passam pelo contexto de persistência.
+    @Version
+    @JsonProperty(access = JsonProperty.Access.READ_ONLY)
+    @ColumnDefault("0")
+    @Column(nullable = false)
+    @Schema(description = "Versão do registro, incrementada a cada alteração", example = "0", accessMode = Schema.AccessMode.READ_ONLY)
+    private Long versao;
+
+    // Preenchidas na criação e, a cada mudança de versão, pelos próprios UPDATEs do repositório. O default preenche
+    // as linhas que já existiam quando as colunas surgiram.
+    @JsonProperty(access = JsonProperty.Access.READ_ONLY)
+    @ColumnDefault("CURRENT_TIMESTAMP")
+    @Schema(description = "Momento da criação", example = "2026-10-18T12:00:00Z", accessMode = Schema.AccessMode.READ_ONLY)
+    private Instant criadoEm;
+
+    @JsonProperty(access = JsonProperty.Access.READ_ONLY)
+    @ColumnDefault("CURRENT_TIMESTAMP")
+    @Schema(description = "Momento da última alteração", example = "2026-10-18T12:00:00Z", accessMode = Schema.AccessMode.READ_ONLY)
+    private Instant atualizadoEm;
+
+    // Reivindicação pelo motor de processamento em segundo plano; não faz parte da API.
+    @JsonIgnore
+    private String tokenProcessamento;
+
+    @JsonIgnore
+    private Instant reivindicadoEm;
+
+    // Última mudança de status, atualizada pelos próprios UPDATEs condicionais; o arquivamento conta a partir
+    // dela a idade dos pagamentos finalizados. O default preenche as linhas que já existiam quando a coluna surgiu.
+    @JsonIgnore
+    @ColumnDefault("CURRENT_TIMESTAMP")
+    private Instant statusAlteradoEm;
 }
@@ -0,0 +1,62 @@
+package org.fadesp.pagamentos_api.model;
+
+import org.fadesp.pagamentos_api.enums.MetodoPagamento;
+import org.fadesp.pagamentos_api.enums.StatusPagamento;
+import jakarta.persistence.*;
+import lombok.Data;
+import org.hibernate.annotations.ColumnDefault;
+import java.math.BigDecimal;
+import java.time.Instant;
+
+/**
+ * Pagamento inativo ou finalizado há mais de {@code pagamentos.arquivamento.idade-finalizados-dias}, movido para
+ * fora da tabela {@code pagamento} pelo arquivamento. Mantém o mesmo ID e os mesmos dados; só é lido quando a
+ * consulta pede {@code arquivados=true}.
+ */
+@Data
+@Entity
+@Table(indexes = {
+        @Index(name = "idx_pagamento_arquivado_documento_status", columnList = "cpf_cnpj_chave, status"),
+        @Index(name = "idx_pagamento_arquivado_codigo_debito", columnList = "codigoDebito"),
+        @Index(name = "idx_pagamento_arquivado_atualizado_em_id", columnList = "atualizadoEm, id")
+})
+public class PagamentoArquivado {
+
+    @Id
+    private Long id;
+
+    private Integer codigoDebito;
+
+    @Convert(converter = CpfCnpjConverter.class)
+    @Column(name = "cpf_cnpj_chave")
+    private String cpfCnpj;
+
+    @Enumerated(EnumType.STRING)
+    private MetodoPagamento metodoPagamento;
+
+    @Convert(converter = NumeroCartaoConverter.class)
+    @Column(name = "cartao_final")
+    private String numeroCartao;
+
+    private Long cartaoToken;
+
+    private BigDecimal valor;
+
+    @Enumerated(EnumType.STRING)
+    private StatusPagamento status;
+
+    private Boolean ativo;
+
+    private Long versao;
+
+    private Instant statusAlteradoEm;
+
+    @ColumnDefault("CURRENT_TIMESTAMP")
+    private Instant criadoEm;
+
+    @ColumnDefault("CURRENT_TIMESTAMP")
+    private Instant atualizadoEm;
+
+    @Column(nullable = false)
+    private Instant arquivadoEm;
+}
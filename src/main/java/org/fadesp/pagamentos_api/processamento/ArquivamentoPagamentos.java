@@ -0,0 +1,116 @@
+package org.fadesp.pagamentos_api.processamento;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.fadesp.pagamentos_api.fragmentacao.Fragmentacao;
+import org.fadesp.pagamentos_api.repository.PagamentoArquivadoRepository;
+import org.fadesp.pagamentos_api.service.PagamentoCache;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Move para a tabela {@code pagamento_arquivado} os pagamentos inativos e os PROCESSADO_* há mais de
+ * {@code pagamentos.arquivamento.idade-finalizados-dias}, para que a tabela {@code pagamento} não cresça
+ * indefinidamente.
+ * <p>
+ * Percorre a tabela em ordem de ID (keyset), em lotes de {@code pagamentos.arquivamento.tamanho-lote}, cada um em
+ * uma transação curta: as linhas ficam travadas apenas durante a cópia e a exclusão do próprio lote. Entre os
+ * lotes há uma pausa de {@code pagamentos.arquivamento.pausa-ms}, e cada execução para após
+ * {@code pagamentos.arquivamento.lotes-por-execucao} lotes, retomando do início na próxima. Com fragmentação,
+ * cada fragmento tem o seu próprio arquivo e a passada percorre um fragmento por vez, com o mesmo limite em cada.
+ */
+@Component
+public class ArquivamentoPagamentos {
+
+    private static final Logger log = LoggerFactory.getLogger(ArquivamentoPagamentos.class);
+
+    private final PagamentoArquivadoRepository repository;
+    private final TransactionTemplate transactionTemplate;
+    private final PagamentoCache cache;
+    private final Fragmentacao fragmentacao;
+    private final boolean habilitado;
+    private final Duration idadeFinalizados;
+    private final int tamanhoLote;
+    private final long pausaMs;
+    private final int lotesPorExecucao;
+    private final Counter arquivados;
+
+    public ArquivamentoPagamentos(PagamentoArquivadoRepository repository,
+                                  TransactionTemplate transactionTemplate,
+                                  PagamentoCache cache,
+                                  Fragmentacao fragmentacao,
+                                  MeterRegistry meterRegistry,
+                                  @Value("${pagamentos.arquivamento.habilitado:false}") boolean habilitado,
+                                  @Value("${pagamentos.arquivamento.idade-finalizados-dias:30}") long idadeFinalizadosDias,
+                                  @Value("${pagamentos.arquivamento.tamanho-lote:500}") int tamanhoLote,
+                                  @Value("${pagamentos.arquivamento.pausa-ms:100}") long pausaMs,
+                                  @Value("${pagamentos.arquivamento.lotes-por-execucao:200}") int lotesPorExecucao) {
+        this.repository = repository;
+        this.transactionTemplate = transactionTemplate;
+        this.cache = cache;
+        this.fragmentacao = fragmentacao;
+        this.habilitado = habilitado;
+        this.idadeFinalizados = Duration.ofDays(idadeFinalizadosDias);
+        this.tamanhoLote = tamanhoLote;
+        this.pausaMs = pausaMs;
+        this.lotesPorExecucao = lotesPorExecucao;
+        this.arquivados = Counter.builder("pagamentos.arquivamento.arquivados")
+                .description("Pagamentos movidos para o arquivo")
+                .register(meterRegistry);
+    }
+
+    @Scheduled(fixedDelayString = "${pagamentos.arquivamento.intervalo-ms:600000}",
+            initialDelayString = "${pagamentos.arquivamento.intervalo-ms:600000}")
+    void agendar() {
+        if (habilitado) {
+            arquivar();
+        }
+    }
+
+    /** Executa uma passada do arquivamento e retorna quantos pagamentos foram movidos. */
+    public int arquivar() {
+        Instant finalizadosAntesDe = Instant.now().minus(idadeFinalizados);
+        int[] total = new int[1];
+        fragmentacao.paraCada(fragmento -> total[0] += arquivarFragmento(finalizadosAntesDe));
+
+        if (total[0] > 0) {
+            log.info("{} pagamentos movidos para o arquivo", total[0]);
+        }
+        return total[0];
+    }
+
+    private int arquivarFragmento(Instant finalizadosAntesDe) {
+        long aposId = 0;
+        int total = 0;
+
+        for (int lote = 0; lote < lotesPorExecucao; lote++) {
+            long inicio = aposId;
+            List<Long> ids = transactionTemplate.execute(status ->
+                    repository.arquivarLote(inicio, finalizadosAntesDe, tamanhoLote, Instant.now()));
+
+            ids.forEach(cache::invalidar);
+            arquivados.increment(ids.size());
+            total += ids.size();
+            if (ids.size() < tamanhoLote) {
+                break;
+            }
+            aposId = ids.get(ids.size() - 1);
+
+            try {
+                Thread.sleep(pausaMs);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+        }
+        return total;
+    }
+}
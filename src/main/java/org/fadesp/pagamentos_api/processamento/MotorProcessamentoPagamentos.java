@@ -0,0 +1,255 @@
+package org.fadesp.pagamentos_api.processamento;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import org.fadesp.pagamentos_api.enums.MetodoPagamento;
+import org.fadesp.pagamentos_api.enums.StatusPagamento;
+import org.fadesp.pagamentos_api.evento.PagamentoAlteradoEvent;
+import org.fadesp.pagamentos_api.fragmentacao.Fragmentacao;
+import org.fadesp.pagamentos_api.model.Pagamento;
+import org.fadesp.pagamentos_api.repository.PagamentoRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Drena os pagamentos PENDENTE em lotes: reivindica um lote com um token próprio (o que permite várias
+ * instâncias em paralelo), processa cada pagamento no {@link ProcessadorPagamento} do seu método em um pool
+ * de threads limitado e grava os resultados com um UPDATE por status final.
+ * <p>
+ * Reivindicações de instâncias que caíram expiram após {@code pagamentos.processamento.reivindicacao-expira-segundos}
+ * e voltam a ficar disponíveis. Com fragmentação, cada ciclo drena os fragmentos um após o outro.
+ */
+@Component
+public class MotorProcessamentoPagamentos {
+
+    private static final Logger log = LoggerFactory.getLogger(MotorProcessamentoPagamentos.class);
+
+    private final PagamentoRepository repository;
+    private final TransactionTemplate transactionTemplate;
+    private final ApplicationEventPublisher eventos;
+    private final Fragmentacao fragmentacao;
+    private final Map<MetodoPagamento, ProcessadorPagamento> processadores = new EnumMap<>(MetodoPagamento.class);
+    private final ThreadPoolExecutor executor;
+    private final boolean habilitado;
+    private final int tamanhoLote;
+    private final Duration expiracaoReivindicacao;
+
+    private final Timer duracaoLote;
+    private final DistributionSummary vazaoLote;
+    private final Counter sucessos;
+    private final Counter falhas;
+    private final Counter erros;
+    private final AtomicLongArray pendentes;
+
+    public MotorProcessamentoPagamentos(PagamentoRepository repository,
+                                        TransactionTemplate transactionTemplate,
+                                        ApplicationEventPublisher eventos,
+                                        Fragmentacao fragmentacao,
+                                        List<ProcessadorPagamento> processadores,
+                                        MeterRegistry meterRegistry,
+                                        @Value("${pagamentos.processamento.habilitado:false}") boolean habilitado,
+                                        @Value("${pagamentos.processamento.tamanho-lote:100}") int tamanhoLote,
+                                        @Value("${pagamentos.processamento.threads:4}") int threads,
+                                        @Value("${pagamentos.processamento.reivindicacao-expira-segundos:60}") long expiracaoSegundos) {
+        this.repository = repository;
+        this.transactionTemplate = transactionTemplate;
+        this.eventos = eventos;
+        this.fragmentacao = fragmentacao;
+        this.pendentes = new AtomicLongArray(fragmentacao.quantidade());
+        this.habilitado = habilitado;
+        this.tamanhoLote = tamanhoLote;
+        this.expiracaoReivindicacao = Duration.ofSeconds(expiracaoSegundos);
+
+        // A lista já vem ordenada por @Order: o primeiro processador que atende o método vence.
+        for (MetodoPagamento metodo : MetodoPagamento.values()) {
+            processadores.stream()
+                    .filter(processador -> processador.suporta(metodo))
+                    .findFirst()
+                    .ifPresent(processador -> this.processadores.put(metodo, processador));
+        }
+
+        AtomicInteger sequenciaThreads = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(Math.max(tamanhoLote, 1)),
+                tarefa -> {
+                    Thread thread = new Thread(tarefa, "processamento-pagamentos-" + sequenciaThreads.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.CallerRunsPolicy());
+
+        this.duracaoLote = Timer.builder("pagamentos.processamento.lote.duracao")
+                .description("Tempo para reivindicar, processar e gravar um lote")
+                .register(meterRegistry);
+        this.vazaoLote = DistributionSummary.builder("pagamentos.processamento.lote.vazao")
+                .description("Pagamentos processados por segundo em cada lote")
+                .baseUnit("pagamentos/s")
+                .register(meterRegistry);
+        this.sucessos = contadorDeResultado(meterRegistry, "sucesso");
+        this.falhas = contadorDeResultado(meterRegistry, "falha");
+        this.erros = contadorDeResultado(meterRegistry, "erro");
+        Gauge.builder("pagamentos.processamento.pendentes", this, MotorProcessamentoPagamentos::pendentes)
+                .description("Pagamentos PENDENTE ativos aguardando processamento (atraso do motor)")
+                .register(meterRegistry);
+    }
+
+    private static Counter contadorDeResultado(MeterRegistry meterRegistry, String resultado) {
+        return Counter.builder("pagamentos.processamento.resultados")
+                .description("Pagamentos processados, por resultado")
+                .tag("resultado", resultado)
+                .register(meterRegistry);
+    }
+
+    @Scheduled(fixedDelayString = "${pagamentos.processamento.intervalo-ms:1000}")
+    public void executarAgendado() {
+        if (!habilitado) {
+            return;
+        }
+        // Enquanto os lotes vierem cheios há fila acumulada: segue drenando sem esperar o próximo ciclo.
+        fragmentacao.paraCada(fragmento -> {
+            int reivindicados;
+            do {
+                reivindicados = processarLote();
+            } while (reivindicados == tamanhoLote && !executor.isShutdown());
+        });
+    }
+
+    private double pendentes() {
+        long total = 0;
+        for (int fragmento = 0; fragmento < pendentes.length(); fragmento++) {
+            total += pendentes.get(fragmento);
+        }
+        return total;
+    }
+
+    /**
+     * Processa um lote de pagamentos pendentes do fragmento atual.
+     *
+     * @return quantidade de pagamentos reivindicados neste lote
+     */
+    public int processarLote() {
+        long inicio = System.nanoTime();
+        String token = UUID.randomUUID().toString();
+        Instant agora = Instant.now();
+
+        int reivindicados = repository.reivindicarPendentes(token, agora, agora.minus(expiracaoReivindicacao), tamanhoLote);
+        if (reivindicados == 0) {
+            // Nada disponível não significa fila vazia: pode haver pendentes reivindicados por outro lote ou instância.
+            pendentes.set(Fragmentacao.atual(), repository.countByStatusAndAtivoTrue(StatusPagamento.PENDENTE));
+            return 0;
+        }
+
+        List<Pagamento> pagamentos = repository.findByTokenProcessamento(token);
+        List<Future<StatusPagamento>> resultados = new ArrayList<>(pagamentos.size());
+        for (Pagamento pagamento : pagamentos) {
+            resultados.add(executor.submit(() -> processar(pagamento)));
+        }
+
+        List<Pagamento> concluidos = new ArrayList<>();
+        List<Long> aprovados = new ArrayList<>();
+        List<Long> reprovados = new ArrayList<>();
+        List<Long> comErro = new ArrayList<>();
+        for (int i = 0; i < pagamentos.size(); i++) {
+            Pagamento pagamento = pagamentos.get(i);
+            Long id = pagamento.getId();
+            try {
+                StatusPagamento resultado = resultados.get(i).get();
+                if (resultado == StatusPagamento.PROCESSADO_SUCESSO) {
+                    aprovados.add(id);
+                } else if (resultado == StatusPagamento.PROCESSADO_FALHA) {
+                    reprovados.add(id);
+                } else {
+                    log.warn("Processador retornou status inválido {} para o pagamento {}", resultado, id);
+                    comErro.add(id);
+                    continue;
+                }
+                pagamento.setStatus(resultado);
+                concluidos.add(pagamento);
+            } catch (ExecutionException e) {
+                log.warn("Erro ao processar o pagamento {}; ele continuará PENDENTE", id, e.getCause());
+                comErro.add(id);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                comErro.add(id);
+            }
+        }
+
+        // Só os IDs que a conclusão alterou geram evento e contam como resultado: um pagamento alterado pelo PATCH,
+        // inativado ou reivindicado de novo depois que a reivindicação deste lote expirou fica como está.
+        Set<Long> gravados = new HashSet<>();
+        int[] gravadosPorResultado = new int[2];
+        transactionTemplate.executeWithoutResult(status -> {
+            List<Long> gravadosSucesso =
+                    repository.concluirProcessamento(token, aprovados, StatusPagamento.PROCESSADO_SUCESSO);
+            List<Long> gravadosFalha =
+                    repository.concluirProcessamento(token, reprovados, StatusPagamento.PROCESSADO_FALHA);
+            repository.liberarReivindicacao(token, comErro);
+            gravadosPorResultado[0] = gravadosSucesso.size();
+            gravadosPorResultado[1] = gravadosFalha.size();
+            gravados.addAll(gravadosSucesso);
+            gravados.addAll(gravadosFalha);
+            for (Pagamento pagamento : concluidos) {
+                if (gravados.contains(pagamento.getId())) {
+                    pagamento.setVersao(pagamento.getVersao() + 1);
+                    eventos.publishEvent(PagamentoAlteradoEvent.statusAlterado(pagamento, StatusPagamento.PENDENTE));
+                }
+            }
+        });
+
+        long duracaoNanos = System.nanoTime() - inicio;
+        duracaoLote.record(duracaoNanos, TimeUnit.NANOSECONDS);
+        vazaoLote.record(pagamentos.size() / (duracaoNanos / 1e9));
+        sucessos.increment(gravadosPorResultado[0]);
+        falhas.increment(gravadosPorResultado[1]);
+        erros.increment(comErro.size());
+        long pendentesNoFragmento = repository.countByStatusAndAtivoTrue(StatusPagamento.PENDENTE);
+        pendentes.set(Fragmentacao.atual(), pendentesNoFragmento);
+
+        log.debug("Lote {} processado em {} ms: {} sucesso, {} falha, {} erro, {} pendentes",
+                token, TimeUnit.NANOSECONDS.toMillis(duracaoNanos), gravadosPorResultado[0], gravadosPorResultado[1],
+                comErro.size(), pendentesNoFragmento);
+
+        return reivindicados;
+    }
+
+    private StatusPagamento processar(Pagamento pagamento) {
+        ProcessadorPagamento processador = pagamento.getMetodoPagamento() == null
+                ? null : processadores.get(pagamento.getMetodoPagamento());
+        if (processador == null) {
+            return StatusPagamento.PROCESSADO_FALHA;
+        }
+        return processador.processar(pagamento);
+    }
+
+    @PreDestroy
+    void encerrar() throws InterruptedException {
+        executor.shutdown();
+        executor.awaitTermination(30, TimeUnit.SECONDS);
+    }
+}
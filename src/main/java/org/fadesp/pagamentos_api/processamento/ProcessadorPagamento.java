@@ -0,0 +1,21 @@
+package org.fadesp.pagamentos_api.processamento;
+
+import org.fadesp.pagamentos_api.enums.MetodoPagamento;
+import org.fadesp.pagamentos_api.enums.StatusPagamento;
+import org.fadesp.pagamentos_api.model.Pagamento;
+
+/**
+ * Integração que efetivamente processa um pagamento junto ao meio de pagamento.
+ * Cada implementação declara os métodos que atende; quando mais de uma atende o mesmo método,
+ * vale a de maior precedência ({@link org.springframework.core.annotation.Order}).
+ */
+public interface ProcessadorPagamento {
+
+    boolean suporta(MetodoPagamento metodoPagamento);
+
+    /**
+     * Processa o pagamento e retorna o status final: {@link StatusPagamento#PROCESSADO_SUCESSO}
+     * ou {@link StatusPagamento#PROCESSADO_FALHA}. Exceções mantêm o pagamento PENDENTE para nova tentativa.
+     */
+    StatusPagamento processar(Pagamento pagamento);
+}
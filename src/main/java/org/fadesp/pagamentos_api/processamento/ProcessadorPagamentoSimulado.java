@@ -0,0 +1,56 @@
+package org.fadesp.pagamentos_api.processamento;
+
+import org.fadesp.pagamentos_api.enums.MetodoPagamento;
+import org.fadesp.pagamentos_api.enums.StatusPagamento;
+import org.fadesp.pagamentos_api.model.Pagamento;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Processador local, sem integração externa, que atende todos os métodos de pagamento.
+ * Aprova pagamentos com valor positivo (e número de cartão, para métodos de cartão) e reprova os demais.
+ * Fica com a menor precedência para que integrações reais o substituam.
+ */
+@Component
+@Order(Ordered.LOWEST_PRECEDENCE)
+public class ProcessadorPagamentoSimulado implements ProcessadorPagamento {
+
+    private final long latenciaMs;
+
+    public ProcessadorPagamentoSimulado(@Value("${pagamentos.processamento.simulado.latencia-ms:0}") long latenciaMs) {
+        this.latenciaMs = latenciaMs;
+    }
+
+    @Override
+    public boolean suporta(MetodoPagamento metodoPagamento) {
+        return true;
+    }
+
+    @Override
+    public StatusPagamento processar(Pagamento pagamento) {
+        simularLatencia();
+
+        boolean valorValido = pagamento.getValor() != null && pagamento.getValor().compareTo(BigDecimal.ZERO) > 0;
+        boolean cartao = pagamento.getMetodoPagamento() == MetodoPagamento.CARTAO_CREDITO
+                || pagamento.getMetodoPagamento() == MetodoPagamento.CARTAO_DEBITO;
+        boolean cartaoValido = !cartao || (pagamento.getNumeroCartao() != null && !pagamento.getNumeroCartao().isBlank());
+
+        return valorValido && cartaoValido ? StatusPagamento.PROCESSADO_SUCESSO : StatusPagamento.PROCESSADO_FALHA;
+    }
+
+    private void simularLatencia() {
+        if (latenciaMs > 0) {
+            try {
+                TimeUnit.MILLISECONDS.sleep(latenciaMs);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Processamento interrompido", e);
+            }
+        }
+    }
+}
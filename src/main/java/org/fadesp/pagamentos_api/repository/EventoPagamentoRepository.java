@@ -0,0 +1,33 @@
+package org.fadesp.pagamentos_api.repository;
+
+import org.fadesp.pagamentos_api.dto.EventoPagamentoDTO;
+import org.fadesp.pagamentos_api.model.EventoPagamento;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+
+public interface EventoPagamentoRepository extends
+        JpaRepository<EventoPagamento, Long>,
+        EventoPagamentoRepositoryCustom {
+
+    List<EventoPagamentoDTO> findBySequenciaGreaterThanOrderBySequenciaAsc(Long sequencia, Limit limit);
+
+    List<EventoPagamentoDTO> findBySequenciaGreaterThanAndSequenciaLessThanEqualOrderBySequenciaAsc(
+            Long sequencia, Long ate, Limit limit);
+
+    List<EventoPagamentoDTO> findBySequenciaInOrderBySequenciaAsc(Collection<Long> sequencias);
+
+    @Query("SELECT COALESCE(MAX(e.sequencia), 0) FROM EventoPagamento e")
+    long findUltimaSequencia();
+
+    @Transactional
+    @Modifying
+    @Query("DELETE FROM EventoPagamento e WHERE e.ocorridoEm < :limite")
+    int excluirAnterioresA(Instant limite);
+}
@@ -0,0 +1,11 @@
+package org.fadesp.pagamentos_api.repository;
+
+import org.fadesp.pagamentos_api.model.EventoPagamento;
+
+import java.util.List;
+
+public interface EventoPagamentoRepositoryCustom {
+
+    /** Grava os eventos com um único INSERT em lote, na transação corrente; a sequência é atribuída pelo banco. */
+    void inserirEmLote(List<EventoPagamento> eventos);
+}
@@ -0,0 +1,32 @@
+package org.fadesp.pagamentos_api.repository;
+
+import org.fadesp.pagamentos_api.model.EventoPagamento;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.util.List;
+
+class EventoPagamentoRepositoryImpl implements EventoPagamentoRepositoryCustom {
+
+    private final JdbcTemplate jdbcTemplate;
+
+    EventoPagamentoRepositoryImpl(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @Override
+    public void inserirEmLote(List<EventoPagamento> eventos) {
+        jdbcTemplate.batchUpdate("INSERT INTO evento_pagamento "
+                        + "(pagamento_id, tipo, status_anterior, status, ativo, versao, ocorrido_em) VALUES (?, ?, ?, ?, ?, ?, ?)",
+                eventos, eventos.size(), (ps, evento) -> {
+                    ps.setLong(1, evento.getPagamentoId());
+                    ps.setString(2, evento.getTipo().name());
+                    ps.setString(3, evento.getStatusAnterior() == null ? null : evento.getStatusAnterior().name());
+                    ps.setString(4, evento.getStatus() == null ? null : evento.getStatus().name());
+                    ps.setObject(5, evento.getAtivo(), Types.BOOLEAN);
+                    ps.setObject(6, evento.getVersao(), Types.BIGINT);
+                    ps.setTimestamp(7, Timestamp.from(evento.getOcorridoEm()));
+                });
+    }
+}
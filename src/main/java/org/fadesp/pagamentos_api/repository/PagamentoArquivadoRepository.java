@@ -0,0 +1,15 @@
+package org.fadesp.pagamentos_api.repository;
+
+import org.fadesp.pagamentos_api.dto.PagamentoDTO;
+import org.fadesp.pagamentos_api.model.PagamentoArquivado;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+import java.util.List;
+
+public interface PagamentoArquivadoRepository extends
+        JpaRepository<PagamentoArquivado, Long>,
+        PagamentoArquivadoRepositoryCustom {
+
+    List<PagamentoDTO> findByIdGreaterThanOrderByIdAsc(Long id, Limit limit);
+}
@@ -0,0 +1,24 @@
+package org.fadesp.pagamentos_api.repository;
+
+import org.fadesp.pagamentos_api.dto.PagamentoDTO;
+import org.fadesp.pagamentos_api.model.PagamentoArquivado;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.time.Instant;
+import java.util.List;
+
+public interface PagamentoArquivadoRepositoryCustom {
+
+    /** Mesma projeção de {@link PagamentoRepositoryCustom#filtrarProjetado}, sobre o arquivo. */
+    List<PagamentoDTO> filtrarProjetado(Specification<PagamentoArquivado> spec, int limite);
+
+    /** Mesma projeção de {@link PagamentoRepositoryCustom#filtrarProjetadoPorAtualizacao}, sobre o arquivo. */
+    List<PagamentoDTO> filtrarProjetadoPorAtualizacao(Specification<PagamentoArquivado> spec, int limite);
+
+    /**
+     * Move para o arquivo, na transação corrente, até {@code limite} pagamentos com ID maior que {@code aposId},
+     * em ordem de ID, que estejam inativos ou PROCESSADO_* desde antes de {@code finalizadosAntesDe}.
+     * As linhas ficam travadas só até o fim da transação. Retorna os IDs movidos, em ordem.
+     */
+    List<Long> arquivarLote(long aposId, Instant finalizadosAntesDe, int limite, Instant agora);
+}
@@ -0,0 +1,60 @@
+package org.fadesp.pagamentos_api.repository;
+
+import jakarta.persistence.EntityManager;
+import org.fadesp.pagamentos_api.dto.PagamentoDTO;
+import org.fadesp.pagamentos_api.model.PagamentoArquivado;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * A movimentação é feita em SQL, de tabela para tabela: as linhas não passam pela JVM nem pelo contexto de persistência.
+ * Arquivar conta como alteração: a cópia sai com a {@code versao} seguinte e {@code atualizado_em} igual a
+ * {@code arquivado_em}, para que uma sincronização incremental encontre no arquivo o que sumiu da tabela principal.
+ */
+class PagamentoArquivadoRepositoryImpl implements PagamentoArquivadoRepositoryCustom {
+
+    private static final String COLUNAS = "id, codigo_debito, cpf_cnpj_chave, metodo_pagamento, cartao_final, cartao_token, "
+            + "valor, status, ativo, versao, status_alterado_em, criado_em, atualizado_em";
+    private static final String COLUNAS_ORIGEM = "id, codigo_debito, cpf_cnpj_chave, metodo_pagamento, cartao_final, "
+            + "cartao_token, valor, status, ativo, versao + 1, status_alterado_em, criado_em, ?";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final EntityManager entityManager;
+
+    PagamentoArquivadoRepositoryImpl(JdbcTemplate jdbcTemplate, EntityManager entityManager) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.entityManager = entityManager;
+    }
+
+    @Override
+    public List<PagamentoDTO> filtrarProjetado(Specification<PagamentoArquivado> spec, int limite) {
+        return PagamentoRepositoryImpl.filtrarProjetado(entityManager, PagamentoArquivado.class, spec, limite, false);
+    }
+
+    @Override
+    public List<PagamentoDTO> filtrarProjetadoPorAtualizacao(Specification<PagamentoArquivado> spec, int limite) {
+        return PagamentoRepositoryImpl.filtrarProjetado(entityManager, PagamentoArquivado.class, spec, limite, true);
+    }
+
+    @Override
+    public List<Long> arquivarLote(long aposId, Instant finalizadosAntesDe, int limite, Instant agora) {
+        List<Long> ids = jdbcTemplate.queryForList("SELECT id FROM pagamento WHERE id > ? AND (ativo = FALSE "
+                        + "OR (status IN ('PROCESSADO_SUCESSO', 'PROCESSADO_FALHA') AND status_alterado_em < ?)) "
+                        + "ORDER BY id FETCH FIRST ? ROWS ONLY FOR UPDATE",
+                Long.class, aposId, Timestamp.from(finalizadosAntesDe), limite);
+        if (ids.isEmpty()) {
+            return ids;
+        }
+
+        Long[] selecionados = ids.toArray(new Long[0]);
+        Timestamp arquivadoEm = Timestamp.from(agora);
+        jdbcTemplate.update("INSERT INTO pagamento_arquivado (" + COLUNAS + ", arquivado_em) SELECT " + COLUNAS_ORIGEM
+                + ", ? FROM pagamento WHERE id = ANY(?)", arquivadoEm, arquivadoEm, selecionados);
+        jdbcTemplate.update("DELETE FROM pagamento WHERE id = ANY(?)", (Object) selecionados);
+        return ids;
+    }
+}
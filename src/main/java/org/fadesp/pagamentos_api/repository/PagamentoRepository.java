@@ -1,9 +1,47 @@
 package org.fadesp.pagamentos_api.repository;
 
+import jakarta.persistence.LockModeType;
+import org.fadesp.pagamentos_api.dto.ItemResumo;
+import org.fadesp.pagamentos_api.dto.PagamentoDTO;
+import org.fadesp.pagamentos_api.enums.StatusPagamento;
 import org.fadesp.pagamentos_api.model.Pagamento;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+
+import java.util.Collection;
+import java.util.List;
 
 public interface PagamentoRepository extends
         JpaRepository<Pagamento, Long>,
-        JpaSpecificationExecutor<Pagamento> {}
\ No newline at end of file
+        JpaSpecificationExecutor<Pagamento>,
+        PagamentoRepositoryCustom {
+
+    List<PagamentoDTO> findByIdGreaterThanAndAtivoTrueOrderByIdAsc(Long id, Limit limit);
+
+    List<Pagamento> findByTokenProcessamento(String tokenProcessamento);
+
+    // Trava as linhas até o fim da transação, para que o UPDATE em lote seguinte atinja exatamente as lidas.
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    List<Pagamento> findByIdIn(Collection<Long> ids);
+
+    long countByStatusAndAtivoTrue(StatusPagamento status);
+
+    // Inclui o arquivo na mesma consulta: um lote arquivado entre duas consultas separadas seria contado duas vezes ou nenhuma.
+    @Query("""
+            SELECT new org.fadesp.pagamentos_api.dto.ItemResumo(t.status, t.metodoPagamento, t.ativo, SUM(t.quantidade), SUM(t.valor))
+            FROM (
+                SELECT p.status AS status, p.metodoPagamento AS metodoPagamento, p.ativo AS ativo,
+                       COUNT(p) AS quantidade, SUM(p.valor) AS valor
+                FROM Pagamento p
+                GROUP BY p.status, p.metodoPagamento, p.ativo
+                UNION ALL
+                SELECT a.status, a.metodoPagamento, a.ativo, COUNT(a), SUM(a.valor)
+                FROM PagamentoArquivado a
+                GROUP BY a.status, a.metodoPagamento, a.ativo
+            ) t
+            GROUP BY t.status, t.metodoPagamento, t.ativo""")
+    List<ItemResumo> resumirPorStatusMetodoEAtivo();
+}
@@ -0,0 +1,82 @@
+package org.fadesp.pagamentos_api.repository;
+
+import org.fadesp.pagamentos_api.dto.PagamentoDTO;
+import org.fadesp.pagamentos_api.enums.StatusPagamento;
+import org.fadesp.pagamentos_api.model.Pagamento;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Operações de escrita condicionais, executadas como um único UPDATE guardado por status.
+ * Retornam a quantidade de linhas alteradas (0 ou 1) ou, na mudança de status, o status anterior: zero (ou vazio)
+ * indica que o pagamento não existe ou que o status atual não permite a operação. Toda alteração que incrementa a versão também grava
+ * {@code atualizado_em}. Inclui também as leituras que dispensam a entidade.
+ */
+public interface PagamentoRepositoryCustom {
+
+    /** Lê somente o status atual, sem hidratar a entidade. */
+    Optional<StatusPagamento> findStatusById(Long id);
+
+    /** Lê somente a versão atual, pela chave primária, para validar ETags sem hidratar a entidade. */
+    Optional<Long> findVersaoById(Long id);
+
+    /**
+     * Consulta direto na projeção {@link PagamentoDTO}, em ordem de ID, até {@code limite} itens:
+     * sem entidades gerenciadas nem snapshots para dirty checking.
+     */
+    List<PagamentoDTO> filtrarProjetado(Specification<Pagamento> spec, int limite);
+
+    /** Mesma projeção de {@link #filtrarProjetado}, em ordem de {@code (atualizadoEm, id)}. */
+    List<PagamentoDTO> filtrarProjetadoPorAtualizacao(Specification<Pagamento> spec, int limite);
+
+    /**
+     * Avança a sequência {@code pagamento_seq} e devolve o topo do bloco de
+     * {@link Pagamento#TAMANHO_ALOCACAO_ID} IDs reservado, no mesmo formato usado pelo otimizador "pooled" do
+     * Hibernate, para reservar IDs antes da gravação sem colidir com os que ele atribui.
+     */
+    long reservarBlocoIds();
+
+    /**
+     * Insere pagamentos já preparados e com ID reservado, em um único lote JDBC, com versão 0. Não passa pelo
+     * contexto de persistência.
+     */
+    void inserirEmLote(List<Pagamento> pagamentos);
+
+    /**
+     * Leva o pagamento a {@code novoStatus} se o status atual estiver em {@code origens}, em um único UPDATE
+     * condicional, e devolve o status que ele tinha: vazio quando nada foi alterado. {@code origens} deve ter um
+     * único status, como em {@link StatusPagamento#origensPermitidas()}.
+     */
+    Optional<StatusPagamento> atualizarStatusSeOrigemPermitida(Long id, StatusPagamento novoStatus,
+                                                               Collection<StatusPagamento> origens);
+
+    /** Mesma regra de {@link #atualizarStatusSeOrigemPermitida}, para vários IDs em um único UPDATE. */
+    int atualizarStatusEmLoteSeOrigemPermitida(Collection<Long> ids, StatusPagamento novoStatus,
+                                               Collection<StatusPagamento> origens);
+
+    /** Inativa o pagamento se ainda estiver PENDENTE, desfazendo uma reivindicação do motor de processamento. */
+    int inativarSePendente(Long id);
+
+    /**
+     * Marca com o token até {@code limite} pagamentos PENDENTE ativos, em ordem de ID, que não estejam
+     * reivindicados ou cuja reivindicação seja anterior a {@code expiradoAntesDe}. Várias instâncias podem
+     * chamar em paralelo: cada linha fica com um único token.
+     */
+    int reivindicarPendentes(String token, Instant agora, Instant expiradoAntesDe, int limite);
+
+    /**
+     * Grava o resultado do processamento para os IDs informados em um único UPDATE, desde que ainda
+     * estejam PENDENTE, ativos e reivindicados pelo mesmo token. Libera a reivindicação.
+     *
+     * @return os IDs efetivamente alterados: ficam de fora os que mudaram de status, foram inativados ou tiveram a
+     *         reivindicação tomada por outro lote depois de reivindicados
+     */
+    List<Long> concluirProcessamento(String token, Collection<Long> ids, StatusPagamento resultado);
+
+    /** Libera a reivindicação dos IDs informados, mantendo-os PENDENTE para uma nova tentativa. */
+    int liberarReivindicacao(String token, Collection<Long> ids);
+}
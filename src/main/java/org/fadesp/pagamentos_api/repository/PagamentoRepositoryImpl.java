@@ -0,0 +1,223 @@
+package org.fadesp.pagamentos_api.repository;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import org.fadesp.pagamentos_api.dto.PagamentoDTO;
+import org.fadesp.pagamentos_api.enums.StatusPagamento;
+import org.fadesp.pagamentos_api.model.CpfCnpjConverter;
+import org.fadesp.pagamentos_api.model.NumeroCartaoConverter;
+import org.fadesp.pagamentos_api.model.Pagamento;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Os UPDATEs condicionais e a leitura de status vão direto ao JDBC (na mesma transação JPA): neste caminho quente,
+ * interpretar um UPDATE em JPQL custa várias vezes mais que o próprio comando no banco. O filtro projetado usa
+ * Criteria para reaproveitar a mesma {@link Specification} do filtro por entidades.
+ */
+class PagamentoRepositoryImpl implements PagamentoRepositoryCustom {
+
+    private static final CpfCnpjConverter CPF_CNPJ = new CpfCnpjConverter();
+    private static final NumeroCartaoConverter CARTAO = new NumeroCartaoConverter();
+
+    private final JdbcTemplate jdbcTemplate;
+    private final EntityManager entityManager;
+
+    PagamentoRepositoryImpl(JdbcTemplate jdbcTemplate, EntityManager entityManager) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.entityManager = entityManager;
+    }
+
+    @Override
+    public Optional<StatusPagamento> findStatusById(Long id) {
+        return jdbcTemplate.query("SELECT status FROM pagamento WHERE id = ?",
+                        (rs, linha) -> StatusPagamento.valueOf(rs.getString(1)), id)
+                .stream().findFirst();
+    }
+
+    @Override
+    public Optional<Long> findVersaoById(Long id) {
+        return jdbcTemplate.queryForList("SELECT versao FROM pagamento WHERE id = ?", Long.class, id)
+                .stream().findFirst();
+    }
+
+    @Override
+    public List<PagamentoDTO> filtrarProjetado(Specification<Pagamento> spec, int limite) {
+        return filtrarProjetado(entityManager, Pagamento.class, spec, limite, false);
+    }
+
+    @Override
+    public List<PagamentoDTO> filtrarProjetadoPorAtualizacao(Specification<Pagamento> spec, int limite) {
+        return filtrarProjetado(entityManager, Pagamento.class, spec, limite, true);
+    }
+
+    /**
+     * Compartilhado com o arquivo, cujas colunas têm os mesmos nomes. Ordena por ID ou, com
+     * {@code porAtualizacao}, por {@code (atualizadoEm, id)}, a ordem do índice de atualização.
+     */
+    static <T> List<PagamentoDTO> filtrarProjetado(EntityManager entityManager, Class<T> entidade,
+                                                   Specification<T> spec, int limite, boolean porAtualizacao) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<PagamentoDTO> query = cb.createQuery(PagamentoDTO.class);
+        Root<T> root = query.from(entidade);
+
+        query.select(cb.construct(PagamentoDTO.class,
+                root.get("id"), root.get("codigoDebito"), root.get("cpfCnpj"), root.get("metodoPagamento"),
+                root.get("numeroCartao"), root.get("valor"), root.get("status"), root.get("ativo"), root.get("versao"),
+                root.get("criadoEm"), root.get("atualizadoEm")));
+        Predicate predicado = spec.toPredicate(root, query, cb);
+        if (predicado != null) {
+            query.where(predicado);
+        }
+        if (porAtualizacao) {
+            query.orderBy(cb.asc(root.get("atualizadoEm")), cb.asc(root.get("id")));
+        } else {
+            query.orderBy(cb.asc(root.get("id")));
+        }
+
+        return entityManager.createQuery(query).setMaxResults(limite).getResultList();
+    }
+
+    @Override
+    public long reservarBlocoIds() {
+        return jdbcTemplate.queryForObject("SELECT NEXT VALUE FOR pagamento_seq", Long.class);
+    }
+
+    @Override
+    public void inserirEmLote(List<Pagamento> pagamentos) {
+        jdbcTemplate.batchUpdate("INSERT INTO pagamento (id, codigo_debito, cpf_cnpj_chave, metodo_pagamento, cartao_final, "
+                        + "cartao_token, valor, status, ativo, versao, status_alterado_em, criado_em, atualizado_em) "
+                        + "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, 0, ?, ?, ?)",
+                pagamentos, pagamentos.size(), (ps, pagamento) -> {
+                    ps.setLong(1, pagamento.getId());
+                    ps.setObject(2, pagamento.getCodigoDebito());
+                    ps.setObject(3, CPF_CNPJ.convertToDatabaseColumn(pagamento.getCpfCnpj()));
+                    ps.setString(4, pagamento.getMetodoPagamento() == null ? null : pagamento.getMetodoPagamento().name());
+                    ps.setObject(5, CARTAO.convertToDatabaseColumn(pagamento.getNumeroCartao()));
+                    ps.setObject(6, pagamento.getCartaoToken());
+                    ps.setBigDecimal(7, pagamento.getValor());
+                    ps.setString(8, pagamento.getStatus().name());
+                    ps.setBoolean(9, pagamento.getAtivo());
+                    ps.setTimestamp(10, Timestamp.from(pagamento.getStatusAlteradoEm()));
+                    ps.setTimestamp(11, Timestamp.from(pagamento.getCriadoEm()));
+                    ps.setTimestamp(12, Timestamp.from(pagamento.getAtualizadoEm()));
+                });
+    }
+
+    @Override
+    public Optional<StatusPagamento> atualizarStatusSeOrigemPermitida(Long id, StatusPagamento novoStatus,
+                                                                      Collection<StatusPagamento> origens) {
+        Object[] parametros = new Object[origens.size() + 2];
+        parametros[0] = novoStatus.name();
+        parametros[1] = id;
+        int i = 2;
+        for (StatusPagamento origem : origens) {
+            parametros[i++] = origem.name();
+        }
+        int alterados = executar("UPDATE pagamento SET status = ?, versao = versao + 1, atualizado_em = CURRENT_TIMESTAMP, "
+                + "status_alterado_em = CURRENT_TIMESTAMP WHERE id = ? AND status IN ("
+                + marcadores(origens.size()) + ")", parametros);
+        // Cada status de destino tem uma única origem permitida, que é portanto o status que o UPDATE substituiu.
+        return alterados == 0 ? Optional.empty() : Optional.of(origens.iterator().next());
+    }
+
+    @Override
+    public int atualizarStatusEmLoteSeOrigemPermitida(Collection<Long> ids, StatusPagamento novoStatus,
+                                                      Collection<StatusPagamento> origens) {
+        if (ids.isEmpty()) {
+            return 0;
+        }
+        // Um único parâmetro ARRAY em vez de milhares de marcadores: o comando fica curto e o banco busca pelo índice.
+        Object[] parametros = new Object[2 + origens.size()];
+        parametros[0] = novoStatus.name();
+        parametros[1] = ids.toArray(new Long[0]);
+        int i = 2;
+        for (StatusPagamento origem : origens) {
+            parametros[i++] = origem.name();
+        }
+        return executar("UPDATE pagamento SET status = ?, versao = versao + 1, atualizado_em = CURRENT_TIMESTAMP, "
+                + "status_alterado_em = CURRENT_TIMESTAMP WHERE id = ANY(?) AND status IN ("
+                + marcadores(origens.size()) + ")", parametros);
+    }
+
+    @Override
+    public int inativarSePendente(Long id) {
+        // Um lote que já reivindicou o pagamento não o conclui: a reivindicação some e a conclusão exige ativo.
+        return executar("UPDATE pagamento SET ativo = FALSE, versao = versao + 1, atualizado_em = CURRENT_TIMESTAMP, "
+                + "token_processamento = NULL, reivindicado_em = NULL WHERE id = ? AND status = 'PENDENTE'", id);
+    }
+
+    @Override
+    public int reivindicarPendentes(String token, Instant agora, Instant expiradoAntesDe, int limite) {
+        String condicao = "status = 'PENDENTE' AND ativo = TRUE "
+                + "AND (token_processamento IS NULL OR reivindicado_em < ?)";
+        // A condição é repetida fora da subconsulta: se outra instância reivindicou a linha no meio tempo,
+        // o UPDATE a reavalia após obter o lock e a deixa de fora.
+        return jdbcTemplate.update("UPDATE pagamento SET token_processamento = ?, reivindicado_em = ? "
+                        + "WHERE " + condicao + " AND id IN (SELECT id FROM pagamento WHERE " + condicao
+                        + " ORDER BY id FETCH FIRST ? ROWS ONLY)",
+                token, Timestamp.from(agora), Timestamp.from(expiradoAntesDe), Timestamp.from(expiradoAntesDe), limite);
+    }
+
+    @Override
+    public List<Long> concluirProcessamento(String token, Collection<Long> ids, StatusPagamento resultado) {
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+        String condicao = "token_processamento = ? AND status = 'PENDENTE' AND ativo = TRUE AND id IN ("
+                + marcadores(ids.size()) + ")";
+        Object[] filtro = new Object[ids.size() + 1];
+        filtro[0] = token;
+        System.arraycopy(ids.toArray(), 0, filtro, 1, ids.size());
+
+        // As linhas lidas ficam travadas até o commit: o UPDATE seguinte atinge exatamente elas.
+        entityManager.flush();
+        List<Long> concluidos = jdbcTemplate.queryForList(
+                "SELECT id FROM pagamento WHERE " + condicao + " FOR UPDATE", Long.class, filtro);
+        if (concluidos.isEmpty()) {
+            return concluidos;
+        }
+
+        Object[] parametros = new Object[filtro.length + 1];
+        parametros[0] = resultado.name();
+        System.arraycopy(filtro, 0, parametros, 1, filtro.length);
+        executar("UPDATE pagamento SET status = ?, versao = versao + 1, atualizado_em = CURRENT_TIMESTAMP, "
+                + "status_alterado_em = CURRENT_TIMESTAMP, token_processamento = NULL, reivindicado_em = NULL "
+                + "WHERE " + condicao, parametros);
+        return concluidos;
+    }
+
+    @Override
+    public int liberarReivindicacao(String token, Collection<Long> ids) {
+        if (ids.isEmpty()) {
+            return 0;
+        }
+        Object[] parametros = new Object[ids.size() + 1];
+        parametros[0] = token;
+        System.arraycopy(ids.toArray(), 0, parametros, 1, ids.size());
+        return executar("UPDATE pagamento SET token_processamento = NULL, reivindicado_em = NULL "
+                + "WHERE token_processamento = ? AND id IN (" + marcadores(ids.size()) + ")", parametros);
+    }
+
+    private static String marcadores(int quantidade) {
+        return String.join(", ", Collections.nCopies(quantidade, "?"));
+    }
+
+    private int executar(String sql, Object... parametros) {
+        // Alterações pendentes precisam chegar ao banco antes, e entidades já carregadas ficariam desatualizadas depois.
+        entityManager.flush();
+        int alterados = jdbcTemplate.update(sql, parametros);
+        entityManager.clear();
+        return alterados;
+    }
+}
@@ -0,0 +1,277 @@
+package org.fadesp.pagamentos_api.service;
+
+import jakarta.annotation.PostConstruct;
+import org.fadesp.pagamentos_api.dto.ItemResumo;
+import org.fadesp.pagamentos_api.dto.ResumoPagamentos;
+import org.fadesp.pagamentos_api.enums.MetodoPagamento;
+import org.fadesp.pagamentos_api.enums.StatusPagamento;
+import org.fadesp.pagamentos_api.evento.PagamentoAlteradoEvent;
+import org.fadesp.pagamentos_api.fragmentacao.Fragmentacao;
+import org.fadesp.pagamentos_api.model.Pagamento;
+import org.fadesp.pagamentos_api.repository.PagamentoRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Totais em memória de quantidade e valor por status × método de pagamento × ativo, servidos por
+ * GET /pagamentos/resumo sem consultar o banco.
+ * <p>
+ * Cada combinação é uma célula com um valor base (vindo do banco) e um delta em {@link LongAdder},
+ * incrementado após o commit de cada criação, transição de status ou inativação. Os valores são
+ * somados em centavos, a mesma escala da coluna {@code valor}. A base é recalculada com um GROUP BY
+ * na inicialização e a cada {@code pagamentos.resumo.reconciliacao-intervalo-ms}, corrigindo qualquer
+ * divergência (por exemplo, alterações feitas direto no banco). Os pagamentos arquivados continuam
+ * contados: o GROUP BY soma, em uma única consulta, a tabela principal e o arquivo, e o arquivamento
+ * não altera os totais. Com fragmentação, o GROUP BY é feito em todos os fragmentos e somado aqui.
+ * <p>
+ * Uma transação que altera pagamentos segura a trava de leitura de {@code consolidacao} do início do seu commit
+ * até aplicar os deltas, e cada aplicação conta uma alteração na célula. A consulta de reconciliação roda sem
+ * trava, entre duas marcas tiradas com a trava de escrita (que só esperam os commits em andamento, sem acessar o
+ * banco): uma célula sem alterações entre as marcas tem no banco o mesmo total durante toda a consulta e recebe a
+ * base nova; uma célula alterada no meio não dá para saber se a consulta viu a alteração, e fica para a próxima
+ * reconciliação. Assim nenhuma alteração é contada duas vezes e os commits não esperam a consulta.
+ */
+@Component
+public class AgregadosPagamento {
+
+    private static final Logger log = LoggerFactory.getLogger(AgregadosPagamento.class);
+
+    private static final StatusPagamento[] STATUS = StatusPagamento.values();
+    private static final MetodoPagamento[] METODOS = MetodoPagamento.values();
+    // Uma posição extra para pagamentos sem método informado.
+    private static final int POSICOES_METODO = METODOS.length + 1;
+
+    private final PagamentoRepository repository;
+    private final Fragmentacao fragmentacao;
+    private final Celula[] celulas = new Celula[STATUS.length * POSICOES_METODO * 2];
+    private final ReadWriteLock consolidacao = new ReentrantReadWriteLock();
+    private volatile Instant reconciliadoEm;
+
+    public AgregadosPagamento(PagamentoRepository repository, Fragmentacao fragmentacao) {
+        this.repository = repository;
+        this.fragmentacao = fragmentacao;
+        for (int i = 0; i < celulas.length; i++) {
+            celulas[i] = new Celula();
+        }
+    }
+
+    public ResumoPagamentos resumo() {
+        List<ItemResumo> itens = new ArrayList<>();
+        for (StatusPagamento status : STATUS) {
+            for (int metodo = 0; metodo < POSICOES_METODO; metodo++) {
+                for (int ativo = 1; ativo >= 0; ativo--) {
+                    Celula celula = celulas[indice(status.ordinal(), metodo, ativo == 1)];
+                    long quantidade = celula.quantidade();
+                    if (quantidade != 0) {
+                        itens.add(new ItemResumo(status, metodo < METODOS.length ? METODOS[metodo] : null,
+                                ativo == 1, quantidade, BigDecimal.valueOf(celula.centavos(), 2)));
+                    }
+                }
+            }
+        }
+        return new ResumoPagamentos(itens, reconciliadoEm);
+    }
+
+    // Ouvinte síncrono, ainda dentro da transação que publicou o evento: a variação é calculada agora e aplicada
+    // após o commit.
+    @EventListener
+    void aoAlterarPagamento(PagamentoAlteradoEvent evento) {
+        List<Variacao> variacoes = variacoes(evento);
+
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            consolidacao.readLock().lock();
+            try {
+                aplicar(variacoes);
+            } finally {
+                consolidacao.readLock().unlock();
+            }
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new AplicacaoNoCommit(variacoes));
+    }
+
+    private static List<Variacao> variacoes(PagamentoAlteradoEvent evento) {
+        Pagamento pagamento = evento.pagamento();
+        List<Variacao> variacoes = new ArrayList<>(2);
+        switch (evento.tipo()) {
+            case CRIADO -> variacao(variacoes, pagamento, pagamento.getStatus(), ativo(pagamento), 1);
+            case STATUS_ALTERADO -> {
+                variacao(variacoes, pagamento, evento.statusAnterior(), ativo(pagamento), -1);
+                variacao(variacoes, pagamento, pagamento.getStatus(), ativo(pagamento), 1);
+            }
+            case INATIVADO -> {
+                variacao(variacoes, pagamento, evento.statusAnterior(), true, -1);
+                variacao(variacoes, pagamento, pagamento.getStatus(), false, 1);
+            }
+        }
+        return variacoes;
+    }
+
+    @PostConstruct
+    void reconstruir() {
+        reconciliar();
+    }
+
+    /**
+     * Troca a base de cada célula que não foi alterada durante a consulta pelo total do banco e zera os deltas dela.
+     * Com a trava de escrita nenhum commit que altera pagamentos está entre o banco e o delta: nas marcas, tudo o que
+     * o banco mostra já está na célula.
+     */
+    @Scheduled(fixedDelayString = "${pagamentos.resumo.reconciliacao-intervalo-ms:300000}",
+            initialDelayString = "${pagamentos.resumo.reconciliacao-intervalo-ms:300000}")
+    void reconciliar() {
+        long[] marcas = new long[celulas.length];
+        consolidacao.writeLock().lock();
+        try {
+            for (int i = 0; i < celulas.length; i++) {
+                marcas[i] = celulas[i].alteracoes.sum();
+            }
+        } finally {
+            consolidacao.writeLock().unlock();
+        }
+
+        long[] quantidades = new long[celulas.length];
+        long[] centavos = new long[celulas.length];
+        List<ItemResumo> porFragmento = fragmentacao.consultarTodos(repository::resumirPorStatusMetodoEAtivo).stream()
+                .flatMap(List::stream)
+                .toList();
+        for (ItemResumo item : porFragmento) {
+            if (item.status() == null) {
+                continue;
+            }
+            int i = indice(item.status(), item.metodoPagamento(), Boolean.TRUE.equals(item.ativo()));
+            quantidades[i] += item.quantidade();
+            centavos[i] += centavos(item.valorTotal());
+        }
+
+        int divergentes = 0;
+        int adiadas = 0;
+        consolidacao.writeLock().lock();
+        try {
+            for (int i = 0; i < celulas.length; i++) {
+                Celula celula = celulas[i];
+                if (celula.alteracoes.sum() != marcas[i]) {
+                    adiadas++;
+                    continue;
+                }
+                if (quantidades[i] != celula.quantidade() || centavos[i] != celula.centavos()) {
+                    divergentes++;
+                }
+                celula.quantidadeDelta.reset();
+                celula.centavosDelta.reset();
+                celula.quantidadeBase = quantidades[i];
+                celula.centavosBase = centavos[i];
+            }
+        } finally {
+            consolidacao.writeLock().unlock();
+        }
+        reconciliadoEm = Instant.now();
+
+        if (divergentes > 0 || adiadas > 0) {
+            log.debug("Resumo de pagamentos reconciliado; {} combinações corrigidas, {} alteradas durante a consulta "
+                    + "ficam para a próxima reconciliação", divergentes, adiadas);
+        }
+    }
+
+    private static void variacao(List<Variacao> variacoes, Pagamento pagamento, StatusPagamento status, boolean ativo,
+                                 int sinal) {
+        if (status != null) {
+            variacoes.add(new Variacao(indice(status, pagamento.getMetodoPagamento(), ativo), sinal,
+                    sinal * centavos(pagamento.getValor())));
+        }
+    }
+
+    private void aplicar(List<Variacao> variacoes) {
+        for (Variacao variacao : variacoes) {
+            Celula celula = celulas[variacao.indice()];
+            celula.quantidadeDelta.add(variacao.quantidade());
+            celula.centavosDelta.add(variacao.centavos());
+            celula.alteracoes.increment();
+        }
+    }
+
+    private static boolean ativo(Pagamento pagamento) {
+        return Boolean.TRUE.equals(pagamento.getAtivo());
+    }
+
+    private static long centavos(BigDecimal valor) {
+        return valor == null ? 0 : valor.setScale(2, RoundingMode.HALF_UP).unscaledValue().longValueExact();
+    }
+
+    private static int indice(StatusPagamento status, MetodoPagamento metodo, boolean ativo) {
+        return indice(status.ordinal(), metodo == null ? METODOS.length : metodo.ordinal(), ativo);
+    }
+
+    private static int indice(int status, int metodo, boolean ativo) {
+        return (status * POSICOES_METODO + metodo) * 2 + (ativo ? 1 : 0);
+    }
+
+    private record Variacao(int indice, int quantidade, long centavos) {
+    }
+
+    /**
+     * Trava de leitura do início do commit até a aplicação da variação. Se o commit falhar depois do
+     * {@code beforeCommit}, a trava é liberada sem aplicar nada.
+     */
+    private final class AplicacaoNoCommit implements TransactionSynchronization {
+
+        private final List<Variacao> variacoes;
+        private boolean travada;
+
+        private AplicacaoNoCommit(List<Variacao> variacoes) {
+            this.variacoes = variacoes;
+        }
+
+        @Override
+        public void beforeCommit(boolean readOnly) {
+            consolidacao.readLock().lock();
+            travada = true;
+        }
+
+        @Override
+        public void afterCompletion(int status) {
+            if (!travada) {
+                return;
+            }
+            try {
+                if (status == STATUS_COMMITTED) {
+                    aplicar(variacoes);
+                }
+            } finally {
+                travada = false;
+                consolidacao.readLock().unlock();
+            }
+        }
+    }
+
+    private static final class Celula {
+        private volatile long quantidadeBase;
+        private volatile long centavosBase;
+        private final LongAdder quantidadeDelta = new LongAdder();
+        private final LongAdder centavosDelta = new LongAdder();
+        // Aplicações de variação, para a reconciliação saber se a célula mudou durante a consulta.
+        private final LongAdder alteracoes = new LongAdder();
+
+        long quantidade() {
+            return quantidadeBase + quantidadeDelta.sum();
+        }
+
+        long centavos() {
+            return centavosBase + centavosDelta.sum();
+        }
+    }
+}
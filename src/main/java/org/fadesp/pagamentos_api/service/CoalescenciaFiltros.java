@@ -0,0 +1,179 @@
+package org.fadesp.pagamentos_api.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.fadesp.pagamentos_api.dto.PagamentoDTO;
+import org.fadesp.pagamentos_api.dto.Pagina;
+import org.fadesp.pagamentos_api.enums.StatusPagamento;
+import org.fadesp.pagamentos_api.evento.PagamentoAlteradoEvent;
+import org.fadesp.pagamentos_api.util.CpfCnpj;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Junta filtros idênticos e simultâneos de {@code GET /pagamentos/filtro} em uma única execução de
+ * {@link PagamentoService#filtrarPagamentos}: o primeiro pedido de uma combinação de parâmetros consulta o banco e
+ * os que chegam enquanto ele está em andamento recebem o mesmo resultado. A espera acontece fora de transação,
+ * sem ocupar conexão do pool.
+ * <p>
+ * Com {@code pagamentos.filtro.coalescencia.micro-ttl-ms} maior que zero, o resultado também é reaproveitado por
+ * esse intervalo depois de pronto; qualquer alteração de pagamento confirmada descarta esses resultados, para que
+ * quem acabou de gravar não leia a página anterior. Pelo mesmo motivo, uma consulta que começou antes de uma
+ * alteração confirmada não guarda o seu resultado nem recebe pedidos que chegaram depois da alteração.
+ * <p>
+ * A métrica {@code pagamentos.filtro.consultas} conta os pedidos por {@code origem}: {@code banco} (executou a
+ * consulta), {@code em-andamento} (esperou outra) e {@code micro-ttl} (resultado recente).
+ */
+@Component
+public class CoalescenciaFiltros {
+
+    private final PagamentoService service;
+    private final boolean habilitada;
+    private final Map<ChaveFiltro, ConsultaEmAndamento> emAndamento = new ConcurrentHashMap<>();
+    private final Cache<ChaveFiltro, Pagina<PagamentoDTO>> recentes;
+    // Incrementada a cada alteração confirmada; cada consulta guarda a geração em que começou.
+    private final AtomicLong geracao = new AtomicLong();
+    private final Counter consultasAoBanco;
+    private final Counter juntadasEmAndamento;
+    private final Counter servidasPeloMicroTtl;
+
+    public CoalescenciaFiltros(PagamentoService service,
+                               MeterRegistry meterRegistry,
+                               @Value("${pagamentos.filtro.coalescencia.habilitada:true}") boolean habilitada,
+                               @Value("${pagamentos.filtro.coalescencia.micro-ttl-ms:0}") long microTtlMs,
+                               @Value("${pagamentos.filtro.coalescencia.tamanho-maximo:1000}") long tamanhoMaximo) {
+        this.service = service;
+        this.habilitada = habilitada;
+        this.recentes = microTtlMs > 0
+                ? Caffeine.newBuilder()
+                        .maximumSize(tamanhoMaximo)
+                        .expireAfterWrite(Duration.ofMillis(microTtlMs))
+                        .build()
+                : null;
+
+        this.consultasAoBanco = contadorDeOrigem(meterRegistry, "banco");
+        this.juntadasEmAndamento = contadorDeOrigem(meterRegistry, "em-andamento");
+        this.servidasPeloMicroTtl = contadorDeOrigem(meterRegistry, "micro-ttl");
+        Gauge.builder("pagamentos.filtro.em-andamento", emAndamento, Map::size)
+                .description("Filtros distintos sendo consultados no banco neste momento")
+                .register(meterRegistry);
+    }
+
+    private static Counter contadorDeOrigem(MeterRegistry meterRegistry, String origem) {
+        return Counter.builder("pagamentos.filtro.consultas")
+                .description("Pedidos de filtro de pagamentos, por origem do resultado")
+                .tag("origem", origem)
+                .register(meterRegistry);
+    }
+
+    /** Mesmos parâmetros e mesmo resultado de {@link PagamentoService#filtrarPagamentos}. */
+    public Pagina<PagamentoDTO> filtrarPagamentos(Long id, Integer codigoDebito, String cpfCnpj, StatusPagamento status,
+                                                  Boolean ativo, Instant desde, Instant ate, boolean arquivados,
+                                                  String cursor, int tamanho) {
+        if (!habilitada) {
+            consultasAoBanco.increment();
+            return service.filtrarPagamentos(id, codigoDebito, cpfCnpj, status, ativo, desde, ate, arquivados,
+                    cursor, tamanho);
+        }
+        ChaveFiltro chave = ChaveFiltro.de(id, codigoDebito, cpfCnpj, status, ativo, desde, ate, arquivados, cursor,
+                tamanho);
+
+        if (recentes != null) {
+            Pagina<PagamentoDTO> recente = recentes.getIfPresent(chave);
+            if (recente != null) {
+                servidasPeloMicroTtl.increment();
+                return recente;
+            }
+        }
+
+        long geracaoInicial = geracao.get();
+        ConsultaEmAndamento propria = new ConsultaEmAndamento(geracaoInicial, new CompletableFuture<>());
+        ConsultaEmAndamento existente = emAndamento.putIfAbsent(chave, propria);
+        if (existente != null) {
+            if (existente.geracao() == geracaoInicial) {
+                juntadasEmAndamento.increment();
+                return aguardar(existente.resultado());
+            }
+            // A consulta em andamento começou antes de uma alteração já confirmada: este pedido consulta sozinho.
+            return consultar(chave, geracaoInicial);
+        }
+
+        try {
+            Pagina<PagamentoDTO> pagina = consultar(chave, geracaoInicial);
+            propria.resultado().complete(pagina);
+            return pagina;
+        } catch (RuntimeException e) {
+            propria.resultado().completeExceptionally(e);
+            throw e;
+        } finally {
+            emAndamento.remove(chave, propria);
+        }
+    }
+
+    private Pagina<PagamentoDTO> consultar(ChaveFiltro chave, long geracaoInicial) {
+        consultasAoBanco.increment();
+        Pagina<PagamentoDTO> pagina = service.filtrarPagamentos(chave.id(), chave.codigoDebito(), chave.cpfCnpj(),
+                chave.status(), chave.ativo(), chave.desde(), chave.ate(), chave.arquivados(), chave.cursor(),
+                chave.tamanho());
+        if (recentes != null && geracao.get() == geracaoInicial) {
+            recentes.put(chave, pagina);
+            // Uma alteração confirmada entre a conferência e o put pode ter limpado o cache antes dele.
+            if (geracao.get() != geracaoInicial) {
+                recentes.invalidate(chave);
+            }
+        }
+        return pagina;
+    }
+
+    // Após o commit: uma leitura posterior à alteração nunca recebe um resultado anterior a ela.
+    @TransactionalEventListener(fallbackExecution = true)
+    void aoAlterarPagamento(PagamentoAlteradoEvent evento) {
+        geracao.incrementAndGet();
+        if (recentes != null) {
+            recentes.invalidateAll();
+        }
+    }
+
+    private static Pagina<PagamentoDTO> aguardar(CompletableFuture<Pagina<PagamentoDTO>> consulta) {
+        try {
+            return consulta.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException erro) {
+                throw erro;
+            }
+            throw e;
+        }
+    }
+
+    private record ConsultaEmAndamento(long geracao, CompletableFuture<Pagina<PagamentoDTO>> resultado) {
+    }
+
+    /**
+     * Parâmetros do filtro na forma em que produzem o mesmo resultado: CPF/CNPJ normalizado, vazio como ausente
+     * e, fora do arquivo, {@code ativo} ausente como {@code true}.
+     */
+    record ChaveFiltro(Long id, Integer codigoDebito, String cpfCnpj, StatusPagamento status, Boolean ativo,
+                       Instant desde, Instant ate, boolean arquivados, String cursor, int tamanho) {
+
+        static ChaveFiltro de(Long id, Integer codigoDebito, String cpfCnpj, StatusPagamento status, Boolean ativo,
+                              Instant desde, Instant ate, boolean arquivados, String cursor, int tamanho) {
+            String documento = cpfCnpj == null || cpfCnpj.isBlank() ? null : CpfCnpj.normalizar(cpfCnpj);
+            boolean porAtualizacao = desde != null || ate != null;
+            Boolean filtroAtivo = arquivados || porAtualizacao ? ativo : Boolean.valueOf(ativo == null || ativo);
+            return new ChaveFiltro(id, codigoDebito, documento, status, filtroAtivo, desde, ate, arquivados,
+                    cursor == null || cursor.isBlank() ? null : cursor, tamanho);
+        }
+    }
+}
@@ -0,0 +1,75 @@
+package org.fadesp.pagamentos_api.service;
+
+import org.fadesp.pagamentos_api.excecao.DadosInvalidosException;
+import java.nio.charset.StandardCharsets;
+import java.time.DateTimeException;
+import java.time.Instant;
+import java.util.Base64;
+
+/**
+ * Codifica e decodifica o cursor opaco usado na paginação por keyset.
+ * O cursor carrega o último ID entregue; a próxima página começa logo após ele. Nas consultas por intervalo de
+ * atualização, carrega também o {@code atualizadoEm} desse item, pois a ordem é {@code (atualizadoEm, id)}.
+ */
+final class CursorPaginacao {
+
+    /** Posição do último item entregue em uma consulta ordenada por {@code (atualizadoEm, id)}. */
+    record PosicaoAtualizacao(Instant atualizadoEm, long id) {
+
+        /** Se esta posição vem antes do item informado, isto é, se o item pertence às páginas seguintes. */
+        boolean antesDe(Instant outroAtualizadoEm, long outroId) {
+            int comparacao = atualizadoEm.compareTo(outroAtualizadoEm);
+            return comparacao < 0 || (comparacao == 0 && id < outroId);
+        }
+    }
+
+    private CursorPaginacao() {
+    }
+
+    static String codificar(Long ultimoId) {
+        return codificarTexto(String.valueOf(ultimoId));
+    }
+
+    static String codificar(Instant atualizadoEm, Long ultimoId) {
+        return codificarTexto(atualizadoEm.getEpochSecond() + ":" + atualizadoEm.getNano() + ":" + ultimoId);
+    }
+
+    static Long decodificar(String cursor) {
+        if (cursor == null || cursor.isBlank()) {
+            return null;
+        }
+        try {
+            return Long.parseLong(decodificarTexto(cursor));
+        } catch (IllegalArgumentException e) {
+            throw cursorInvalido();
+        }
+    }
+
+    static PosicaoAtualizacao decodificarPorAtualizacao(String cursor) {
+        if (cursor == null || cursor.isBlank()) {
+            return null;
+        }
+        try {
+            String[] partes = decodificarTexto(cursor).split(":");
+            if (partes.length != 3) {
+                throw cursorInvalido();
+            }
+            Instant atualizadoEm = Instant.ofEpochSecond(Long.parseLong(partes[0]), Long.parseLong(partes[1]));
+            return new PosicaoAtualizacao(atualizadoEm, Long.parseLong(partes[2]));
+        } catch (IllegalArgumentException | DateTimeException e) {
+            throw cursorInvalido();
+        }
+    }
+
+    private static String codificarTexto(String valor) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(valor.getBytes(StandardCharsets.US_ASCII));
+    }
+
+    private static String decodificarTexto(String cursor) {
+        return new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.US_ASCII);
+    }
+
+    private static DadosInvalidosException cursorInvalido() {
+        return new DadosInvalidosException("Cursor de paginação inválido.");
+    }
+}
@@ -0,0 +1,291 @@
+package org.fadesp.pagamentos_api.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.cfg.JsonNodeFeature;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceException;
+import org.fadesp.pagamentos_api.excecao.ConflitoIdempotenciaException;
+import org.fadesp.pagamentos_api.excecao.DadosInvalidosException;
+import org.fadesp.pagamentos_api.fragmentacao.Fragmentacao;
+import org.fadesp.pagamentos_api.model.ChaveIdempotencia;
+import org.fadesp.pagamentos_api.repository.ChaveIdempotenciaRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+/**
+ * Execução idempotente das operações de criação a partir do cabeçalho {@code Idempotency-Key}.
+ * <p>
+ * Chaves em andamento ficam em um mapa em memória dividido em listras, cada uma com seu próprio lock:
+ * uma retentativa concorrente da mesma chave espera o resultado da primeira em vez de inserir de novo.
+ * Chaves concluídas ficam na tabela {@link ChaveIdempotencia}, gravada na mesma transação da operação,
+ * até expirar; uma repetição devolve a resposta armazenada sem consultar a tabela de pagamentos.
+ * Junto com a chave fica uma impressão (HMAC) do corpo da requisição: a mesma chave com outro corpo é um erro do
+ * cliente e é recusada com 409, em vez de devolver a resposta de uma requisição diferente.
+ * A chave primária da tabela também barra a execução duplicada entre instâncias da aplicação.
+ */
+@Service
+public class IdempotenciaService {
+
+    public static final String CABECALHO = "Idempotency-Key";
+    public static final String CABECALHO_REPETICAO = "Idempotent-Replayed";
+
+    private static final Logger log = LoggerFactory.getLogger(IdempotenciaService.class);
+
+    private final ChaveIdempotenciaRepository repository;
+    private final EntityManager entityManager;
+    private final TransactionTemplate transactionTemplate;
+    private final ObjectMapper objectMapper;
+    private final Fragmentacao fragmentacao;
+    private final TokenizadorCartao tokenizador;
+    private final ObjectReader leitorJson;
+    private final Duration ttl;
+    private final long esperaMaximaMs;
+    private final Listra[] listras;
+
+    public IdempotenciaService(ChaveIdempotenciaRepository repository,
+                               EntityManager entityManager,
+                               TransactionTemplate transactionTemplate,
+                               ObjectMapper objectMapper,
+                               Fragmentacao fragmentacao,
+                               TokenizadorCartao tokenizador,
+                               @Value("${pagamentos.idempotencia.ttl-horas:24}") long ttlHoras,
+                               @Value("${pagamentos.idempotencia.espera-maxima-ms:30000}") long esperaMaximaMs,
+                               @Value("${pagamentos.idempotencia.listras:64}") int quantidadeListras) {
+        this.repository = repository;
+        this.entityManager = entityManager;
+        this.transactionTemplate = transactionTemplate;
+        this.objectMapper = objectMapper;
+        this.fragmentacao = fragmentacao;
+        this.tokenizador = tokenizador;
+        // Valores monetários voltam como BigDecimal com a escala original, e não como double.
+        this.leitorJson = objectMapper.reader()
+                .with(DeserializationFeature.USE_BIG_DECIMAL_FOR_FLOATS)
+                .without(JsonNodeFeature.STRIP_TRAILING_BIGDECIMAL_ZEROES);
+        this.ttl = Duration.ofHours(ttlHoras);
+        this.esperaMaximaMs = esperaMaximaMs;
+        // Potência de dois, para escolher a listra com uma máscara sobre o hash da chave.
+        this.listras = new Listra[Integer.highestOneBit(Math.max(1, quantidadeListras - 1)) << 1];
+        for (int i = 0; i < listras.length; i++) {
+            listras[i] = new Listra();
+        }
+    }
+
+    /**
+     * Executa a operação uma única vez por chave e devolve o corpo JSON da resposta.
+     * Sem chave, a operação é executada normalmente.
+     *
+     * @param requisicao corpo da requisição, comparado com o da primeira execução da chave; deve ser passado antes de
+     *                   a ação alterá-lo. Nulo quando não há corpo a conferir
+     * @throws ConflitoIdempotenciaException quando a chave já foi usada em outra operação ou com outro corpo
+     */
+    public ResponseEntity<Object> executar(String chave, String operacao, Object requisicao, HttpStatus statusSucesso,
+                                           Supplier<?> acao) {
+        if (chave == null) {
+            return ResponseEntity.status(statusSucesso).body(acao.get());
+        }
+        validarChave(chave);
+        String impressao = requisicao == null ? null : tokenizador.impressao(escreverJsonBytes(requisicao));
+
+        while (true) {
+            Listra listra = listra(chave);
+            EmAndamento emAndamento;
+            EmAndamento propria = new EmAndamento(impressao, new CompletableFuture<>());
+
+            listra.lock.lock();
+            try {
+                emAndamento = listra.chaves.putIfAbsent(chave, propria);
+            } finally {
+                listra.lock.unlock();
+            }
+
+            if (emAndamento != null) {
+                conferirImpressao(emAndamento.impressao(), impressao);
+                Optional<ResponseEntity<Object>> resultado = aguardar(emAndamento.resposta());
+                if (resultado.isPresent()) {
+                    return resultado.get();
+                }
+                // A primeira execução falhou e nada foi gravado: esta requisição tenta por conta própria.
+                continue;
+            }
+
+            try {
+                ResponseEntity<Object> resposta = executarUmaVez(chave, operacao, impressao, statusSucesso, acao);
+                propria.resposta().complete(resposta);
+                return resposta;
+            } catch (RuntimeException e) {
+                propria.resposta().completeExceptionally(e);
+                throw e;
+            } finally {
+                listra.lock.lock();
+                try {
+                    listra.chaves.remove(chave, propria);
+                } finally {
+                    listra.lock.unlock();
+                }
+            }
+        }
+    }
+
+    private ResponseEntity<Object> executarUmaVez(String chave, String operacao, String impressao,
+                                                  HttpStatus statusSucesso, Supplier<?> acao) {
+        Optional<ResponseEntity<Object>> armazenada = buscarArmazenada(chave, operacao, impressao);
+        if (armazenada.isPresent()) {
+            return armazenada.get();
+        }
+
+        try {
+            String json = transactionTemplate.execute(status -> {
+                String resposta = escreverJson(acao.get());
+                gravar(chave, operacao, impressao, statusSucesso, resposta);
+                return resposta;
+            });
+            // A primeira resposta passa pela mesma leitura da repetição, para que ambas sejam idênticas.
+            return ResponseEntity.status(statusSucesso).header(CABECALHO_REPETICAO, "false").body(lerJson(json));
+        } catch (DataIntegrityViolationException | PersistenceException e) {
+            // Outra instância concluiu a mesma chave primeiro; a transação desta foi desfeita.
+            return buscarArmazenada(chave, operacao, impressao).orElseThrow(() -> e);
+        }
+    }
+
+    private void gravar(String chave, String operacao, String impressao, HttpStatus statusSucesso, String resposta) {
+        Instant agora = Instant.now();
+
+        // Uma chave expirada que a limpeza ainda não removeu é substituída.
+        ChaveIdempotencia expirada = entityManager.find(ChaveIdempotencia.class, chave);
+        if (expirada != null) {
+            entityManager.remove(expirada);
+            entityManager.flush();
+        }
+
+        ChaveIdempotencia registro = new ChaveIdempotencia();
+        registro.setChave(chave);
+        registro.setOperacao(operacao);
+        registro.setImpressaoRequisicao(impressao);
+        registro.setStatusHttp(statusSucesso.value());
+        registro.setResposta(resposta);
+        registro.setCriadaEm(agora);
+        registro.setExpiraEm(agora.plus(ttl));
+        entityManager.persist(registro);
+        entityManager.flush();
+    }
+
+    /**
+     * A chave é gravada na transação da própria operação e, portanto, no fragmento do pagamento afetado; a busca
+     * consulta todos os fragmentos.
+     */
+    private Optional<ResponseEntity<Object>> buscarArmazenada(String chave, String operacao, String impressao) {
+        return fragmentacao.consultarTodos(() -> repository.findById(chave)).stream()
+                .flatMap(Optional::stream)
+                .filter(registro -> registro.getExpiraEm().isAfter(Instant.now()))
+                .<ResponseEntity<Object>>map(registro -> {
+                    if (!registro.getOperacao().equals(operacao)) {
+                        throw new ConflitoIdempotenciaException("Idempotency-Key já utilizada em outra operação.");
+                    }
+                    conferirImpressao(registro.getImpressaoRequisicao(), impressao);
+                    return ResponseEntity.status(registro.getStatusHttp())
+                            .header(CABECALHO_REPETICAO, "true")
+                            .body(lerJson(registro.getResposta()));
+                })
+                .findFirst();
+    }
+
+    // Sem impressão de um dos lados (chave gravada antes da impressão existir ou operação sem corpo), não há o que comparar.
+    private static void conferirImpressao(String original, String impressao) {
+        if (original != null && impressao != null && !original.equals(impressao)) {
+            throw new ConflitoIdempotenciaException("Idempotency-Key já utilizada com outro corpo de requisição.");
+        }
+    }
+
+    private Optional<ResponseEntity<Object>> aguardar(CompletableFuture<ResponseEntity<Object>> emAndamento) {
+        try {
+            ResponseEntity<Object> resposta = emAndamento.get(esperaMaximaMs, TimeUnit.MILLISECONDS);
+            return Optional.of(ResponseEntity.status(resposta.getStatusCode())
+                    .header(CABECALHO_REPETICAO, "true")
+                    .body(resposta.getBody()));
+        } catch (ExecutionException e) {
+            return Optional.empty();
+        } catch (TimeoutException e) {
+            throw new ConflitoIdempotenciaException("Requisição com a mesma Idempotency-Key ainda em processamento.");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ConflitoIdempotenciaException("Requisição com a mesma Idempotency-Key ainda em processamento.");
+        }
+    }
+
+    private String escreverJson(Object corpo) {
+        try {
+            return objectMapper.writeValueAsString(corpo);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Não foi possível serializar a resposta idempotente.", e);
+        }
+    }
+
+    private byte[] escreverJsonBytes(Object corpo) {
+        try {
+            return objectMapper.writeValueAsBytes(corpo);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Não foi possível serializar a requisição idempotente.", e);
+        }
+    }
+
+    private JsonNode lerJson(String json) {
+        try {
+            return leitorJson.readTree(json);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Resposta idempotente armazenada inválida.", e);
+        }
+    }
+
+    private static void validarChave(String chave) {
+        if (chave.isBlank() || chave.length() > ChaveIdempotencia.TAMANHO_MAXIMO_CHAVE) {
+            throw new DadosInvalidosException("Idempotency-Key inválida. Deve ter de 1 a "
+                    + ChaveIdempotencia.TAMANHO_MAXIMO_CHAVE + " caracteres.");
+        }
+    }
+
+    private Listra listra(String chave) {
+        int hash = chave.hashCode();
+        return listras[(hash ^ (hash >>> 16)) & (listras.length - 1)];
+    }
+
+    @Scheduled(fixedDelayString = "${pagamentos.idempotencia.limpeza-intervalo-ms:600000}")
+    void excluirExpiradas() {
+        Instant agora = Instant.now();
+        int[] excluidas = new int[1];
+        fragmentacao.paraCada(fragmento -> excluidas[0] += repository.excluirExpiradas(agora));
+        if (excluidas[0] > 0) {
+            log.debug("{} chaves de idempotência expiradas removidas", excluidas[0]);
+        }
+    }
+
+    private static final class Listra {
+        private final ReentrantLock lock = new ReentrantLock();
+        private final Map<String, EmAndamento> chaves = new HashMap<>();
+    }
+
+    private record EmAndamento(String impressao, CompletableFuture<ResponseEntity<Object>> resposta) {
+    }
+}
@@ -0,0 +1,295 @@
+package org.fadesp.pagamentos_api.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.fadesp.pagamentos_api.dto.SituacaoIngestao;
+import org.fadesp.pagamentos_api.evento.PagamentoAlteradoEvent;
+import org.fadesp.pagamentos_api.excecao.FilaIngestaoCheiaException;
+import org.fadesp.pagamentos_api.excecao.PagamentoNaoEncontradoException;
+import org.fadesp.pagamentos_api.fragmentacao.Fragmentacao;
+import org.fadesp.pagamentos_api.model.Pagamento;
+import org.fadesp.pagamentos_api.repository.PagamentoRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Criação assíncrona com commit em grupo, para {@code POST /pagamentos} com {@code Prefer: respond-async}.
+ * <p>
+ * O pagamento é validado na thread da requisição, recebe um ID reservado da sequência e entra em uma fila
+ * limitada (buffer circular de {@code pagamentos.ingestao-assincrona.capacidade} posições). Uma única thread
+ * gravadora esvazia a fila em grupos: espera até {@code tamanho-grupo} pagamentos ou {@code intervalo-ms} desde o
+ * primeiro do grupo e grava o grupo inteiro em um INSERT em lote e um único commit, junto com os eventos de criação.
+ * Com a fila cheia, a requisição é recusada na hora em vez de acumular uma fila sem limite.
+ * <p>
+ * A fila fica em memória: no encerramento normal a fila deixa de aceitar pagamentos (503) e a gravadora esvazia o
+ * que restou, mas uma queda do processo perde os pagamentos ainda não gravados. Se o grupo falhar, cada pagamento
+ * é regravado sozinho e os que falharem de novo ficam como {@code FALHOU} na consulta de situação por
+ * {@code retencao-falhas-minutos}.
+ * <p>
+ * Com fragmentação, os IDs vêm da sequência do fragmento do CPF/CNPJ e cada grupo é gravado com um commit por
+ * fragmento.
+ */
+@Service
+public class IngestaoAssincronaPagamentos {
+
+    private static final Logger log = LoggerFactory.getLogger(IngestaoAssincronaPagamentos.class);
+
+    private final PagamentoService pagamentoService;
+    private final PagamentoRepository repository;
+    private final TransactionTemplate transactionTemplate;
+    private final ApplicationEventPublisher eventos;
+    private final Fragmentacao fragmentacao;
+    private final boolean habilitada;
+    private final int tamanhoGrupo;
+    private final long intervaloNanos;
+
+    private final ArrayBlockingQueue<Pagamento> fila;
+    private final Set<Long> naFila = ConcurrentHashMap.newKeySet();
+    private final Cache<Long, String> falhas;
+    private final Counter recusados;
+    private final DistributionSummary tamanhoGrupos;
+
+    // Bloco de IDs reservado da sequência de cada fragmento: [proximoId, topoBloco].
+    private final long[] proximoId;
+    private final long[] topoBloco;
+
+    // Enfileirar segura a leitura e o encerramento a escrita: depois que ativo vira false nenhum pagamento entra na
+    // fila, e a gravadora, que só para com a fila vazia, grava tudo o que foi aceito.
+    private final ReadWriteLock encerramento = new ReentrantReadWriteLock();
+    private volatile boolean ativo = true;
+    private Thread gravadora;
+
+    public IngestaoAssincronaPagamentos(PagamentoService pagamentoService,
+                                        PagamentoRepository repository,
+                                        TransactionTemplate transactionTemplate,
+                                        ApplicationEventPublisher eventos,
+                                        Fragmentacao fragmentacao,
+                                        MeterRegistry meterRegistry,
+                                        @Value("${pagamentos.ingestao-assincrona.habilitada:false}") boolean habilitada,
+                                        @Value("${pagamentos.ingestao-assincrona.capacidade:10000}") int capacidade,
+                                        @Value("${pagamentos.ingestao-assincrona.tamanho-grupo:500}") int tamanhoGrupo,
+                                        @Value("${pagamentos.ingestao-assincrona.intervalo-ms:5}") long intervaloMs,
+                                        @Value("${pagamentos.ingestao-assincrona.retencao-falhas-minutos:60}")
+                                        long retencaoFalhasMinutos) {
+        this.pagamentoService = pagamentoService;
+        this.repository = repository;
+        this.transactionTemplate = transactionTemplate;
+        this.eventos = eventos;
+        this.fragmentacao = fragmentacao;
+        this.habilitada = habilitada;
+        this.tamanhoGrupo = tamanhoGrupo;
+        this.intervaloNanos = TimeUnit.MILLISECONDS.toNanos(intervaloMs);
+        this.fila = new ArrayBlockingQueue<>(capacidade);
+        this.proximoId = new long[fragmentacao.quantidade()];
+        this.topoBloco = new long[fragmentacao.quantidade()];
+        Arrays.fill(topoBloco, -1);
+        this.falhas = Caffeine.newBuilder()
+                .expireAfterWrite(Duration.ofMinutes(retencaoFalhasMinutos))
+                .build();
+
+        Gauge.builder("pagamentos.ingestao.fila", fila, ArrayBlockingQueue::size)
+                .description("Pagamentos aceitos pela ingestão assíncrona e ainda não gravados")
+                .register(meterRegistry);
+        this.recusados = Counter.builder("pagamentos.ingestao.recusados")
+                .description("Pagamentos recusados pela ingestão assíncrona por fila cheia ou encerramento")
+                .register(meterRegistry);
+        this.tamanhoGrupos = DistributionSummary.builder("pagamentos.ingestao.grupo")
+                .description("Pagamentos gravados por commit da ingestão assíncrona")
+                .register(meterRegistry);
+    }
+
+    @PostConstruct
+    void iniciar() {
+        if (!habilitada) {
+            return;
+        }
+        gravadora = new Thread(this::executar, "gravadora-ingestao-pagamentos");
+        gravadora.setDaemon(true);
+        gravadora.start();
+    }
+
+    // Pagamentos já aceitos (202) são gravados antes de a aplicação terminar.
+    @PreDestroy
+    void encerrar() throws InterruptedException {
+        encerramento.writeLock().lock();
+        try {
+            ativo = false;
+        } finally {
+            encerramento.writeLock().unlock();
+        }
+        if (gravadora != null) {
+            gravadora.join(TimeUnit.SECONDS.toMillis(30));
+        }
+    }
+
+    public boolean habilitada() {
+        return habilitada;
+    }
+
+    /**
+     * Valida o pagamento, reserva o seu ID e o coloca na fila de gravação.
+     *
+     * @throws FilaIngestaoCheiaException quando a fila está cheia ou a aplicação está encerrando; nada é reservado
+     *                                    além do ID
+     */
+    public SituacaoIngestao enfileirar(Pagamento pagamento) {
+        if (!habilitada) {
+            throw new IllegalStateException("Ingestão assíncrona desabilitada.");
+        }
+        pagamentoService.prepararNovoPagamento(pagamento);
+        pagamento.setId(reservarId(fragmentacao.doDocumento(pagamento.getCpfCnpj())));
+        pagamento.setVersao(0L);
+
+        encerramento.readLock().lock();
+        try {
+            if (!ativo) {
+                recusados.increment();
+                throw new FilaIngestaoCheiaException("Aplicação em encerramento. Tente novamente em instantes.");
+            }
+            naFila.add(pagamento.getId());
+            if (!fila.offer(pagamento)) {
+                naFila.remove(pagamento.getId());
+                recusados.increment();
+                throw new FilaIngestaoCheiaException();
+            }
+        } finally {
+            encerramento.readLock().unlock();
+        }
+        return SituacaoIngestao.naFila(pagamento.getId());
+    }
+
+    /** Situação de um ID devolvido por {@link #enfileirar}: ainda na fila, gravado ou com falha. */
+    public SituacaoIngestao consultar(Long id) {
+        if (naFila.contains(id)) {
+            return SituacaoIngestao.naFila(id);
+        }
+        String falha = falhas.getIfPresent(id);
+        if (falha != null) {
+            return SituacaoIngestao.falhou(id, falha);
+        }
+        return fragmentacao.noFragmento(fragmentacao.doId(id), () -> repository.findVersaoById(id))
+                .map(versao -> SituacaoIngestao.gravado(id))
+                .orElseThrow(PagamentoNaoEncontradoException::new);
+    }
+
+    /** Mesma divisão em blocos do otimizador "pooled" do Hibernate: uma ida à sequência a cada 50 IDs. */
+    private synchronized long reservarId(int fragmento) {
+        if (proximoId[fragmento] > topoBloco[fragmento]) {
+            topoBloco[fragmento] = fragmentacao.noFragmento(fragmento, repository::reservarBlocoIds);
+            proximoId[fragmento] = Math.max(1, topoBloco[fragmento] - Pagamento.TAMANHO_ALOCACAO_ID + 1);
+        }
+        return fragmentacao.codificar(proximoId[fragmento]++, fragmento);
+    }
+
+    private void executar() {
+        List<Pagamento> grupo = new ArrayList<>(tamanhoGrupo);
+        while (ativo || !fila.isEmpty()) {
+            try {
+                Pagamento primeiro = fila.poll(100, TimeUnit.MILLISECONDS);
+                if (primeiro == null) {
+                    continue;
+                }
+                grupo.add(primeiro);
+                completarGrupo(grupo);
+                gravar(grupo);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (RuntimeException e) {
+                log.error("Falha inesperada na gravadora da ingestão assíncrona", e);
+            } finally {
+                grupo.clear();
+            }
+        }
+    }
+
+    /** Junta ao grupo o que chegar até ele ficar cheio ou passar o intervalo desde o primeiro pagamento. */
+    private void completarGrupo(List<Pagamento> grupo) throws InterruptedException {
+        long limite = System.nanoTime() + intervaloNanos;
+        while (grupo.size() < tamanhoGrupo) {
+            if (fila.drainTo(grupo, tamanhoGrupo - grupo.size()) > 0) {
+                continue;
+            }
+            long restante = limite - System.nanoTime();
+            if (restante <= 0 || !ativo) {
+                return;
+            }
+            Pagamento proximo = fila.poll(restante, TimeUnit.NANOSECONDS);
+            if (proximo == null) {
+                return;
+            }
+            grupo.add(proximo);
+        }
+    }
+
+    private void gravar(List<Pagamento> grupo) {
+        Map<Integer, List<Pagamento>> porFragmento = new LinkedHashMap<>();
+        for (Pagamento pagamento : grupo) {
+            porFragmento.computeIfAbsent(fragmentacao.doId(pagamento.getId()), fragmento -> new ArrayList<>())
+                    .add(pagamento);
+        }
+        porFragmento.forEach((fragmento, pagamentos) -> fragmentacao.noFragmento(fragmento, () -> {
+            gravarNoFragmento(pagamentos);
+            return null;
+        }));
+    }
+
+    private void gravarNoFragmento(List<Pagamento> grupo) {
+        try {
+            transactionTemplate.executeWithoutResult(status -> inserir(grupo));
+            tamanhoGrupos.record(grupo.size());
+        } catch (RuntimeException e) {
+            log.warn("Falha ao gravar grupo de {} pagamentos; gravando um a um", grupo.size(), e);
+            for (Pagamento pagamento : grupo) {
+                try {
+                    transactionTemplate.executeWithoutResult(status -> inserir(List.of(pagamento)));
+                    tamanhoGrupos.record(1);
+                } catch (RuntimeException erro) {
+                    log.warn("Falha ao gravar o pagamento {} da ingestão assíncrona", pagamento.getId(), erro);
+                    falhas.put(pagamento.getId(), "Falha ao gravar o pagamento.");
+                }
+            }
+        } finally {
+            grupo.forEach(pagamento -> naFila.remove(pagamento.getId()));
+        }
+    }
+
+    // As datas são as da gravação, não as da chegada à fila: um pagamento que espera na fila não pode ser gravado
+    // com um atualizadoEm anterior ao de alterações já lidas por uma sincronização incremental.
+    private void inserir(List<Pagamento> pagamentos) {
+        Instant agora = Instant.now();
+        for (Pagamento pagamento : pagamentos) {
+            pagamento.setCriadoEm(agora);
+            pagamento.setAtualizadoEm(agora);
+            pagamento.setStatusAlteradoEm(agora);
+        }
+        repository.inserirEmLote(pagamentos);
+        for (Pagamento pagamento : pagamentos) {
+            eventos.publishEvent(PagamentoAlteradoEvent.criado(pagamento));
+        }
+    }
+}
@@ -0,0 +1,60 @@
+package org.fadesp.pagamentos_api.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.fadesp.pagamentos_api.dto.PagamentoDTO;
+import org.fadesp.pagamentos_api.evento.PagamentoAlteradoEvent;
+import org.fadesp.pagamentos_api.model.Pagamento;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.function.Function;
+
+/**
+ * Cache em memória, limitado por tamanho e TTL, das consultas de pagamento por ID.
+ * As entradas são invalidadas após o commit de qualquer alteração do pagamento.
+ * Guarda a projeção imutável {@link PagamentoDTO}, e não a entidade: o mesmo objeto é entregue a todas as requisições,
+ * e uma entidade alterada por uma delas mudaria o que as outras leem sem passar pelo banco.
+ * Estatísticas de acerto, falta e despejo ficam nas métricas {@code cache.*} com a tag {@code cache=pagamentos}.
+ */
+@Component
+public class PagamentoCache {
+
+    private final Cache<Long, PagamentoDTO> cache;
+
+    public PagamentoCache(MeterRegistry meterRegistry,
+                          @Value("${pagamentos.cache.tamanho-maximo:10000}") long tamanhoMaximo,
+                          @Value("${pagamentos.cache.ttl-segundos:30}") long ttlSegundos) {
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(tamanhoMaximo)
+                .expireAfterWrite(Duration.ofSeconds(ttlSegundos))
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "pagamentos");
+    }
+
+    /** Busca no cache e, na falta, no carregador; ausências não são armazenadas. */
+    public Optional<PagamentoDTO> buscar(Long id, Function<Long, Optional<Pagamento>> carregador) {
+        return Optional.ofNullable(cache.get(id, chave -> carregador.apply(chave).map(PagamentoDTO::de).orElse(null)));
+    }
+
+    /** Consulta só o cache, sem carregar: devolve null se o pagamento não estiver nele. */
+    public PagamentoDTO emCache(Long id) {
+        return cache.getIfPresent(id);
+    }
+
+    public void invalidar(Long id) {
+        cache.invalidate(id);
+    }
+
+    // Após o commit: um leitor concorrente não consegue repor no cache a versão anterior à alteração.
+    @TransactionalEventListener(fallbackExecution = true)
+    void aoAlterarPagamento(PagamentoAlteradoEvent evento) {
+        invalidar(evento.pagamento().getId());
+    }
+}
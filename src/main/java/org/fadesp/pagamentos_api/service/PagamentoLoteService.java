@@ -0,0 +1,194 @@
+package org.fadesp.pagamentos_api.service;
+
+import jakarta.persistence.EntityManager;
+import org.fadesp.pagamentos_api.dto.ItemAtualizacaoStatus;
+import org.fadesp.pagamentos_api.dto.ItemResultadoLote;
+import org.fadesp.pagamentos_api.dto.ResultadoAtualizacaoStatusLote;
+import org.fadesp.pagamentos_api.dto.ResultadoLote;
+import org.fadesp.pagamentos_api.enums.StatusPagamento;
+import org.fadesp.pagamentos_api.evento.PagamentoAlteradoEvent;
+import org.fadesp.pagamentos_api.excecao.DadosInvalidosException;
+import org.fadesp.pagamentos_api.fragmentacao.Fragmentacao;
+import org.fadesp.pagamentos_api.model.Pagamento;
+import org.fadesp.pagamentos_api.repository.PagamentoRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+
+@Service
+public class PagamentoLoteService {
+
+    private final PagamentoService pagamentoService;
+    private final PagamentoRepository repository;
+    private final EntityManager entityManager;
+    private final ApplicationEventPublisher eventos;
+    private final Fragmentacao fragmentacao;
+    private final int tamanhoChunk;
+    private final int tamanhoChunkStatus;
+    private final int tamanhoMaximo;
+
+    public PagamentoLoteService(PagamentoService pagamentoService,
+                                PagamentoRepository repository,
+                                EntityManager entityManager,
+                                ApplicationEventPublisher eventos,
+                                Fragmentacao fragmentacao,
+                                @Value("${pagamentos.lote.tamanho-chunk:500}") int tamanhoChunk,
+                                @Value("${pagamentos.lote.status.tamanho-chunk:1000}") int tamanhoChunkStatus,
+                                @Value("${pagamentos.lote.tamanho-maximo:10000}") int tamanhoMaximo) {
+        this.pagamentoService = pagamentoService;
+        this.repository = repository;
+        this.entityManager = entityManager;
+        this.eventos = eventos;
+        this.fragmentacao = fragmentacao;
+        this.tamanhoChunk = tamanhoChunk;
+        this.tamanhoChunkStatus = tamanhoChunkStatus;
+        this.tamanhoMaximo = tamanhoMaximo;
+    }
+
+    /**
+     * Valida a lista inteira antes de gravar e persiste os itens válidos numa única transação.
+     * A cada chunk o contexto de persistência é descarregado (flush) e limpo (clear), de modo que
+     * os INSERTs saem em lotes JDBC e a memória não cresce com o tamanho da lista.
+     * Com fragmentação, cada fragmento grava os seus pagamentos em uma transação própria, e a falha de um
+     * fragmento desfaz o lote inteiro (ver {@link Fragmentacao#gravarPorFragmento}).
+     */
+    @Transactional
+    public ResultadoLote criarPagamentosEmLote(List<Pagamento> pagamentos) {
+        if (pagamentos == null || pagamentos.isEmpty()) {
+            throw new DadosInvalidosException("O lote deve conter ao menos um pagamento.");
+        }
+        if (pagamentos.size() > tamanhoMaximo) {
+            throw new DadosInvalidosException("O lote excede o tamanho máximo de " + tamanhoMaximo + " pagamentos.");
+        }
+
+        List<ItemResultadoLote> itens = new ArrayList<>(pagamentos.size());
+        List<Pagamento> validos = new ArrayList<>(pagamentos.size());
+
+        for (int i = 0; i < pagamentos.size(); i++) {
+            Pagamento pagamento = pagamentos.get(i);
+            if (pagamento == null) {
+                itens.add(ItemResultadoLote.rejeitado(i, "Pagamento não informado."));
+                continue;
+            }
+            try {
+                pagamento.setId(null);
+                pagamentoService.prepararNovoPagamento(pagamento);
+                validos.add(pagamento);
+                itens.add(null);
+            } catch (RuntimeException e) {
+                itens.add(ItemResultadoLote.rejeitado(i, e.getMessage()));
+            }
+        }
+
+        fragmentacao.gravarPorFragmento(validos, pagamento -> fragmentacao.doDocumento(pagamento.getCpfCnpj()),
+                this::persistirEmChunks);
+
+        int proximoValido = 0;
+        for (int i = 0; i < itens.size(); i++) {
+            if (itens.get(i) == null) {
+                itens.set(i, ItemResultadoLote.criado(i, validos.get(proximoValido++).getId()));
+            }
+        }
+
+        return new ResultadoLote(pagamentos.size(), validos.size(), pagamentos.size() - validos.size(), itens);
+    }
+
+    private void persistirEmChunks(List<Pagamento> pagamentos) {
+        int pendentesNoChunk = 0;
+        for (Pagamento pagamento : pagamentos) {
+            entityManager.persist(pagamento);
+            eventos.publishEvent(PagamentoAlteradoEvent.criado(pagamento));
+            if (++pendentesNoChunk == tamanhoChunk) {
+                entityManager.flush();
+                entityManager.clear();
+                pendentesNoChunk = 0;
+            }
+        }
+        entityManager.flush();
+        entityManager.clear();
+    }
+
+    /**
+     * Aplica a mesma regra de {@link PagamentoService#atualizarStatusPagamento} a vários IDs, em chunks:
+     * um SELECT com lock traz o status atual de todo o chunk e um único UPDATE condicional altera os elegíveis.
+     * Um lote de N IDs custa cerca de 2 × N / tamanho do chunk idas ao banco, em vez de uma leitura e uma
+     * escrita por ID. Com fragmentação, os IDs de cada fragmento são atualizados em uma transação própria, confirmada
+     * só depois que todos os fragmentos terminarem.
+     */
+    @Transactional
+    public ResultadoAtualizacaoStatusLote atualizarStatusEmLote(List<Long> ids, StatusPagamento novoStatus) {
+        if (ids == null || ids.isEmpty()) {
+            throw new DadosInvalidosException("O lote deve conter ao menos um ID.");
+        }
+        if (ids.stream().anyMatch(Objects::isNull)) {
+            throw new DadosInvalidosException("O lote não pode conter IDs nulos.");
+        }
+        if (ids.size() > tamanhoMaximo) {
+            throw new DadosInvalidosException("O lote excede o tamanho máximo de " + tamanhoMaximo + " IDs.");
+        }
+
+        List<Long> distintos = List.copyOf(new LinkedHashSet<>(ids));
+        Map<Long, ItemAtualizacaoStatus> resultados = new HashMap<>(distintos.size() * 2);
+        int[] atualizados = new int[1];
+
+        fragmentacao.gravarPorFragmento(distintos, fragmentacao::doId,
+                grupo -> atualizados[0] += atualizarEmChunks(grupo, novoStatus, resultados));
+
+        List<ItemAtualizacaoStatus> itens = new ArrayList<>(distintos.size());
+        int naoEncontrados = 0;
+        for (Long id : distintos) {
+            ItemAtualizacaoStatus item = resultados.get(id);
+            if (item == null) {
+                item = ItemAtualizacaoStatus.naoEncontrado(id);
+                naoEncontrados++;
+            }
+            itens.add(item);
+        }
+
+        return new ResultadoAtualizacaoStatusLote(distintos.size(), atualizados[0], naoEncontrados,
+                distintos.size() - atualizados[0] - naoEncontrados, itens);
+    }
+
+    /** Atualiza os IDs informados em chunks e registra em {@code resultados} o desfecho de cada um encontrado. */
+    private int atualizarEmChunks(List<Long> ids, StatusPagamento novoStatus, Map<Long, ItemAtualizacaoStatus> resultados) {
+        Set<StatusPagamento> origens = novoStatus.origensPermitidas();
+        int atualizados = 0;
+
+        for (int inicio = 0; inicio < ids.size(); inicio += tamanhoChunkStatus) {
+            List<Long> chunk = ids.subList(inicio, Math.min(inicio + tamanhoChunkStatus, ids.size()));
+            List<Pagamento> elegiveis = new ArrayList<>(chunk.size());
+
+            for (Pagamento pagamento : repository.findByIdIn(chunk)) {
+                if (origens.contains(pagamento.getStatus())) {
+                    elegiveis.add(pagamento);
+                } else {
+                    resultados.put(pagamento.getId(), ItemAtualizacaoStatus.regraViolada(pagamento.getId(),
+                            PagamentoService.mensagemDeRejeicao(pagamento.getStatus(), novoStatus)));
+                }
+            }
+
+            List<Long> idsElegiveis = elegiveis.stream().map(Pagamento::getId).toList();
+            // As linhas estão travadas desde o SELECT: o UPDATE atinge exatamente os elegíveis.
+            atualizados += repository.atualizarStatusEmLoteSeOrigemPermitida(idsElegiveis, novoStatus, origens);
+
+            for (Pagamento pagamento : elegiveis) {
+                // Lido com trava pelo findByIdIn: é o status que o UPDATE acabou de substituir.
+                StatusPagamento statusAnterior = pagamento.getStatus();
+                pagamento.setStatus(novoStatus);
+                pagamento.setVersao(pagamento.getVersao() + 1);
+                resultados.put(pagamento.getId(), ItemAtualizacaoStatus.atualizado(pagamento.getId()));
+                eventos.publishEvent(PagamentoAlteradoEvent.statusAlterado(pagamento, statusAnterior));
+            }
+        }
+        return atualizados;
+    }
+}
@@ -1,37 +1,98 @@
 package org.fadesp.pagamentos_api.service;
 
+import org.fadesp.pagamentos_api.dto.PagamentoDTO;
+import org.fadesp.pagamentos_api.dto.Pagina;
 import org.fadesp.pagamentos_api.enums.StatusPagamento;
+import org.fadesp.pagamentos_api.evento.PagamentoAlteradoEvent;
+import org.fadesp.pagamentos_api.excecao.DadosInvalidosException;
+import org.fadesp.pagamentos_api.excecao.PagamentoNaoEncontradoException;
+import org.fadesp.pagamentos_api.excecao.RejeicaoException;
+import org.fadesp.pagamentos_api.excecao.TransicaoNaoPermitidaException;
+import org.fadesp.pagamentos_api.fragmentacao.Fragmentacao;
+import org.fadesp.pagamentos_api.model.NumeroCartaoConverter;
 import org.fadesp.pagamentos_api.model.Pagamento;
+import org.fadesp.pagamentos_api.model.PagamentoArquivado;
+import org.fadesp.pagamentos_api.repository.PagamentoArquivadoRepository;
 import org.fadesp.pagamentos_api.repository.PagamentoRepository;
+import org.fadesp.pagamentos_api.service.CursorPaginacao.PosicaoAtualizacao;
+import org.fadesp.pagamentos_api.util.CpfCnpj;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.Instant;
+import java.util.Comparator;
 import java.util.List;
+import java.util.Optional;
+import java.util.function.Supplier;
 
 @Service
 public class PagamentoService {
 
+    public static final int TAMANHO_PAGINA_MAXIMO = 500;
+
+    private static final Comparator<PagamentoDTO> POR_ID = Comparator.comparingLong(PagamentoDTO::id);
+    private static final Comparator<PagamentoDTO> POR_ATUALIZACAO =
+            Comparator.comparing(PagamentoDTO::atualizadoEm).thenComparing(POR_ID);
+
     private final PagamentoRepository repository;
+    private final PagamentoArquivadoRepository arquivo;
+    private final PagamentoCache cache;
+    private final ApplicationEventPublisher eventos;
+    private final TokenizadorCartao tokenizador;
+    private final Fragmentacao fragmentacao;
 
-    public PagamentoService(PagamentoRepository repository) {
+    public PagamentoService(PagamentoRepository repository, PagamentoArquivadoRepository arquivo, PagamentoCache cache,
+                            ApplicationEventPublisher eventos, TokenizadorCartao tokenizador, Fragmentacao fragmentacao) {
         this.repository = repository;
+        this.arquivo = arquivo;
+        this.cache = cache;
+        this.eventos = eventos;
+        this.tokenizador = tokenizador;
+        this.fragmentacao = fragmentacao;
     }
 
-    private void validarCpfCnpj(String cpfCnpj) {
-        if (cpfCnpj == null || cpfCnpj.isBlank()) {
-            throw new RuntimeException("CPF ou CNPJ não pode ser vazio.");
-        }
+    @Transactional
+    public Pagamento criarPagamento(Pagamento pagamento) {
+        prepararNovoPagamento(pagamento);
+        Pagamento criado = fragmentacao.noFragmento(fragmentacao.doDocumento(pagamento.getCpfCnpj()),
+                () -> repository.save(pagamento));
+        eventos.publishEvent(PagamentoAlteradoEvent.criado(criado));
+        return criado;
+    }
 
-        String cleanedCpfCnpj = cpfCnpj.replaceAll("[^0-9]", "");
+    public PagamentoDTO buscarPagamento(Long id) {
+        return cache.buscar(id, this::buscarNoFragmento)
+                .orElseThrow(PagamentoNaoEncontradoException::new);
+    }
 
-        if (cleanedCpfCnpj.length() != 11 && cleanedCpfCnpj.length() != 14) {
-            throw new RuntimeException("CPF/CNPJ inválido. Deve conter 11 (CPF) ou 14 (CNPJ) dígitos numéricos.");
+    /**
+     * Versão atual do pagamento, para validar o ETag de GET /pagamentos/{id}: vem do cache quando ele já tem o
+     * pagamento e, caso contrário, de uma leitura só da coluna {@code versao}, sem carregar a entidade.
+     */
+    public long buscarVersao(Long id) {
+        PagamentoDTO emCache = cache.emCache(id);
+        if (emCache != null && emCache.versao() != null) {
+            return emCache.versao();
         }
-
+        return fragmentacao.noFragmento(fragmentacao.doId(id), () -> repository.findVersaoById(id))
+                .orElseThrow(PagamentoNaoEncontradoException::new);
     }
 
-    public Pagamento criarPagamento(Pagamento pagamento) {
-        validarCpfCnpj(pagamento.getCpfCnpj());
+    /**
+     * Aplica as validações e os valores padrão de um novo pagamento, sem persisti-lo.
+     * Compartilhado entre a criação unitária e a criação em lote.
+     */
+    void prepararNovoPagamento(Pagamento pagamento) {
+        pagamento.setCpfCnpj(CpfCnpj.normalizar(pagamento.getCpfCnpj()));
+
+        // O número completo do cartão não passa daqui: vira um token e o número mascarado que a API devolve.
+        if (pagamento.getNumeroCartao() != null) {
+            pagamento.setCartaoToken(tokenizador.tokenizar(pagamento.getNumeroCartao()));
+            pagamento.setNumeroCartao(NumeroCartaoConverter.mascarar(pagamento.getNumeroCartao()));
+        }
 
         if (pagamento.getStatus() == null) {
             pagamento.setStatus(StatusPagamento.PENDENTE);
@@ -39,47 +100,156 @@ public class PagamentoService {
         if (pagamento.getAtivo() == null) {
             pagamento.setAtivo(true);
         }
-        return repository.save(pagamento);
+        Instant agora = Instant.now();
+        pagamento.setCriadoEm(agora);
+        pagamento.setAtualizadoEm(agora);
+        pagamento.setStatusAlteradoEm(agora);
     }
 
-    public List<Pagamento> listarPagamentos() {
-        return repository.findAll();
+    /**
+     * Lista os pagamentos ativos ou, com {@code arquivados}, os que já foram movidos para o arquivo.
+     */
+    @Transactional(readOnly = true)
+    public Pagina<PagamentoDTO> listarPagamentos(String cursor, int tamanho, boolean arquivados) {
+        int limite = validarTamanhoPagina(tamanho);
+        Long aposId = CursorPaginacao.decodificar(cursor);
+        long inicio = aposId == null ? 0L : aposId;
+
+        // Busca um item a mais para saber se existe próxima página sem precisar de COUNT.
+        List<PagamentoDTO> resultado = consultarFragmentos(null, null, limite, POR_ID, arquivados
+                ? () -> arquivo.findByIdGreaterThanOrderByIdAsc(inicio, Limit.of(limite + 1))
+                : () -> repository.findByIdGreaterThanAndAtivoTrueOrderByIdAsc(inicio, Limit.of(limite + 1)));
+
+        return montarPagina(resultado, limite, false);
     }
 
+    @Transactional
     public Pagamento atualizarStatusPagamento(Long id, StatusPagamento novoStatus) {
-        Pagamento pagamento = repository.findById(id)
-                .orElseThrow(() -> new RuntimeException("Pagamento não encontrado"));
+        StatusPagamento statusAnterior = fragmentacao.noFragmento(fragmentacao.doId(id),
+                        () -> repository.atualizarStatusSeOrigemPermitida(id, novoStatus, novoStatus.origensPermitidas()))
+                .orElseThrow(() -> rejeicaoDeTransicao(id, novoStatus));
 
-        if (pagamento.getStatus() == novoStatus) {
-            throw new RuntimeException("O status do pagamento já é " + novoStatus.name() + ". Não é permitida a alteração para o mesmo status.");
-        }
+        Pagamento atualizado = buscarOuFalhar(id);
+        eventos.publishEvent(PagamentoAlteradoEvent.statusAlterado(atualizado, statusAnterior));
+        return atualizado;
+    }
+
+    /**
+     * Chamado apenas quando o UPDATE condicional não alterou nenhuma linha: lê o status atual
+     * para devolver a mesma mensagem de regra de negócio de antes.
+     */
+    private RejeicaoException rejeicaoDeTransicao(Long id, StatusPagamento novoStatus) {
+        StatusPagamento statusAtual = repository.findStatusById(id)
+                .orElseThrow(PagamentoNaoEncontradoException::new);
+
+        return new TransicaoNaoPermitidaException(mensagemDeRejeicao(statusAtual, novoStatus));
+    }
 
-        if(pagamento.getStatus() == StatusPagamento.PROCESSADO_SUCESSO) {
-            throw new RuntimeException("Pagamento processado com sucesso. Não pode ser alterado.");
+    /** Motivo pelo qual a transição de {@code statusAtual} para {@code novoStatus} não é permitida. */
+    static String mensagemDeRejeicao(StatusPagamento statusAtual, StatusPagamento novoStatus) {
+        if (statusAtual == novoStatus) {
+            return "O status do pagamento já é " + novoStatus.name() + ". Não é permitida a alteração para o mesmo status.";
         }
 
-        if (pagamento.getStatus() == StatusPagamento.PROCESSADO_FALHA
-                && novoStatus != StatusPagamento.PENDENTE) {
-            throw new RuntimeException("Pagamento com falha só pode voltar para PENDENTE.");
+        if (statusAtual == StatusPagamento.PROCESSADO_SUCESSO) {
+            return "Pagamento processado com sucesso. Não pode ser alterado.";
         }
 
-        pagamento.setStatus(novoStatus);
-        return repository.save(pagamento);
+        return "Pagamento com falha só pode voltar para PENDENTE.";
+    }
+
+    /** Mesmo filtro, sem intervalo de atualização. */
+    @Transactional(readOnly = true)
+    public Pagina<PagamentoDTO> filtrarPagamentos(Long id, Integer codigoDebito, String cpfCnpj, StatusPagamento status,
+                                               Boolean ativo, boolean arquivados, String cursor, int tamanho) {
+        return filtrarPagamentos(id, codigoDebito, cpfCnpj, status, ativo, null, null, arquivados, cursor, tamanho);
     }
 
-    public List<Pagamento> filtrarPagamentos(Long id, Integer codigoDebito, String cpfCnpj, StatusPagamento status) {
+    /**
+     * Sem {@code ativo}, os pagamentos inativos ficam de fora, exceto no arquivo ({@code arquivados}),
+     * onde a ausência do filtro traz ambos.
+     * <p>
+     * Com {@code desde} e/ou {@code ate}, só entram os pagamentos com {@code atualizadoEm} em {@code [desde, ate)},
+     * em ordem de {@code (atualizadoEm, id)} e com o cursor nessa mesma ordem: a consulta percorre o índice de
+     * atualização a partir da posição do cursor, e uma sincronização incremental lê só o que mudou no intervalo.
+     * Nesse modo a ausência de {@code ativo} traz também os inativos, para que a inativação chegue a quem sincroniza.
+     */
+    @Transactional(readOnly = true)
+    public Pagina<PagamentoDTO> filtrarPagamentos(Long id, Integer codigoDebito, String cpfCnpj, StatusPagamento status,
+                                               Boolean ativo, Instant desde, Instant ate, boolean arquivados,
+                                               String cursor, int tamanho) {
+        int limite = validarTamanhoPagina(tamanho);
+        if (desde != null && ate != null && !desde.isBefore(ate)) {
+            throw new DadosInvalidosException("Intervalo inválido: 'desde' deve ser anterior a 'ate'.");
+        }
+        boolean porAtualizacao = desde != null || ate != null;
+        Long aposId = porAtualizacao ? null : CursorPaginacao.decodificar(cursor);
+        PosicaoAtualizacao aposPosicao = porAtualizacao ? CursorPaginacao.decodificarPorAtualizacao(cursor) : null;
+        Comparator<PagamentoDTO> ordem = porAtualizacao ? POR_ATUALIZACAO : POR_ID;
 
+        // Mesma forma normalizada gravada na criação, para que "529.982.247-25" e "52998224725"
+        // caiam na mesma entrada do índice.
         if (cpfCnpj != null && !cpfCnpj.isBlank()) {
-            validarCpfCnpj(cpfCnpj);
+            cpfCnpj = CpfCnpj.normalizar(cpfCnpj);
         }
 
-        Specification<Pagamento> spec = Specification.anyOf();
+        if (arquivados) {
+            Specification<PagamentoArquivado> spec = comIntervaloDeAtualizacao(
+                    montarEspecificacao(codigoDebito, cpfCnpj, status, ativo, aposId), desde, ate, aposPosicao);
+            if (id != null) {
+                spec = spec.and((root, query, criteriaBuilder) -> criteriaBuilder.equal(root.get("id"), id));
+            }
+            Specification<PagamentoArquivado> filtro = spec;
+            return montarPagina(consultarFragmentos(id, cpfCnpj, limite, ordem, porAtualizacao
+                    ? () -> arquivo.filtrarProjetadoPorAtualizacao(filtro, limite + 1)
+                    : () -> arquivo.filtrarProjetado(filtro, limite + 1)), limite, porAtualizacao);
+        }
 
+        Boolean filtroAtivo = porAtualizacao ? ativo : Boolean.valueOf(ativo == null || ativo);
         if (id != null) {
-            spec = spec.and((root, query, criteriaBuilder) ->
-                    criteriaBuilder.equal(root.get("id"), id));
+            return filtrarPorId(id, codigoDebito, cpfCnpj, status, filtroAtivo, desde, ate, aposId, aposPosicao);
         }
 
+        Specification<Pagamento> spec = comIntervaloDeAtualizacao(
+                montarEspecificacao(codigoDebito, cpfCnpj, status, filtroAtivo, aposId), desde, ate, aposPosicao);
+
+        List<PagamentoDTO> resultado = consultarFragmentos(null, cpfCnpj, limite, ordem, porAtualizacao
+                ? () -> repository.filtrarProjetadoPorAtualizacao(spec, limite + 1)
+                : () -> repository.filtrarProjetado(spec, limite + 1));
+
+        return montarPagina(resultado, limite, porAtualizacao);
+    }
+
+    /**
+     * Executa a consulta só no fragmento do ID ou do CPF/CNPJ, quando um deles é informado; sem nenhum dos dois,
+     * em todos os fragmentos, intercalando os resultados na {@code ordem} da consulta. Cada fragmento devolve até
+     * {@code limite + 1} itens nessa ordem, e portanto os {@code limite + 1} primeiros da intercalação são os de uma
+     * consulta única.
+     */
+    private List<PagamentoDTO> consultarFragmentos(Long id, String cpfCnpj, int limite, Comparator<PagamentoDTO> ordem,
+                                                   Supplier<List<PagamentoDTO>> consulta) {
+        if (id != null) {
+            return fragmentacao.noFragmento(fragmentacao.doId(id), consulta);
+        }
+        if (cpfCnpj != null && !cpfCnpj.isBlank()) {
+            return fragmentacao.noFragmento(fragmentacao.doDocumento(cpfCnpj), consulta);
+        }
+        List<List<PagamentoDTO>> porFragmento = fragmentacao.consultarTodos(consulta);
+        if (porFragmento.size() == 1) {
+            return porFragmento.get(0);
+        }
+        return porFragmento.stream()
+                .flatMap(List::stream)
+                .sorted(ordem)
+                .limit(limite + 1L)
+                .toList();
+    }
+
+    /** Serve tanto a {@link Pagamento} quanto a {@link PagamentoArquivado}, que têm os mesmos atributos. */
+    static <T> Specification<T> montarEspecificacao(Integer codigoDebito, String cpfCnpj, StatusPagamento status,
+                                                    Boolean ativo, Long aposId) {
+        Specification<T> spec = Specification.anyOf();
+
         if (codigoDebito != null) {
             spec = spec.and((root, query, criteriaBuilder) ->
                     criteriaBuilder.equal(root.get("codigoDebito"), codigoDebito));
@@ -95,18 +265,111 @@ public class PagamentoService {
                     criteriaBuilder.equal(root.get("status"), status));
         }
 
-        return repository.findAll(spec);
+        if (ativo != null) {
+            spec = spec.and((root, query, criteriaBuilder) ->
+                    criteriaBuilder.equal(root.get("ativo"), ativo));
+        }
+
+        if (aposId != null) {
+            spec = spec.and((root, query, criteriaBuilder) ->
+                    criteriaBuilder.greaterThan(root.get("id"), aposId));
+        }
+
+        return spec;
     }
 
+    /**
+     * Restringe {@code atualizadoEm} a {@code [desde, ate)} e, com cursor, aos itens posteriores a ele na ordem
+     * {@code (atualizadoEm, id)}. Serve às duas tabelas, como {@link #montarEspecificacao}.
+     * <p>
+     * O {@code atualizadoEm >= } do cursor repete o que o {@code OR} já garante, mas é ele que o banco usa como
+     * limite inferior da varredura no índice {@code (atualizado_em, id)}.
+     */
+    static <T> Specification<T> comIntervaloDeAtualizacao(Specification<T> spec, Instant desde, Instant ate,
+                                                          PosicaoAtualizacao apos) {
+        if (desde != null) {
+            spec = spec.and((root, query, criteriaBuilder) ->
+                    criteriaBuilder.greaterThanOrEqualTo(root.get("atualizadoEm"), desde));
+        }
+
+        if (ate != null) {
+            spec = spec.and((root, query, criteriaBuilder) ->
+                    criteriaBuilder.lessThan(root.get("atualizadoEm"), ate));
+        }
+
+        if (apos != null) {
+            spec = spec.and((root, query, criteriaBuilder) ->
+                    criteriaBuilder.greaterThanOrEqualTo(root.get("atualizadoEm"), apos.atualizadoEm()));
+            spec = spec.and((root, query, criteriaBuilder) -> criteriaBuilder.or(
+                    criteriaBuilder.greaterThan(root.get("atualizadoEm"), apos.atualizadoEm()),
+                    criteriaBuilder.and(
+                            criteriaBuilder.equal(root.get("atualizadoEm"), apos.atualizadoEm()),
+                            criteriaBuilder.greaterThan(root.get("id"), apos.id()))));
+        }
+
+        return spec;
+    }
+
+    /**
+     * Filtro com ID: no máximo um resultado, servido pelo mesmo cache de GET /pagamentos/{id}.
+     * Os demais critérios são conferidos em memória.
+     */
+    private Pagina<PagamentoDTO> filtrarPorId(Long id, Integer codigoDebito, String cpfCnpj, StatusPagamento status,
+                                              Boolean ativo, Instant desde, Instant ate, Long aposId,
+                                              PosicaoAtualizacao aposPosicao) {
+        List<PagamentoDTO> itens = cache.buscar(id, this::buscarNoFragmento)
+                .filter(p -> aposId == null || p.id() > aposId)
+                .filter(p -> desde == null || !p.atualizadoEm().isBefore(desde))
+                .filter(p -> ate == null || p.atualizadoEm().isBefore(ate))
+                .filter(p -> aposPosicao == null || aposPosicao.antesDe(p.atualizadoEm(), p.id()))
+                .filter(p -> ativo == null || ativo == Boolean.TRUE.equals(p.ativo()))
+                .filter(p -> codigoDebito == null || codigoDebito.equals(p.codigoDebito()))
+                .filter(p -> cpfCnpj == null || cpfCnpj.isBlank() || cpfCnpj.equals(p.cpfCnpj()))
+                .filter(p -> status == null || status == p.status())
+                .map(List::of)
+                .orElse(List.of());
+        return new Pagina<>(itens, null);
+    }
+
+    @Transactional
     public Pagamento excluirPagamento(Long id) {
-        Pagamento pagamento = repository.findById(id)
-                .orElseThrow(() -> new RuntimeException("Pagamento não encontrado"));
+        int atualizados = fragmentacao.noFragmento(fragmentacao.doId(id), () -> repository.inativarSePendente(id));
 
-        if (pagamento.getStatus() != StatusPagamento.PENDENTE) {
-            throw new RuntimeException("Somente pagamentos pendentes podem ser inativados.");
+        if (atualizados == 0) {
+            repository.findStatusById(id)
+                    .orElseThrow(PagamentoNaoEncontradoException::new);
+            throw new TransicaoNaoPermitidaException("Somente pagamentos pendentes podem ser inativados.");
         }
 
-        pagamento.setAtivo(false);
-        return repository.save(pagamento);
+        Pagamento inativado = buscarOuFalhar(id);
+        eventos.publishEvent(PagamentoAlteradoEvent.inativado(inativado));
+        return inativado;
+    }
+
+    private Pagamento buscarOuFalhar(Long id) {
+        return buscarNoFragmento(id)
+                .orElseThrow(PagamentoNaoEncontradoException::new);
+    }
+
+    private Optional<Pagamento> buscarNoFragmento(Long id) {
+        return fragmentacao.noFragmento(fragmentacao.doId(id), () -> repository.findById(id));
+    }
+
+    private int validarTamanhoPagina(int tamanho) {
+        if (tamanho < 1 || tamanho > TAMANHO_PAGINA_MAXIMO) {
+            throw new DadosInvalidosException("Tamanho de página inválido. Deve estar entre 1 e " + TAMANHO_PAGINA_MAXIMO + ".");
+        }
+        return tamanho;
+    }
+
+    private Pagina<PagamentoDTO> montarPagina(List<PagamentoDTO> resultado, int limite, boolean porAtualizacao) {
+        if (resultado.size() <= limite) {
+            return new Pagina<>(resultado, null);
+        }
+        List<PagamentoDTO> itens = resultado.subList(0, limite);
+        PagamentoDTO ultimo = itens.get(limite - 1);
+        return new Pagina<>(List.copyOf(itens), porAtualizacao
+                ? CursorPaginacao.codificar(ultimo.atualizadoEm(), ultimo.id())
+                : CursorPaginacao.codificar(ultimo.id()));
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,76 @@
+package org.fadesp.pagamentos_api.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.util.HexFormat;
+
+/**
+ * Token do cartão: HMAC-SHA256 dos dígitos do número com a chave {@code pagamentos.cartao.chave-token}, truncado
+ * em 63 bits. O mesmo cartão gera sempre o mesmo token, o que permite relacionar pagamentos feitos com ele sem
+ * guardar o número; sem a chave, o token não pode ser recalculado por força bruta sobre os números possíveis.
+ * Por isso não há chave padrão: sem {@code pagamentos.cartao.chave-token}, a aplicação não sobe.
+ */
+@Component
+public class TokenizadorCartao {
+
+    private static final String ALGORITMO = "HmacSHA256";
+
+    private final SecretKeySpec chave;
+    // Mac não é thread-safe; uma instância por thread evita recriá-la a cada pagamento.
+    private final ThreadLocal<Mac> macs;
+
+    public TokenizadorCartao(@Value("${pagamentos.cartao.chave-token:}") String chave) {
+        if (chave == null || chave.isBlank()) {
+            throw new IllegalStateException("Chave do token de cartão não configurada: defina "
+                    + "PAGAMENTOS_CARTAO_CHAVE_TOKEN (pagamentos.cartao.chave-token).");
+        }
+        this.chave = new SecretKeySpec(chave.getBytes(StandardCharsets.UTF_8), ALGORITMO);
+        this.macs = ThreadLocal.withInitial(this::novoMac);
+    }
+
+    /** Devolve o token do número informado, ignorando espaços e outros separadores, ou null se não houver dígitos. */
+    public Long tokenizar(String numeroCartao) {
+        if (numeroCartao == null) {
+            return null;
+        }
+        byte[] digitos = new byte[numeroCartao.length()];
+        int quantidade = 0;
+        for (int i = 0; i < numeroCartao.length(); i++) {
+            char c = numeroCartao.charAt(i);
+            if (c >= '0' && c <= '9') {
+                digitos[quantidade++] = (byte) c;
+            }
+        }
+        if (quantidade == 0) {
+            return null;
+        }
+
+        Mac mac = macs.get();
+        mac.update(digitos, 0, quantidade);
+        return ByteBuffer.wrap(mac.doFinal()).getLong() & Long.MAX_VALUE;
+    }
+
+    /**
+     * HMAC-SHA256, em hexadecimal, de dados que podem conter o número do cartão (o corpo de uma requisição, por
+     * exemplo): com a mesma chave do token, o resultado também não pode ser revertido por força bruta.
+     */
+    public String impressao(byte[] dados) {
+        return HexFormat.of().formatHex(macs.get().doFinal(dados));
+    }
+
+    private Mac novoMac() {
+        try {
+            Mac mac = Mac.getInstance(ALGORITMO);
+            mac.init(chave);
+            return mac;
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("Não foi possível inicializar o " + ALGORITMO + ".", e);
+        }
+    }
+}
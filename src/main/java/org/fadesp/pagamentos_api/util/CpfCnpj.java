@@ -0,0 +1,173 @@
+package org.fadesp.pagamentos_api.util;
+
+import org.fadesp.pagamentos_api.excecao.DadosInvalidosException;
+
+/**
+ * Validação e normalização de CPF/CNPJ em uma única passada, sem expressão regular e sem alocação.
+ * <p>
+ * Caracteres que não são dígitos (pontos, traços, barras) são ignorados, de modo que
+ * "529.982.247-25" e "52998224725" têm a mesma forma normalizada. Os dígitos verificadores
+ * de CPF e de CNPJ são conferidos.
+ */
+public final class CpfCnpj {
+
+    public static final int TAMANHO_CPF = 11;
+    public static final int TAMANHO_CNPJ = 14;
+
+    /** Resultados de {@link #verificar(CharSequence)} além de {@link #TAMANHO_CPF} e {@link #TAMANHO_CNPJ}. */
+    public static final int VAZIO = -1;
+    public static final int TAMANHO_INVALIDO = -2;
+    public static final int DIGITO_VERIFICADOR_INVALIDO = -3;
+
+    /**
+     * Prefixos da chave numérica: a chave é {@code prefixo × 10^14 + dígitos}, de modo que CPF e CNPJ com o mesmo
+     * valor (zeros à esquerda) não colidem e o tipo do documento é recuperável da própria chave.
+     */
+    public static final long PREFIXO_CPF = 1;
+    public static final long PREFIXO_CNPJ = 2;
+    private static final long BASE_CHAVE = 100_000_000_000_000L;
+
+    private static final int[] PESOS_CNPJ_1 = {5, 4, 3, 2, 9, 8, 7, 6, 5, 4, 3, 2};
+    private static final int[] PESOS_CNPJ_2 = {6, 5, 4, 3, 2, 9, 8, 7, 6, 5, 4, 3, 2};
+
+    private CpfCnpj() {
+    }
+
+    /**
+     * Verifica o documento sem alocar memória.
+     *
+     * @return {@link #TAMANHO_CPF} ou {@link #TAMANHO_CNPJ} quando válido; caso contrário
+     *         {@link #VAZIO}, {@link #TAMANHO_INVALIDO} ou {@link #DIGITO_VERIFICADOR_INVALIDO}
+     */
+    public static int verificar(CharSequence documento) {
+        if (documento == null) {
+            return VAZIO;
+        }
+
+        int quantidade = 0;
+        long valor = 0;
+        int somaCpf1 = 0, somaCpf2 = 0, somaCnpj1 = 0, somaCnpj2 = 0;
+        int primeiro = -1;
+        boolean todosIguais = true;
+        boolean somenteEspacos = true;
+
+        for (int i = 0; i < documento.length(); i++) {
+            char c = documento.charAt(i);
+            if (c < '0' || c > '9') {
+                somenteEspacos &= Character.isWhitespace(c);
+                continue;
+            }
+            somenteEspacos = false;
+            int d = c - '0';
+            if (quantidade < TAMANHO_CNPJ) {
+                valor = valor * 10 + d;
+                // Os pesos dependem só da posição do dígito, então as somas de CPF e CNPJ andam juntas.
+                if (quantidade < 9) somaCpf1 += d * (10 - quantidade);
+                if (quantidade < 10) somaCpf2 += d * (11 - quantidade);
+                if (quantidade < 12) somaCnpj1 += d * PESOS_CNPJ_1[quantidade];
+                if (quantidade < 13) somaCnpj2 += d * PESOS_CNPJ_2[quantidade];
+            }
+            if (primeiro < 0) {
+                primeiro = d;
+            } else if (d != primeiro) {
+                todosIguais = false;
+            }
+            quantidade++;
+        }
+
+        if (quantidade == 0 && somenteEspacos) {
+            return VAZIO;
+        }
+        if (quantidade != TAMANHO_CPF && quantidade != TAMANHO_CNPJ) {
+            return TAMANHO_INVALIDO;
+        }
+        if (todosIguais) {
+            return DIGITO_VERIFICADOR_INVALIDO;
+        }
+
+        int ultimo = (int) (valor % 10);
+        int penultimo = (int) (valor / 10 % 10);
+        boolean valido = quantidade == TAMANHO_CPF
+                ? penultimo == digitoVerificador(somaCpf1) && ultimo == digitoVerificador(somaCpf2)
+                : penultimo == digitoVerificador(somaCnpj1) && ultimo == digitoVerificador(somaCnpj2);
+
+        return valido ? quantidade : DIGITO_VERIFICADOR_INVALIDO;
+    }
+
+    /**
+     * Valida e devolve somente os dígitos do documento. Quando o valor recebido já está normalizado,
+     * a própria instância é devolvida.
+     *
+     * @throws DadosInvalidosException com a mensagem de validação quando o documento é inválido
+     */
+    public static String normalizar(String documento) {
+        int resultado = verificar(documento);
+
+        if (resultado == VAZIO) {
+            throw new DadosInvalidosException("CPF ou CNPJ não pode ser vazio.");
+        }
+        if (resultado == TAMANHO_INVALIDO) {
+            throw new DadosInvalidosException("CPF/CNPJ inválido. Deve conter 11 (CPF) ou 14 (CNPJ) dígitos numéricos.");
+        }
+        if (resultado == DIGITO_VERIFICADOR_INVALIDO) {
+            throw new DadosInvalidosException("CPF/CNPJ inválido. Dígitos verificadores não conferem.");
+        }
+
+        if (documento.length() == resultado) {
+            return documento;
+        }
+        char[] digitos = new char[resultado];
+        int posicao = 0;
+        for (int i = 0; i < documento.length(); i++) {
+            char c = documento.charAt(i);
+            if (c >= '0' && c <= '9') {
+                digitos[posicao++] = c;
+            }
+        }
+        return new String(digitos);
+    }
+
+    /**
+     * Chave numérica do documento, para armazenamento e índices: 8 bytes em vez de uma cadeia de 11 a 18 caracteres,
+     * e uma única representação para todos os formatos de entrada.
+     * <p>
+     * Só a quantidade de dígitos é conferida: os dígitos verificadores são validados na entrada por
+     * {@link #normalizar(String)}, e registros antigos gravados antes dessa validação precisam continuar regraváveis.
+     *
+     * @throws DadosInvalidosException quando o documento não tem 11 nem 14 dígitos
+     */
+    public static long paraChave(CharSequence documento) {
+        int quantidade = 0;
+        long valor = 0;
+        for (int i = 0; i < documento.length() && quantidade <= TAMANHO_CNPJ; i++) {
+            char c = documento.charAt(i);
+            if (c >= '0' && c <= '9') {
+                valor = valor * 10 + (c - '0');
+                quantidade++;
+            }
+        }
+        if (quantidade == TAMANHO_CPF) {
+            return PREFIXO_CPF * BASE_CHAVE + valor;
+        }
+        if (quantidade == TAMANHO_CNPJ) {
+            return PREFIXO_CNPJ * BASE_CHAVE + valor;
+        }
+        throw new DadosInvalidosException("CPF/CNPJ inválido. Deve conter 11 (CPF) ou 14 (CNPJ) dígitos numéricos.");
+    }
+
+    /** Inverso de {@link #paraChave(CharSequence)}: devolve os dígitos do documento, com os zeros à esquerda. */
+    public static String deChave(long chave) {
+        long prefixo = chave / BASE_CHAVE;
+        if (prefixo != PREFIXO_CPF && prefixo != PREFIXO_CNPJ) {
+            throw new IllegalStateException("Chave de CPF/CNPJ armazenada inválida: " + chave);
+        }
+        String digitos = Long.toString(chave % BASE_CHAVE);
+        int tamanho = prefixo == PREFIXO_CPF ? TAMANHO_CPF : TAMANHO_CNPJ;
+        return "0".repeat(tamanho - digitos.length()) + digitos;
+    }
+
+    private static int digitoVerificador(int soma) {
+        int resto = soma % 11;
+        return resto < 2 ? 0 : 11 - resto;
+    }
+}
@@ -0,0 +1,51 @@
+package org.fadesp.pagamentos_api;
+
+import org.fadesp.pagamentos_api.enums.MetodoPagamento;
+import org.fadesp.pagamentos_api.model.Pagamento;
+
+import java.math.BigDecimal;
+
+/**
+ * Pagamentos novos (ainda não gravados) usados pelos testes e pelos benchmarks JMH: PIX de R$ 10,00 com um CPF
+ * válido, sem cartão.
+ */
+public final class PagamentosDeTeste {
+
+    public static final String CPF_VALIDO = "52998224725";
+
+    private PagamentosDeTeste() {
+    }
+
+    public static Pagamento novoPagamento() {
+        Pagamento pagamento = new Pagamento();
+        pagamento.setCpfCnpj(CPF_VALIDO);
+        pagamento.setMetodoPagamento(MetodoPagamento.PIX);
+        pagamento.setValor(new BigDecimal("10.00"));
+        return pagamento;
+    }
+
+    public static Pagamento novoPagamento(int codigoDebito) {
+        return novoPagamento(codigoDebito, CPF_VALIDO);
+    }
+
+    public static Pagamento novoPagamento(int codigoDebito, String cpfCnpj) {
+        Pagamento pagamento = novoPagamento();
+        pagamento.setCodigoDebito(codigoDebito);
+        pagamento.setCpfCnpj(cpfCnpj);
+        return pagamento;
+    }
+
+    /** CPF válido a partir de nove dígitos quaisquer, para espalhar os pagamentos entre documentos e fragmentos. */
+    public static String cpf(int base) {
+        String digitos = String.format("%09d", base);
+        for (int tamanho = 9; tamanho < 11; tamanho++) {
+            int soma = 0;
+            for (int i = 0; i < tamanho; i++) {
+                soma += (digitos.charAt(i) - '0') * (tamanho + 1 - i);
+            }
+            int resto = soma % 11;
+            digitos += resto < 2 ? 0 : 11 - resto;
+        }
+        return digitos;
+    }
+}
@@ -0,0 +1,97 @@
+package org.fadesp.pagamentos_api.benchmark;
+
+import org.fadesp.pagamentos_api.enums.MetodoPagamento;
+import org.fadesp.pagamentos_api.model.NumeroCartaoConverter;
+import org.fadesp.pagamentos_api.service.TokenizadorCartao;
+import org.fadesp.pagamentos_api.util.CpfCnpj;
+
+import org.h2.Driver;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.SingleConnectionDataSource;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Compara o espaço ocupado pelas mesmas 200 mil linhas no formato antigo (CPF/CNPJ e cartão como VARCHAR, como
+ * recebidos) e no compacto (chave BIGINT, 4 finais em SMALLINT e token BIGINT), separando tabela e índice
+ * documento + status. Os métodos de pagamento se alternam, então metade das linhas tem cartão.
+ * <p>
+ * Cada variante é gravada em um banco H2 em arquivo próprio e medida pelo tamanho do arquivo após um SHUTDOWN
+ * normal, como ficaria o volume do docker-compose (o SHUTDOWN COMPACT comprime as páginas e esconde a diferença);
+ * o tamanho do índice é a diferença entre os arquivos com e sem ele.
+ * Executar com: mvn test -Pbenchmark
+ */
+@Tag("benchmark")
+class ArmazenamentoCompactoBenchmarkTest {
+
+    private static final int QUANTIDADE = 200_000;
+    private static final String[] DOCUMENTOS = {"529.982.247-25", "52998224725", "11.222.333/0001-81", "11222333000181"};
+    private static final MetodoPagamento[] METODOS = MetodoPagamento.values();
+    private static final NumeroCartaoConverter CARTAO = new NumeroCartaoConverter();
+    private static final Path DIRETORIO = Path.of("target", "medicao-armazenamento").toAbsolutePath();
+
+    private final TokenizadorCartao tokenizador = new TokenizadorCartao("chave-de-medicao");
+
+    /** Tamanho em bytes do arquivo do banco com a tabela e, se pedido, o índice documento + status. */
+    private long tamanhoArquivo(String nome, String colunaDocumento, String tipoDocumento, String colunasCartao,
+                                String marcadoresCartao, List<Object[]> linhas, boolean comIndice) throws IOException {
+        Path banco = DIRETORIO.resolve(nome + "-" + System.nanoTime());
+        SingleConnectionDataSource dataSource = new SingleConnectionDataSource("jdbc:h2:file:" + banco, "sa", "", true);
+        dataSource.setDriverClassName(Driver.class.getName());
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+
+        jdbcTemplate.execute("CREATE TABLE pagamento (id BIGINT PRIMARY KEY, codigo_debito INTEGER, "
+                + colunaDocumento + " " + tipoDocumento + ", metodo_pagamento VARCHAR(255), " + colunasCartao
+                + ", valor NUMERIC(38, 2), status VARCHAR(255), ativo BOOLEAN, versao BIGINT)");
+        jdbcTemplate.batchUpdate("INSERT INTO pagamento VALUES (?, ?, ?, ?, "
+                + marcadoresCartao + ", 150.75, 'PENDENTE', TRUE, 0)", linhas);
+        if (comIndice) {
+            jdbcTemplate.execute("CREATE INDEX idx_documento_status ON pagamento (" + colunaDocumento + ", status)");
+        }
+        jdbcTemplate.execute("SHUTDOWN");
+        dataSource.destroy();
+        return Files.size(Path.of(banco + ".mv.db"));
+    }
+
+    @Test
+    void compararEspacoDoFormatoAntigoComOCompacto() throws IOException {
+        List<Object[]> antigas = new ArrayList<>(QUANTIDADE);
+        List<Object[]> compactas = new ArrayList<>(QUANTIDADE);
+        for (int i = 0; i < QUANTIDADE; i++) {
+            String documento = DOCUMENTOS[i % DOCUMENTOS.length];
+            MetodoPagamento metodo = METODOS[i % METODOS.length];
+            String cartao = metodo.name().startsWith("CARTAO")
+                    ? String.format("4111 1111 %04d %04d", i / 10_000, i % 10_000) : null;
+            antigas.add(new Object[]{(long) i, i % 5_000, documento, metodo.name(), cartao});
+            compactas.add(new Object[]{(long) i, i % 5_000, CpfCnpj.paraChave(documento), metodo.name(),
+                    CARTAO.convertToDatabaseColumn(cartao), tokenizador.tokenizar(cartao)});
+        }
+        Files.createDirectories(DIRETORIO);
+
+        long antigoTabela = tamanhoArquivo("antigo", "cpf_cnpj", "VARCHAR(255)", "numero_cartao VARCHAR(255)", "?",
+                antigas, false);
+        long antigoIndice = tamanhoArquivo("antigo", "cpf_cnpj", "VARCHAR(255)", "numero_cartao VARCHAR(255)", "?",
+                antigas, true) - antigoTabela;
+        long compactoTabela = tamanhoArquivo("compacto", "cpf_cnpj_chave", "BIGINT",
+                "cartao_final SMALLINT, cartao_token BIGINT", "?, ?", compactas, false);
+        long compactoIndice = tamanhoArquivo("compacto", "cpf_cnpj_chave", "BIGINT",
+                "cartao_final SMALLINT, cartao_token BIGINT", "?, ?", compactas, true) - compactoTabela;
+
+        System.out.printf("Espaço para %d linhas:%n", QUANTIDADE);
+        System.out.printf("  antigo:   tabela %,d KB, índice documento+status %,d KB%n", antigoTabela / 1024, antigoIndice / 1024);
+        System.out.printf("  compacto: tabela %,d KB, índice documento+status %,d KB%n", compactoTabela / 1024, compactoIndice / 1024);
+        System.out.printf("  redução:  tabela %.0f%%, índice %.0f%%%n", 100.0 * (antigoTabela - compactoTabela) / antigoTabela,
+                100.0 * (antigoIndice - compactoIndice) / antigoIndice);
+
+        assertTrue(compactoTabela < antigoTabela);
+        assertTrue(compactoIndice < antigoIndice);
+    }
+}
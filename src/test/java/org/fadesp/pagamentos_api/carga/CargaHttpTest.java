@@ -0,0 +1,207 @@
+package org.fadesp.pagamentos_api.carga;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.HdrHistogram.Histogram;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ThreadLocalRandom;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Teste de carga HTTP: sobe a aplicação em porta aleatória com o H2 em arquivo (como no docker-compose) e dispara,
+ * a uma taxa fixa, uma mistura de criações, filtros, mudanças de status e exclusões. Grava um histograma de
+ * latência por endpoint em {@code target/carga} e falha se o p99 de algum endpoint ou a vazão alcançada saírem dos
+ * limites configurados.
+ * <p>
+ * Executar com: mvn test -Pcarga (taxa, usuários, duração e limites são propriedades do perfil e podem ser
+ * sobrescritos com -Dcarga.*; -Dcarga.p99-maximo-ms.&lt;endpoint&gt; define um limite próprio para um endpoint).
+ */
+@Tag("carga")
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "spring.jpa.show-sql=false",
+        "pagamentos.arquivamento.habilitado=false"
+})
+class CargaHttpTest {
+
+    private static final Path DIRETORIO = Path.of("target", "carga");
+    private static final int CODIGOS_DEBITO = 100;
+    private static final int PAGAMENTOS_INICIAIS = 5_000;
+
+    private static final String CRIAR = "criar";
+    private static final String FILTRAR = "filtrar";
+    private static final String ATUALIZAR_STATUS = "atualizar-status";
+    private static final String EXCLUIR = "excluir";
+
+    @DynamicPropertySource
+    static void bancoEmArquivo(DynamicPropertyRegistry registry) throws IOException {
+        Path banco = Files.createDirectories(DIRETORIO).resolve("banco-" + System.currentTimeMillis());
+        registry.add("spring.datasource.url", () -> "jdbc:h2:file:" + banco.toAbsolutePath());
+        registry.add("spring.jpa.hibernate.ddl-auto", () -> "update");
+    }
+
+    @LocalServerPort
+    private int porta;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private final HttpClient http = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(5)).build();
+
+    /** Pagamentos criados ainda PENDENTE, consumidos pelas mudanças de status e exclusões. */
+    private final ConcurrentLinkedQueue<Long> pendentes = new ConcurrentLinkedQueue<>();
+
+    private static int inteiro(String propriedade, int padrao) {
+        return Integer.getInteger(propriedade, padrao);
+    }
+
+    private static double decimal(String propriedade, double padrao) {
+        String valor = System.getProperty(propriedade);
+        return valor == null || valor.isBlank() ? padrao : Double.parseDouble(valor);
+    }
+
+    @Test
+    void deveSustentarATaxaConfiguradaDentroDosLimitesDeLatencia() throws Exception {
+        int taxa = inteiro("carga.taxa", 200);
+        int usuarios = inteiro("carga.usuarios", 32);
+        int aquecimento = inteiro("carga.aquecimento-segundos", 10);
+        int duracao = inteiro("carga.duracao-segundos", 30);
+        double p99MaximoMs = decimal("carga.p99-maximo-ms", 250);
+        double vazaoMinima = decimal("carga.vazao-minima", taxa * 0.95);
+
+        semear();
+
+        GeradorCarga gerador = new GeradorCarga(taxa, usuarios);
+        long[] duracaoNanos = new long[1];
+        gerador.executar(aquecimento, this::requisicao, duracaoNanos);
+        Map<String, GeradorCarga.Medicao> medicoes = gerador.executar(duracao, this::requisicao, duracaoNanos);
+
+        long total = medicoes.values().stream().mapToLong(m -> m.latencias().getTotalCount()).sum();
+        double vazao = total / (duracaoNanos[0] / 1e9);
+        relatar(medicoes, taxa, usuarios, vazao);
+
+        List<String> violacoes = new ArrayList<>();
+        medicoes.forEach((endpoint, medicao) -> {
+            double p99Ms = medicao.latencias().getValueAtPercentile(99) / 1e6;
+            double limite = decimal("carga.p99-maximo-ms." + endpoint, p99MaximoMs);
+            if (medicao.erros() > 0) {
+                violacoes.add(endpoint + ": " + medicao.erros() + " respostas com erro");
+            }
+            if (p99Ms > limite) {
+                violacoes.add(String.format("%s: p99 de %.1f ms acima do limite de %.1f ms", endpoint, p99Ms, limite));
+            }
+        });
+        if (vazao < vazaoMinima) {
+            violacoes.add(String.format("vazão de %.1f req/s abaixo do mínimo de %.1f req/s", vazao, vazaoMinima));
+        }
+        assertTrue(violacoes.isEmpty(), String.join("\n", violacoes));
+    }
+
+    /** Cria uma base inicial em lote, para que filtros e mudanças de status não comecem sobre uma tabela vazia. */
+    private void semear() throws Exception {
+        for (int inicio = 0; inicio < PAGAMENTOS_INICIAIS; inicio += 1_000) {
+            StringBuilder corpo = new StringBuilder("[");
+            for (int i = 0; i < 1_000; i++) {
+                corpo.append(i == 0 ? "" : ",").append(novoPagamento(inicio + i));
+            }
+            HttpResponse<String> resposta = enviar(requisicao("/pagamentos/lote")
+                    .header("Content-Type", "application/json")
+                    .POST(HttpRequest.BodyPublishers.ofString(corpo.append(']').toString())));
+            assertEquals(200, resposta.statusCode(), resposta.body());
+            for (JsonNode item : objectMapper.readTree(resposta.body()).get("itens")) {
+                pendentes.add(item.get("id").asLong());
+            }
+        }
+    }
+
+    /**
+     * Mistura aproximada de produção: 40% criações, 35% filtros, 15% mudanças de status e 10% exclusões. Quando
+     * não há pagamento pendente disponível para alterar, a requisição vira uma criação.
+     */
+    private GeradorCarga.Resposta requisicao(long numero) {
+        int sorteio = ThreadLocalRandom.current().nextInt(100);
+        Long id = sorteio >= 75 ? pendentes.poll() : null;
+        String endpoint = sorteio < 40 || (sorteio >= 75 && id == null) ? CRIAR
+                : sorteio < 75 ? FILTRAR
+                : sorteio < 90 ? ATUALIZAR_STATUS
+                : EXCLUIR;
+        try {
+            HttpResponse<String> resposta = switch (endpoint) {
+                case CRIAR -> enviar(requisicao("/pagamentos")
+                        .header("Content-Type", "application/json")
+                        .POST(HttpRequest.BodyPublishers.ofString(novoPagamento(numero))));
+                case FILTRAR -> enviar(requisicao("/pagamentos/filtro?tamanho=50&codigoDebito="
+                        + (1 + ThreadLocalRandom.current().nextInt(CODIGOS_DEBITO))).GET());
+                case ATUALIZAR_STATUS -> enviar(requisicao("/pagamentos/" + id + "/status?novoStatus="
+                        + (numero % 2 == 0 ? "PROCESSADO_SUCESSO" : "PROCESSADO_FALHA"))
+                        .method("PATCH", HttpRequest.BodyPublishers.noBody()));
+                default -> enviar(requisicao("/pagamentos/" + id).DELETE());
+            };
+            if (endpoint.equals(CRIAR) && resposta.statusCode() == 201) {
+                pendentes.add(objectMapper.readTree(resposta.body()).get("id").asLong());
+            }
+            int esperado = endpoint.equals(CRIAR) ? 201 : 200;
+            return new GeradorCarga.Resposta(endpoint, resposta.statusCode() == esperado);
+        } catch (Exception e) {
+            return new GeradorCarga.Resposta(endpoint, false);
+        }
+    }
+
+    private static String novoPagamento(long numero) {
+        return "{\"codigoDebito\":" + (1 + numero % CODIGOS_DEBITO)
+                + ",\"cpfCnpj\":\"52998224725\",\"metodoPagamento\":\"PIX\",\"valor\":10.00}";
+    }
+
+    private HttpRequest.Builder requisicao(String caminho) {
+        return HttpRequest.newBuilder(URI.create("http://localhost:" + porta + caminho))
+                .timeout(Duration.ofSeconds(30));
+    }
+
+    private HttpResponse<String> enviar(HttpRequest.Builder requisicao) throws IOException, InterruptedException {
+        return http.send(requisicao.build(), HttpResponse.BodyHandlers.ofString());
+    }
+
+    private void relatar(Map<String, GeradorCarga.Medicao> medicoes, int taxa, int usuarios, double vazao)
+            throws IOException {
+        System.out.printf("Carga HTTP: %d req/s alvo, %d usuários virtuais, vazão alcançada %.1f req/s%n",
+                taxa, usuarios, vazao);
+        System.out.printf("%-18s %8s %8s %8s %8s %8s %8s %6s%n",
+                "endpoint", "total", "p50 ms", "p90 ms", "p99 ms", "p99.9 ms", "max ms", "erros");
+        for (Map.Entry<String, GeradorCarga.Medicao> entrada : medicoes.entrySet()) {
+            Histogram latencias = entrada.getValue().latencias();
+            System.out.printf("%-18s %8d %8.1f %8.1f %8.1f %8.1f %8.1f %6d%n", entrada.getKey(),
+                    latencias.getTotalCount(),
+                    latencias.getValueAtPercentile(50) / 1e6,
+                    latencias.getValueAtPercentile(90) / 1e6,
+                    latencias.getValueAtPercentile(99) / 1e6,
+                    latencias.getValueAtPercentile(99.9) / 1e6,
+                    latencias.getMaxValue() / 1e6,
+                    entrada.getValue().erros());
+            try (PrintStream arquivo = new PrintStream(
+                    Files.newOutputStream(DIRETORIO.resolve(entrada.getKey() + ".hgrm")))) {
+                latencias.outputPercentileDistribution(arquivo, 1e6);
+            }
+        }
+    }
+}
@@ -0,0 +1,111 @@
+package org.fadesp.pagamentos_api.carga;
+
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.LongFunction;
+
+/**
+ * Gerador de carga em modelo aberto: as requisições são disparadas a uma taxa fixa, independentemente de quanto
+ * as anteriores demoram, e executadas por um número fixo de usuários virtuais (threads).
+ * <p>
+ * A latência é medida a partir do instante em que a requisição deveria ter começado, e não de quando um usuário
+ * ficou livre para enviá-la: quando o servidor não acompanha a taxa, a fila de espera aparece nos percentis
+ * (sem "coordinated omission").
+ */
+final class GeradorCarga {
+
+    /** Resultado de uma requisição; {@code sucesso} falso conta como erro do endpoint. */
+    record Resposta(String endpoint, boolean sucesso) {
+    }
+
+    /** Latências e contagens de um endpoint durante a medição. */
+    record Medicao(Histogram latencias, long erros) {
+    }
+
+    private static final long MAIOR_LATENCIA_REGISTRAVEL_NANOS = TimeUnit.MINUTES.toNanos(1);
+
+    private final int taxaPorSegundo;
+    private final int usuarios;
+
+    GeradorCarga(int taxaPorSegundo, int usuarios) {
+        this.taxaPorSegundo = taxaPorSegundo;
+        this.usuarios = usuarios;
+    }
+
+    /**
+     * Dispara {@code taxaPorSegundo × segundos} requisições, numeradas a partir de zero, e espera todas
+     * terminarem. Retorna a medição de cada endpoint e, em {@code duracaoNanos[0]}, o tempo total até a última
+     * resposta.
+     */
+    Map<String, Medicao> executar(int segundos, LongFunction<Resposta> requisicao, long[] duracaoNanos)
+            throws InterruptedException {
+        Map<String, Recorder> latencias = new LinkedHashMap<>();
+        Map<String, AtomicLong> erros = new LinkedHashMap<>();
+        AtomicInteger sequenciaThreads = new AtomicInteger();
+        ExecutorService usuariosVirtuais = new ThreadPoolExecutor(usuarios, usuarios, 0L, TimeUnit.MILLISECONDS,
+                new LinkedBlockingQueue<>(), tarefa -> {
+                    Thread thread = new Thread(tarefa, "usuario-virtual-" + sequenciaThreads.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+
+        long total = (long) taxaPorSegundo * segundos;
+        long intervaloNanos = TimeUnit.SECONDS.toNanos(1) / taxaPorSegundo;
+        long inicio = System.nanoTime();
+        AtomicLong ultimaResposta = new AtomicLong(inicio);
+
+        for (long i = 0; i < total; i++) {
+            long previsto = inicio + i * intervaloNanos;
+            long espera = previsto - System.nanoTime();
+            if (espera > 0) {
+                LockSupport.parkNanos(espera);
+            }
+            long numero = i;
+            usuariosVirtuais.execute(() -> {
+                Resposta resposta = requisicao.apply(numero);
+                long agora = System.nanoTime();
+                ultimaResposta.accumulateAndGet(agora, Math::max);
+                registrador(latencias, resposta.endpoint())
+                        .recordValue(Math.min(agora - previsto, MAIOR_LATENCIA_REGISTRAVEL_NANOS));
+                if (!resposta.sucesso()) {
+                    contador(erros, resposta.endpoint()).incrementAndGet();
+                }
+            });
+        }
+
+        usuariosVirtuais.shutdown();
+        if (!usuariosVirtuais.awaitTermination(5, TimeUnit.MINUTES)) {
+            throw new IllegalStateException("Requisições ainda pendentes após 5 minutos");
+        }
+        duracaoNanos[0] = ultimaResposta.get() - inicio;
+
+        Map<String, Medicao> medicoes = new LinkedHashMap<>();
+        synchronized (latencias) {
+            latencias.forEach((endpoint, registrador) -> medicoes.put(endpoint,
+                    new Medicao(registrador.getIntervalHistogram(), contador(erros, endpoint).get())));
+        }
+        return medicoes;
+    }
+
+    private static Recorder registrador(Map<String, Recorder> latencias, String endpoint) {
+        synchronized (latencias) {
+            return latencias.computeIfAbsent(endpoint, chave -> new Recorder(MAIOR_LATENCIA_REGISTRAVEL_NANOS, 3));
+        }
+    }
+
+    private static AtomicLong contador(Map<String, AtomicLong> erros, String endpoint) {
+        synchronized (erros) {
+            return erros.computeIfAbsent(endpoint, chave -> new AtomicLong());
+        }
+    }
+}
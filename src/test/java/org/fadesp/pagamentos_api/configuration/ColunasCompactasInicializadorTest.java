@@ -0,0 +1,93 @@
+package org.fadesp.pagamentos_api.configuration;
+
+import org.fadesp.pagamentos_api.dto.PagamentoDTO;
+import org.fadesp.pagamentos_api.enums.MetodoPagamento;
+import org.fadesp.pagamentos_api.model.Pagamento;
+import org.fadesp.pagamentos_api.service.PagamentoService;
+import org.fadesp.pagamentos_api.service.TokenizadorCartao;
+import org.fadesp.pagamentos_api.util.CpfCnpj;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(properties = "spring.jpa.show-sql=false")
+class ColunasCompactasInicializadorTest {
+
+    private static final int CODIGO_DEBITO = 880_001;
+
+    @Autowired
+    private ColunasCompactasInicializador inicializador;
+
+    @Autowired
+    private PagamentoService service;
+
+    @Autowired
+    private TokenizadorCartao tokenizador;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private List<Long> idsFiltradosPorDocumento(String cpfCnpj) {
+        return service.filtrarPagamentos(null, CODIGO_DEBITO, cpfCnpj, null, null, false, null, 50)
+                .itens().stream().map(PagamentoDTO::id).toList();
+    }
+
+    @Test
+    void deveGravarDocumentoComoChaveECartaoSomenteComTokenEFinais() {
+        Pagamento pagamento = new Pagamento();
+        pagamento.setCodigoDebito(CODIGO_DEBITO);
+        pagamento.setCpfCnpj("529.982.247-25");
+        pagamento.setMetodoPagamento(MetodoPagamento.CARTAO_CREDITO);
+        pagamento.setNumeroCartao("4111 1111 1111 1111");
+        pagamento.setValor(new BigDecimal("10.00"));
+
+        Pagamento criado = service.criarPagamento(pagamento);
+
+        assertEquals("52998224725", criado.getCpfCnpj());
+        assertEquals("************1111", criado.getNumeroCartao());
+        Map<String, Object> linha = jdbcTemplate.queryForMap(
+                "SELECT cpf_cnpj_chave, cartao_final, cartao_token FROM pagamento WHERE id = ?", criado.getId());
+        assertEquals(CpfCnpj.paraChave("52998224725"), ((Number) linha.get("CPF_CNPJ_CHAVE")).longValue());
+        assertEquals(1111, ((Number) linha.get("CARTAO_FINAL")).intValue());
+        assertEquals(tokenizador.tokenizar("4111111111111111"), ((Number) linha.get("CARTAO_TOKEN")).longValue());
+
+        // O filtro encontra o registro com qualquer formatação do documento.
+        assertEquals(List.of(criado.getId()), idsFiltradosPorDocumento("529.982.247-25"));
+        assertEquals(List.of(criado.getId()), idsFiltradosPorDocumento("52998224725"));
+    }
+
+    @Test
+    void deveMigrarColunasAntigasERemovelas() {
+        jdbcTemplate.execute("ALTER TABLE pagamento ADD COLUMN cpf_cnpj VARCHAR(255)");
+        jdbcTemplate.execute("ALTER TABLE pagamento ADD COLUMN numero_cartao VARCHAR(255)");
+        jdbcTemplate.execute("CREATE INDEX idx_pagamento_cpf_cnpj_status ON pagamento (cpf_cnpj, status)");
+        String inserir = "INSERT INTO pagamento (id, codigo_debito, cpf_cnpj, metodo_pagamento, numero_cartao, valor, "
+                + "status, ativo, versao) VALUES (?, ?, ?, ?, ?, 10.00, 'PENDENTE', TRUE, 0)";
+        jdbcTemplate.update(inserir, 900_000_001L, CODIGO_DEBITO, "11.222.333/0001-81", "CARTAO_DEBITO", "5500 0000 0000 0004");
+        // Gravado antes da validação dos dígitos verificadores: continua legível depois da migração.
+        jdbcTemplate.update(inserir, 900_000_002L, CODIGO_DEBITO, "123.456.789-00", "PIX", null);
+
+        inicializador.migrar();
+
+        assertEquals(0, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM INFORMATION_SCHEMA.COLUMNS WHERE "
+                + "TABLE_NAME = 'PAGAMENTO' AND COLUMN_NAME IN ('CPF_CNPJ', 'NUMERO_CARTAO')", Integer.class));
+        PagamentoDTO cnpj = service.buscarPagamento(900_000_001L);
+        assertEquals("11222333000181", cnpj.cpfCnpj());
+        assertEquals("************0004", cnpj.numeroCartao());
+        assertEquals(tokenizador.tokenizar("5500000000000004"), jdbcTemplate.queryForObject(
+                "SELECT cartao_token FROM pagamento WHERE id = 900000001", Long.class));
+        PagamentoDTO cpf = service.buscarPagamento(900_000_002L);
+        assertEquals("12345678900", cpf.cpfCnpj());
+        assertNull(cpf.numeroCartao());
+
+        jdbcTemplate.update("DELETE FROM pagamento WHERE id IN (900000001, 900000002)");
+    }
+}
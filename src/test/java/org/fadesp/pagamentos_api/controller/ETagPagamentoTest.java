@@ -0,0 +1,128 @@
+package org.fadesp.pagamentos_api.controller;
+
+import org.fadesp.pagamentos_api.enums.MetodoPagamento;
+import org.fadesp.pagamentos_api.enums.StatusPagamento;
+import org.fadesp.pagamentos_api.model.Pagamento;
+import org.fadesp.pagamentos_api.service.PagamentoCache;
+import org.fadesp.pagamentos_api.service.PagamentoService;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+
+import java.math.BigDecimal;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+class ETagPagamentoTest {
+
+    private static final int CODIGO_DEBITO = 991_001;
+
+    @LocalServerPort
+    private int porta;
+
+    @Autowired
+    private PagamentoService service;
+
+    @Autowired
+    private PagamentoCache cache;
+
+    private final HttpClient http = HttpClient.newHttpClient();
+
+    private Long criar() {
+        Pagamento pagamento = new Pagamento();
+        pagamento.setCodigoDebito(CODIGO_DEBITO);
+        pagamento.setCpfCnpj("52998224725");
+        pagamento.setMetodoPagamento(MetodoPagamento.PIX);
+        pagamento.setValor(new BigDecimal("10.00"));
+        return service.criarPagamento(pagamento).getId();
+    }
+
+    private HttpResponse<String> get(String caminho, String ifNoneMatch) throws Exception {
+        HttpRequest.Builder requisicao = HttpRequest.newBuilder(URI.create("http://localhost:" + porta + caminho));
+        if (ifNoneMatch != null) {
+            requisicao.header("If-None-Match", ifNoneMatch);
+        }
+        return http.send(requisicao.build(), HttpResponse.BodyHandlers.ofString());
+    }
+
+    private static String etag(HttpResponse<?> resposta) {
+        return resposta.headers().firstValue("ETag").orElseThrow();
+    }
+
+    @Test
+    void buscarPorId_DeveResponder304EnquantoAVersaoNaoMuda() throws Exception {
+        Long id = criar();
+        String caminho = "/pagamentos/" + id;
+
+        HttpResponse<String> primeira = get(caminho, null);
+        assertEquals(200, primeira.statusCode());
+        assertEquals("\"0\"", etag(primeira));
+
+        // Sem o pagamento no cache, o 304 sai da leitura da versão: a entidade não é carregada.
+        cache.invalidar(id);
+        HttpResponse<String> naoModificado = get(caminho, etag(primeira));
+        assertEquals(304, naoModificado.statusCode());
+        assertEquals("", naoModificado.body());
+        assertEquals("\"0\"", etag(naoModificado));
+        assertNull(cache.emCache(id));
+
+        service.atualizarStatusPagamento(id, StatusPagamento.PROCESSADO_SUCESSO);
+
+        HttpResponse<String> alterado = get(caminho, etag(primeira));
+        assertEquals(200, alterado.statusCode());
+        assertEquals("\"1\"", etag(alterado));
+        assertTrue(alterado.body().contains("PROCESSADO_SUCESSO"));
+    }
+
+    @Test
+    void buscarPorId_DeveTerEtagFortePorFormato() throws Exception {
+        Long id = criar();
+        URI uri = URI.create("http://localhost:" + porta + "/pagamentos/" + id);
+
+        HttpResponse<byte[]> cbor = http.send(HttpRequest.newBuilder(uri).header("Accept", "application/cbor").build(),
+                HttpResponse.BodyHandlers.ofByteArray());
+        assertEquals("\"0-cbor\"", etag(cbor));
+
+        // O ETag do JSON não vale para o CBOR: a resposta é o corpo completo, não 304.
+        HttpResponse<byte[]> cborComEtagJson = http.send(HttpRequest.newBuilder(uri)
+                .header("Accept", "application/cbor").header("If-None-Match", "\"0\"").build(),
+                HttpResponse.BodyHandlers.ofByteArray());
+        assertEquals(200, cborComEtagJson.statusCode());
+
+        HttpResponse<byte[]> smile = http.send(HttpRequest.newBuilder(uri)
+                .header("Accept", "application/x-jackson-smile, application/json;q=0.5").build(),
+                HttpResponse.BodyHandlers.ofByteArray());
+        assertEquals("\"0-smile\"", etag(smile));
+        assertEquals("\"0\"", etag(get("/pagamentos/" + id, null)));
+    }
+
+    @Test
+    void filtro_DeveTerEtagFracoQueMudaComQualquerItemDaPagina() throws Exception {
+        Long primeiro = criar();
+        criar();
+        service.atualizarStatusPagamento(primeiro, StatusPagamento.PROCESSADO_FALHA);
+        String caminho = "/pagamentos/filtro?codigoDebito=" + CODIGO_DEBITO;
+
+        HttpResponse<String> pagina = get(caminho, null);
+        assertEquals(200, pagina.statusCode());
+        assertTrue(etag(pagina).startsWith("W/\"1-"), etag(pagina));
+
+        HttpResponse<String> naoModificada = get(caminho, etag(pagina));
+        assertEquals(304, naoModificada.statusCode());
+        assertEquals("", naoModificada.body());
+
+        // Um terceiro item com versão 0 não muda a maior versão da página, mas muda o ETag.
+        criar();
+        HttpResponse<String> alterada = get(caminho, etag(pagina));
+        assertEquals(200, alterada.statusCode());
+        assertNotEquals(etag(pagina), etag(alterada));
+        assertTrue(etag(alterada).startsWith("W/\"1-"), etag(alterada));
+    }
+}
@@ -0,0 +1,150 @@
+package org.fadesp.pagamentos_api.controller;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.fadesp.pagamentos_api.dto.PagamentoDTO;
+import org.fadesp.pagamentos_api.enums.MetodoPagamento;
+import org.fadesp.pagamentos_api.model.Pagamento;
+import org.fadesp.pagamentos_api.repository.PagamentoRepository;
+import org.fadesp.pagamentos_api.service.PagamentoService;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+
+import java.math.BigDecimal;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "pagamentos.ingestao-assincrona.habilitada=true",
+        "pagamentos.ingestao-assincrona.intervalo-ms=20"
+})
+class IngestaoAssincronaTest {
+
+    private static final String CORPO = "{\"codigoDebito\":881001,\"cpfCnpj\":\"52998224725\",\"metodoPagamento\":\"PIX\",\"valor\":10.00}";
+
+    @LocalServerPort
+    private int porta;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private PagamentoService service;
+
+    @Autowired
+    private PagamentoRepository repository;
+
+    private final HttpClient http = HttpClient.newHttpClient();
+
+    private HttpResponse<String> enviar(HttpRequest.Builder requisicao) throws Exception {
+        return http.send(requisicao.build(), HttpResponse.BodyHandlers.ofString());
+    }
+
+    private HttpRequest.Builder requisicao(String caminho) {
+        return HttpRequest.newBuilder(URI.create("http://localhost:" + porta + caminho));
+    }
+
+    private HttpResponse<String> criar(boolean assincrono) throws Exception {
+        return criar(assincrono, null);
+    }
+
+    private HttpResponse<String> criar(boolean assincrono, String idempotencyKey) throws Exception {
+        HttpRequest.Builder requisicao = requisicao("/pagamentos")
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(CORPO));
+        if (assincrono) {
+            requisicao.header("Prefer", "respond-async");
+        }
+        if (idempotencyKey != null) {
+            requisicao.header("Idempotency-Key", idempotencyKey);
+        }
+        return enviar(requisicao);
+    }
+
+    private JsonNode aguardarGravacao(String urlSituacao) throws Exception {
+        for (int tentativa = 0; tentativa < 200; tentativa++) {
+            HttpResponse<String> resposta = enviar(requisicao(urlSituacao).GET());
+            assertEquals(200, resposta.statusCode(), resposta.body());
+            JsonNode situacao = objectMapper.readTree(resposta.body());
+            if (!"NA_FILA".equals(situacao.get("estado").asText())) {
+                return situacao;
+            }
+            Thread.sleep(10);
+        }
+        fail("Pagamento ainda na fila: " + urlSituacao);
+        return null;
+    }
+
+    @Test
+    void comPreferRespondAsync_DeveAceitarCom202EGravarDepois() throws Exception {
+        HttpResponse<String> resposta = criar(true);
+
+        assertEquals(202, resposta.statusCode(), resposta.body());
+        assertEquals("respond-async", resposta.headers().firstValue("Preference-Applied").orElseThrow());
+        JsonNode aceito = objectMapper.readTree(resposta.body());
+        long id = aceito.get("id").asLong();
+        assertEquals("/pagamentos/ingestao/" + id, aceito.get("urlSituacao").asText());
+
+        assertEquals("GRAVADO", aguardarGravacao(aceito.get("urlSituacao").asText()).get("estado").asText());
+        PagamentoDTO gravado = service.buscarPagamento(id);
+        assertEquals(0L, gravado.versao());
+        assertEquals("52998224725", gravado.cpfCnpj());
+
+        // Sem o cabeçalho, a criação continua síncrona.
+        assertEquals(201, criar(false).statusCode());
+    }
+
+    @Test
+    void idsReservados_NaoDevemColidirComOsDaCriacaoSincrona() throws Exception {
+        List<String> situacoes = new ArrayList<>();
+        Set<Long> ids = new HashSet<>();
+        for (int i = 0; i < 120; i++) {
+            if (i % 3 == 0) {
+                Pagamento pagamento = new Pagamento();
+                pagamento.setCodigoDebito(881_002);
+                pagamento.setCpfCnpj("52998224725");
+                pagamento.setMetodoPagamento(MetodoPagamento.PIX);
+                pagamento.setValor(new BigDecimal("10.00"));
+                assertTrue(ids.add(service.criarPagamento(pagamento).getId()));
+            } else {
+                JsonNode aceito = objectMapper.readTree(criar(true).body());
+                assertTrue(ids.add(aceito.get("id").asLong()));
+                situacoes.add(aceito.get("urlSituacao").asText());
+            }
+        }
+
+        for (String url : situacoes) {
+            assertEquals("GRAVADO", aguardarGravacao(url).get("estado").asText());
+        }
+        assertEquals(120, repository.findAllById(ids).size());
+    }
+
+    @Test
+    void repeticaoComIdempotencyKey_DeveTrazerASituacaoAtualEmVezDoNaFilaGuardado() throws Exception {
+        HttpResponse<String> primeira = criar(true, "ingestao-repetida-1");
+        assertEquals(202, primeira.statusCode(), primeira.body());
+        JsonNode aceito = objectMapper.readTree(primeira.body());
+        assertEquals("NA_FILA", aceito.get("estado").asText());
+        aguardarGravacao(aceito.get("urlSituacao").asText());
+
+        HttpResponse<String> repetida = criar(true, "ingestao-repetida-1");
+
+        assertEquals(202, repetida.statusCode(), repetida.body());
+        assertEquals("true", repetida.headers().firstValue("Idempotent-Replayed").orElseThrow());
+        JsonNode situacao = objectMapper.readTree(repetida.body());
+        assertEquals(aceito.get("id").asLong(), situacao.get("id").asLong());
+        assertEquals("GRAVADO", situacao.get("estado").asText());
+        assertEquals(aceito.get("urlSituacao").asText(), situacao.get("urlSituacao").asText());
+    }
+}
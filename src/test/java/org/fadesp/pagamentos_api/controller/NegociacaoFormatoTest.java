@@ -0,0 +1,98 @@
+package org.fadesp.pagamentos_api.controller;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.databind.CBORMapper;
+import com.fasterxml.jackson.dataformat.smile.databind.SmileMapper;
+import org.fadesp.pagamentos_api.dto.PagamentoDTO;
+import org.fadesp.pagamentos_api.enums.MetodoPagamento;
+import org.fadesp.pagamentos_api.model.Pagamento;
+import org.fadesp.pagamentos_api.service.PagamentoService;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+
+import java.math.BigDecimal;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+class NegociacaoFormatoTest {
+
+    private static final int CODIGO_DEBITO = 990_001;
+    private static final String CBOR = "application/cbor";
+    private static final String SMILE = "application/x-jackson-smile";
+
+    @LocalServerPort
+    private int porta;
+
+    @Autowired
+    private PagamentoService service;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private final HttpClient http = HttpClient.newHttpClient();
+
+    private HttpResponse<byte[]> filtrar(String accept) throws Exception {
+        HttpRequest.Builder requisicao = HttpRequest.newBuilder(URI.create(
+                "http://localhost:" + porta + "/pagamentos/filtro?codigoDebito=" + CODIGO_DEBITO));
+        if (accept != null) {
+            requisicao.header("Accept", accept);
+        }
+        return http.send(requisicao.build(), HttpResponse.BodyHandlers.ofByteArray());
+    }
+
+    @Test
+    void filtro_DeveResponderNoFormatoPedido_ComJsonComoPadrao() throws Exception {
+        Pagamento pagamento = new Pagamento();
+        pagamento.setCodigoDebito(CODIGO_DEBITO);
+        pagamento.setCpfCnpj("52998224725");
+        pagamento.setMetodoPagamento(MetodoPagamento.PIX);
+        pagamento.setValor(new BigDecimal("150.75"));
+        service.criarPagamento(pagamento);
+
+        HttpResponse<byte[]> json = filtrar(null);
+        HttpResponse<byte[]> cbor = filtrar(CBOR);
+        HttpResponse<byte[]> smile = filtrar(SMILE);
+
+        assertTrue(json.headers().firstValue("Content-Type").orElseThrow().startsWith("application/json"));
+        assertTrue(cbor.headers().firstValue("Content-Type").orElseThrow().startsWith(CBOR));
+        assertTrue(smile.headers().firstValue("Content-Type").orElseThrow().startsWith(SMILE));
+
+        // O mesmo conteúdo nos três formatos (os nós numéricos diferem só no tipo), com o valor decimal preservado.
+        String esperado = objectMapper.readTree(json.body()).toString();
+        assertEquals(esperado, new CBORMapper().readTree(cbor.body()).toString());
+        assertEquals(esperado, new SmileMapper().readTree(smile.body()).toString());
+        assertEquals(0, new BigDecimal("150.75").compareTo(
+                new CBORMapper().readTree(cbor.body()).get("itens").get(0).get("valor").decimalValue()));
+    }
+
+    @Test
+    void lote_DeveAceitarCorpoEmSmile() throws Exception {
+        byte[] corpo = new SmileMapper().writeValueAsBytes(List.of(Map.of(
+                "codigoDebito", CODIGO_DEBITO + 1, "cpfCnpj", "11222333000181",
+                "metodoPagamento", "BOLETO", "valor", new BigDecimal("99.90"))));
+
+        HttpResponse<byte[]> resposta = http.send(HttpRequest.newBuilder(
+                        URI.create("http://localhost:" + porta + "/pagamentos/lote"))
+                .header("Content-Type", SMILE)
+                .header("Accept", SMILE)
+                .POST(HttpRequest.BodyPublishers.ofByteArray(corpo))
+                .build(), HttpResponse.BodyHandlers.ofByteArray());
+
+        assertEquals(200, resposta.statusCode());
+        JsonNode item = new SmileMapper().readTree(resposta.body()).get("itens").get(0);
+        PagamentoDTO criado = service.buscarPagamento(item.get("id").asLong());
+        assertEquals("11222333000181", criado.cpfCnpj());
+        assertEquals(0, new BigDecimal("99.90").compareTo(criado.valor()));
+    }
+}
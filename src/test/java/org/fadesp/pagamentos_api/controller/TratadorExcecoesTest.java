@@ -0,0 +1,68 @@
+package org.fadesp.pagamentos_api.controller;
+
+import org.fadesp.pagamentos_api.enums.MetodoPagamento;
+import org.fadesp.pagamentos_api.enums.StatusPagamento;
+import org.fadesp.pagamentos_api.excecao.PagamentoNaoEncontradoException;
+import org.fadesp.pagamentos_api.model.Pagamento;
+import org.fadesp.pagamentos_api.service.PagamentoService;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+
+import java.math.BigDecimal;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+class TratadorExcecoesTest {
+
+    @LocalServerPort
+    private int porta;
+
+    @Autowired
+    private PagamentoService service;
+
+    private final HttpClient http = HttpClient.newHttpClient();
+
+    private HttpResponse<String> patch(String caminho) throws Exception {
+        HttpRequest requisicao = HttpRequest.newBuilder(URI.create("http://localhost:" + porta + caminho))
+                .method("PATCH", HttpRequest.BodyPublishers.noBody())
+                .build();
+        return http.send(requisicao, HttpResponse.BodyHandlers.ofString());
+    }
+
+    @Test
+    void rejeicoes_DevemResponderComOStatusDaExcecaoEAMensagem() throws Exception {
+        Pagamento pagamento = new Pagamento();
+        pagamento.setCodigoDebito(992_001);
+        pagamento.setCpfCnpj("52998224725");
+        pagamento.setMetodoPagamento(MetodoPagamento.PIX);
+        pagamento.setValor(new BigDecimal("10.00"));
+        Long id = service.criarPagamento(pagamento).getId();
+        service.atualizarStatusPagamento(id, StatusPagamento.PROCESSADO_SUCESSO);
+
+        HttpResponse<String> mesmoStatus = patch("/pagamentos/" + id + "/status?novoStatus=PROCESSADO_SUCESSO");
+        assertEquals(409, mesmoStatus.statusCode());
+        assertTrue(mesmoStatus.body().contains("Não é permitida a alteração para o mesmo status."));
+        assertTrue(mesmoStatus.body().contains("\"path\":\"/pagamentos/" + id + "/status\""));
+
+        HttpResponse<String> inexistente = patch("/pagamentos/999999999/status?novoStatus=PROCESSADO_SUCESSO");
+        assertEquals(404, inexistente.statusCode());
+        assertTrue(inexistente.body().contains("Pagamento não encontrado"));
+
+        HttpResponse<String> statusInvalido = patch("/pagamentos/" + id + "/status?novoStatus=CANCELADO");
+        assertEquals(400, statusInvalido.statusCode());
+        assertTrue(statusInvalido.body().contains("Status inválido"));
+    }
+
+    @Test
+    void rejeicao_NaoDeveCapturarStackTrace() {
+        assertEquals(0, new PagamentoNaoEncontradoException().getStackTrace().length);
+    }
+}
@@ -0,0 +1,206 @@
+package org.fadesp.pagamentos_api.evento;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.fadesp.pagamentos_api.enums.MetodoPagamento;
+import org.fadesp.pagamentos_api.enums.StatusPagamento;
+import org.fadesp.pagamentos_api.model.Pagamento;
+import org.fadesp.pagamentos_api.service.PagamentoService;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.math.BigDecimal;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+        properties = "pagamentos.eventos.espera-lacuna-ms=200")
+class EventosPagamentoTest {
+
+    @LocalServerPort
+    private int porta;
+
+    @Autowired
+    private PagamentoService service;
+
+    @Autowired
+    private DespachanteEventosPagamento despachante;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private final HttpClient http = HttpClient.newHttpClient();
+
+    private Long criarPagamento() {
+        Pagamento pagamento = new Pagamento();
+        pagamento.setCpfCnpj("52998224725");
+        pagamento.setMetodoPagamento(MetodoPagamento.PIX);
+        pagamento.setValor(new BigDecimal("10.00"));
+        return service.criarPagamento(pagamento).getId();
+    }
+
+    private List<String> tiposGravados(Long pagamentoId) {
+        return jdbcTemplate.queryForList(
+                "SELECT tipo FROM evento_pagamento WHERE pagamento_id = ? ORDER BY sequencia", String.class, pagamentoId);
+    }
+
+    private long ultimaSequenciaGravada() {
+        return jdbcTemplate.queryForObject("SELECT COALESCE(MAX(sequencia), 0) FROM evento_pagamento", Long.class);
+    }
+
+    @Test
+    void deveGravarUmEventoPorAlteracao_ApenasQuandoATransacaoConfirma() {
+        Long aprovado = criarPagamento();
+        Long inativado = criarPagamento();
+        service.atualizarStatusPagamento(aprovado, StatusPagamento.PROCESSADO_SUCESSO);
+        service.excluirPagamento(inativado);
+
+        // Transição recusada: a transação é desfeita e nenhum evento é gravado.
+        assertThrows(RuntimeException.class,
+                () -> service.atualizarStatusPagamento(aprovado, StatusPagamento.PROCESSADO_FALHA));
+
+        assertEquals(List.of("CRIADO", "STATUS_ALTERADO"), tiposGravados(aprovado));
+        assertEquals(List.of("CRIADO", "INATIVADO"), tiposGravados(inativado));
+        assertEquals("PENDENTE", jdbcTemplate.queryForObject(
+                "SELECT status_anterior FROM evento_pagamento WHERE pagamento_id = ? AND tipo = 'STATUS_ALTERADO'",
+                String.class, aprovado));
+    }
+
+    @Test
+    void longPoll_DeveRetomarDaSequenciaInformada() throws Exception {
+        long desde = ultimaSequenciaGravada();
+        Long id = criarPagamento();
+        service.atualizarStatusPagamento(id, StatusPagamento.PROCESSADO_SUCESSO);
+
+        HttpResponse<String> resposta = http.send(HttpRequest.newBuilder(
+                        URI.create("http://localhost:" + porta + "/pagamentos/eventos?espera=5&desde=" + desde))
+                .header("Accept", "application/json")
+                .build(), HttpResponse.BodyHandlers.ofString());
+
+        assertEquals(200, resposta.statusCode());
+        JsonNode corpo = objectMapper.readTree(resposta.body());
+        JsonNode eventos = corpo.get("eventos");
+        assertEquals(2, eventos.size());
+        assertEquals("CRIADO", eventos.get(0).get("tipo").asText());
+        assertEquals("STATUS_ALTERADO", eventos.get(1).get("tipo").asText());
+        assertEquals(id.longValue(), eventos.get(1).get("pagamentoId").asLong());
+        assertEquals(eventos.get(1).get("sequencia").asText(), corpo.get("cursor").asText());
+    }
+
+    @Test
+    void longPoll_SemEventos_DeveResponderVazioAoFimDaEspera() throws Exception {
+        HttpResponse<String> resposta = http.send(HttpRequest.newBuilder(
+                        URI.create("http://localhost:" + porta + "/pagamentos/eventos?espera=1"))
+                .header("Accept", "application/json")
+                .build(), HttpResponse.BodyHandlers.ofString());
+
+        JsonNode corpo = objectMapper.readTree(resposta.body());
+        assertEquals(0, corpo.get("eventos").size());
+        assertEquals(despachante.cursorAtual(), corpo.get("cursor").asText());
+    }
+
+    @Test
+    void sse_DeveEntregarHistoricoEEventosNovos_AVariosAssinantes() throws Exception {
+        long desde = ultimaSequenciaGravada();
+        Long anterior = criarPagamento();
+
+        HttpRequest requisicao = HttpRequest.newBuilder(URI.create("http://localhost:" + porta + "/pagamentos/eventos"))
+                .header("Accept", "text/event-stream")
+                .header("Last-Event-ID", Long.toString(desde))
+                .build();
+        CompletableFuture<List<JsonNode>> primeiro = lerEventos(requisicao, 2);
+        CompletableFuture<List<JsonNode>> segundo = lerEventos(requisicao, 2);
+
+        Long posterior = criarPagamento();
+
+        for (CompletableFuture<List<JsonNode>> assinante : List.of(primeiro, segundo)) {
+            List<JsonNode> eventos = assinante.get(10, TimeUnit.SECONDS);
+            assertEquals(anterior.longValue(), eventos.get(0).get("pagamentoId").asLong());
+            assertEquals(posterior.longValue(), eventos.get(1).get("pagamentoId").asLong());
+            assertTrue(eventos.get(0).get("sequencia").asLong() < eventos.get(1).get("sequencia").asLong());
+        }
+    }
+
+    @Test
+    void eventoConfirmadoDepoisDaEsperaDaLacuna_DeveChegarAQuemEstaConectado() throws Exception {
+        long base = ultimaSequenciaGravada();
+        try {
+            // A sequência base + 1 fica para trás, como a de uma transação lenta.
+            inserirEvento(base + 2);
+            despachante.notificar();
+            HttpResponse<String> resposta = http.send(HttpRequest.newBuilder(
+                            URI.create("http://localhost:" + porta + "/pagamentos/eventos?espera=5&desde=" + base))
+                    .header("Accept", "application/json")
+                    .build(), HttpResponse.BodyHandlers.ofString());
+            JsonNode eventos = objectMapper.readTree(resposta.body()).get("eventos");
+            assertEquals(base + 2, eventos.get(0).get("sequencia").asLong());
+
+            double assinantesAntes = meterRegistry.get("pagamentos.eventos.assinantes").gauge().value();
+            CompletableFuture<List<JsonNode>> assinante = lerEventos(HttpRequest.newBuilder(
+                            URI.create("http://localhost:" + porta + "/pagamentos/eventos"))
+                    .header("Accept", "text/event-stream")
+                    .header("Last-Event-ID", Long.toString(base + 2))
+                    .build(), 1);
+            long limite = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+            while (meterRegistry.get("pagamentos.eventos.assinantes").gauge().value() <= assinantesAntes
+                    && System.nanoTime() < limite) {
+                Thread.sleep(10);
+            }
+
+            inserirEvento(base + 1);
+            despachante.notificar();
+
+            assertEquals(base + 1, assinante.get(10, TimeUnit.SECONDS).get(0).get("sequencia").asLong());
+        } finally {
+            // As sequências foram gravadas à mão: a identidade continua depois delas.
+            jdbcTemplate.execute("ALTER TABLE evento_pagamento ALTER COLUMN sequencia RESTART WITH "
+                    + (ultimaSequenciaGravada() + 1));
+        }
+    }
+
+    private void inserirEvento(long sequencia) {
+        jdbcTemplate.update("INSERT INTO evento_pagamento (sequencia, pagamento_id, tipo, status, ativo, versao, "
+                + "ocorrido_em) VALUES (?, 0, 'CRIADO', 'PENDENTE', TRUE, 0, CURRENT_TIMESTAMP)", sequencia);
+    }
+
+    private CompletableFuture<List<JsonNode>> lerEventos(HttpRequest requisicao, int quantidade) {
+        return http.sendAsync(requisicao, HttpResponse.BodyHandlers.ofLines())
+                .thenApply(resposta -> {
+                    List<JsonNode> eventos = new ArrayList<>();
+                    try (Stream<String> linhas = resposta.body()) {
+                        Iterator<String> it = linhas.iterator();
+                        while (eventos.size() < quantidade && it.hasNext()) {
+                            String linha = it.next();
+                            if (linha.startsWith("data:")) {
+                                eventos.add(objectMapper.readTree(linha.substring("data:".length())));
+                            }
+                        }
+                    } catch (Exception e) {
+                        throw new IllegalStateException(e);
+                    }
+                    return eventos;
+                })
+                .orTimeout(15, TimeUnit.SECONDS);
+    }
+}
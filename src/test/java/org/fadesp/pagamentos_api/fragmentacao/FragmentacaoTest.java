@@ -0,0 +1,208 @@
+package org.fadesp.pagamentos_api.fragmentacao;
+
+import org.fadesp.pagamentos_api.dto.EventoPagamentoDTO;
+import org.fadesp.pagamentos_api.dto.LoteEventos;
+import org.fadesp.pagamentos_api.dto.PagamentoDTO;
+import org.fadesp.pagamentos_api.dto.Pagina;
+import org.fadesp.pagamentos_api.dto.ResultadoLote;
+import org.fadesp.pagamentos_api.enums.StatusPagamento;
+import org.fadesp.pagamentos_api.evento.DespachanteEventosPagamento;
+import org.fadesp.pagamentos_api.excecao.DadosInvalidosException;
+import org.fadesp.pagamentos_api.model.Pagamento;
+import org.fadesp.pagamentos_api.service.PagamentoLoteService;
+import org.fadesp.pagamentos_api.service.PagamentoService;
+import org.fadesp.pagamentos_api.util.CpfCnpj;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.web.context.request.async.DeferredResult;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.fadesp.pagamentos_api.PagamentosDeTeste.cpf;
+import static org.fadesp.pagamentos_api.PagamentosDeTeste.novoPagamento;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Três bancos H2 em memória como fragmentos: cada pagamento fica no fragmento do seu CPF/CNPJ, o ID leva a ele,
+ * e as consultas sem CPF/CNPJ nem ID percorrem todos os fragmentos como se fossem um único banco.
+ */
+@SpringBootTest(properties = {
+        "spring.jpa.show-sql=false",
+        "pagamentos.arquivamento.habilitado=false",
+        "pagamentos.fragmentacao.urls=jdbc:h2:mem:fragmento0;DB_CLOSE_DELAY=-1,"
+                + "jdbc:h2:mem:fragmento1;DB_CLOSE_DELAY=-1,jdbc:h2:mem:fragmento2;DB_CLOSE_DELAY=-1"
+})
+class FragmentacaoTest {
+
+    private static final int FRAGMENTOS = 3;
+
+    @Autowired
+    private Fragmentacao fragmentacao;
+
+    @Autowired
+    private PagamentoService service;
+
+    @Autowired
+    private PagamentoLoteService loteService;
+
+    @Autowired
+    private DespachanteEventosPagamento despachante;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private List<Pagamento> criar(int codigoDebito, int quantidade) {
+        List<Pagamento> criados = new ArrayList<>();
+        for (int i = 0; i < quantidade; i++) {
+            criados.add(service.criarPagamento(novoPagamento(codigoDebito, cpf(codigoDebito * 1_000 + i))));
+        }
+        return criados;
+    }
+
+    private int contarNoFragmento(int fragmento, int codigoDebito) {
+        return fragmentacao.noFragmento(fragmento, () -> jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM pagamento WHERE codigo_debito = ?", Integer.class, codigoDebito));
+    }
+
+    @Test
+    void pagamentoDeveFicarNoFragmentoDoDocumentoEOIdDeveIndicarEsseFragmento() {
+        List<Pagamento> criados = criar(101, 30);
+
+        int[] esperados = new int[FRAGMENTOS];
+        for (Pagamento pagamento : criados) {
+            int fragmento = fragmentacao.doDocumento(pagamento.getCpfCnpj());
+            assertEquals(fragmento, fragmentacao.doId(pagamento.getId()));
+            esperados[fragmento]++;
+        }
+        for (int fragmento = 0; fragmento < FRAGMENTOS; fragmento++) {
+            assertTrue(esperados[fragmento] > 0, "Nenhum pagamento no fragmento " + fragmento);
+            assertEquals(esperados[fragmento], contarNoFragmento(fragmento, 101));
+        }
+    }
+
+    @Test
+    void buscaTransicaoEInativacaoDevemEncontrarOPagamentoPeloId() {
+        for (Pagamento criado : criar(102, 9)) {
+            assertEquals(criado.getCpfCnpj(), service.buscarPagamento(criado.getId()).cpfCnpj());
+            assertEquals(0L, service.buscarVersao(criado.getId()));
+
+            if (criado.getId() % 2 == 0) {
+                Pagamento atualizado = service.atualizarStatusPagamento(criado.getId(), StatusPagamento.PROCESSADO_SUCESSO);
+                assertEquals(StatusPagamento.PROCESSADO_SUCESSO, atualizado.getStatus());
+            } else {
+                assertFalse(service.excluirPagamento(criado.getId()).getAtivo());
+            }
+        }
+    }
+
+    @Test
+    void listagemDevePercorrerTodosOsFragmentosEmOrdemDeId() {
+        Set<Long> criados = new HashSet<>();
+        criar(103, 20).forEach(pagamento -> criados.add(pagamento.getId()));
+
+        List<Long> vistos = new ArrayList<>();
+        String cursor = null;
+        do {
+            Pagina<PagamentoDTO> pagina = service.listarPagamentos(cursor, 7, false);
+            pagina.itens().forEach(item -> vistos.add(item.id()));
+            cursor = pagina.proximoCursor();
+        } while (cursor != null);
+
+        for (int i = 1; i < vistos.size(); i++) {
+            assertTrue(vistos.get(i - 1) < vistos.get(i), "IDs fora de ordem ou repetidos: " + vistos);
+        }
+        assertTrue(vistos.containsAll(criados));
+    }
+
+    @Test
+    void filtroPorDocumentoDeveUsarUmFragmentoEFiltroSemDocumentoTodos() {
+        List<Pagamento> criados = criar(104, 12);
+        String documento = criados.get(0).getCpfCnpj();
+
+        Pagina<PagamentoDTO> doDocumento = service.filtrarPagamentos(null, 104, documento, null, null, false, null, 50);
+        assertEquals(List.of(criados.get(0).getId()), doDocumento.itens().stream().map(PagamentoDTO::id).toList());
+
+        Pagina<PagamentoDTO> pendentes = service.filtrarPagamentos(null, 104, null, StatusPagamento.PENDENTE, null,
+                false, null, 5);
+        List<Long> ids = new ArrayList<>(pendentes.itens().stream().map(PagamentoDTO::id).toList());
+        assertNotNull(pendentes.proximoCursor());
+        pendentes = service.filtrarPagamentos(null, 104, null, StatusPagamento.PENDENTE, null, false,
+                pendentes.proximoCursor(), 50);
+        pendentes.itens().forEach(item -> ids.add(item.id()));
+
+        assertEquals(criados.stream().map(Pagamento::getId).sorted().toList(), ids);
+    }
+
+    @Test
+    void loteDeveGravarCadaPagamentoNoFragmentoDoSeuDocumento() {
+        List<Pagamento> lote = new ArrayList<>();
+        for (int i = 0; i < 15; i++) {
+            lote.add(novoPagamento(105, cpf(105_000 + i)));
+        }
+
+        ResultadoLote resultado = loteService.criarPagamentosEmLote(lote);
+
+        assertEquals(15, resultado.criados());
+        int total = 0;
+        for (int fragmento = 0; fragmento < FRAGMENTOS; fragmento++) {
+            total += contarNoFragmento(fragmento, 105);
+        }
+        assertEquals(15, total);
+        for (Pagamento pagamento : lote) {
+            assertEquals(fragmentacao.doDocumento(pagamento.getCpfCnpj()), fragmentacao.doId(pagamento.getId()));
+        }
+    }
+
+    @Test
+    void falhaEmUmFragmentoDeveDesfazerOLoteEmTodos() {
+        List<Integer> fragmentos = List.of(0, 1, 2);
+
+        assertThrows(IllegalStateException.class, () -> fragmentacao.gravarPorFragmento(fragmentos, f -> f, grupo -> {
+            int fragmento = grupo.get(0);
+            jdbcTemplate.update("INSERT INTO pagamento (id, codigo_debito, cpf_cnpj_chave, metodo_pagamento, valor, "
+                            + "status, ativo) VALUES (?, 106, ?, 'PIX', 10.00, 'PENDENTE', TRUE)",
+                    fragmentacao.codificar(9_000_000L, fragmento), CpfCnpj.paraChave(cpf(106_000 + fragmento)));
+            if (fragmento == FRAGMENTOS - 1) {
+                throw new IllegalStateException("Falha simulada no último fragmento");
+            }
+        }));
+
+        for (int fragmento = 0; fragmento < FRAGMENTOS; fragmento++) {
+            assertEquals(0, contarNoFragmento(fragmento, 106), "Lote parcial no fragmento " + fragmento);
+        }
+    }
+
+    @Test
+    void feedDeEventosDeveEntregarOsEventosDeTodosOsFragmentos() throws Exception {
+        String desde = despachante.cursorAtual();
+        assertEquals(FRAGMENTOS, desde.split("\\.").length);
+        Set<Long> criados = new HashSet<>();
+        criar(107, 12).forEach(pagamento -> criados.add(pagamento.getId()));
+
+        Set<Long> entregues = new HashSet<>();
+        String cursor = desde;
+        long limite = System.nanoTime() + Duration.ofSeconds(10).toNanos();
+        while (!entregues.containsAll(criados) && System.nanoTime() < limite) {
+            DeferredResult<LoteEventos> resultado = despachante.aguardar(cursor, 5, Duration.ofSeconds(2));
+            while (!resultado.hasResult() && System.nanoTime() < limite) {
+                Thread.sleep(10);
+            }
+            if (!resultado.hasResult()) {
+                break;
+            }
+            LoteEventos lote = (LoteEventos) resultado.getResult();
+            lote.eventos().stream().map(EventoPagamentoDTO::pagamentoId).forEach(entregues::add);
+            cursor = lote.cursor();
+        }
+
+        assertTrue(entregues.containsAll(criados), "Eventos não entregues: " + criados + " x " + entregues);
+        assertThrows(DadosInvalidosException.class, () -> despachante.aguardar("42", 5, Duration.ofSeconds(1)));
+    }
+}
@@ -0,0 +1,99 @@
+package org.fadesp.pagamentos_api.metricas;
+
+import org.fadesp.pagamentos_api.PagamentosDeTeste;
+import org.fadesp.pagamentos_api.enums.MetodoPagamento;
+import org.fadesp.pagamentos_api.model.Pagamento;
+import org.fadesp.pagamentos_api.service.PagamentoService;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.math.BigDecimal;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+class MetricasPagamentoTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private PagamentoService service;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private double transicoes(String origem, String destino) {
+        return meterRegistry.get("pagamentos.status.transicoes").tag("origem", origem).tag("destino", destino)
+                .counter().count();
+    }
+
+    @Test
+    void devePublicarTransicoesEContagemPorRequisicao() throws Exception {
+        Pagamento pagamento = new Pagamento();
+        pagamento.setCpfCnpj("52998224725");
+        pagamento.setMetodoPagamento(MetodoPagamento.PIX);
+        pagamento.setValor(new BigDecimal("10.00"));
+        Long id = service.criarPagamento(pagamento).getId();
+        double antes = transicoes("PENDENTE", "PROCESSADO_SUCESSO");
+
+        mockMvc.perform(patch("/pagamentos/{id}/status", id).param("novoStatus", "PROCESSADO_SUCESSO"))
+                .andExpect(status().isOk());
+
+        assertEquals(antes + 1, transicoes("PENDENTE", "PROCESSADO_SUCESSO"));
+
+        mockMvc.perform(get("/pagamentos/filtro").param("cpfCnpj", "529.982.247-25"))
+                .andExpect(status().isOk());
+
+        DistributionSummary consultas = meterRegistry.get("pagamentos.http.consultas")
+                .tag("method", "GET").tag("uri", "/pagamentos/filtro").summary();
+        DistributionSummary cargas = meterRegistry.get("pagamentos.http.entidades.carregadas")
+                .tag("method", "GET").tag("uri", "/pagamentos/filtro").summary();
+
+        assertEquals(1, consultas.count());
+        assertEquals(1, consultas.max());
+        // O filtro consulta direto na projeção; só a busca por ID hidrata a entidade.
+        assertEquals(0, cargas.max());
+
+        mockMvc.perform(get("/pagamentos/{id}", id)).andExpect(status().isOk());
+
+        assertEquals(1, meterRegistry.get("pagamentos.http.entidades.carregadas")
+                .tag("method", "GET").tag("uri", "/pagamentos/{id}").summary().max());
+    }
+
+    @Test
+    void longPoll_DeveLiberarAThreadNoDespachoInicialERegistrarUmaVezNoFinal() throws Exception {
+        DistributionSummary anterior = meterRegistry.find("pagamentos.http.consultas")
+                .tag("method", "GET").tag("uri", "/pagamentos/eventos").summary();
+        long antes = anterior != null ? anterior.count() : 0;
+        // Um evento já confirmado: o despachante completa o long-poll sem esperar o fim da espera.
+        service.criarPagamento(PagamentosDeTeste.novoPagamento());
+
+        MvcResult inicial = mockMvc.perform(get("/pagamentos/eventos").param("desde", "0").param("espera", "5")
+                        .accept("application/json"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        // O MockMvc despacha na thread do teste: nada da requisição pode ter ficado nela.
+        assertNull(ContagemRequisicao.encerrar());
+
+        mockMvc.perform(asyncDispatch(inicial)).andExpect(status().isOk());
+
+        assertEquals(antes + 1, meterRegistry.get("pagamentos.http.consultas")
+                .tag("method", "GET").tag("uri", "/pagamentos/eventos").summary().count());
+    }
+}
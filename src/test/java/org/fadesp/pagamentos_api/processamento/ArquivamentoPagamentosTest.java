@@ -0,0 +1,107 @@
+package org.fadesp.pagamentos_api.processamento;
+
+import org.fadesp.pagamentos_api.dto.ItemResumo;
+import org.fadesp.pagamentos_api.dto.PagamentoDTO;
+import org.fadesp.pagamentos_api.enums.MetodoPagamento;
+import org.fadesp.pagamentos_api.enums.StatusPagamento;
+import org.fadesp.pagamentos_api.model.Pagamento;
+import org.fadesp.pagamentos_api.repository.PagamentoArquivadoRepository;
+import org.fadesp.pagamentos_api.repository.PagamentoRepository;
+import org.fadesp.pagamentos_api.service.PagamentoService;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(properties = {
+        "spring.jpa.show-sql=false",
+        "pagamentos.arquivamento.habilitado=false",
+        "pagamentos.arquivamento.idade-finalizados-dias=30",
+        "pagamentos.arquivamento.tamanho-lote=2",
+        "pagamentos.arquivamento.pausa-ms=0"
+})
+class ArquivamentoPagamentosTest {
+
+    private static final int CODIGO_DEBITO = 770_001;
+
+    @Autowired
+    private ArquivamentoPagamentos arquivamento;
+
+    @Autowired
+    private PagamentoService service;
+
+    @Autowired
+    private PagamentoRepository repository;
+
+    @Autowired
+    private PagamentoArquivadoRepository arquivo;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private Long criar() {
+        Pagamento pagamento = new Pagamento();
+        pagamento.setCodigoDebito(CODIGO_DEBITO);
+        pagamento.setCpfCnpj("52998224725");
+        pagamento.setMetodoPagamento(MetodoPagamento.PIX);
+        pagamento.setValor(new BigDecimal("10.00"));
+        return service.criarPagamento(pagamento).getId();
+    }
+
+    private List<Long> idsFiltrados(Boolean ativo, boolean arquivados) {
+        return service.filtrarPagamentos(null, CODIGO_DEBITO, null, null, ativo, arquivados, null, 50)
+                .itens().stream().map(PagamentoDTO::id).toList();
+    }
+
+    @Test
+    void deveArquivarInativosEFinalizadosAntigos_EManterOsDemais() {
+        Long pendente = criar();
+        Long inativo = criar();
+        Long finalizadoRecente = criar();
+        Long finalizadoAntigo = criar();
+        Long falhaAntiga = criar();
+        service.excluirPagamento(inativo);
+        service.atualizarStatusPagamento(finalizadoRecente, StatusPagamento.PROCESSADO_SUCESSO);
+        service.atualizarStatusPagamento(finalizadoAntigo, StatusPagamento.PROCESSADO_SUCESSO);
+        service.atualizarStatusPagamento(falhaAntiga, StatusPagamento.PROCESSADO_FALHA);
+        jdbcTemplate.update("UPDATE pagamento SET status_alterado_em = ? WHERE id IN (?, ?)",
+                Timestamp.from(Instant.now().minus(Duration.ofDays(31))), finalizadoAntigo, falhaAntiga);
+
+        // Antes do arquivamento, o inativo só aparece quando pedido explicitamente.
+        assertEquals(List.of(pendente, finalizadoRecente, finalizadoAntigo, falhaAntiga), idsFiltrados(null, false));
+        assertEquals(List.of(inativo), idsFiltrados(false, false));
+        assertFalse(service.listarPagamentos(null, 500, false).itens().stream().anyMatch(p -> p.id().equals(inativo)));
+
+        service.buscarPagamento(finalizadoAntigo);
+        Set<ItemResumo> resumoAntes = new HashSet<>(repository.resumirPorStatusMetodoEAtivo());
+
+        assertTrue(arquivamento.arquivar() >= 3);
+
+        assertEquals(List.of(pendente, finalizadoRecente), idsFiltrados(null, false));
+        assertEquals(List.of(inativo, finalizadoAntigo, falhaAntiga), idsFiltrados(null, true));
+        assertEquals(List.of(inativo), idsFiltrados(false, true));
+        assertTrue(repository.findById(inativo).isEmpty());
+        assertEquals(StatusPagamento.PROCESSADO_FALHA, arquivo.findById(falhaAntiga).orElseThrow().getStatus());
+        assertNotNull(arquivo.findById(falhaAntiga).orElseThrow().getArquivadoEm());
+
+        // O cache de GET /{id} não devolve mais o pagamento arquivado.
+        RuntimeException erro = assertThrows(RuntimeException.class, () -> service.buscarPagamento(finalizadoAntigo));
+        assertEquals("Pagamento não encontrado", erro.getMessage());
+
+        // Arquivar não muda os totais: a consulta que reconcilia o resumo conta o arquivo também.
+        assertEquals(resumoAntes, new HashSet<>(repository.resumirPorStatusMetodoEAtivo()));
+
+        assertEquals(0, arquivamento.arquivar());
+    }
+}
@@ -0,0 +1,207 @@
+package org.fadesp.pagamentos_api.processamento;
+
+import org.fadesp.pagamentos_api.dto.EventoPagamentoDTO;
+import org.fadesp.pagamentos_api.enums.MetodoPagamento;
+import org.fadesp.pagamentos_api.enums.StatusPagamento;
+import org.fadesp.pagamentos_api.enums.TipoAlteracaoPagamento;
+import org.fadesp.pagamentos_api.fragmentacao.Fragmentacao;
+import org.fadesp.pagamentos_api.model.Pagamento;
+import org.fadesp.pagamentos_api.repository.EventoPagamentoRepository;
+import org.fadesp.pagamentos_api.repository.PagamentoRepository;
+import org.fadesp.pagamentos_api.service.PagamentoService;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Limit;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(properties = {
+        "spring.jpa.show-sql=false",
+        "pagamentos.processamento.tamanho-lote=10"
+})
+class MotorProcessamentoPagamentosTest {
+
+    @Autowired
+    private MotorProcessamentoPagamentos motor;
+
+    @Autowired
+    private PagamentoService service;
+
+    @Autowired
+    private PagamentoRepository repository;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private EventoPagamentoRepository eventoRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private ApplicationEventPublisher eventos;
+
+    @Autowired
+    private Fragmentacao fragmentacao;
+
+    @BeforeEach
+    void limpar() {
+        repository.deleteAll();
+    }
+
+    private Pagamento criar(MetodoPagamento metodo, String valor, String numeroCartao) {
+        Pagamento pagamento = new Pagamento();
+        pagamento.setCpfCnpj("52998224725");
+        pagamento.setMetodoPagamento(metodo);
+        pagamento.setValor(new BigDecimal(valor));
+        pagamento.setNumeroCartao(numeroCartao);
+        return service.criarPagamento(pagamento);
+    }
+
+    @Test
+    void deveProcessarPendentesEGravarSucessoOuFalha() {
+        Long pix = criar(MetodoPagamento.PIX, "10.00", null).getId();
+        Long cartaoSemNumero = criar(MetodoPagamento.CARTAO_CREDITO, "10.00", null).getId();
+        Long valorZerado = criar(MetodoPagamento.BOLETO, "0.00", null).getId();
+        Long inativo = criar(MetodoPagamento.PIX, "10.00", null).getId();
+        service.excluirPagamento(inativo);
+        double sucessosAntes = meterRegistry.counter("pagamentos.processamento.resultados", "resultado", "sucesso").count();
+        long ultimoEvento = eventoRepository.findUltimaSequencia();
+
+        int processados = motor.processarLote();
+
+        assertEquals(3, processados);
+        assertEquals(StatusPagamento.PROCESSADO_SUCESSO, repository.findById(pix).orElseThrow().getStatus());
+        assertEquals(StatusPagamento.PROCESSADO_FALHA, repository.findById(cartaoSemNumero).orElseThrow().getStatus());
+        assertEquals(StatusPagamento.PROCESSADO_FALHA, repository.findById(valorZerado).orElseThrow().getStatus());
+        assertEquals(StatusPagamento.PENDENTE, repository.findById(inativo).orElseThrow().getStatus());
+        assertNull(repository.findById(pix).orElseThrow().getTokenProcessamento());
+        assertEquals(sucessosAntes + 1,
+                meterRegistry.counter("pagamentos.processamento.resultados", "resultado", "sucesso").count());
+        // Os eventos levam a versão gravada pela conclusão, não a lida na reivindicação.
+        List<EventoPagamentoDTO> publicados =
+                eventoRepository.findBySequenciaGreaterThanOrderBySequenciaAsc(ultimoEvento, Limit.of(10));
+        assertEquals(3, publicados.size());
+        for (EventoPagamentoDTO evento : publicados) {
+            assertEquals(TipoAlteracaoPagamento.STATUS_ALTERADO, evento.tipo());
+            assertEquals(1L, evento.versao());
+        }
+        assertEquals(0, motor.processarLote());
+    }
+
+    @Test
+    void pagamentoExcluidoDepoisDeReivindicado_NaoDeveSerConcluido() throws Exception {
+        Long id = criar(MetodoPagamento.PIX, "10.00", null).getId();
+        // O cliente exclui o pagamento enquanto o lote que já o reivindicou ainda o processa.
+        ProcessadorPagamento excluiDuranteOProcessamento = new ProcessadorPagamento() {
+            @Override
+            public boolean suporta(MetodoPagamento metodoPagamento) {
+                return true;
+            }
+
+            @Override
+            public StatusPagamento processar(Pagamento pagamento) {
+                service.excluirPagamento(pagamento.getId());
+                return StatusPagamento.PROCESSADO_SUCESSO;
+            }
+        };
+        SimpleMeterRegistry metricas = new SimpleMeterRegistry();
+        MotorProcessamentoPagamentos motorComExclusao = new MotorProcessamentoPagamentos(repository,
+                transactionTemplate, eventos, fragmentacao, List.of(excluiDuranteOProcessamento), metricas,
+                true, 10, 1, 60);
+        long ultimoEvento = eventoRepository.findUltimaSequencia();
+
+        try {
+            assertEquals(1, motorComExclusao.processarLote());
+        } finally {
+            motorComExclusao.encerrar();
+        }
+
+        Pagamento gravado = repository.findById(id).orElseThrow();
+        assertEquals(StatusPagamento.PENDENTE, gravado.getStatus());
+        assertFalse(gravado.getAtivo());
+        assertNull(gravado.getTokenProcessamento());
+        assertEquals(1L, gravado.getVersao());
+        assertEquals(0.0, metricas.counter("pagamentos.processamento.resultados", "resultado", "sucesso").count());
+        List<EventoPagamentoDTO> publicados =
+                eventoRepository.findBySequenciaGreaterThanOrderBySequenciaAsc(ultimoEvento, Limit.of(10));
+        assertEquals(List.of(TipoAlteracaoPagamento.INATIVADO),
+                publicados.stream().map(EventoPagamentoDTO::tipo).toList());
+    }
+
+    @Test
+    void conclusao_DeveIgnorarPagamentoAlteradoPeloPatchDepoisDeReivindicado() {
+        Long alterado = criar(MetodoPagamento.PIX, "10.00", null).getId();
+        Long intacto = criar(MetodoPagamento.PIX, "10.00", null).getId();
+        Instant agora = Instant.now();
+        repository.reivindicarPendentes("lote-teste", agora, agora.minusSeconds(60), 10);
+        service.atualizarStatusPagamento(alterado, StatusPagamento.PROCESSADO_FALHA);
+
+        List<Long> concluidos = transactionTemplate.execute(status -> repository.concluirProcessamento(
+                "lote-teste", List.of(alterado, intacto), StatusPagamento.PROCESSADO_SUCESSO));
+
+        assertEquals(List.of(intacto), concluidos);
+        assertEquals(StatusPagamento.PROCESSADO_FALHA, repository.findById(alterado).orElseThrow().getStatus());
+        assertEquals(StatusPagamento.PROCESSADO_SUCESSO, repository.findById(intacto).orElseThrow().getStatus());
+    }
+
+    @Test
+    void pendentesReivindicadosPorOutraInstanciaDevemContinuarNoGauge() {
+        criar(MetodoPagamento.PIX, "10.00", null);
+        criar(MetodoPagamento.PIX, "10.00", null);
+        Instant agora = Instant.now();
+        repository.reivindicarPendentes("outra-instancia", agora, agora.minusSeconds(60), 10);
+
+        assertEquals(0, motor.processarLote());
+        assertEquals(2, meterRegistry.get("pagamentos.processamento.pendentes").gauge().value());
+    }
+
+    @Test
+    void execucoesConcorrentesNaoDevemProcessarOMesmoPagamentoDuasVezes() throws Exception {
+        List<Long> ids = new ArrayList<>();
+        for (int i = 0; i < 60; i++) {
+            ids.add(criar(MetodoPagamento.PIX, "10.00", null).getId());
+        }
+
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        List<Future<Integer>> execucoes = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            execucoes.add(executor.submit(() -> {
+                int total = 0;
+                int lote;
+                while ((lote = motor.processarLote()) > 0) {
+                    total += lote;
+                }
+                return total;
+            }));
+        }
+        int totalReivindicado = 0;
+        for (Future<Integer> execucao : execucoes) {
+            totalReivindicado += execucao.get();
+        }
+        executor.shutdown();
+
+        assertEquals(ids.size(), totalReivindicado);
+        for (Long id : ids) {
+            Pagamento pagamento = repository.findById(id).orElseThrow();
+            assertEquals(StatusPagamento.PROCESSADO_SUCESSO, pagamento.getStatus());
+            assertEquals(1L, pagamento.getVersao());
+        }
+    }
+}
@@ -0,0 +1,220 @@
+package org.fadesp.pagamentos_api.repository;
+
+import org.fadesp.pagamentos_api.dto.Pagina;
+import org.fadesp.pagamentos_api.dto.PagamentoDTO;
+import org.fadesp.pagamentos_api.enums.StatusPagamento;
+import org.fadesp.pagamentos_api.fragmentacao.Fragmentacao;
+import org.fadesp.pagamentos_api.model.Pagamento;
+import org.fadesp.pagamentos_api.service.PagamentoCache;
+import org.fadesp.pagamentos_api.service.PagamentoService;
+import org.fadesp.pagamentos_api.service.TokenizadorCartao;
+import org.fadesp.pagamentos_api.util.CpfCnpj;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Carrega uma massa sintética e verifica, pelo plano de execução do H2, que os filtros usados por
+ * {@link PagamentoService#filtrarPagamentos} são atendidos por índices em vez de varredura completa.
+ * <p>
+ * O plano é o do SQL que o Hibernate gera para a consulta, capturado por {@link CapturaSql}. Com os valores da
+ * Criteria escritos no SQL ({@code value_handling_mode=inline}), só o limite da página fica como parâmetro.
+ */
+@DataJpaTest(properties = {
+        "spring.jpa.show-sql=false",
+        "spring.jpa.properties.hibernate.criteria.value_handling_mode=inline",
+        "spring.jpa.properties.hibernate.session_factory.statement_inspector="
+                + "org.fadesp.pagamentos_api.repository.PagamentoRepositoryIndiceTest$CapturaSql"
+})
+@Import({PagamentoService.class, Fragmentacao.class, PagamentoCache.class, TokenizadorCartao.class, SimpleMeterRegistry.class})
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class PagamentoRepositoryIndiceTest {
+
+    private static final int QUANTIDADE = 50_000;
+    private static final StatusPagamento[] STATUS = StatusPagamento.values();
+    // Cada pagamento sintético foi atualizado pela última vez i segundos depois desta data.
+    private static final Instant BASE = Instant.parse("2020-01-01T00:00:00Z");
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PagamentoService service;
+
+    // Carregada uma única vez, fora da transação de cada teste (o ANALYZE do H2 faz commit implícito).
+    @BeforeAll
+    void carregarMassaSintetica() {
+        List<Object[]> linhas = new ArrayList<>(QUANTIDADE);
+        for (int i = 1; i <= QUANTIDADE; i++) {
+            linhas.add(new Object[]{
+                    (long) i,
+                    i % 5_000,
+                    CpfCnpj.paraChave(String.format("%011d", i % 10_000)),
+                    STATUS[i % STATUS.length].name(),
+                    Timestamp.from(BASE.plusSeconds(i))
+            });
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO pagamento (id, codigo_debito, cpf_cnpj_chave, metodo_pagamento, valor, status, ativo, "
+                + "atualizado_em) VALUES (?, ?, ?, 'PIX', 10.00, ?, TRUE, ?)", linhas);
+        jdbcTemplate.execute("ANALYZE");
+    }
+
+    @AfterAll
+    void removerMassaSintetica() {
+        jdbcTemplate.execute("DELETE FROM pagamento");
+    }
+
+    public static class CapturaSql implements StatementInspector {
+
+        static final List<String> CAPTURADOS = new CopyOnWriteArrayList<>();
+
+        @Override
+        public String inspect(String sql) {
+            CAPTURADOS.add(sql);
+            return sql;
+        }
+    }
+
+    /** Executa a consulta e devolve o plano do último SELECT em {@code pagamento} que o Hibernate gerou para ela. */
+    private String planoGerado(Runnable consulta, int limite) {
+        CapturaSql.CAPTURADOS.clear();
+        consulta.run();
+        String sql = CapturaSql.CAPTURADOS.stream()
+                .filter(s -> s.toLowerCase().startsWith("select") && s.toLowerCase().contains(" from pagamento "))
+                .reduce((primeiro, segundo) -> segundo)
+                .orElseThrow(() -> new AssertionError("Nenhuma consulta capturada: " + CapturaSql.CAPTURADOS));
+        // Sobram só os parâmetros do limite (limite + 1 itens, para saber se há próxima página).
+        int parametros = (int) sql.chars().filter(c -> c == '?').count();
+        Object[] valores = Collections.nCopies(parametros, limite + 1).toArray();
+        return String.join("\n", jdbcTemplate.queryForList("EXPLAIN " + sql, String.class, valores)).toUpperCase();
+    }
+
+    @Test
+    void deveUsarIndiceDocumentoStatus_AoFiltrarPorPagadorEStatus() {
+        String plano = planoGerado(() -> service.filtrarPagamentos(null, null, "52998224725", StatusPagamento.PENDENTE,
+                null, false, null, 50), 50);
+
+        assertTrue(plano.contains("IDX_PAGAMENTO_DOCUMENTO_STATUS"), plano);
+    }
+
+    @Test
+    void deveUsarIndiceCodigoDebito_AoFiltrarPorCodigoDebito() {
+        String plano = planoGerado(() -> service.filtrarPagamentos(null, 42, null, null, null, false, null, 50), 50);
+
+        assertTrue(plano.contains("IDX_PAGAMENTO_CODIGO_DEBITO"), plano);
+    }
+
+    @Test
+    void deveUsarIndiceStatusId_AoFiltrarSomentePorStatus() {
+        String cursor = service.filtrarPagamentos(null, null, null, StatusPagamento.PROCESSADO_FALHA, null, false,
+                null, 50).proximoCursor();
+
+        String plano = planoGerado(() -> service.filtrarPagamentos(null, null, null, StatusPagamento.PROCESSADO_FALHA,
+                null, false, cursor, 50), 50);
+
+        assertTrue(plano.contains("IDX_PAGAMENTO_STATUS_ID"), plano);
+    }
+
+    @Test
+    void deveRetornarPaginaOrdenadaPorIdComLimite_AoFiltrarPorStatus() {
+        Pagina<PagamentoDTO> pagina = service.filtrarPagamentos(null, null, null, StatusPagamento.PENDENTE, null, false, null, 100);
+
+        assertEquals(100, pagina.itens().size());
+        assertNotNull(pagina.proximoCursor());
+        assertTrue(pagina.itens().stream().allMatch(p -> p.status() == StatusPagamento.PENDENTE));
+        for (int i = 1; i < pagina.itens().size(); i++) {
+            assertTrue(pagina.itens().get(i - 1).id() < pagina.itens().get(i).id());
+        }
+
+        Pagina<PagamentoDTO> seguinte = service.filtrarPagamentos(null, null, null, StatusPagamento.PENDENTE,
+                null, false, pagina.proximoCursor(), 100);
+
+        assertTrue(seguinte.itens().get(0).id() > pagina.itens().get(99).id());
+    }
+
+    @Test
+    void deveUsarIndiceAtualizacao_AoFiltrarPorIntervaloDeAtualizacao() {
+        Instant desde = BASE.plusSeconds(13 * 3_600);
+
+        String plano = planoGerado(() -> service.filtrarPagamentos(null, null, null, null, null, desde, null, false,
+                null, 50), 50);
+
+        assertTrue(plano.contains("IDX_PAGAMENTO_ATUALIZADO_EM_ID"), plano);
+    }
+
+    @Test
+    void deveUsarIndiceAtualizacao_AoContinuarDoCursor() {
+        Instant desde = BASE.plusSeconds(1_000);
+        String cursor = service.filtrarPagamentos(null, null, null, null, null, desde, null, false, null, 50)
+                .proximoCursor();
+        assertNotNull(cursor);
+
+        String plano = planoGerado(() -> service.filtrarPagamentos(null, null, null, null, null, desde, null, false,
+                cursor, 50), 50);
+
+        assertTrue(plano.contains("IDX_PAGAMENTO_ATUALIZADO_EM_ID"), plano);
+    }
+
+    @Test
+    void deveTrazerInativos_AoFiltrarPorIntervaloSemAtivo() {
+        Instant antes = Instant.now().minusSeconds(1);
+        service.excluirPagamento(6L);
+
+        List<PagamentoDTO> alterados = service.filtrarPagamentos(null, null, null, null, null, antes, null, false,
+                null, 50).itens();
+
+        assertEquals(1, alterados.size());
+        assertEquals(6L, alterados.get(0).id());
+        assertFalse(alterados.get(0).ativo());
+    }
+
+    @Test
+    void devePaginarPorAtualizacao_AoFiltrarComDesdeEAte() {
+        Instant desde = BASE.plusSeconds(1_000);
+        Instant ate = BASE.plusSeconds(1_250);
+
+        Pagina<PagamentoDTO> primeira = service.filtrarPagamentos(null, null, null, null, null, desde, ate, false, null, 200);
+        Pagina<PagamentoDTO> segunda = service.filtrarPagamentos(null, null, null, null, null, desde, ate, false,
+                primeira.proximoCursor(), 200);
+
+        assertEquals(200, primeira.itens().size());
+        assertEquals(1_000L, primeira.itens().get(0).id());
+        assertEquals(50, segunda.itens().size());
+        assertEquals(1_200L, segunda.itens().get(0).id());
+        assertEquals(1_249L, segunda.itens().get(49).id());
+        assertNull(segunda.proximoCursor());
+    }
+
+    @Test
+    void deveTrazerSomenteOsAlterados_AoSincronizarDesdeAUltimaAtualizacao() {
+        Instant ultimaSincronizacao = BASE.plusSeconds(QUANTIDADE + 1L);
+        assertTrue(service.filtrarPagamentos(null, null, null, null, null, ultimaSincronizacao, null, false, null, 50)
+                .itens().isEmpty());
+
+        service.atualizarStatusPagamento(3L, StatusPagamento.PROCESSADO_SUCESSO);
+
+        List<PagamentoDTO> alterados = service.filtrarPagamentos(null, null, null, null, null, ultimaSincronizacao, null,
+                false, null, 50).itens();
+        assertEquals(1, alterados.size());
+        assertEquals(3L, alterados.get(0).id());
+        assertTrue(alterados.get(0).atualizadoEm().isAfter(ultimaSincronizacao));
+    }
+}
@@ -0,0 +1,171 @@
+package org.fadesp.pagamentos_api.service;
+
+import org.fadesp.pagamentos_api.dto.ItemResumo;
+import org.fadesp.pagamentos_api.dto.ResumoPagamentos;
+import org.fadesp.pagamentos_api.enums.MetodoPagamento;
+import org.fadesp.pagamentos_api.enums.StatusPagamento;
+import org.fadesp.pagamentos_api.evento.PagamentoAlteradoEvent;
+import org.fadesp.pagamentos_api.fragmentacao.Fragmentacao;
+import org.fadesp.pagamentos_api.model.Pagamento;
+import org.fadesp.pagamentos_api.repository.PagamentoRepository;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@SpringBootTest
+class AgregadosPagamentoTest {
+
+    @Autowired
+    private PagamentoService service;
+
+    @Autowired
+    private AgregadosPagamento agregados;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    private Pagamento novoPagamento(String valor) {
+        Pagamento pagamento = new Pagamento();
+        pagamento.setCpfCnpj("52998224725");
+        pagamento.setMetodoPagamento(MetodoPagamento.BOLETO);
+        pagamento.setValor(new BigDecimal(valor));
+        return pagamento;
+    }
+
+    private static ItemResumo item(ResumoPagamentos resumo, StatusPagamento status, boolean ativo) {
+        return resumo.itens().stream()
+                .filter(i -> i.status() == status && i.metodoPagamento() == MetodoPagamento.BOLETO && i.ativo() == ativo)
+                .findFirst()
+                .orElse(new ItemResumo(status, MetodoPagamento.BOLETO, ativo, 0, BigDecimal.ZERO.setScale(2)));
+    }
+
+    @Test
+    void deveAcompanharCriacaoTransicaoEInativacao_SemDivergirDoBanco() {
+        agregados.reconciliar();
+        ResumoPagamentos antes = agregados.resumo();
+
+        Long aprovado = service.criarPagamento(novoPagamento("100.50")).getId();
+        Long inativado = service.criarPagamento(novoPagamento("20.25")).getId();
+        service.criarPagamento(novoPagamento("5.00"));
+        service.atualizarStatusPagamento(aprovado, StatusPagamento.PROCESSADO_SUCESSO);
+        service.excluirPagamento(inativado);
+
+        ResumoPagamentos depois = agregados.resumo();
+
+        ItemResumo pendentesAntes = item(antes, StatusPagamento.PENDENTE, true);
+        ItemResumo pendentesDepois = item(depois, StatusPagamento.PENDENTE, true);
+        assertEquals(pendentesAntes.quantidade() + 1, pendentesDepois.quantidade());
+        assertEquals(pendentesAntes.valorTotal().add(new BigDecimal("5.00")), pendentesDepois.valorTotal());
+
+        ItemResumo sucessoAntes = item(antes, StatusPagamento.PROCESSADO_SUCESSO, true);
+        assertEquals(sucessoAntes.quantidade() + 1, item(depois, StatusPagamento.PROCESSADO_SUCESSO, true).quantidade());
+        assertEquals(item(antes, StatusPagamento.PENDENTE, false).quantidade() + 1,
+                item(depois, StatusPagamento.PENDENTE, false).quantidade());
+
+        agregados.reconciliar();
+
+        assertEquals(depois.itens(), agregados.resumo().itens());
+    }
+
+    @Test
+    void deveCorrigirNaReconciliacao_AlteracaoFeitaDiretoNoBanco() {
+        Long id = service.criarPagamento(novoPagamento("1.00")).getId();
+        jdbcTemplate.update("UPDATE pagamento SET valor = 3.00 WHERE id = ?", id);
+        BigDecimal antes = item(agregados.resumo(), StatusPagamento.PENDENTE, true).valorTotal();
+
+        agregados.reconciliar();
+
+        assertEquals(antes.add(new BigDecimal("2.00")),
+                item(agregados.resumo(), StatusPagamento.PENDENTE, true).valorTotal());
+    }
+
+    @Test
+    void reconciliacaoEntreOCommitEADeltaNaoDeveContarDuasVezes() throws Exception {
+        agregados.reconciliar();
+        long antes = item(agregados.resumo(), StatusPagamento.PENDENTE, true).quantidade();
+        ExecutorService outraThread = Executors.newSingleThreadExecutor();
+        Future<?>[] reconciliacao = new Future<?>[1];
+
+        transactionTemplate.executeWithoutResult(status -> {
+            service.criarPagamento(novoPagamento("7.00"));
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    // O pagamento já está confirmado no banco e o delta ainda não foi aplicado.
+                    reconciliacao[0] = outraThread.submit(agregados::reconciliar);
+                    try {
+                        Thread.sleep(200);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                }
+            });
+        });
+        reconciliacao[0].get(10, TimeUnit.SECONDS);
+        outraThread.shutdown();
+
+        assertEquals(antes + 1, item(agregados.resumo(), StatusPagamento.PENDENTE, true).quantidade());
+    }
+
+    @Test
+    void consultaDeReconciliacao_NaoDeveSegurarOsCommitsNemContarDuasVezes() throws Exception {
+        PagamentoRepository repositorio = mock(PagamentoRepository.class);
+        AgregadosPagamento agregadosIsolados = new AgregadosPagamento(repositorio, Fragmentacao.unico());
+        CountDownLatch consultaIniciada = new CountDownLatch(1);
+        CountDownLatch liberarConsulta = new CountDownLatch(1);
+        when(repositorio.resumirPorStatusMetodoEAtivo())
+                .thenReturn(List.of(itemBoleto(StatusPagamento.PENDENTE, 4, "40.00")))
+                .thenAnswer(invocacao -> {
+                    consultaIniciada.countDown();
+                    liberarConsulta.await(10, TimeUnit.SECONDS);
+                    // O banco já mostra o pagamento criado durante a consulta e um sucesso gravado direto nele.
+                    return List.of(itemBoleto(StatusPagamento.PENDENTE, 5, "50.00"),
+                            itemBoleto(StatusPagamento.PROCESSADO_SUCESSO, 2, "20.00"));
+                });
+        agregadosIsolados.reconciliar();
+        ExecutorService outraThread = Executors.newSingleThreadExecutor();
+
+        try {
+            Future<?> reconciliacao = outraThread.submit(agregadosIsolados::reconciliar);
+            assertTrue(consultaIniciada.await(10, TimeUnit.SECONDS));
+
+            // Sem transação o delta é aplicado na hora: se a consulta segurasse a trava, isto ficaria parado.
+            Pagamento criado = novoPagamento("10.00");
+            criado.setStatus(StatusPagamento.PENDENTE);
+            criado.setAtivo(true);
+            agregadosIsolados.aoAlterarPagamento(PagamentoAlteradoEvent.criado(criado));
+            liberarConsulta.countDown();
+            reconciliacao.get(10, TimeUnit.SECONDS);
+        } finally {
+            liberarConsulta.countDown();
+            outraThread.shutdownNow();
+        }
+
+        ResumoPagamentos resumo = agregadosIsolados.resumo();
+        assertEquals(5, item(resumo, StatusPagamento.PENDENTE, true).quantidade());
+        assertEquals(2, item(resumo, StatusPagamento.PROCESSADO_SUCESSO, true).quantidade());
+    }
+
+    private static ItemResumo itemBoleto(StatusPagamento status, long quantidade, String valorTotal) {
+        return new ItemResumo(status, MetodoPagamento.BOLETO, true, quantidade, new BigDecimal(valorTotal));
+    }
+}
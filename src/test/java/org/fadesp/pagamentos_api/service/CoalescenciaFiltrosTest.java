@@ -0,0 +1,156 @@
+package org.fadesp.pagamentos_api.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.fadesp.pagamentos_api.dto.PagamentoDTO;
+import org.fadesp.pagamentos_api.dto.Pagina;
+import org.fadesp.pagamentos_api.enums.StatusPagamento;
+import org.fadesp.pagamentos_api.evento.PagamentoAlteradoEvent;
+import org.fadesp.pagamentos_api.excecao.DadosInvalidosException;
+import org.fadesp.pagamentos_api.model.Pagamento;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class CoalescenciaFiltrosTest {
+
+    private static final int CLIENTES = 16;
+
+    @Mock
+    private PagamentoService service;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private CoalescenciaFiltros coalescencia(long microTtlMs) {
+        return new CoalescenciaFiltros(service, meterRegistry, true, microTtlMs, 100);
+    }
+
+    private double consultas(String origem) {
+        return meterRegistry.get("pagamentos.filtro.consultas").tag("origem", origem).counter().count();
+    }
+
+    private Pagina<PagamentoDTO> filtrarPendentes(CoalescenciaFiltros filtros) {
+        return filtros.filtrarPagamentos(null, 7, null, StatusPagamento.PENDENTE, null, null, null, false, null, 50);
+    }
+
+    @Test
+    void filtrosIdenticosSimultaneosDevemCompartilharUmaConsulta() throws Exception {
+        CoalescenciaFiltros filtros = coalescencia(0);
+        Pagina<PagamentoDTO> pagina = new Pagina<>(List.of(), null);
+        CountDownLatch consultaIniciada = new CountDownLatch(1);
+        CountDownLatch liberarConsulta = new CountDownLatch(1);
+        when(service.filtrarPagamentos(any(), any(), any(), any(), any(), any(), any(), anyBoolean(), any(), anyInt()))
+                .thenAnswer(invocation -> {
+                    consultaIniciada.countDown();
+                    assertTrue(liberarConsulta.await(10, TimeUnit.SECONDS));
+                    return pagina;
+                });
+
+        ExecutorService clientes = Executors.newFixedThreadPool(CLIENTES);
+        List<Future<Pagina<PagamentoDTO>>> resultados = new ArrayList<>();
+        resultados.add(clientes.submit(() -> filtrarPendentes(filtros)));
+        assertTrue(consultaIniciada.await(10, TimeUnit.SECONDS));
+        for (int i = 1; i < CLIENTES; i++) {
+            resultados.add(clientes.submit(() -> filtrarPendentes(filtros)));
+        }
+        // Os demais pedidos só contam como juntados depois de encontrarem a consulta em andamento.
+        while (consultas("em-andamento") < CLIENTES - 1) {
+            Thread.sleep(1);
+        }
+        liberarConsulta.countDown();
+
+        for (Future<Pagina<PagamentoDTO>> resultado : resultados) {
+            assertSame(pagina, resultado.get(10, TimeUnit.SECONDS));
+        }
+        clientes.shutdown();
+        verify(service, times(1)).filtrarPagamentos(null, 7, null, StatusPagamento.PENDENTE, true, null, null, false, null, 50);
+        assertEquals(1, consultas("banco"));
+        assertEquals(CLIENTES - 1, consultas("em-andamento"));
+    }
+
+    @Test
+    void semMicroTtlConsultasSeguidasDevemIrAoBancoEComMicroTtlNao() {
+        Pagina<PagamentoDTO> pagina = new Pagina<>(List.of(), null);
+        when(service.filtrarPagamentos(any(), any(), any(), any(), any(), any(), any(), anyBoolean(), any(), anyInt()))
+                .thenReturn(pagina);
+
+        CoalescenciaFiltros semTtl = coalescencia(0);
+        filtrarPendentes(semTtl);
+        filtrarPendentes(semTtl);
+        verify(service, times(2)).filtrarPagamentos(any(), any(), any(), any(), any(), any(), any(), anyBoolean(), any(), anyInt());
+
+        CoalescenciaFiltros comTtl = coalescencia(60_000);
+        filtrarPendentes(comTtl);
+        // Ativo ausente e ativo=true são o mesmo filtro fora do arquivo.
+        assertSame(pagina, comTtl.filtrarPagamentos(null, 7, null, StatusPagamento.PENDENTE, true, null, null, false, "", 50));
+        verify(service, times(3)).filtrarPagamentos(any(), any(), any(), any(), any(), any(), any(), anyBoolean(), any(), anyInt());
+        assertEquals(1, consultas("micro-ttl"));
+
+        // Uma alteração confirmada descarta os resultados recentes.
+        comTtl.aoAlterarPagamento(PagamentoAlteradoEvent.criado(new Pagamento()));
+        filtrarPendentes(comTtl);
+        verify(service, times(4)).filtrarPagamentos(any(), any(), any(), any(), any(), any(), any(), anyBoolean(), any(), anyInt());
+    }
+
+    @Test
+    void consultaQueComecouAntesDeUmaAlteracaoNaoDeveSerReaproveitada() throws Exception {
+        CoalescenciaFiltros filtros = coalescencia(60_000);
+        Pagina<PagamentoDTO> anterior = new Pagina<>(List.of(), null);
+        Pagina<PagamentoDTO> posterior = new Pagina<>(List.of(), null);
+        CountDownLatch consultaIniciada = new CountDownLatch(1);
+        CountDownLatch liberarConsulta = new CountDownLatch(1);
+        when(service.filtrarPagamentos(any(), any(), any(), any(), any(), any(), any(), anyBoolean(), any(), anyInt()))
+                .thenAnswer(invocation -> {
+                    consultaIniciada.countDown();
+                    assertTrue(liberarConsulta.await(10, TimeUnit.SECONDS));
+                    return anterior;
+                })
+                .thenReturn(posterior);
+
+        ExecutorService cliente = Executors.newSingleThreadExecutor();
+        Future<Pagina<PagamentoDTO>> lenta = cliente.submit(() -> filtrarPendentes(filtros));
+        assertTrue(consultaIniciada.await(10, TimeUnit.SECONDS));
+        // A alteração é confirmada enquanto a consulta lenta ainda está no banco.
+        filtros.aoAlterarPagamento(PagamentoAlteradoEvent.criado(new Pagamento()));
+
+        // Quem chega depois da alteração não se junta à consulta antiga.
+        assertSame(posterior, filtrarPendentes(filtros));
+        liberarConsulta.countDown();
+        assertSame(anterior, lenta.get(10, TimeUnit.SECONDS));
+        cliente.shutdown();
+
+        // O resultado antigo não entrou no micro-TTL: o pedido seguinte recebe o posterior.
+        assertSame(posterior, filtrarPendentes(filtros));
+        assertEquals(0, consultas("em-andamento"));
+        assertEquals(2, consultas("banco"));
+        assertEquals(1, consultas("micro-ttl"));
+    }
+
+    @Test
+    void falhaDaConsultaNaoDeveFicarGuardada() {
+        CoalescenciaFiltros filtros = coalescencia(60_000);
+        Pagina<PagamentoDTO> pagina = new Pagina<>(List.of(), null);
+        when(service.filtrarPagamentos(any(), any(), any(), any(), any(), any(), any(), anyBoolean(), any(), anyInt()))
+                .thenThrow(new DadosInvalidosException("Cursor de paginação inválido."))
+                .thenReturn(pagina);
+
+        assertThrows(DadosInvalidosException.class, () -> filtrarPendentes(filtros));
+        assertSame(pagina, filtrarPendentes(filtros));
+    }
+}
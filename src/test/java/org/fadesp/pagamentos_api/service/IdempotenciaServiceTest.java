@@ -0,0 +1,192 @@
+package org.fadesp.pagamentos_api.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import org.fadesp.pagamentos_api.model.Pagamento;
+import org.fadesp.pagamentos_api.repository.PagamentoRepository;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.fadesp.pagamentos_api.PagamentosDeTeste.novoPagamento;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+class IdempotenciaServiceTest {
+
+    @Autowired
+    private IdempotenciaService idempotencia;
+
+    @Autowired
+    private PagamentoService service;
+
+    @Autowired
+    private PagamentoRepository repository;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    private static long id(ResponseEntity<Object> resposta) {
+        return ((JsonNode) resposta.getBody()).get("id").asLong();
+    }
+
+    @Test
+    void deveDevolverRespostaArmazenada_SemExecutarDeNovo() {
+        String chave = UUID.randomUUID().toString();
+        AtomicInteger execucoes = new AtomicInteger();
+
+        ResponseEntity<Object> primeira = idempotencia.executar(chave, "teste", null, HttpStatus.CREATED, () -> {
+            execucoes.incrementAndGet();
+            return service.criarPagamento(novoPagamento());
+        });
+        long total = repository.count();
+        ResponseEntity<Object> repeticao = idempotencia.executar(chave, "teste", null, HttpStatus.CREATED, () -> {
+            execucoes.incrementAndGet();
+            return service.criarPagamento(novoPagamento());
+        });
+
+        assertEquals(1, execucoes.get());
+        assertEquals(total, repository.count());
+        assertEquals(HttpStatus.CREATED, repeticao.getStatusCode());
+        assertEquals(primeira.getBody(), repeticao.getBody());
+        assertEquals("false", primeira.getHeaders().getFirst(IdempotenciaService.CABECALHO_REPETICAO));
+        assertEquals("true", repeticao.getHeaders().getFirst(IdempotenciaService.CABECALHO_REPETICAO));
+    }
+
+    @Test
+    void deveAguardarExecucaoEmAndamento_QuandoRetentativaConcorrente() throws Exception {
+        String chave = UUID.randomUUID().toString();
+        AtomicInteger execucoes = new AtomicInteger();
+        int threads = 8;
+        CountDownLatch largada = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+
+        try {
+            List<Future<ResponseEntity<Object>>> respostas = new ArrayList<>();
+            for (int i = 0; i < threads; i++) {
+                respostas.add(executor.submit(() -> {
+                    largada.await();
+                    return idempotencia.executar(chave, "teste", null, HttpStatus.CREATED, () -> {
+                        execucoes.incrementAndGet();
+                        try {
+                            Thread.sleep(200);
+                        } catch (InterruptedException e) {
+                            Thread.currentThread().interrupt();
+                        }
+                        return service.criarPagamento(novoPagamento());
+                    });
+                }));
+            }
+            largada.countDown();
+
+            long primeiroId = id(respostas.get(0).get());
+            for (Future<ResponseEntity<Object>> resposta : respostas) {
+                assertEquals(primeiroId, id(resposta.get()));
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertEquals(1, execucoes.get());
+    }
+
+    @Test
+    void deveExecutarDeNovo_QuandoPrimeiraExecucaoFalhou() {
+        String chave = UUID.randomUUID().toString();
+
+        assertThrows(RuntimeException.class, () -> idempotencia.executar(chave, "teste", null, HttpStatus.CREATED, () -> {
+            Pagamento invalido = novoPagamento();
+            invalido.setCpfCnpj("123");
+            return service.criarPagamento(invalido);
+        }));
+
+        ResponseEntity<Object> resposta = idempotencia.executar(chave, "teste", null, HttpStatus.CREATED,
+                () -> service.criarPagamento(novoPagamento()));
+
+        assertEquals("false", resposta.getHeaders().getFirst(IdempotenciaService.CABECALHO_REPETICAO));
+    }
+
+    @Test
+    void deveRejeitarChaveReaproveitadaEmOutraOperacao() {
+        String chave = UUID.randomUUID().toString();
+        idempotencia.executar(chave, "teste", null, HttpStatus.CREATED, () -> service.criarPagamento(novoPagamento()));
+
+        RuntimeException exception = assertThrows(RuntimeException.class, () ->
+                idempotencia.executar(chave, "outra", null, HttpStatus.OK, () -> service.criarPagamento(novoPagamento())));
+
+        assertEquals("Idempotency-Key já utilizada em outra operação.", exception.getMessage());
+    }
+
+    @Test
+    void deveRepetirRespostaDoPost_ComMesmoCabecalho() throws Exception {
+        String chave = UUID.randomUUID().toString();
+        String corpo = "{\"codigoDebito\": 1, \"cpfCnpj\": \"529.982.247-25\", \"metodoPagamento\": \"PIX\", \"valor\": 10}";
+
+        MvcResult primeira = mockMvc.perform(post("/pagamentos").header(IdempotenciaService.CABECALHO, chave)
+                        .contentType(MediaType.APPLICATION_JSON).content(corpo))
+                .andExpect(status().isCreated())
+                .andExpect(header().string(IdempotenciaService.CABECALHO_REPETICAO, "false"))
+                .andReturn();
+        MvcResult repeticao = mockMvc.perform(post("/pagamentos").header(IdempotenciaService.CABECALHO, chave)
+                        .contentType(MediaType.APPLICATION_JSON).content(corpo))
+                .andExpect(status().isCreated())
+                .andExpect(header().string(IdempotenciaService.CABECALHO_REPETICAO, "true"))
+                .andReturn();
+
+        assertEquals(primeira.getResponse().getContentAsString(), repeticao.getResponse().getContentAsString());
+    }
+
+    @Test
+    void deveRejeitarChaveReaproveitadaComOutroCorpo() {
+        String chave = UUID.randomUUID().toString();
+        Pagamento primeiro = novoPagamento();
+        idempotencia.executar(chave, "teste", primeiro, HttpStatus.CREATED, () -> service.criarPagamento(primeiro));
+        long total = repository.count();
+
+        Pagamento igual = novoPagamento();
+        assertEquals("true", idempotencia.executar(chave, "teste", igual, HttpStatus.CREATED,
+                () -> service.criarPagamento(igual)).getHeaders().getFirst(IdempotenciaService.CABECALHO_REPETICAO));
+
+        Pagamento outroValor = novoPagamento();
+        outroValor.setValor(new BigDecimal("20.00"));
+        RuntimeException exception = assertThrows(RuntimeException.class, () ->
+                idempotencia.executar(chave, "teste", outroValor, HttpStatus.CREATED,
+                        () -> service.criarPagamento(outroValor)));
+
+        assertEquals("Idempotency-Key já utilizada com outro corpo de requisição.", exception.getMessage());
+        assertEquals(total, repository.count());
+    }
+
+    @Test
+    void deveResponder409AoPost_ComMesmaChaveEOutroCorpo() throws Exception {
+        String chave = UUID.randomUUID().toString();
+        String corpo = "{\"codigoDebito\": 1, \"cpfCnpj\": \"529.982.247-25\", \"metodoPagamento\": \"PIX\", \"valor\": 10}";
+
+        mockMvc.perform(post("/pagamentos").header(IdempotenciaService.CABECALHO, chave)
+                        .contentType(MediaType.APPLICATION_JSON).content(corpo))
+                .andExpect(status().isCreated());
+        mockMvc.perform(post("/pagamentos").header(IdempotenciaService.CABECALHO, chave)
+                        .contentType(MediaType.APPLICATION_JSON).content(corpo.replace("\"valor\": 10", "\"valor\": 11")))
+                .andExpect(status().isConflict());
+    }
+}
@@ -0,0 +1,107 @@
+package org.fadesp.pagamentos_api.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.fadesp.pagamentos_api.dto.SituacaoIngestao;
+import org.fadesp.pagamentos_api.enums.EstadoIngestao;
+import org.fadesp.pagamentos_api.enums.MetodoPagamento;
+import org.fadesp.pagamentos_api.enums.StatusPagamento;
+import org.fadesp.pagamentos_api.excecao.FilaIngestaoCheiaException;
+import org.fadesp.pagamentos_api.fragmentacao.Fragmentacao;
+import org.fadesp.pagamentos_api.model.Pagamento;
+import org.fadesp.pagamentos_api.repository.PagamentoRepository;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+// A gravadora não é iniciada: a fila só enche, o que permite observar a recusa e a situação NA_FILA.
+@ExtendWith(MockitoExtension.class)
+class IngestaoAssincronaPagamentosTest {
+
+    @Mock
+    private PagamentoRepository repository;
+
+    @Mock
+    private PagamentoCache cache;
+
+    @Mock
+    private ApplicationEventPublisher eventos;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private IngestaoAssincronaPagamentos ingestao;
+
+    @BeforeEach
+    void setUp() {
+        PagamentoService pagamentoService = new PagamentoService(repository, null, cache, eventos,
+                new TokenizadorCartao("chave-de-teste"), Fragmentacao.unico());
+        ingestao = new IngestaoAssincronaPagamentos(pagamentoService, repository, mock(TransactionTemplate.class),
+                eventos, Fragmentacao.unico(), meterRegistry, true, 2, 10, 5, 60);
+    }
+
+    private static Pagamento novoPagamento() {
+        Pagamento pagamento = new Pagamento();
+        pagamento.setCodigoDebito(1);
+        pagamento.setCpfCnpj("529.982.247-25");
+        pagamento.setMetodoPagamento(MetodoPagamento.CARTAO_CREDITO);
+        pagamento.setNumeroCartao("4111111111111111");
+        pagamento.setValor(new BigDecimal("10.00"));
+        return pagamento;
+    }
+
+    @Test
+    void enfileirar_DevePrepararEReservarIdDoBlocoDaSequencia() {
+        when(repository.reservarBlocoIds()).thenReturn(150L);
+        Pagamento pagamento = novoPagamento();
+
+        SituacaoIngestao situacao = ingestao.enfileirar(pagamento);
+
+        assertEquals(101L, situacao.id());
+        assertEquals(EstadoIngestao.NA_FILA, situacao.estado());
+        assertEquals("/pagamentos/ingestao/101", situacao.urlSituacao());
+        assertEquals("52998224725", pagamento.getCpfCnpj());
+        assertEquals("************1111", pagamento.getNumeroCartao());
+        assertEquals(StatusPagamento.PENDENTE, pagamento.getStatus());
+        assertEquals(102L, ingestao.enfileirar(novoPagamento()).id());
+        verify(repository, times(1)).reservarBlocoIds();
+        verify(eventos, never()).publishEvent(any());
+    }
+
+    @Test
+    void enfileirar_DeveRecusarComFilaCheia_SemPerderOsJaAceitos() {
+        when(repository.reservarBlocoIds()).thenReturn(50L);
+        Long primeiro = ingestao.enfileirar(novoPagamento()).id();
+        ingestao.enfileirar(novoPagamento());
+
+        assertThrows(FilaIngestaoCheiaException.class, () -> ingestao.enfileirar(novoPagamento()));
+
+        assertEquals(1.0, meterRegistry.get("pagamentos.ingestao.recusados").counter().count());
+        assertEquals(2.0, meterRegistry.get("pagamentos.ingestao.fila").gauge().value());
+        assertEquals(EstadoIngestao.NA_FILA, ingestao.consultar(primeiro).estado());
+        // O ID do recusado não fica registrado como na fila.
+        when(repository.findVersaoById(3L)).thenReturn(Optional.empty());
+        assertThrows(RuntimeException.class, () -> ingestao.consultar(3L));
+    }
+
+    @Test
+    void enfileirar_DeveRecusarDepoisDoInicioDoEncerramento() throws InterruptedException {
+        ingestao.encerrar();
+
+        FilaIngestaoCheiaException recusa = assertThrows(FilaIngestaoCheiaException.class,
+                () -> ingestao.enfileirar(novoPagamento()));
+
+        assertEquals("Aplicação em encerramento. Tente novamente em instantes.", recusa.getMessage());
+        assertEquals(1.0, meterRegistry.get("pagamentos.ingestao.recusados").counter().count());
+        assertEquals(0.0, meterRegistry.get("pagamentos.ingestao.fila").gauge().value());
+    }
+}
@@ -0,0 +1,57 @@
+package org.fadesp.pagamentos_api.service;
+
+import org.fadesp.pagamentos_api.enums.MetodoPagamento;
+import org.fadesp.pagamentos_api.enums.StatusPagamento;
+import org.fadesp.pagamentos_api.model.Pagamento;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.math.BigDecimal;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(properties = "spring.jpa.show-sql=false")
+class PagamentoCacheTest {
+
+    @Autowired
+    private PagamentoService service;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private double contagem(String resultado) {
+        return meterRegistry.get("cache.gets").tag("cache", "pagamentos").tag("result", resultado)
+                .functionCounter().count();
+    }
+
+    @Test
+    void deveServirDoCacheEInvalidarAposAlteracao() {
+        Pagamento pagamento = new Pagamento();
+        pagamento.setCpfCnpj("52998224725");
+        pagamento.setMetodoPagamento(MetodoPagamento.PIX);
+        pagamento.setValor(new BigDecimal("10.00"));
+        Long id = service.criarPagamento(pagamento).getId();
+        double acertosAntes = contagem("hit");
+        double faltasAntes = contagem("miss");
+
+        service.buscarPagamento(id);
+        service.buscarPagamento(id);
+        service.filtrarPagamentos(id, null, null, null, null, false, null, 10);
+
+        assertEquals(faltasAntes + 1, contagem("miss"));
+        assertEquals(acertosAntes + 2, contagem("hit"));
+
+        service.atualizarStatusPagamento(id, StatusPagamento.PROCESSADO_FALHA);
+
+        assertEquals(StatusPagamento.PROCESSADO_FALHA, service.buscarPagamento(id).status());
+        assertEquals(faltasAntes + 2, contagem("miss"));
+
+        service.atualizarStatusPagamento(id, StatusPagamento.PENDENTE);
+        service.excluirPagamento(id);
+
+        assertFalse(service.filtrarPagamentos(id, null, null, null, false, false, null, 10).itens().get(0).ativo());
+    }
+}
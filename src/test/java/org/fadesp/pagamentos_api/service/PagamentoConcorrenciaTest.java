@@ -0,0 +1,111 @@
+package org.fadesp.pagamentos_api.service;
+
+import org.fadesp.pagamentos_api.PagamentosDeTeste;
+import org.fadesp.pagamentos_api.enums.StatusPagamento;
+import org.fadesp.pagamentos_api.model.Pagamento;
+import org.fadesp.pagamentos_api.repository.PagamentoRepository;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Várias threads disputam as mesmas transições de status. Com o UPDATE condicional, cada transição
+ * bem-sucedida corresponde a exatamente um incremento de versão: nenhuma atualização é perdida.
+ */
+@SpringBootTest(properties = "spring.jpa.show-sql=false")
+class PagamentoConcorrenciaTest {
+
+    private static final int THREADS = 8;
+
+    @Autowired
+    private PagamentoService service;
+
+    @Autowired
+    private PagamentoRepository repository;
+
+    private Pagamento criarPagamentoPendente() {
+        return service.criarPagamento(PagamentosDeTeste.novoPagamento());
+    }
+
+    private static void executarEmParalelo(Runnable tarefa) throws InterruptedException {
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch largada = new CountDownLatch(1);
+        for (int i = 0; i < THREADS; i++) {
+            executor.submit(() -> {
+                largada.await();
+                tarefa.run();
+                return null;
+            });
+        }
+        largada.countDown();
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(60, TimeUnit.SECONDS));
+    }
+
+    @Test
+    void somenteUmaThreadDeveProcessarOMesmoPagamentoPendente() throws InterruptedException {
+        Long id = criarPagamentoPendente().getId();
+        AtomicInteger sucessos = new AtomicInteger();
+        AtomicInteger rejeicoes = new AtomicInteger();
+
+        executarEmParalelo(() -> {
+            StatusPagamento alvo = ThreadLocalRandom.current().nextBoolean()
+                    ? StatusPagamento.PROCESSADO_SUCESSO : StatusPagamento.PROCESSADO_FALHA;
+            try {
+                service.atualizarStatusPagamento(id, alvo);
+                sucessos.incrementAndGet();
+            } catch (RuntimeException e) {
+                rejeicoes.incrementAndGet();
+            }
+        });
+
+        Pagamento resultado = repository.findById(id).orElseThrow();
+        assertEquals(1, sucessos.get());
+        assertEquals(THREADS - 1, rejeicoes.get());
+        assertNotEquals(StatusPagamento.PENDENTE, resultado.getStatus());
+        assertEquals(1L, resultado.getVersao());
+    }
+
+    @Test
+    void versaoDeveRefletirTodasAsTransicoesBemSucedidas() throws InterruptedException {
+        List<Long> ids = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            ids.add(criarPagamentoPendente().getId());
+        }
+        StatusPagamento[] alvos = StatusPagamento.values();
+        AtomicInteger[] sucessosPorPagamento = new AtomicInteger[ids.size()];
+        for (int i = 0; i < ids.size(); i++) {
+            sucessosPorPagamento[i] = new AtomicInteger();
+        }
+
+        executarEmParalelo(() -> {
+            ThreadLocalRandom random = ThreadLocalRandom.current();
+            for (int i = 0; i < 300; i++) {
+                int indice = random.nextInt(ids.size());
+                try {
+                    service.atualizarStatusPagamento(ids.get(indice), alvos[random.nextInt(alvos.length)]);
+                    sucessosPorPagamento[indice].incrementAndGet();
+                } catch (RuntimeException e) {
+                    // Transição rejeitada pela regra de negócio
+                }
+            }
+        });
+
+        for (int i = 0; i < ids.size(); i++) {
+            Pagamento pagamento = repository.findById(ids.get(i)).orElseThrow();
+            assertEquals(sucessosPorPagamento[i].get(), pagamento.getVersao().intValue());
+        }
+    }
+}
@@ -0,0 +1,173 @@
+package org.fadesp.pagamentos_api.service;
+
+import jakarta.persistence.EntityManager;
+import org.fadesp.pagamentos_api.dto.ItemAtualizacaoStatus;
+import org.fadesp.pagamentos_api.dto.ResultadoAtualizacaoStatusLote;
+import org.fadesp.pagamentos_api.dto.ResultadoLote;
+import org.fadesp.pagamentos_api.enums.ResultadoAtualizacaoStatus;
+import org.fadesp.pagamentos_api.enums.StatusPagamento;
+import org.fadesp.pagamentos_api.evento.PagamentoAlteradoEvent;
+import org.fadesp.pagamentos_api.fragmentacao.Fragmentacao;
+import org.fadesp.pagamentos_api.model.Pagamento;
+import org.fadesp.pagamentos_api.repository.PagamentoRepository;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class PagamentoLoteServiceTest {
+
+    @Mock
+    private PagamentoRepository repository;
+
+    @Mock
+    private EntityManager entityManager;
+
+    @Mock
+    private PagamentoCache cache;
+
+    @Mock
+    private ApplicationEventPublisher eventos;
+
+    private PagamentoLoteService service;
+
+    private final String CPF_VALIDO = "52998224725";
+
+    @BeforeEach
+    void setUp() {
+        service = new PagamentoLoteService(new PagamentoService(repository, null, cache, eventos,
+                new TokenizadorCartao("chave-de-teste"), Fragmentacao.unico()), repository,
+                entityManager, eventos, Fragmentacao.unico(), 2, 2, 5);
+    }
+
+    private Pagamento pagamentoExistente(long id, StatusPagamento status) {
+        Pagamento pagamento = novoPagamento(CPF_VALIDO);
+        pagamento.setId(id);
+        pagamento.setStatus(status);
+        pagamento.setVersao(0L);
+        return pagamento;
+    }
+
+    private Pagamento novoPagamento(String cpfCnpj) {
+        Pagamento pagamento = new Pagamento();
+        pagamento.setCpfCnpj(cpfCnpj);
+        pagamento.setValor(new BigDecimal("10.00"));
+        return pagamento;
+    }
+
+    @Test
+    void deveCriarItensValidosERejeitarInvalidos_ComResultadoPorItem() {
+        AtomicLong sequencia = new AtomicLong();
+        doAnswer(invocation -> {
+            Pagamento p = invocation.getArgument(0);
+            p.setId(sequencia.incrementAndGet());
+            return null;
+        }).when(entityManager).persist(any(Pagamento.class));
+
+        List<Pagamento> lote = new ArrayList<>(List.of(novoPagamento(CPF_VALIDO), novoPagamento("123")));
+        lote.add(null);
+        lote.add(novoPagamento(CPF_VALIDO));
+
+        ResultadoLote resultado = service.criarPagamentosEmLote(lote);
+
+        assertEquals(4, resultado.total());
+        assertEquals(2, resultado.criados());
+        assertEquals(2, resultado.rejeitados());
+        assertEquals(1L, resultado.itens().get(0).id());
+        assertFalse(resultado.itens().get(1).sucesso());
+        assertTrue(resultado.itens().get(1).erro().contains("CPF/CNPJ inválido."));
+        assertFalse(resultado.itens().get(2).sucesso());
+        assertEquals(2L, resultado.itens().get(3).id());
+        assertEquals(StatusPagamento.PENDENTE, lote.get(0).getStatus());
+        verify(entityManager, times(2)).persist(any(Pagamento.class));
+        verify(eventos, times(2)).publishEvent(any(Object.class));
+        verifyNoInteractions(repository);
+    }
+
+    @Test
+    void deveDescarregarContextoACadaChunk() {
+        List<Pagamento> lote = List.of(novoPagamento(CPF_VALIDO), novoPagamento(CPF_VALIDO), novoPagamento(CPF_VALIDO));
+
+        service.criarPagamentosEmLote(lote);
+
+        // Um flush ao completar o chunk de 2 itens e outro ao final, para o item restante.
+        verify(entityManager, times(2)).flush();
+        verify(entityManager, times(2)).clear();
+    }
+
+    @Test
+    void deveLancarExcecao_QuandoLoteExcedeTamanhoMaximo() {
+        List<Pagamento> lote = Collections.nCopies(6, novoPagamento(CPF_VALIDO));
+
+        RuntimeException exception = assertThrows(RuntimeException.class, () -> {
+            service.criarPagamentosEmLote(lote);
+        });
+
+        assertEquals("O lote excede o tamanho máximo de 5 pagamentos.", exception.getMessage());
+        verifyNoInteractions(entityManager);
+    }
+
+    // --- Testes para atualizarStatusEmLote (PATCH /pagamentos/status) ---
+
+    @Test
+    void deveAtualizarEmChunksEReportarResultadoPorId() {
+        when(repository.findByIdIn(List.of(1L, 2L)))
+                .thenReturn(List.of(pagamentoExistente(1L, StatusPagamento.PENDENTE),
+                        pagamentoExistente(2L, StatusPagamento.PROCESSADO_SUCESSO)));
+        when(repository.findByIdIn(List.of(3L, 4L)))
+                .thenReturn(List.of(pagamentoExistente(3L, StatusPagamento.PENDENTE)));
+        when(repository.atualizarStatusEmLoteSeOrigemPermitida(anyList(), eq(StatusPagamento.PROCESSADO_FALHA), anySet()))
+                .thenAnswer(invocation -> ((List<?>) invocation.getArgument(0)).size());
+
+        ResultadoAtualizacaoStatusLote resultado =
+                service.atualizarStatusEmLote(List.of(1L, 2L, 3L, 4L, 1L), StatusPagamento.PROCESSADO_FALHA);
+
+        assertEquals(4, resultado.total());
+        assertEquals(2, resultado.atualizados());
+        assertEquals(1, resultado.naoEncontrados());
+        assertEquals(1, resultado.rejeitados());
+        assertEquals(List.of(ResultadoAtualizacaoStatus.ATUALIZADO, ResultadoAtualizacaoStatus.REGRA_VIOLADA,
+                        ResultadoAtualizacaoStatus.ATUALIZADO, ResultadoAtualizacaoStatus.NAO_ENCONTRADO),
+                resultado.itens().stream().map(ItemAtualizacaoStatus::resultado).toList());
+        assertEquals("Pagamento processado com sucesso. Não pode ser alterado.", resultado.itens().get(1).erro());
+
+        verify(repository).atualizarStatusEmLoteSeOrigemPermitida(List.of(1L), StatusPagamento.PROCESSADO_FALHA,
+                EnumSet.of(StatusPagamento.PENDENTE));
+        verify(repository).atualizarStatusEmLoteSeOrigemPermitida(List.of(3L), StatusPagamento.PROCESSADO_FALHA,
+                EnumSet.of(StatusPagamento.PENDENTE));
+        ArgumentCaptor<PagamentoAlteradoEvent> publicados = ArgumentCaptor.forClass(PagamentoAlteradoEvent.class);
+        verify(eventos, times(2)).publishEvent(publicados.capture());
+        for (PagamentoAlteradoEvent evento : publicados.getAllValues()) {
+            assertEquals(StatusPagamento.PENDENTE, evento.statusAnterior());
+            assertEquals(StatusPagamento.PROCESSADO_FALHA, evento.pagamento().getStatus());
+        }
+    }
+
+    @Test
+    void deveLancarExcecao_QuandoLoteDeStatusContemIdNulo() {
+        List<Long> ids = new ArrayList<>(List.of(1L));
+        ids.add(null);
+
+        RuntimeException exception = assertThrows(RuntimeException.class, () -> {
+            service.atualizarStatusEmLote(ids, StatusPagamento.PROCESSADO_SUCESSO);
+        });
+
+        assertEquals("O lote não pode conter IDs nulos.", exception.getMessage());
+        verifyNoInteractions(repository);
+    }
+}
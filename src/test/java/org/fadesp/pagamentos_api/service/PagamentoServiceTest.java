@@ -1,19 +1,32 @@
 package org.fadesp.pagamentos_api.service;
 
+import org.fadesp.pagamentos_api.dto.Pagina;
+import org.fadesp.pagamentos_api.dto.PagamentoDTO;
 import org.fadesp.pagamentos_api.enums.StatusPagamento;
+import org.fadesp.pagamentos_api.enums.TipoAlteracaoPagamento;
+import org.fadesp.pagamentos_api.evento.PagamentoAlteradoEvent;
+import org.fadesp.pagamentos_api.excecao.DadosInvalidosException;
+import org.fadesp.pagamentos_api.fragmentacao.Fragmentacao;
 import org.fadesp.pagamentos_api.model.Pagamento;
+import org.fadesp.pagamentos_api.repository.PagamentoArquivadoRepository;
 import org.fadesp.pagamentos_api.repository.PagamentoRepository;
 
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.domain.Specification;
 
 import java.math.BigDecimal;
+import java.time.Instant;
 import java.util.Arrays;
+import java.util.EnumSet;
 import java.util.List;
 import java.util.Optional;
 
@@ -26,13 +39,28 @@ class PagamentoServiceTest {
     @Mock
     private PagamentoRepository repository;
 
+    @Mock
+    private PagamentoArquivadoRepository arquivo;
+
+    @Mock
+    private PagamentoCache cache;
+
+    @Mock
+    private ApplicationEventPublisher eventos;
+
+    @Mock
+    private TokenizadorCartao tokenizador;
+
+    @Spy
+    private Fragmentacao fragmentacao = Fragmentacao.unico();
+
     @InjectMocks
     private PagamentoService service;
 
     private Pagamento pagamentoPendente;
     private final Long ID_PAGAMENTO = 1L;
-    private final String CPF_VALIDO = "12345678901";
-    private final String CNPJ_VALIDO = "12345678901234";
+    private final String CPF_VALIDO = "52998224725";
+    private final String CNPJ_VALIDO = "11222333000181";
 
     @BeforeEach
     void setUp() {
@@ -63,7 +91,10 @@ class PagamentoServiceTest {
         assertNotNull(resultado.getId());
         assertEquals(StatusPagamento.PENDENTE, resultado.getStatus());
         assertTrue(resultado.getAtivo());
+        assertNotNull(resultado.getCriadoEm());
+        assertEquals(resultado.getCriadoEm(), resultado.getAtualizadoEm());
         verify(repository, times(1)).save(novoPagamento);
+        verify(eventos).publishEvent(PagamentoAlteradoEvent.criado(resultado));
     }
 
     @Test
@@ -92,49 +123,149 @@ class PagamentoServiceTest {
         verify(repository, never()).save(any(Pagamento.class));
     }
 
+    @Test
+    void deveLancarExcecao_AoCriarComDigitoVerificadorInvalido() {
+        Pagamento novoPagamento = new Pagamento();
+        novoPagamento.setCpfCnpj("52998224726");
+
+        RuntimeException exception = assertThrows(RuntimeException.class, () -> {
+            service.criarPagamento(novoPagamento);
+        });
+
+        assertEquals("CPF/CNPJ inválido. Dígitos verificadores não conferem.", exception.getMessage());
+        verify(repository, never()).save(any(Pagamento.class));
+    }
+
+    @Test
+    void deveGravarCpfCnpjNormalizado_AoCriarComDocumentoFormatado() {
+        Pagamento novoPagamento = new Pagamento();
+        novoPagamento.setCpfCnpj("11.222.333/0001-81");
+        when(repository.save(any(Pagamento.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        Pagamento resultado = service.criarPagamento(novoPagamento);
+
+        assertEquals(CNPJ_VALIDO, resultado.getCpfCnpj());
+    }
+
+    // --- Testes para buscarPagamento (GET /{id}) ---
+
+    @Test
+    void deveBuscarPagamentoPeloCache() {
+        when(cache.buscar(eq(ID_PAGAMENTO), any())).thenReturn(Optional.of(PagamentoDTO.de(pagamentoPendente)));
+
+        PagamentoDTO resultado = service.buscarPagamento(ID_PAGAMENTO);
+
+        assertEquals(PagamentoDTO.de(pagamentoPendente), resultado);
+        verify(repository, never()).findById(any());
+    }
+
+    @Test
+    void deveLancarExcecao_QuandoPagamentoNaoEncontradoNaBusca() {
+        when(cache.buscar(eq(ID_PAGAMENTO), any())).thenReturn(Optional.empty());
+
+        RuntimeException exception = assertThrows(RuntimeException.class, () -> {
+            service.buscarPagamento(ID_PAGAMENTO);
+        });
+
+        assertEquals("Pagamento não encontrado", exception.getMessage());
+    }
+
     // --- Testes para listarPagamentos (GET) ---
 
     @Test
-    void deveRetornarTodosOsPagamentos() {
+    void deveRetornarPrimeiraPaginaSemCursor_QuandoNaoHaMaisResultados() {
         Pagamento pag2 = new Pagamento();
         pag2.setId(2L);
         pag2.setCpfCnpj(CNPJ_VALIDO);
         pag2.setStatus(StatusPagamento.PROCESSADO_SUCESSO);
 
-        List<Pagamento> listaEsperada = Arrays.asList(pagamentoPendente, pag2);
+        List<PagamentoDTO> listaEsperada = Arrays.asList(PagamentoDTO.de(pagamentoPendente), PagamentoDTO.de(pag2));
 
-        when(repository.findAll()).thenReturn(listaEsperada);
+        when(repository.findByIdGreaterThanAndAtivoTrueOrderByIdAsc(0L, Limit.of(11))).thenReturn(listaEsperada);
 
-        List<Pagamento> resultado = service.listarPagamentos();
+        Pagina<PagamentoDTO> resultado = service.listarPagamentos(null, 10, false);
 
         assertNotNull(resultado);
-        assertEquals(2, resultado.size());
-        verify(repository, times(1)).findAll();
+        assertEquals(2, resultado.itens().size());
+        assertNull(resultado.proximoCursor());
+        verify(repository, never()).findAll();
+    }
+
+    @Test
+    void deveRetornarCursorDaProximaPagina_QuandoExistemMaisResultados() {
+        PagamentoDTO pag1 = PagamentoDTO.de(pagamentoPendente);
+        PagamentoDTO pag2 = new PagamentoDTO(2L, null, null, null, null, null, null, null, null, null, null);
+        PagamentoDTO pag3 = new PagamentoDTO(3L, null, null, null, null, null, null, null, null, null, null);
+
+        when(repository.findByIdGreaterThanAndAtivoTrueOrderByIdAsc(0L, Limit.of(3)))
+                .thenReturn(Arrays.asList(pag1, pag2, pag3));
+        when(repository.findByIdGreaterThanAndAtivoTrueOrderByIdAsc(2L, Limit.of(3)))
+                .thenReturn(List.of(pag3));
+
+        Pagina<PagamentoDTO> primeira = service.listarPagamentos(null, 2, false);
+
+        assertEquals(2, primeira.itens().size());
+        assertNotNull(primeira.proximoCursor());
+
+        Pagina<PagamentoDTO> segunda = service.listarPagamentos(primeira.proximoCursor(), 2, false);
+
+        assertEquals(List.of(pag3), segunda.itens());
+        assertNull(segunda.proximoCursor());
+    }
+
+    @Test
+    void deveLancarExcecao_QuandoCursorInvalido() {
+        RuntimeException exception = assertThrows(RuntimeException.class, () -> {
+            service.listarPagamentos("@@invalido@@", 10, false);
+        });
+
+        assertEquals("Cursor de paginação inválido.", exception.getMessage());
+    }
+
+    @Test
+    void deveLancarExcecao_QuandoTamanhoDePaginaAcimaDoMaximo() {
+        assertThrows(RuntimeException.class, () -> {
+            service.listarPagamentos(null, PagamentoService.TAMANHO_PAGINA_MAXIMO + 1, false);
+        });
+
+        verifyNoInteractions(repository);
     }
 
     // --- Testes para filtrarPagamentos (GET /filtro) ---
 
     @Test
-    void deveChamarFindAllComSpecification_QuandoFiltroIDFornecido() {
+    void deveUsarCache_QuandoFiltroIDFornecido() {
         Long filtroId = 1L;
 
-        when(repository.findAll(any(Specification.class))).thenReturn(Arrays.asList(pagamentoPendente));
+        when(cache.buscar(eq(filtroId), any())).thenReturn(Optional.of(PagamentoDTO.de(pagamentoPendente)));
 
-        service.filtrarPagamentos(filtroId, null, null, null);
+        Pagina<PagamentoDTO> resultado = service.filtrarPagamentos(filtroId, null, null, null, null, false, null, 50);
 
-        verify(repository, times(1)).findAll(any(Specification.class));
+        assertEquals(List.of(PagamentoDTO.de(pagamentoPendente)), resultado.itens());
+        verify(repository, never()).filtrarProjetado(any(Specification.class), anyInt());
         verify(repository, never()).findAll();
     }
 
     @Test
-    void deveChamarFindAllComSpecification_QuandoFiltroCpfCnpjValidoFornecido() {
+    void deveAplicarDemaisCriteriosEmMemoria_QuandoFiltroIDFornecido() {
+        when(cache.buscar(eq(ID_PAGAMENTO), any())).thenReturn(Optional.of(PagamentoDTO.de(pagamentoPendente)));
+
+        Pagina<PagamentoDTO> resultado = service.filtrarPagamentos(ID_PAGAMENTO, null, null, StatusPagamento.PROCESSADO_SUCESSO, null, false, null, 50);
+
+        assertTrue(resultado.itens().isEmpty());
+        assertNull(resultado.proximoCursor());
+    }
+
+    @Test
+    void deveConsultarProjecaoComSpecification_QuandoFiltroCpfCnpjValidoFornecido() {
         String filtroCpf = CPF_VALIDO;
 
-        when(repository.findAll(any(Specification.class))).thenReturn(Arrays.asList(pagamentoPendente));
+        when(repository.filtrarProjetado(any(Specification.class), anyInt()))
+                .thenReturn(List.of(PagamentoDTO.de(pagamentoPendente)));
 
-        service.filtrarPagamentos(null, null, filtroCpf, null);
+        service.filtrarPagamentos(null, null, filtroCpf, null, null, false, null, 50);
 
-        verify(repository, times(1)).findAll(any(Specification.class));
+        verify(repository, times(1)).filtrarProjetado(any(Specification.class), eq(51));
     }
 
     @Test
@@ -142,11 +273,37 @@ class PagamentoServiceTest {
         String filtroCpfInvalido = "123";
 
         RuntimeException exception = assertThrows(RuntimeException.class, () -> {
-            service.filtrarPagamentos(null, null, filtroCpfInvalido, null);
+            service.filtrarPagamentos(null, null, filtroCpfInvalido, null, null, false, null, 50);
         });
 
         assertTrue(exception.getMessage().contains("CPF/CNPJ inválido."));
-        verify(repository, never()).findAll(any(Specification.class));
+        verify(repository, never()).filtrarProjetado(any(Specification.class), anyInt());
+    }
+
+    @Test
+    void deveConsultarEmOrdemDeAtualizacaoComCursorProprio_QuandoIntervaloFornecido() {
+        Instant desde = Instant.parse("2026-10-01T00:00:00Z");
+        PagamentoDTO pag1 = new PagamentoDTO(9L, null, null, null, null, null, null, true, 0L, desde, desde.plusSeconds(5));
+        PagamentoDTO pag2 = new PagamentoDTO(4L, null, null, null, null, null, null, true, 1L, desde, desde.plusSeconds(7));
+
+        when(repository.filtrarProjetadoPorAtualizacao(any(Specification.class), eq(2)))
+                .thenReturn(List.of(pag1, pag2));
+
+        Pagina<PagamentoDTO> resultado = service.filtrarPagamentos(null, null, null, null, null, desde, null, false, null, 1);
+
+        assertEquals(List.of(pag1), resultado.itens());
+        assertEquals(CursorPaginacao.codificar(pag1.atualizadoEm(), pag1.id()), resultado.proximoCursor());
+        verify(repository, never()).filtrarProjetado(any(Specification.class), anyInt());
+    }
+
+    @Test
+    void deveLancarExcecao_QuandoIntervaloDeAtualizacaoVazio() {
+        Instant instante = Instant.parse("2026-10-01T00:00:00Z");
+
+        assertThrows(DadosInvalidosException.class, () ->
+                service.filtrarPagamentos(null, null, null, null, null, instante, instante, false, null, 50));
+
+        verifyNoInteractions(repository);
     }
 
 
@@ -155,88 +312,122 @@ class PagamentoServiceTest {
     @Test
     void deveAtualizarStatusComSucesso_DePendenteParaSucesso() {
         StatusPagamento novoStatus = StatusPagamento.PROCESSADO_SUCESSO;
+        when(repository.atualizarStatusSeOrigemPermitida(ID_PAGAMENTO, novoStatus, EnumSet.of(StatusPagamento.PENDENTE)))
+                .thenReturn(Optional.of(StatusPagamento.PENDENTE));
+        pagamentoPendente.setStatus(novoStatus);
         when(repository.findById(ID_PAGAMENTO)).thenReturn(Optional.of(pagamentoPendente));
-        when(repository.save(any(Pagamento.class))).thenAnswer(i -> i.getArguments()[0]);
 
         Pagamento resultado = service.atualizarStatusPagamento(ID_PAGAMENTO, novoStatus);
 
         assertEquals(novoStatus, resultado.getStatus());
-        verify(repository, times(1)).save(any(Pagamento.class));
+        ArgumentCaptor<PagamentoAlteradoEvent> evento = ArgumentCaptor.forClass(PagamentoAlteradoEvent.class);
+        verify(eventos).publishEvent(evento.capture());
+        assertEquals(TipoAlteracaoPagamento.STATUS_ALTERADO, evento.getValue().tipo());
+        assertEquals(StatusPagamento.PENDENTE, evento.getValue().statusAnterior());
+        verify(repository, never()).findStatusById(any());
+        verify(repository, never()).save(any(Pagamento.class));
+    }
+
+    @Test
+    void deveVoltarParaPendente_SomenteAPartirDeFalha() {
+        when(repository.atualizarStatusSeOrigemPermitida(ID_PAGAMENTO, StatusPagamento.PENDENTE,
+                EnumSet.of(StatusPagamento.PROCESSADO_FALHA))).thenReturn(Optional.of(StatusPagamento.PROCESSADO_FALHA));
+        when(repository.findById(ID_PAGAMENTO)).thenReturn(Optional.of(pagamentoPendente));
+
+        Pagamento resultado = service.atualizarStatusPagamento(ID_PAGAMENTO, StatusPagamento.PENDENTE);
+
+        assertEquals(StatusPagamento.PENDENTE, resultado.getStatus());
     }
 
     @Test
     void deveLancarExcecao_AoTentarAlterarParaOMesmoStatus() {
         StatusPagamento statusAtual = StatusPagamento.PENDENTE;
-        when(repository.findById(ID_PAGAMENTO)).thenReturn(Optional.of(pagamentoPendente));
+        when(repository.atualizarStatusSeOrigemPermitida(eq(ID_PAGAMENTO), eq(statusAtual), any())).thenReturn(Optional.empty());
+        when(repository.findStatusById(ID_PAGAMENTO)).thenReturn(Optional.of(StatusPagamento.PENDENTE));
 
         RuntimeException exception = assertThrows(RuntimeException.class, () -> {
             service.atualizarStatusPagamento(ID_PAGAMENTO, statusAtual);
         });
 
         assertTrue(exception.getMessage().contains("Não é permitida a alteração para o mesmo status."));
-        verify(repository, never()).save(any(Pagamento.class));
+        verify(repository, never()).findById(any());
     }
 
     @Test
     void deveLancarExcecao_AoTentarAlterarPagamentoProcessadoSucesso() {
-        pagamentoPendente.setStatus(StatusPagamento.PROCESSADO_SUCESSO);
-        when(repository.findById(ID_PAGAMENTO)).thenReturn(Optional.of(pagamentoPendente));
+        when(repository.atualizarStatusSeOrigemPermitida(eq(ID_PAGAMENTO), eq(StatusPagamento.PROCESSADO_FALHA), any()))
+                .thenReturn(Optional.empty());
+        when(repository.findStatusById(ID_PAGAMENTO)).thenReturn(Optional.of(StatusPagamento.PROCESSADO_SUCESSO));
 
         RuntimeException exception = assertThrows(RuntimeException.class, () -> {
             service.atualizarStatusPagamento(ID_PAGAMENTO, StatusPagamento.PROCESSADO_FALHA);
         });
 
         assertEquals("Pagamento processado com sucesso. Não pode ser alterado.", exception.getMessage());
-        verify(repository, never()).save(any(Pagamento.class));
+    }
+
+    @Test
+    void deveLancarExcecao_AoTentarAlterarFalhaParaSucesso() {
+        when(repository.atualizarStatusSeOrigemPermitida(eq(ID_PAGAMENTO), eq(StatusPagamento.PROCESSADO_SUCESSO), any()))
+                .thenReturn(Optional.empty());
+        when(repository.findStatusById(ID_PAGAMENTO)).thenReturn(Optional.of(StatusPagamento.PROCESSADO_FALHA));
+
+        RuntimeException exception = assertThrows(RuntimeException.class, () -> {
+            service.atualizarStatusPagamento(ID_PAGAMENTO, StatusPagamento.PROCESSADO_SUCESSO);
+        });
+
+        assertEquals("Pagamento com falha só pode voltar para PENDENTE.", exception.getMessage());
     }
 
     @Test
     void deveLancarExcecao_QuandoPagamentoNaoEncontradoNoPatch() {
-        when(repository.findById(ID_PAGAMENTO)).thenReturn(Optional.empty());
+        when(repository.atualizarStatusSeOrigemPermitida(eq(ID_PAGAMENTO), any(), any())).thenReturn(Optional.empty());
+        when(repository.findStatusById(ID_PAGAMENTO)).thenReturn(Optional.empty());
 
         RuntimeException exception = assertThrows(RuntimeException.class, () -> {
             service.atualizarStatusPagamento(ID_PAGAMENTO, StatusPagamento.PROCESSADO_SUCESSO);
         });
 
         assertEquals("Pagamento não encontrado", exception.getMessage());
-        verify(repository, never()).save(any(Pagamento.class));
     }
 
     // --- Testes para excluirPagamento (DELETE/Inativação) ---
 
     @Test
     void deveExcluirPagamentoComSucesso_QuandoPendente() {
+        when(repository.inativarSePendente(ID_PAGAMENTO)).thenReturn(1);
+        pagamentoPendente.setAtivo(false);
         when(repository.findById(ID_PAGAMENTO)).thenReturn(Optional.of(pagamentoPendente));
-        when(repository.save(any(Pagamento.class))).thenAnswer(i -> i.getArguments()[0]);
 
         Pagamento resultado = service.excluirPagamento(ID_PAGAMENTO);
 
         assertFalse(resultado.getAtivo());
-        verify(repository, times(1)).save(any(Pagamento.class));
+        verify(repository, never()).save(any(Pagamento.class));
     }
 
     @Test
     void deveLancarExcecao_AoTentarExcluirPagamentoNaoPendente() {
-        pagamentoPendente.setStatus(StatusPagamento.PROCESSADO_FALHA);
-        when(repository.findById(ID_PAGAMENTO)).thenReturn(Optional.of(pagamentoPendente));
+        when(repository.inativarSePendente(ID_PAGAMENTO)).thenReturn(0);
+        when(repository.findStatusById(ID_PAGAMENTO)).thenReturn(Optional.of(StatusPagamento.PROCESSADO_FALHA));
 
         RuntimeException exception = assertThrows(RuntimeException.class, () -> {
             service.excluirPagamento(ID_PAGAMENTO);
         });
 
         assertEquals("Somente pagamentos pendentes podem ser inativados.", exception.getMessage());
-        verify(repository, never()).save(any(Pagamento.class));
+        verify(repository, never()).findById(any());
+        verifyNoInteractions(eventos);
     }
 
     @Test
     void deveLancarExcecao_QuandoPagamentoNaoEncontradoNoDelete() {
-        when(repository.findById(ID_PAGAMENTO)).thenReturn(Optional.empty());
+        when(repository.inativarSePendente(ID_PAGAMENTO)).thenReturn(0);
+        when(repository.findStatusById(ID_PAGAMENTO)).thenReturn(Optional.empty());
 
         RuntimeException exception = assertThrows(RuntimeException.class, () -> {
             service.excluirPagamento(ID_PAGAMENTO);
         });
 
         assertEquals("Pagamento não encontrado", exception.getMessage());
-        verify(repository, never()).save(any(Pagamento.class));
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,78 @@
+package org.fadesp.pagamentos_api.util;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CpfCnpjTest {
+
+    @Test
+    void deveAceitarCpfECnpjValidos_ComOuSemFormatacao() {
+        assertEquals(CpfCnpj.TAMANHO_CPF, CpfCnpj.verificar("52998224725"));
+        assertEquals(CpfCnpj.TAMANHO_CPF, CpfCnpj.verificar("529.982.247-25"));
+        assertEquals(CpfCnpj.TAMANHO_CNPJ, CpfCnpj.verificar("11222333000181"));
+        assertEquals(CpfCnpj.TAMANHO_CNPJ, CpfCnpj.verificar("11.222.333/0001-81"));
+        // Zeros à esquerda fazem parte do documento.
+        assertEquals(CpfCnpj.TAMANHO_CPF, CpfCnpj.verificar("00000000191"));
+    }
+
+    @Test
+    void deveRejeitarDocumentoVazio() {
+        assertEquals(CpfCnpj.VAZIO, CpfCnpj.verificar(null));
+        assertEquals(CpfCnpj.VAZIO, CpfCnpj.verificar(""));
+        assertEquals(CpfCnpj.VAZIO, CpfCnpj.verificar("   "));
+    }
+
+    @Test
+    void deveRejeitarTamanhoInvalido() {
+        assertEquals(CpfCnpj.TAMANHO_INVALIDO, CpfCnpj.verificar("12345"));
+        assertEquals(CpfCnpj.TAMANHO_INVALIDO, CpfCnpj.verificar("abc"));
+        assertEquals(CpfCnpj.TAMANHO_INVALIDO, CpfCnpj.verificar("1122233300018100"));
+    }
+
+    @Test
+    void deveRejeitarDigitoVerificadorInvalido() {
+        assertEquals(CpfCnpj.DIGITO_VERIFICADOR_INVALIDO, CpfCnpj.verificar("52998224726"));
+        assertEquals(CpfCnpj.DIGITO_VERIFICADOR_INVALIDO, CpfCnpj.verificar("11222333000182"));
+        assertEquals(CpfCnpj.DIGITO_VERIFICADOR_INVALIDO, CpfCnpj.verificar("111.111.111-11"));
+        assertEquals(CpfCnpj.DIGITO_VERIFICADOR_INVALIDO, CpfCnpj.verificar("00000000000000"));
+    }
+
+    @Test
+    void deveNormalizarParaSomenteDigitos() {
+        String somenteDigitos = "52998224725";
+
+        assertSame(somenteDigitos, CpfCnpj.normalizar(somenteDigitos));
+        assertEquals(somenteDigitos, CpfCnpj.normalizar("529.982.247-25"));
+        assertEquals("11222333000181", CpfCnpj.normalizar("11.222.333/0001-81"));
+    }
+
+    @Test
+    void deveLancarExcecaoComMensagemDeValidacao_AoNormalizarDocumentoInvalido() {
+        assertEquals("CPF ou CNPJ não pode ser vazio.",
+                assertThrows(RuntimeException.class, () -> CpfCnpj.normalizar(" ")).getMessage());
+        assertEquals("CPF/CNPJ inválido. Deve conter 11 (CPF) ou 14 (CNPJ) dígitos numéricos.",
+                assertThrows(RuntimeException.class, () -> CpfCnpj.normalizar("123")).getMessage());
+        assertEquals("CPF/CNPJ inválido. Dígitos verificadores não conferem.",
+                assertThrows(RuntimeException.class, () -> CpfCnpj.normalizar("52998224726")).getMessage());
+    }
+
+    @Test
+    void chave_DeveSerAMesmaParaQualquerFormato_ESepararCpfDeCnpj() {
+        long cpf = CpfCnpj.paraChave("529.982.247-25");
+
+        assertEquals(cpf, CpfCnpj.paraChave("52998224725"));
+        assertEquals("52998224725", CpfCnpj.deChave(cpf));
+        assertEquals("11222333000181", CpfCnpj.deChave(CpfCnpj.paraChave("11.222.333/0001-81")));
+
+        // Mesmo valor numérico com 11 e com 14 dígitos: o prefixo mantém os documentos distintos e os zeros à esquerda.
+        long cpfComZeros = CpfCnpj.paraChave("00000000191");
+        long cnpjComZeros = CpfCnpj.paraChave("00000000000191");
+        assertNotEquals(cpfComZeros, cnpjComZeros);
+        assertEquals("00000000191", CpfCnpj.deChave(cpfComZeros));
+        assertEquals("00000000000191", CpfCnpj.deChave(cnpjComZeros));
+
+        assertThrows(RuntimeException.class, () -> CpfCnpj.paraChave("12345"));
+        assertThrows(RuntimeException.class, () -> CpfCnpj.paraChave("1122233300018100"));
+    }
+}